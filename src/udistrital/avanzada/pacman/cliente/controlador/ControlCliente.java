@@ -2,8 +2,12 @@ package udistrital.avanzada.pacman.cliente.controlador;
 
 import udistrital.avanzada.pacman.cliente.modelo.EstadoConexion;
 import udistrital.avanzada.pacman.cliente.vista.VentanaCliente;
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.util.ClienteVideoUDP;
 import udistrital.avanzada.pacman.util.Configuracion;
+import udistrital.avanzada.pacman.util.FragmentosVideo;
 import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.util.MensajeProtocolo;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
@@ -34,6 +38,9 @@ public class ControlCliente {
     private ManejadorSockets manejadorSockets;
     private Thread hiloReceptor;
     private StreamReceiver streamReceiver;
+    private ClienteVideoUDP videoUDP;
+    private boolean pedirVideoUDP;
+    private String hostServidor;
     private boolean clienteActivo;
     
     /**
@@ -109,13 +116,17 @@ public class ControlCliente {
         
         String serverIp = Configuracion.obtenerPropiedad(props, "server.ip", "localhost");
         String serverPortStr = Configuracion.obtenerPropiedad(props, "socket.port", "9090");
+        ManejadorSockets.Protocolo protocolo = ManejadorSockets.Protocolo.desdePropiedad(
+            Configuracion.obtenerPropiedad(props, "protocol", "legacy"), ManejadorSockets.Protocolo.LEGADO);
+        pedirVideoUDP = Configuracion.obtenerPropiedad(props, "video.transport", "tcp").equalsIgnoreCase("udp");
+        hostServidor = serverIp;
         
         try {
             int serverPort = Integer.parseInt(serverPortStr);
             
             // Conectar al servidor
             Socket socket = new Socket(serverIp, serverPort);
-            manejadorSockets = new ManejadorSockets(socket);
+            manejadorSockets = new ManejadorSockets(socket, protocolo);
             
             modelo.setConectado(true);
             vista.getBtnConectar().setText("Desconectar");
@@ -183,12 +194,30 @@ public class ControlCliente {
                     });
                     // Iniciar recepción de video una vez autenticado
                     if (streamReceiver == null || !streamReceiver.isAlive()) {
-                        streamReceiver = new StreamReceiver(manejadorSockets, vista.getLabelVideo());
+                        streamReceiver = new StreamReceiver(manejadorSockets, vista.getPanelVideo());
                         streamReceiver.start();
                     }
+                    if (pedirVideoUDP) {
+                        manejadorSockets.escribirLinea(FragmentosVideo.COMANDO);
+                    }
                     continue;
                 }
                 
+                if (msg.startsWith(FragmentosVideo.COMANDO + ":")) {
+                    iniciarVideoUDP(msg);
+                    continue;
+                }
+                
+                if (msg.startsWith("Servidor ocupado")) {
+                    SwingUtilities.invokeLater(() -> {
+                        vista.agregarMensaje("Servidor: " + msg);
+                        JOptionPane.showMessageDialog(vista, msg, "Servidor ocupado",
+                            JOptionPane.WARNING_MESSAGE);
+                        desconectar();
+                    });
+                    break;
+                }
+                
                 if (msg.contains("Credenciales inválidas")) {
                     SwingUtilities.invokeLater(() -> {
                         modelo.setAutenticado(false);
@@ -226,6 +255,23 @@ public class ControlCliente {
         }
     }
     
+    /**
+     * Atiende la respuesta del servidor a la solicitud de video UDP.
+     */
+    private void iniciarVideoUDP(String respuesta) {
+        ClienteVideoUDP receptor = ClienteVideoUDP.desdeRespuesta(manejadorSockets, hostServidor, respuesta);
+        if (receptor == null) {
+            SwingUtilities.invokeLater(() ->
+                vista.agregarMensaje("El servidor no ofrece video UDP; el video sigue por TCP"));
+            return;
+        }
+        if (videoUDP == null || !videoUDP.isAlive()) {
+            videoUDP = receptor;
+            videoUDP.start();
+            SwingUtilities.invokeLater(() -> vista.agregarMensaje("Video por UDP"));
+        }
+    }
+    
     /**
      * Envía un comando al servidor.
      */
@@ -242,7 +288,17 @@ public class ControlCliente {
         }
         
         if (manejadorSockets != null && !manejadorSockets.estaCerrado()) {
-            manejadorSockets.escribirLinea(comando);
+            // En protocolo binario los movimientos viajan como código de un byte;
+            // varios comandos en una línea ("arriba, arriba, der") forman un lote
+            Direccion[] direcciones = Direccion.parsearVarias(comando);
+            boolean binario = manejadorSockets.getProtocolo() == ManejadorSockets.Protocolo.BINARIO;
+            if (binario && direcciones != null && direcciones.length == 1) {
+                manejadorSockets.enviarMensaje(MensajeProtocolo.movimiento(direcciones[0]));
+            } else if (binario && direcciones != null && direcciones.length <= MensajeProtocolo.MAX_LOTE) {
+                manejadorSockets.enviarMensaje(MensajeProtocolo.loteMovimientos(direcciones));
+            } else {
+                manejadorSockets.escribirLinea(comando);
+            }
             vista.agregarMensaje("Cliente: " + comando);
             vista.getCampoComando().setText("");
         } else {
@@ -264,6 +320,9 @@ public class ControlCliente {
         if (streamReceiver != null && streamReceiver.isAlive()) {
             streamReceiver.stopStreaming();
         }
+        if (videoUDP != null) {
+            videoUDP.detener();
+        }
         
         if (manejadorSockets != null) {
             manejadorSockets.cerrar();
@@ -287,6 +346,7 @@ public class ControlCliente {
             vista.agregarMensaje("  - abajo");
             vista.agregarMensaje("  - izquierda");
             vista.agregarMensaje("  - derecha");
+            vista.agregarMensaje("  Varios en una línea se envían como lote: arriba, arriba, derecha");
             vista.agregarMensaje("");
             vista.agregarMensaje("Notas:");
             vista.agregarMensaje("  - El juego corre en el servidor. Aquí sólo envías comandos y ves mensajes.");
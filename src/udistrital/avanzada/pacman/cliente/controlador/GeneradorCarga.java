@@ -0,0 +1,484 @@
+package udistrital.avanzada.pacman.cliente.controlador;
+
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.util.ClienteVideoUDP;
+import udistrital.avanzada.pacman.util.Configuracion;
+import udistrital.avanzada.pacman.util.DecodificadorJpeg;
+import udistrital.avanzada.pacman.util.DecodificadorPaleta;
+import udistrital.avanzada.pacman.util.FragmentosVideo;
+import udistrital.avanzada.pacman.util.FrameRecibido;
+import udistrital.avanzada.pacman.util.FramesDelta;
+import udistrital.avanzada.pacman.util.FramesEstado;
+import udistrital.avanzada.pacman.util.FramesPaleta;
+import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.util.MensajeProtocolo;
+import udistrital.avanzada.pacman.util.ReconstructorDelta;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga sin interfaz gráfica para pruebas de capacidad.
+ *
+ * <p>Abre N sesiones de bot concurrentes (hilos virtuales) con el mismo
+ * {@link ManejadorSockets} que usa el cliente Swing. Cada bot se autentica,
+ * envía movimientos al ritmo configurado, consume el video y, si el juego
+ * termina, vuelve a conectarse. Cada cierto tiempo se informan las sesiones
+ * activas, los movimientos y frames por segundo, los percentiles de latencia
+ * de los comandos y las fallas por tipo.
+ *
+ * <p>La latencia se mide desde el instante en que el movimiento debía salir
+ * según el ritmo, no desde que salió: si el servidor se atrasa, la espera
+ * acumulada también cuenta.
+ *
+ * <p>Uso: {@code java udistrital.avanzada.pacman.cliente.controlador.GeneradorCarga [carga.properties]}
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class GeneradorCarga {
+
+    private static final String RUTA_PROPERTIES = "src/data/carga.properties";
+    private static final Direccion[] DIRECCIONES = Direccion.values();
+
+    /**
+     * Tipos de falla contabilizados.
+     */
+    enum Falla {
+        /** No se pudo abrir la conexión o completar el saludo. */
+        CONEXION,
+        /** El servidor respondió "Servidor ocupado". */
+        RECHAZO,
+        /** Credenciales rechazadas o diálogo de autenticación inesperado. */
+        AUTENTICACION,
+        /** No llegó respuesta a un comando dentro del plazo. */
+        SIN_RESPUESTA,
+        /** La conexión se cerró durante el juego. */
+        CAIDA
+    }
+
+    private final String host;
+    private final int puerto;
+    private final ManejadorSockets.Protocolo protocolo;
+    private final String[][] credenciales;
+    private final int bots;
+    private final double movimientosPorSegundo;
+    private final long duracionMs;
+    private final long rampaMs;
+    private final long esperaRespuestaMs;
+    private final boolean decodificar;
+    private final boolean videoUDP;
+    private final long intervaloReporteMs;
+
+    private final Histograma latenciasVentana = new Histograma();
+    private final Histograma latenciasTotal = new Histograma();
+    private final LongAdder movimientos = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder bytesVideo = new LongAdder();
+    private final LongAdder sesionesIniciadas = new LongAdder();
+    private final LongAdder juegosTerminados = new LongAdder();
+    private final AtomicInteger activas = new AtomicInteger();
+    private final Map<Falla, LongAdder> fallas = new EnumMap<>(Falla.class);
+    private final Set<ManejadorSockets> conexiones = ConcurrentHashMap.newKeySet();
+    private volatile boolean corriendo = true;
+
+    /**
+     * Constructor del generador.
+     *
+     * @param props configuración (ver {@code src/data/carga.properties})
+     */
+    public GeneradorCarga(Properties props) {
+        this.host = Configuracion.obtenerPropiedad(props, "server.ip", "localhost");
+        this.puerto = Integer.parseInt(Configuracion.obtenerPropiedad(props, "socket.port", "9090"));
+        this.protocolo = ManejadorSockets.Protocolo.desdePropiedad(
+            Configuracion.obtenerPropiedad(props, "protocol", "binary"), ManejadorSockets.Protocolo.BINARIO);
+        String[] usuarios = Configuracion.obtenerPropiedad(props, "load.users", "player1:pass1").split(",");
+        this.credenciales = new String[usuarios.length][];
+        for (int i = 0; i < usuarios.length; i++) {
+            credenciales[i] = usuarios[i].trim().split(":", 2);
+        }
+        this.bots = Integer.parseInt(Configuracion.obtenerPropiedad(props, "load.bots", "50"));
+        this.movimientosPorSegundo = Double.parseDouble(
+            Configuracion.obtenerPropiedad(props, "load.moves.per.second", "2"));
+        this.duracionMs = TimeUnit.SECONDS.toMillis(
+            Long.parseLong(Configuracion.obtenerPropiedad(props, "load.duration.seconds", "60")));
+        this.rampaMs = TimeUnit.SECONDS.toMillis(
+            Long.parseLong(Configuracion.obtenerPropiedad(props, "load.ramp.seconds", "5")));
+        this.esperaRespuestaMs = Long.parseLong(Configuracion.obtenerPropiedad(props, "load.reply.timeout.ms", "5000"));
+        this.decodificar = Boolean.parseBoolean(Configuracion.obtenerPropiedad(props, "load.decode.frames", "false"));
+        this.videoUDP = Configuracion.obtenerPropiedad(props, "video.transport", "tcp").equalsIgnoreCase("udp");
+        this.intervaloReporteMs = TimeUnit.SECONDS.toMillis(
+            Long.parseLong(Configuracion.obtenerPropiedad(props, "load.report.seconds", "5")));
+        for (Falla f : Falla.values()) {
+            fallas.put(f, new LongAdder());
+        }
+    }
+
+    /**
+     * Método principal del generador de carga.
+     *
+     * @param args ruta opcional del archivo de propiedades
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Properties props = Configuracion.cargarPropiedades(args.length > 0 ? args[0] : RUTA_PROPERTIES);
+        new GeneradorCarga(props).ejecutar();
+        System.exit(0);
+    }
+
+    /**
+     * Lanza los bots, informa periódicamente y, al cumplirse la duración, los
+     * detiene e imprime el resumen.
+     *
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public void ejecutar() throws InterruptedException {
+        System.out.printf("Carga: %d bots contra %s:%d (%s, video %s), %.1f movimientos/s por bot, %d s%n",
+            bots, host, puerto, protocolo, videoUDP ? "UDP" : "TCP", movimientosPorSegundo, duracionMs / 1000);
+
+        List<Thread> hilos = new ArrayList<>(bots);
+        Thread rampa = Thread.ofVirtual().name("GeneradorCarga-Rampa").start(() -> {
+            long pausa = bots > 0 ? TimeUnit.MILLISECONDS.toNanos(rampaMs) / bots : 0;
+            for (int i = 0; i < bots && corriendo; i++) {
+                final int indice = i;
+                synchronized (hilos) {
+                    hilos.add(Thread.ofVirtual().name("Bot-" + i).start(() -> ejecutarBot(indice)));
+                }
+                LockSupport.parkNanos(pausa);
+            }
+        });
+
+        long inicio = System.nanoTime();
+        long fin = inicio + TimeUnit.MILLISECONDS.toNanos(duracionMs);
+        long movimientosPrevios = 0;
+        long framesPrevios = 0;
+        long bytesPrevios = 0;
+        long ultimoReporte = inicio;
+        long restante;
+        while ((restante = fin - System.nanoTime()) > 0) {
+            Thread.sleep(Math.min(intervaloReporteMs, TimeUnit.NANOSECONDS.toMillis(restante) + 1));
+            long ahora = System.nanoTime();
+            double segundos = (ahora - ultimoReporte) / 1e9;
+            long m = movimientos.sum();
+            long f = frames.sum();
+            long b = bytesVideo.sum();
+            System.out.printf("[%4d s] activas=%d | movs/s=%.1f | frames/s=%.1f (%.2f MB/s) | %s | fallas: %s%n",
+                TimeUnit.NANOSECONDS.toSeconds(ahora - inicio), activas.get(),
+                (m - movimientosPrevios) / segundos, (f - framesPrevios) / segundos,
+                (b - bytesPrevios) / segundos / (1024 * 1024), latenciasVentana, resumenFallas());
+            latenciasVentana.reiniciar();
+            movimientosPrevios = m;
+            framesPrevios = f;
+            bytesPrevios = b;
+            ultimoReporte = ahora;
+        }
+
+        double total = (System.nanoTime() - inicio) / 1e9;
+        corriendo = false;
+        rampa.join();
+        for (ManejadorSockets conexion : conexiones) {
+            conexion.cerrar();
+        }
+        synchronized (hilos) {
+            for (Thread hilo : hilos) {
+                hilo.join(esperaRespuestaMs);
+            }
+        }
+
+        System.out.println("=== Resumen ===");
+        System.out.printf("Sesiones iniciadas: %d, juegos terminados: %d%n",
+            sesionesIniciadas.sum(), juegosTerminados.sum());
+        System.out.printf("Movimientos: %d (%.1f/s)%n", movimientos.sum(), movimientos.sum() / total);
+        System.out.printf("Frames: %d (%.1f/s, %.2f MB/s)%n", frames.sum(), frames.sum() / total,
+            bytesVideo.sum() / total / (1024 * 1024));
+        System.out.println("Latencia: " + latenciasTotal);
+        System.out.println("Fallas: " + resumenFallas());
+    }
+
+    private String resumenFallas() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Falla, LongAdder> e : fallas.entrySet()) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(e.getKey()).append('=').append(e.getValue().sum());
+        }
+        return sb.toString();
+    }
+
+    private void fallar(Falla falla) {
+        if (corriendo) {
+            fallas.get(falla).increment();
+        }
+    }
+
+    private void ejecutarBot(int indice) {
+        String[] credencial = credenciales[indice % credenciales.length];
+        while (corriendo) {
+            if (!ejecutarSesion(credencial) && corriendo) {
+                // Tras una falla se espera un poco para no martillar al servidor
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    /**
+     * Ejecuta una sesión de principio a fin.
+     *
+     * @return true si terminó porque acabó el juego (el bot reconecta enseguida)
+     */
+    private boolean ejecutarSesion(String[] credencial) {
+        ManejadorSockets ms;
+        try {
+            Socket socket = new Socket();
+            socket.connect(new InetSocketAddress(host, puerto), (int) esperaRespuestaMs);
+            ms = new ManejadorSockets(socket, protocolo);
+        } catch (IOException e) {
+            fallar(e.getMessage() != null && e.getMessage().startsWith("Servidor ocupado")
+                ? Falla.RECHAZO : Falla.CONEXION);
+            return false;
+        }
+        conexiones.add(ms);
+        activas.incrementAndGet();
+        sesionesIniciadas.increment();
+        ClienteVideoUDP udp = null;
+        try {
+            if (!autenticar(ms, credencial)) {
+                return false;
+            }
+            Thread.ofVirtual().name("BotVideo").start(() -> consumirVideo(ms));
+            if (videoUDP) {
+                udp = pedirVideoUDP(ms);
+            }
+            return jugar(ms);
+        } finally {
+            activas.decrementAndGet();
+            conexiones.remove(ms);
+            ms.cerrar();
+            if (udp != null) {
+                udp.detener();
+            }
+        }
+    }
+
+    private boolean autenticar(ManejadorSockets ms, String[] credencial) {
+        String usuario = credencial[0];
+        String contraseña = credencial.length > 1 ? credencial[1] : "";
+        String linea = leerLinea(ms);
+        if (linea == null || !linea.startsWith("Usuario:")) {
+            return fallarAutenticacion(ms, linea);
+        }
+        ms.escribirLinea(usuario);
+        linea = leerLinea(ms);
+        if (linea == null || !linea.startsWith("Contraseña:")) {
+            return fallarAutenticacion(ms, linea);
+        }
+        ms.escribirLinea(contraseña);
+        linea = leerLinea(ms);
+        if (linea == null || !linea.contains("Autenticación exitosa")) {
+            return fallarAutenticacion(ms, linea);
+        }
+        // "Juego iniciado..."
+        return leerLinea(ms) != null || fallarAutenticacion(ms, null);
+    }
+
+    private boolean fallarAutenticacion(ManejadorSockets ms, String linea) {
+        if (linea != null && linea.startsWith("Servidor ocupado")) {
+            fallar(Falla.RECHAZO);
+        } else if (linea == null && ms.estaCerrado()) {
+            fallar(Falla.CONEXION);
+        } else if (linea == null) {
+            fallar(Falla.SIN_RESPUESTA);
+        } else {
+            fallar(Falla.AUTENTICACION);
+        }
+        return false;
+    }
+
+    private String leerLinea(ManejadorSockets ms) {
+        MensajeProtocolo m = ms.leerMensaje(esperaRespuestaMs, TimeUnit.MILLISECONDS);
+        return m != null ? m.toTexto() : null;
+    }
+
+    private ClienteVideoUDP pedirVideoUDP(ManejadorSockets ms) {
+        ms.escribirLinea(FragmentosVideo.COMANDO);
+        String respuesta = leerLinea(ms);
+        ClienteVideoUDP udp = respuesta != null ? ClienteVideoUDP.desdeRespuesta(ms, host, respuesta) : null;
+        if (udp != null) {
+            udp.start();
+        }
+        return udp;
+    }
+
+    /**
+     * Envía movimientos al ritmo configurado y mide la latencia de cada respuesta.
+     */
+    private boolean jugar(ManejadorSockets ms) {
+        if (movimientosPorSegundo <= 0) {
+            // Solo espectador: el lector responde los latidos
+            while (corriendo && !ms.estaCerrado()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            if (corriendo) {
+                fallar(Falla.CAIDA);
+            }
+            return false;
+        }
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        long periodo = (long) (1e9 / movimientosPorSegundo);
+        // Desfase aleatorio para que los bots no envíen todos a la vez
+        long programado = System.nanoTime() + aleatorio.nextLong(periodo);
+        while (corriendo) {
+            long espera;
+            while ((espera = programado - System.nanoTime()) > 0 && corriendo) {
+                LockSupport.parkNanos(espera);
+            }
+            if (!corriendo) {
+                return false;
+            }
+            Direccion direccion = DIRECCIONES[aleatorio.nextInt(DIRECCIONES.length)];
+            if (ms.getProtocolo() == ManejadorSockets.Protocolo.BINARIO) {
+                ms.enviarMensaje(MensajeProtocolo.movimiento(direccion));
+            } else {
+                ms.escribirLinea(direccion.getComando());
+            }
+            MensajeProtocolo respuesta = ms.leerMensaje(esperaRespuestaMs, TimeUnit.MILLISECONDS);
+            if (respuesta == null) {
+                fallar(ms.estaCerrado() ? Falla.CAIDA : Falla.SIN_RESPUESTA);
+                return false;
+            }
+            if (respuesta.toTexto().startsWith("FIN_JUEGO:")) {
+                // Llegó tras la respuesta al movimiento anterior; el servidor cierra
+                juegosTerminados.increment();
+                return true;
+            }
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - programado);
+            latenciasVentana.registrar(micros);
+            latenciasTotal.registrar(micros);
+            movimientos.increment();
+            programado += periodo;
+        }
+        return false;
+    }
+
+    private void consumirVideo(ManejadorSockets ms) {
+        ReconstructorDelta reconstructor = new ReconstructorDelta();
+        DecodificadorJpeg decodificador = null;
+        DecodificadorPaleta decodificadorPaleta = null;
+        BufferedImage imagen = null;
+        FrameRecibido frame;
+        while ((frame = ms.tomarFrameRecibido()) != null) {
+            try {
+                frames.increment();
+                bytesVideo.add(frame.getLongitud());
+                if (decodificar) {
+                    if (FramesDelta.esDelta(frame.getDatos(), frame.getLongitud())) {
+                        reconstructor.aplicar(frame.getDatos(), frame.getLongitud());
+                    } else if (FramesEstado.esEstado(frame.getDatos(), frame.getLongitud())) {
+                        FramesEstado.decodificar(frame.getDatos(), frame.getLongitud());
+                    } else if (FramesPaleta.esPaleta(frame.getDatos(), frame.getLongitud())) {
+                        if (decodificadorPaleta == null) {
+                            decodificadorPaleta = new DecodificadorPaleta();
+                        }
+                        imagen = decodificadorPaleta.decodificar(frame.getDatos(), frame.getLongitud(), imagen);
+                    } else {
+                        if (decodificador == null) {
+                            decodificador = new DecodificadorJpeg();
+                        }
+                        imagen = decodificador.decodificar(frame.getDatos(), 0, frame.getLongitud(), imagen);
+                    }
+                }
+            } catch (IOException e) {
+                // Frame corrupto: se cuenta igual, el siguiente lo reemplaza
+            } finally {
+                frame.devolver();
+            }
+        }
+    }
+
+    /**
+     * Histograma concurrente de latencias en microsegundos con cubetas
+     * logarítmicas (32 por potencia de dos, error relativo menor al 3%).
+     */
+    static final class Histograma {
+
+        private static final int BITS_SUB = 5;
+        private static final int SUB = 1 << BITS_SUB;
+        private static final int CUBETAS = 64 * SUB;
+
+        private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+        private final AtomicLong maximo = new AtomicLong();
+
+        void registrar(long micros) {
+            long v = Math.max(0, micros);
+            int desplazamiento = Math.max(0, 63 - Long.numberOfLeadingZeros(v) - BITS_SUB);
+            cuentas.incrementAndGet((int) (desplazamiento * SUB + (v >>> desplazamiento)));
+            maximo.accumulateAndGet(v, Math::max);
+        }
+
+        long cantidad() {
+            long n = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                n += cuentas.get(i);
+            }
+            return n;
+        }
+
+        /**
+         * @param p percentil entre 0 y 100
+         * @return cota superior del percentil en microsegundos
+         */
+        long percentil(double p) {
+            long n = cantidad();
+            if (n == 0) {
+                return 0;
+            }
+            long objetivo = Math.max(1, (long) Math.ceil(p / 100 * n));
+            long acumulado = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                acumulado += cuentas.get(i);
+                if (acumulado >= objetivo) {
+                    return Math.min(limiteSuperior(i), maximo.get());
+                }
+            }
+            return maximo.get();
+        }
+
+        private static long limiteSuperior(int cubeta) {
+            if (cubeta < 2 * SUB) {
+                return cubeta;
+            }
+            int desplazamiento = cubeta / SUB - 1;
+            long mantisa = cubeta - (long) desplazamiento * SUB;
+            return ((mantisa + 1) << desplazamiento) - 1;
+        }
+
+        void reiniciar() {
+            for (int i = 0; i < CUBETAS; i++) {
+                cuentas.set(i, 0);
+            }
+            maximo.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("latencia ms p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f (n=%d)",
+                percentil(50) / 1000.0, percentil(90) / 1000.0, percentil(99) / 1000.0,
+                percentil(99.9) / 1000.0, maximo.get() / 1000.0, cantidad());
+        }
+    }
+}
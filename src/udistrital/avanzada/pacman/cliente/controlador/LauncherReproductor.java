@@ -0,0 +1,54 @@
+package udistrital.avanzada.pacman.cliente.controlador;
+
+import udistrital.avanzada.pacman.cliente.vista.VentanaReproductor;
+import udistrital.avanzada.pacman.util.ReproductorGrabacion;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+/**
+ * Punto de entrada del reproductor de grabaciones de sesión.
+ *
+ * <p>Uso: {@code LauncherReproductor archivo.pvid [desdeSegundos] [velocidad]}.
+ * Los frames se muestran con el mismo {@link StreamReceiver} del cliente.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class LauncherReproductor {
+
+    /**
+     * Método principal que abre una grabación y la reproduce.
+     *
+     * @param args archivo de video, segundo desde el que se reproduce y velocidad
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Uso: LauncherReproductor archivo.pvid [desdeSegundos] [velocidad]");
+            return;
+        }
+        Path archivo = Paths.get(args[0]);
+        long desdeMs = args.length > 1 ? (long) (Double.parseDouble(args[1]) * 1000) : 0;
+        double velocidad = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        ReproductorGrabacion reproductor;
+        try {
+            reproductor = new ReproductorGrabacion(archivo, desdeMs, velocidad);
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir la grabación: " + e.getMessage());
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            VentanaReproductor ventana = new VentanaReproductor(archivo.getFileName().toString());
+            ventana.mostrarEstado(String.format("%s | %d frames | %.1f s | x%.1f",
+                Instant.ofEpochMilli(reproductor.getInicio()), reproductor.getFrames(),
+                reproductor.getDuracionMs() / 1000.0, velocidad));
+            ventana.setVisible(true);
+            new StreamReceiver(reproductor, ventana.getPanelVideo()).start();
+            reproductor.iniciar();
+        });
+    }
+}
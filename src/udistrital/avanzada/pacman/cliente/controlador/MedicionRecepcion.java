@@ -0,0 +1,118 @@
+package udistrital.avanzada.pacman.cliente.controlador;
+
+import udistrital.avanzada.pacman.util.FrameRecibido;
+import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.util.PoolBytes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Mide la memoria que asigna el hilo lector del cliente al recibir video.
+ *
+ * <p>Un servidor mínimo en loopback hace el saludo binario y envía N frames
+ * del tamaño indicado a un {@link ManejadorSockets} de cliente, que los
+ * consume como el {@link StreamReceiver}. Al final se informan los bytes que
+ * asignó el hilo lector (según {@code ThreadMXBean}) y las estadísticas de
+ * {@link PoolBytes}: los bytes solicitados son los que costaría un arreglo
+ * nuevo por frame y los asignados, los que realmente se crearon.
+ *
+ * <p>Uso: {@code java udistrital.avanzada.pacman.cliente.controlador.MedicionRecepcion [frames] [bytes]}
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class MedicionRecepcion {
+
+    private static final String HILO_LECTOR = "SocketDemuxReader";
+
+    public static void main(String[] args) throws Exception {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int tamaño = args.length > 1 ? Integer.parseInt(args[1]) : 11 * 1024;
+        try (ServerSocket servidor = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread emisor = new Thread(() -> emitir(servidor, frames, tamaño), "EmisorMedicion");
+            emisor.setDaemon(true);
+            emisor.start();
+            ManejadorSockets cliente = new ManejadorSockets(
+                new Socket(InetAddress.getLoopbackAddress(), servidor.getLocalPort()),
+                ManejadorSockets.Protocolo.BINARIO);
+            try {
+                // El último frame mide 1 byte: nunca se reemplaza en el buzón y marca el final
+                FrameRecibido frame;
+                int recibidos = 0;
+                do {
+                    frame = cliente.tomarFrameRecibido();
+                    if (frame == null) {
+                        throw new IOException("La conexión se cerró antes del último frame");
+                    }
+                    recibidos++;
+                    frame.devolver();
+                } while (frame.getLongitud() != 1);
+                long asignados = bytesAsignados(HILO_LECTOR);
+                System.out.println("Frames enviados: " + frames + " de " + tamaño + " bytes, consumidos: "
+                    + (recibidos - 1));
+                System.out.println("Hilo lector: " + (asignados < 0 ? "sin medición" : asignados / 1024 + " KB asignados"));
+                System.out.println("Pool: " + PoolBytes.estadisticas());
+            } finally {
+                cliente.cerrar();
+            }
+        }
+    }
+
+    /**
+     * Atiende una conexión con el saludo binario y envía los frames.
+     */
+    private static void emitir(ServerSocket servidor, int frames, int tamaño) {
+        try (Socket socket = servidor.accept()) {
+            DataInputStream entrada = new DataInputStream(socket.getInputStream());
+            DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            byte[] saludo = new byte[3];
+            entrada.readFully(saludo);
+            salida.write(saludo);
+            byte[] datos = new byte[tamaño];
+            for (int i = 0; i < frames; i++) {
+                datos[0] = (byte) i;
+                escribirFrame(salida, datos, tamaño);
+            }
+            escribirFrame(salida, datos, 1);
+            salida.flush();
+            // Mantiene la conexión hasta que el cliente la cierre
+            while (entrada.read() >= 0) {
+                // descarta
+            }
+        } catch (IOException e) {
+            System.err.println("Emisor: " + e.getMessage());
+        }
+    }
+
+    private static void escribirFrame(DataOutputStream salida, byte[] datos, int longitud) throws IOException {
+        // Mismo formato que CodecBinario: longitud + tipo FRAME (2) + carga
+        salida.writeInt(1 + longitud);
+        salida.writeByte(2);
+        salida.write(datos, 0, longitud);
+    }
+
+    /**
+     * Bytes asignados por el hilo vivo con el nombre indicado.
+     *
+     * @return los bytes, o -1 si la JVM no lo mide o el hilo no existe
+     */
+    private static long bytesAsignados(String nombre) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx)
+                || !mx.isThreadAllocatedMemorySupported()) {
+            return -1;
+        }
+        for (Thread hilo : Thread.getAllStackTraces().keySet()) {
+            if (nombre.equals(hilo.getName())) {
+                return mx.getThreadAllocatedBytes(hilo.threadId());
+            }
+        }
+        return -1;
+    }
+}
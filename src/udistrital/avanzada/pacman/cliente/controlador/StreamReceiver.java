@@ -1,24 +1,45 @@
 package udistrital.avanzada.pacman.cliente.controlador;
 
-import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.cliente.vista.PanelVideo;
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+import udistrital.avanzada.pacman.util.DecodificadorJpeg;
+import udistrital.avanzada.pacman.util.DecodificadorPaleta;
+import udistrital.avanzada.pacman.util.FrameRecibido;
+import udistrital.avanzada.pacman.util.FramesDelta;
+import udistrital.avanzada.pacman.util.FramesEstado;
+import udistrital.avanzada.pacman.util.FramesPaleta;
+import udistrital.avanzada.pacman.util.FuenteVideo;
+import udistrital.avanzada.pacman.util.ReconstructorDelta;
 
-import javax.imageio.ImageIO;
-import javax.swing.ImageIcon;
-import javax.swing.JLabel;
-import javax.swing.SwingUtilities;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 
-public class StreamReceiver extends Thread {
+/**
+ * Hilo que toma los frames de una {@link FuenteVideo}, los decodifica según
+ * su tipo y los publica en el {@link PanelVideo}.
+ *
+ * <p>Un frame que no se puede decodificar se descarta sin detener el hilo:
+ * se reinician los decodificadores y se pide a la fuente un frame clave.
+ */
+public final class StreamReceiver extends Thread {
 
-    private final ManejadorSockets sockets;
-    private final JLabel targetLabel;
+    private final FuenteVideo fuente;
+    private final PanelVideo panel;
+    /** Lector JPEG reutilizado; los frames se decodifican sobre la imagen libre del panel. */
+    private DecodificadorJpeg decodificador;
+    /** Lienzo de los frames delta; solo se crea si el servidor los envía. */
+    private ReconstructorDelta reconstructor;
+    /** Decodificador de los frames de paleta; solo se crea si el servidor los envía. */
+    private DecodificadorPaleta decodificadorPaleta;
+    /** Ya se pidió un frame clave y aún no se muestra ningún frame. */
+    private boolean claveSolicitada = false;
+    private long descartados = 0;
     private volatile boolean running = true;
 
-    public StreamReceiver(ManejadorSockets sockets, JLabel targetLabel) {
-        if (sockets == null || targetLabel == null) throw new IllegalArgumentException("Parámetros inválidos");
-        this.sockets = sockets;
-        this.targetLabel = targetLabel;
+    public StreamReceiver(FuenteVideo fuente, PanelVideo panel) {
+        if (fuente == null || panel == null) throw new IllegalArgumentException("Parámetros inválidos");
+        this.fuente = fuente;
+        this.panel = panel;
         setName("StreamReceiver");
         setDaemon(true);
     }
@@ -30,17 +51,93 @@ public class StreamReceiver extends Thread {
 
     @Override
     public void run() {
-        while (running && !Thread.currentThread().isInterrupted() && !sockets.estaCerrado()) {
+        // Si el decodificador va lento, el buzón de recepción conserva solo el frame más reciente
+        while (running && !Thread.currentThread().isInterrupted() && !fuente.estaCerrado()) {
             try {
-                byte[] data = sockets.tomarFrame();
-                if (data == null) break;
-                BufferedImage img = ImageIO.read(new ByteArrayInputStream(data));
-                if (img == null) continue;
-                ImageIcon icon = new ImageIcon(img);
-                SwingUtilities.invokeLater(() -> targetLabel.setIcon(icon));
+                FrameRecibido frame = fuente.tomarFrameRecibido();
+                if (frame == null) break;
+                try {
+                    if (mostrar(frame)) {
+                        claveSolicitada = false;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Frame corrupto o que el decodificador no admite: se descarta
+                    // y se pide uno que se pueda mostrar solo
+                    descartar();
+                } finally {
+                    // Decodificado: el arreglo vuelve al pool
+                    frame.devolver();
+                }
             } catch (Exception e) {
                 break;
             }
         }
     }
+
+    /**
+     * Olvida el estado de los decodificadores, que pudo quedar a medias, y
+     * pide un frame clave una sola vez hasta que se vuelva a mostrar algo.
+     */
+    private void descartar() {
+        descartados++;
+        decodificador = null;
+        reconstructor = null;
+        decodificadorPaleta = null;
+        if (!claveSolicitada) {
+            claveSolicitada = true;
+            fuente.pedirClave();
+        }
+    }
+
+    /**
+     * @return frames que no se pudieron decodificar
+     */
+    public long getDescartados() {
+        return descartados;
+    }
+
+    /**
+     * Decodifica un frame JPEG, delta, de paleta o de estado y lo publica en el panel.
+     *
+     * @return true si se mostró; un delta fuera de secuencia no se muestra
+     */
+    private boolean mostrar(FrameRecibido frame) throws IOException {
+        byte[] datos = frame.getDatos();
+        int longitud = frame.getLongitud();
+        if (FramesEstado.esEstado(datos, longitud)) {
+            InstantaneaJuego instantanea = FramesEstado.decodificar(datos, longitud);
+            if (instantanea == null) {
+                return false;
+            }
+            panel.mostrar(instantanea, FramesEstado.getAncho(datos), FramesEstado.getAlto(datos));
+            return true;
+        }
+        if (FramesDelta.esDelta(datos, longitud)) {
+            if (reconstructor == null) {
+                reconstructor = new ReconstructorDelta();
+            }
+            // El lienzo sigue cambiando: el panel recibe una copia
+            if (!reconstructor.aplicar(datos, longitud)) {
+                return false;
+            }
+            panel.mostrar(reconstructor.copiarLienzo(panel.getLibre()));
+            return true;
+        }
+        if (FramesPaleta.esPaleta(datos, longitud)) {
+            if (decodificadorPaleta == null) {
+                decodificadorPaleta = new DecodificadorPaleta();
+            }
+            panel.mostrar(decodificadorPaleta.decodificar(datos, longitud, panel.getLibre()));
+            return true;
+        }
+        if (decodificador == null) {
+            decodificador = new DecodificadorJpeg();
+        }
+        BufferedImage img = decodificador.decodificar(datos, 0, longitud, panel.getLibre());
+        if (img == null) {
+            return false;
+        }
+        panel.mostrar(img);
+        return true;
+    }
 }
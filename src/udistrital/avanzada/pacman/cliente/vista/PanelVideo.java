@@ -0,0 +1,144 @@
+package udistrital.avanzada.pacman.cliente.vista;
+
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+import udistrital.avanzada.pacman.util.RenderizadorJuego;
+
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+/**
+ * Área de video del cliente: pinta el frame más reciente.
+ *
+ * <p>El hilo que decodifica publica cada frame con {@link #mostrar} y solo
+ * pide un {@code repaint}; Swing junta los pedidos pendientes en un solo
+ * pintado, así que los frames que llegan antes de pintarse se saltan en lugar
+ * de encolar tareas en el EDT, y no hay revalidación de la ventana por frame.
+ *
+ * <p>Las imágenes se alternan entre dos búferes: el hilo de video escribe en
+ * {@link #getLibre()} mientras el EDT pinta el actual, y al publicar se
+ * intercambian bajo el mismo cerrojo con el que se pinta.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class PanelVideo extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object cerrojo = new Object();
+    private transient BufferedImage actual;
+    private transient BufferedImage libre;
+    /** Estado a dibujar en lugar de una imagen (video por estado). */
+    private transient InstantaneaJuego estado;
+    private int anchoJuego;
+    private int altoJuego;
+    /** Hay un frame publicado que aún no se pinta. */
+    private boolean pendiente = false;
+    private long publicados = 0;
+    private long saltados = 0;
+
+    /**
+     * @param ancho ancho preferido
+     * @param alto alto preferido
+     */
+    public PanelVideo(int ancho, int alto) {
+        setPreferredSize(new Dimension(ancho, alto));
+        setOpaque(true);
+        setBackground(Color.BLACK);
+    }
+
+    /**
+     * Imagen que el hilo de video puede sobrescribir con el próximo frame.
+     *
+     * @return la imagen que no se está mostrando, o null
+     */
+    public BufferedImage getLibre() {
+        synchronized (cerrojo) {
+            return libre;
+        }
+    }
+
+    /**
+     * Publica una imagen decodificada. Desde aquí la imagen es del panel:
+     * quien la publicó solo vuelve a escribir en lo que le dé {@link #getLibre()}.
+     *
+     * @param img el frame
+     */
+    public void mostrar(BufferedImage img) {
+        synchronized (cerrojo) {
+            if (img != actual) {
+                libre = actual;
+                actual = img;
+            }
+            estado = null;
+            contarPublicado();
+        }
+        repaint();
+    }
+
+    /**
+     * Publica un estado de juego para dibujarlo.
+     *
+     * @param instantanea el estado
+     * @param anchoJuego ancho del área de juego
+     * @param altoJuego alto del área de juego
+     */
+    public void mostrar(InstantaneaJuego instantanea, int anchoJuego, int altoJuego) {
+        synchronized (cerrojo) {
+            estado = instantanea;
+            this.anchoJuego = anchoJuego;
+            this.altoJuego = altoJuego;
+            contarPublicado();
+        }
+        repaint();
+    }
+
+    private void contarPublicado() {
+        publicados++;
+        if (pendiente) {
+            saltados++;
+        }
+        pendiente = true;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            int w = getWidth();
+            int h = getHeight();
+            synchronized (cerrojo) {
+                pendiente = false;
+                if (estado != null) {
+                    RenderizadorJuego.pintar(g2, estado, anchoJuego, altoJuego, w, h);
+                } else if (actual != null) {
+                    if (actual.getWidth() != w || actual.getHeight() != h) {
+                        // Frames reducidos (calidad adaptativa) o ventana redimensionada
+                        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    }
+                    g2.drawImage(actual, 0, 0, w, h, null);
+                } else {
+                    g2.setColor(getBackground());
+                    g2.fillRect(0, 0, w, h);
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * @return frames publicados y cuántos se reemplazaron antes de pintarse
+     */
+    public String estadisticas() {
+        synchronized (cerrojo) {
+            return "publicados=" + publicados + ", saltados sin pintar=" + saltados;
+        }
+    }
+}
@@ -11,7 +11,6 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Font;
 import javax.swing.BorderFactory;
-import java.awt.Dimension;
 
 /**
  * Ventana principal del cliente.
@@ -28,7 +27,7 @@ public class VentanaCliente extends JFrame {
     private final JTextArea areaMensajes;
     private final JButton btnConectar;
     private final JButton btnEnviar;
-    private final JLabel labelVideo;
+    private final PanelVideo panelVideo;
     
     /**
      * Constructor de la ventana del cliente.
@@ -67,16 +66,13 @@ public class VentanaCliente extends JFrame {
         panelCentral.setBackground(Color.BLACK);
         panelCentral.add(scrollPane, BorderLayout.WEST);
 
-        JPanel panelVideo = new JPanel(new BorderLayout());
-        panelVideo.setBackground(Color.BLACK);
-        panelVideo.setBorder(BorderFactory.createLineBorder(new Color(0, 255, 180)));
-        labelVideo = new JLabel();
-        labelVideo.setOpaque(true);
-        labelVideo.setBackground(Color.BLACK);
-        labelVideo.setPreferredSize(new Dimension(800, 600));
-        panelVideo.add(labelVideo, BorderLayout.CENTER);
+        JPanel marcoVideo = new JPanel(new BorderLayout());
+        marcoVideo.setBackground(Color.BLACK);
+        marcoVideo.setBorder(BorderFactory.createLineBorder(new Color(0, 255, 180)));
+        panelVideo = new PanelVideo(800, 600);
+        marcoVideo.add(panelVideo, BorderLayout.CENTER);
 
-        panelCentral.add(panelVideo, BorderLayout.CENTER);
+        panelCentral.add(marcoVideo, BorderLayout.CENTER);
         add(panelCentral, BorderLayout.CENTER);
         
         // Panel inferior: entrada de comandos
@@ -173,10 +169,10 @@ public class VentanaCliente extends JFrame {
     }
     
     /**
-     * JLabel donde se renderiza el video del servidor.
+     * Panel donde se renderiza el video del servidor.
      */
-    public JLabel getLabelVideo() {
-        return labelVideo;
+    public PanelVideo getPanelVideo() {
+        return panelVideo;
     }
     
     /**
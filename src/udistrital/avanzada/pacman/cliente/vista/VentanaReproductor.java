@@ -0,0 +1,66 @@
+package udistrital.avanzada.pacman.cliente.vista;
+
+import javax.swing.BorderFactory;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Font;
+
+/**
+ * Ventana que muestra una grabación de video de una sesión.
+ *
+ * <p>Vista pura: el controlador publica los frames en el {@link PanelVideo}.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class VentanaReproductor extends JFrame {
+
+    private static final long serialVersionUID = 1L;
+
+    private final PanelVideo panelVideo;
+    private final JLabel etiquetaEstado;
+
+    /**
+     * Constructor de la ventana del reproductor.
+     *
+     * @param titulo nombre de la grabación
+     */
+    public VentanaReproductor(String titulo) {
+        setTitle("Pac-Man Grabación - " + titulo);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLayout(new BorderLayout());
+        getContentPane().setBackground(Color.BLACK);
+
+        panelVideo = new PanelVideo(800, 600);
+        panelVideo.setBorder(BorderFactory.createLineBorder(new Color(0, 255, 180)));
+        add(panelVideo, BorderLayout.CENTER);
+
+        etiquetaEstado = new JLabel(" ");
+        etiquetaEstado.setForeground(new Color(255, 215, 0));
+        etiquetaEstado.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
+        add(etiquetaEstado, BorderLayout.SOUTH);
+
+        pack();
+        setLocationRelativeTo(null);
+    }
+
+    /**
+     * Obtiene el panel de video.
+     *
+     * @return el panel de video
+     */
+    public PanelVideo getPanelVideo() {
+        return panelVideo;
+    }
+
+    /**
+     * Muestra un texto de estado bajo el video.
+     *
+     * @param texto el texto a mostrar
+     */
+    public void mostrarEstado(String texto) {
+        etiquetaEstado.setText(texto);
+    }
+}
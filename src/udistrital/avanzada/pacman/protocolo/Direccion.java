@@ -0,0 +1,108 @@
+package udistrital.avanzada.pacman.protocolo;
+
+/**
+ * Enum que representa las direcciones de movimiento.
+ * Cada dirección tiene un código de un byte para el protocolo binario.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public enum Direccion {
+    ARRIBA(1, "arriba"),
+    ABAJO(2, "abajo"),
+    IZQUIERDA(3, "izquierda"),
+    DERECHA(4, "derecha");
+    
+    private final int codigo;
+    private final String comando;
+    
+    Direccion(int codigo, String comando) {
+        this.codigo = codigo;
+        this.comando = comando;
+    }
+    
+    /**
+     * Obtiene el código de la dirección.
+     * 
+     * @return El código (1 a 4)
+     */
+    public int getCodigo() {
+        return codigo;
+    }
+    
+    /**
+     * Obtiene el comando de texto equivalente.
+     * 
+     * @return El comando
+     */
+    public String getComando() {
+        return comando;
+    }
+    
+    /**
+     * Convierte un código en dirección.
+     * 
+     * @param codigo El código recibido
+     * @return La dirección, o null si el código es inválido
+     */
+    public static Direccion desdeCodigo(int codigo) {
+        Direccion[] valores = values();
+        return codigo >= 1 && codigo <= valores.length ? valores[codigo - 1] : null;
+    }
+
+    /**
+     * Convierte un string a dirección.
+     * 
+     * @param comando El comando de texto
+     * @return La dirección correspondiente, o null si es inválido
+     */
+    public static Direccion parsear(String comando) {
+        return parsearToken(comando);
+    }
+
+    /**
+     * Parsea uno o varios comandos separados por espacios o comas
+     * (por ejemplo "arriba, arriba, der").
+     * 
+     * @param comando El comando
+     * @return Las direcciones en orden, o null si algún comando no es válido
+     */
+    public static Direccion[] parsearVarias(String comando) {
+        if (comando == null || comando.isBlank()) {
+            return null;
+        }
+        String[] partes = comando.trim().split("[\\s,;]+");
+        Direccion[] direcciones = new Direccion[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            direcciones[i] = parsearToken(partes[i]);
+            if (direcciones[i] == null) {
+                return null;
+            }
+        }
+        return direcciones;
+    }
+
+    private static Direccion parsearToken(String comando) {
+        if (comando == null) {
+            return null;
+        }
+        
+        String cmd = comando.trim().toLowerCase();
+        switch (cmd) {
+            case "arriba":
+            case "arr":
+                return Direccion.ARRIBA;
+            case "abajo":
+            case "aba":
+                return Direccion.ABAJO;
+            case "izquierda":
+            case "izq":
+                return Direccion.IZQUIERDA;
+            case "derecha":
+            case "der":
+                return Direccion.DERECHA;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package udistrital.avanzada.pacman.protocolo;
+
+/**
+ * Copia inmutable de lo que se dibuja de un juego: la posición de Pac-Man y
+ * los ítems sin recoger.
+ *
+ * <p>La toma el hilo que modifica el juego, así que quien dibuja (el EDT o un
+ * hilo de video) nunca ve el modelo a medio actualizar ni necesita cerrojos.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class InstantaneaJuego {
+
+    /** Estado sin juego activo: se dibuja el mensaje de espera. */
+    public static final InstantaneaJuego ESPERA = new InstantaneaJuego(false, false, 0, 0, 0,
+        new TipoItem[0], new int[0], new int[0]);
+
+    private final boolean hayJuego;
+    private final boolean hayPacMan;
+    private final int pacManX;
+    private final int pacManY;
+    private final int pacManTamaño;
+    private final TipoItem[] tiposItems;
+    private final int[] itemsX;
+    private final int[] itemsY;
+
+    private InstantaneaJuego(boolean hayJuego, boolean hayPacMan, int pacManX, int pacManY, int pacManTamaño,
+                             TipoItem[] tiposItems, int[] itemsX, int[] itemsY) {
+        this.hayJuego = hayJuego;
+        this.hayPacMan = hayPacMan;
+        this.pacManX = pacManX;
+        this.pacManY = pacManY;
+        this.pacManTamaño = pacManTamaño;
+        this.tiposItems = tiposItems;
+        this.itemsX = itemsX;
+        this.itemsY = itemsY;
+    }
+
+    /**
+     * Arma una instantánea con datos ya extraídos del modelo o recibidos por la red.
+     * Los arreglos pasan a ser de la instantánea y no deben modificarse.
+     *
+     * @param hayPacMan si se dibuja a Pac-Man
+     * @param pacManX x de Pac-Man
+     * @param pacManY y de Pac-Man
+     * @param pacManTamaño diámetro de Pac-Man
+     * @param tiposItems tipo de cada ítem sin recoger
+     * @param itemsX x de cada ítem
+     * @param itemsY y de cada ítem
+     * @return la instantánea de un juego activo
+     */
+    public static InstantaneaJuego de(boolean hayPacMan, int pacManX, int pacManY, int pacManTamaño,
+                                      TipoItem[] tiposItems, int[] itemsX, int[] itemsY) {
+        if (tiposItems.length != itemsX.length || tiposItems.length != itemsY.length) {
+            throw new IllegalArgumentException("Datos de ítems inconsistentes");
+        }
+        return new InstantaneaJuego(true, hayPacMan, pacManX, pacManY, pacManTamaño, tiposItems, itemsX, itemsY);
+    }
+
+    public boolean hayJuego() {
+        return hayJuego;
+    }
+
+    public boolean hayPacMan() {
+        return hayPacMan;
+    }
+
+    public int getPacManX() {
+        return pacManX;
+    }
+
+    public int getPacManY() {
+        return pacManY;
+    }
+
+    public int getPacManTamaño() {
+        return pacManTamaño;
+    }
+
+    /**
+     * @return cantidad de ítems sin recoger
+     */
+    public int getCantidadItems() {
+        return tiposItems.length;
+    }
+
+    public TipoItem getTipoItem(int i) {
+        return tiposItems[i];
+    }
+
+    public int getItemX(int i) {
+        return itemsX[i];
+    }
+
+    public int getItemY(int i) {
+        return itemsY[i];
+    }
+}
@@ -0,0 +1,55 @@
+package udistrital.avanzada.pacman.protocolo;
+
+/**
+ * Clase que resume el resultado de un lote de movimientos.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ResultadoLote {
+    private final int solicitados;
+    private final int aplicados;
+    private final int limites;
+    private final ResultadoMovimiento ultimo;
+    
+    /**
+     * Constructor de ResultadoLote.
+     * 
+     * @param solicitados Movimientos recibidos en el lote
+     * @param aplicados Movimientos procesados antes de terminar el lote o el juego
+     * @param limites Movimientos que alcanzaron un límite
+     * @param ultimo Resultado del último movimiento procesado
+     */
+    public ResultadoLote(int solicitados, int aplicados, int limites, ResultadoMovimiento ultimo) {
+        this.solicitados = solicitados;
+        this.aplicados = aplicados;
+        this.limites = limites;
+        this.ultimo = ultimo;
+    }
+    
+    public int getSolicitados() {
+        return solicitados;
+    }
+    
+    public int getAplicados() {
+        return aplicados;
+    }
+    
+    public int getLimites() {
+        return limites;
+    }
+    
+    public ResultadoMovimiento getUltimo() {
+        return ultimo;
+    }
+    
+    /**
+     * Obtiene el mensaje del resultado, sin revelar qué movimientos alcanzaron el límite.
+     * 
+     * @return El mensaje
+     */
+    public String getMensaje() {
+        return "Lote: " + aplicados + "/" + solicitados + " movimientos, " + limites
+            + " límite(s). " + ultimo.getMensaje();
+    }
+}
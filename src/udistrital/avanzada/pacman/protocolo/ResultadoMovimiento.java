@@ -0,0 +1,111 @@
+package udistrital.avanzada.pacman.protocolo;
+
+/**
+ * Clase que representa el resultado de un movimiento.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ResultadoMovimiento {
+    private final Codigo codigo;
+    private final int puntaje;
+    
+    /**
+     * Constructor de ResultadoMovimiento.
+     * 
+     * @param codigo El código del resultado
+     * @param puntaje El puntaje acumulado tras el movimiento
+     */
+    public ResultadoMovimiento(Codigo codigo, int puntaje) {
+        this.codigo = codigo;
+        this.puntaje = puntaje;
+    }
+    
+    /**
+     * Obtiene si el movimiento fue exitoso.
+     * 
+     * @return true si fue exitoso, false en caso contrario
+     */
+    public boolean isExitoso() {
+        return codigo.exitoso;
+    }
+    
+    /**
+     * Obtiene el código del resultado.
+     * 
+     * @return El código
+     */
+    public Codigo getCodigo() {
+        return codigo;
+    }
+    
+    /**
+     * Obtiene el puntaje acumulado tras el movimiento.
+     * 
+     * @return El puntaje
+     */
+    public int getPuntaje() {
+        return puntaje;
+    }
+    
+    /**
+     * Obtiene el mensaje del resultado.
+     * 
+     * @return El mensaje
+     */
+    public String getMensaje() {
+        switch (codigo) {
+            case MOVIMIENTO_EXITOSO:
+                return "Movimiento exitoso";
+            case LIMITE_ALCANZADO:
+                return "Límite alcanzado";
+            case ITEM_RECOGIDO:
+                return "¡Ítem recogido! Puntaje: " + puntaje;
+            case JUEGO_COMPLETADO:
+                return "¡Ítem recogido! Puntaje: " + puntaje + 
+                    ". ¡Juego terminado! Todos los ítems recogidos.";
+            default:
+                return "El juego ha terminado";
+        }
+    }
+    
+    /**
+     * Códigos numéricos de resultado, estables para el protocolo binario.
+     */
+    public enum Codigo {
+        MOVIMIENTO_EXITOSO(0, true),
+        LIMITE_ALCANZADO(1, false),
+        ITEM_RECOGIDO(2, true),
+        JUEGO_COMPLETADO(3, true),
+        JUEGO_YA_TERMINADO(4, false);
+        
+        private static final Codigo[] POR_VALOR = values();
+        
+        private final int valor;
+        private final boolean exitoso;
+        
+        Codigo(int valor, boolean exitoso) {
+            this.valor = valor;
+            this.exitoso = exitoso;
+        }
+        
+        /**
+         * Obtiene el valor numérico del código.
+         * 
+         * @return El valor
+         */
+        public int getValor() {
+            return valor;
+        }
+        
+        /**
+         * Convierte un valor numérico en código.
+         * 
+         * @param valor El valor recibido
+         * @return El código, o null si el valor es desconocido
+         */
+        public static Codigo desdeValor(int valor) {
+            return valor >= 0 && valor < POR_VALOR.length ? POR_VALOR[valor] : null;
+        }
+    }
+}
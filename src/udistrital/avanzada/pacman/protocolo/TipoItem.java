@@ -0,0 +1,44 @@
+package udistrital.avanzada.pacman.protocolo;
+
+/**
+ * Enum que representa los tipos de ítems disponibles en el juego.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public enum TipoItem {
+    CEREZA(100, "Cereza"),
+    FRESA(300, "Fresa"),
+    NARANJA(500, "Naranja"),
+    MANZANA(700, "Manzana"),
+    MELON(1000, "Melón"),
+    GALAXIAN(2000, "Galaxian"),
+    CAMPANA(3000, "Campana"),
+    LLAVE(5000, "Llave");
+    
+    private final int puntaje;
+    private final String nombre;
+    
+    TipoItem(int puntaje, String nombre) {
+        this.puntaje = puntaje;
+        this.nombre = nombre;
+    }
+    
+    /**
+     * Obtiene el puntaje del tipo de ítem.
+     * 
+     * @return El puntaje
+     */
+    public int getPuntaje() {
+        return puntaje;
+    }
+    
+    /**
+     * Obtiene el nombre del tipo de ítem.
+     * 
+     * @return El nombre
+     */
+    public String getNombre() {
+        return nombre;
+    }
+}
@@ -0,0 +1,103 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elige el {@link NivelVideo} de una conexión según cuánto se atrasa su envío.
+ *
+ * <p>Cada ventana de un segundo compara los frames publicados en el buzón de
+ * la conexión con los que se reemplazaron antes de salir: si más de uno de
+ * cada cinco se reemplazó, el enlace no da abasto y se baja un nivel. Tras
+ * varias ventanas sin reemplazos se sube uno para probar. Si la prueba falla
+ * enseguida, la próxima espera el doble (hasta {@link #MAX_VENTANAS_SUBIR}),
+ * así un enlace justo no oscila entre dos niveles.
+ *
+ * <p>No es seguro para varios hilos: lo usa el hilo que publica los frames.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+final class AdaptadorCalidad {
+
+    static final long NANOS_VENTANA = TimeUnit.SECONDS.toNanos(1);
+    static final int MIN_VENTANAS_SUBIR = 3;
+    static final int MAX_VENTANAS_SUBIR = 48;
+    /** Ventanas tras una subida en las que una bajada cuenta como prueba fallida. */
+    static final int VENTANAS_PRUEBA = 3;
+
+    private NivelVideo nivel;
+    private long inicioVentana;
+    private long publicadosBase;
+    private long reemplazadosBase;
+    private int ventanasLimpias = 0;
+    private int ventanasSubir = MIN_VENTANAS_SUBIR;
+    /** Ventanas desde la última subida, o -1 si no hay prueba en curso. */
+    private int desdeSubida = -1;
+    private int cambios = 0;
+
+    /**
+     * @param inicial nivel de partida
+     */
+    AdaptadorCalidad(NivelVideo inicial) {
+        this.nivel = inicial;
+        this.inicioVentana = System.nanoTime();
+    }
+
+    /**
+     * Actualiza el nivel con los contadores acumulados del buzón.
+     *
+     * @param publicados frames publicados en el buzón
+     * @param reemplazados frames reemplazados sin enviarse
+     * @param ahora {@link System#nanoTime()}
+     * @return el nivel que corresponde ahora
+     */
+    NivelVideo evaluar(long publicados, long reemplazados, long ahora) {
+        if (ahora - inicioVentana < NANOS_VENTANA) {
+            return nivel;
+        }
+        long p = publicados - publicadosBase;
+        long r = reemplazados - reemplazadosBase;
+        inicioVentana = ahora;
+        publicadosBase = publicados;
+        reemplazadosBase = reemplazados;
+        if (desdeSubida >= 0 && ++desdeSubida > VENTANAS_PRUEBA) {
+            // La subida se sostuvo: la próxima prueba vuelve a la espera mínima
+            desdeSubida = -1;
+            ventanasSubir = MIN_VENTANAS_SUBIR;
+        }
+
+        if (p >= 3 && r * 5 > p) {
+            ventanasLimpias = 0;
+            if (desdeSubida >= 0) {
+                ventanasSubir = Math.min(ventanasSubir * 2, MAX_VENTANAS_SUBIR);
+                desdeSubida = -1;
+            }
+            cambiarA(nivel.peor());
+        } else if (r == 0) {
+            if (++ventanasLimpias >= ventanasSubir && nivel.mejor() != nivel) {
+                ventanasLimpias = 0;
+                desdeSubida = 0;
+                cambiarA(nivel.mejor());
+            }
+        } else {
+            ventanasLimpias = 0;
+        }
+        return nivel;
+    }
+
+    private void cambiarA(NivelVideo nuevo) {
+        if (nuevo != nivel) {
+            nivel = nuevo;
+            cambios++;
+        }
+    }
+
+    NivelVideo getNivel() {
+        return nivel;
+    }
+
+    @Override
+    public String toString() {
+        return "nivel=" + nivel + ", cambios de nivel=" + cambios;
+    }
+}
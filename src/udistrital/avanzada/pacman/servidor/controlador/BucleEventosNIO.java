@@ -0,0 +1,129 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hilo de eventos que atiende, con un único {@link Selector}, la lectura y
+ * escritura de muchas sesiones no bloqueantes.
+ *
+ * <p>Todo el estado de una {@link SesionNIO} se modifica solo desde el hilo de
+ * su bucle; otros hilos publican trabajo mediante {@link #ejecutar(Runnable)}.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class BucleEventosNIO extends Thread {
+
+    private static final int TAMAÑO_LECTURA = 64 * 1024;
+
+    private final Selector selector;
+    private final Queue<Runnable> tareas = new ConcurrentLinkedQueue<>();
+    /** Buffer de lectura compartido por todas las sesiones del bucle. */
+    private final ByteBuffer bufferLectura = ByteBuffer.allocateDirect(TAMAÑO_LECTURA);
+    private volatile boolean activo = true;
+
+    /**
+     * Constructor del bucle de eventos.
+     *
+     * @param nombre nombre del hilo
+     * @throws IOException si no se puede abrir el selector
+     */
+    public BucleEventosNIO(String nombre) throws IOException {
+        super(nombre);
+        this.selector = Selector.open();
+        setDaemon(true);
+    }
+
+    /**
+     * Programa una tarea para ejecutarse en el hilo del bucle.
+     *
+     * @param tarea la tarea a ejecutar
+     */
+    public void ejecutar(Runnable tarea) {
+        tareas.add(tarea);
+        selector.wakeup();
+    }
+
+    /**
+     * Registra una sesión nueva en este bucle.
+     *
+     * @param sesion la sesión a registrar
+     */
+    public void registrar(SesionNIO sesion) {
+        ejecutar(() -> {
+            try {
+                SelectionKey clave = sesion.getCanal().register(selector, SelectionKey.OP_READ, sesion);
+                sesion.alRegistrar(clave);
+            } catch (IOException e) {
+                sesion.cerrar();
+            }
+        });
+    }
+
+    /**
+     * Detiene el bucle y cierra todas las sesiones que atiende.
+     */
+    public void detener() {
+        activo = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (activo) {
+                selector.select();
+                ejecutarTareas();
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey clave = it.next();
+                    it.remove();
+                    SesionNIO sesion = (SesionNIO) clave.attachment();
+                    if (!clave.isValid()) {
+                        sesion.cerrar();
+                        continue;
+                    }
+                    try {
+                        if (clave.isReadable()) {
+                            bufferLectura.clear();
+                            sesion.leer(bufferLectura);
+                        }
+                        if (clave.isValid() && clave.isWritable()) {
+                            sesion.escribir();
+                        }
+                    } catch (RuntimeException e) {
+                        // Solo se cierra la sesión que falló, no las demás del selector
+                        System.err.println("Error en sesión: " + e.getMessage());
+                        sesion.cerrar();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error en bucle de eventos: " + e.getMessage());
+        } finally {
+            for (SelectionKey clave : selector.keys()) {
+                ((SesionNIO) clave.attachment()).cerrar();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private void ejecutarTareas() {
+        Runnable tarea;
+        while ((tarea = tareas.poll()) != null) {
+            try {
+                tarea.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error en tarea del bucle de eventos: " + e.getMessage());
+            }
+        }
+    }
+}
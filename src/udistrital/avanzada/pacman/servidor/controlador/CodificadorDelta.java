@@ -0,0 +1,170 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.CodificadorJpeg;
+import udistrital.avanzada.pacman.util.FramesDelta;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Codifica frames en el formato de {@link FramesDelta}: compara cada tesela
+ * con el frame anterior y codifica solo las que cambiaron.
+ *
+ * <p>Guarda una copia del último frame, que actualiza solo en las regiones
+ * enviadas y de la que sale el frame clave de los suscriptores nuevos.
+ *
+ * <p>No es seguro para varios hilos: lo usa el hilo del {@link DifusorVideo}.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+final class CodificadorDelta {
+
+    private final int tesela;
+    private final int intervaloClave;
+    private final float calidad;
+    /** Copia del último frame codificado; {@code previo} son sus píxeles. */
+    private BufferedImage referencia;
+    private int[] previo;
+    private int ancho;
+    private int alto;
+    private int secuencia;
+    private int desdeClave;
+
+    private final ByteArrayOutputStream salida = new ByteArrayOutputStream(16 * 1024);
+    private final DataOutputStream datos = new DataOutputStream(salida);
+    private final ByteArrayOutputStream jpeg = new ByteArrayOutputStream(16 * 1024);
+
+    /**
+     * @param tesela lado de las teselas en píxeles
+     * @param intervaloClave frames entre claves
+     * @param calidad calidad JPEG de las regiones
+     */
+    CodificadorDelta(int tesela, int intervaloClave, float calidad) {
+        this.tesela = Math.max(8, tesela);
+        this.intervaloClave = Math.max(1, intervaloClave);
+        this.calidad = calidad;
+    }
+
+    /**
+     * Codifica el siguiente frame: un delta, o un frame clave si toca o si
+     * cambió el tamaño.
+     *
+     * @param img imagen {@code TYPE_INT_RGB} con el frame
+     * @return los bytes del frame
+     * @throws IOException si falla el codificador JPEG
+     */
+    byte[] codificar(BufferedImage img) throws IOException {
+        int[] pixeles = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        int w = img.getWidth();
+        int h = img.getHeight();
+        boolean clave = previo == null || w != ancho || h != alto || ++desdeClave >= intervaloClave;
+
+        escribirCabecera(clave, ++secuencia, w, h);
+        if (clave) {
+            ancho = w;
+            alto = h;
+            desdeClave = 0;
+            if (previo == null || previo.length != pixeles.length) {
+                referencia = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+                previo = ((DataBufferInt) referencia.getRaster().getDataBuffer()).getData();
+            }
+            System.arraycopy(pixeles, 0, previo, 0, pixeles.length);
+            datos.writeShort(1);
+            escribirRectangulo(img, 0, 0, w, h);
+            return salida.toByteArray();
+        }
+
+        // Cuenta los rectángulos después: se reserva el short y se rellena al final
+        int posCantidad = salida.size();
+        datos.writeShort(0);
+        int rectangulos = 0;
+        for (int y = 0; y < h; y += tesela) {
+            int th = Math.min(tesela, h - y);
+            int inicio = -1;
+            for (int x = 0; x < w + tesela; x += tesela) {
+                boolean sucia = x < w && cambio(pixeles, x, y, Math.min(tesela, w - x), th);
+                if (sucia && inicio < 0) {
+                    inicio = x;
+                } else if (!sucia && inicio >= 0) {
+                    int rw = Math.min(x, w) - inicio;
+                    copiar(pixeles, inicio, y, rw, th);
+                    escribirRectangulo(img, inicio, y, rw, th);
+                    rectangulos++;
+                    inicio = -1;
+                }
+            }
+        }
+        byte[] frame = salida.toByteArray();
+        frame[posCantidad] = (byte) (rectangulos >>> 8);
+        frame[posCantidad + 1] = (byte) rectangulos;
+        return frame;
+    }
+
+    /**
+     * @return true si ya se codificó algún frame
+     */
+    boolean tieneReferencia() {
+        return referencia != null;
+    }
+
+    /**
+     * Codifica como frame clave el último frame codificado, con su misma
+     * secuencia: sirve a quien empieza a recibir ahora y puede seguir con el
+     * delta siguiente.
+     *
+     * @return los bytes del frame clave
+     * @throws IOException si falla el codificador JPEG
+     */
+    byte[] codificarClave() throws IOException {
+        escribirCabecera(true, secuencia, ancho, alto);
+        datos.writeShort(1);
+        escribirRectangulo(referencia, 0, 0, ancho, alto);
+        return salida.toByteArray();
+    }
+
+    private void escribirCabecera(boolean clave, int secuencia, int w, int h) throws IOException {
+        salida.reset();
+        datos.writeByte(FramesDelta.MAGIA);
+        datos.writeByte(FramesDelta.TIPO_DELTA);
+        datos.writeByte(clave ? FramesDelta.CLAVE : 0);
+        datos.writeInt(secuencia);
+        datos.writeShort(w);
+        datos.writeShort(h);
+    }
+
+    private boolean cambio(int[] pixeles, int x, int y, int tw, int th) {
+        for (int fila = y; fila < y + th; fila++) {
+            int i = fila * ancho + x;
+            for (int fin = i + tw; i < fin; i++) {
+                if (pixeles[i] != previo[i]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void copiar(int[] pixeles, int x, int y, int rw, int rh) {
+        for (int fila = y; fila < y + rh; fila++) {
+            int i = fila * ancho + x;
+            System.arraycopy(pixeles, i, previo, i, rw);
+        }
+    }
+
+    private void escribirRectangulo(BufferedImage img, int x, int y, int rw, int rh) throws IOException {
+        jpeg.reset();
+        BufferedImage region = (x == 0 && y == 0 && rw == img.getWidth() && rh == img.getHeight())
+            ? img : img.getSubimage(x, y, rw, rh);
+        CodificadorJpeg.escribir(region, calidad, jpeg);
+        datos.writeShort(x);
+        datos.writeShort(y);
+        datos.writeShort(rw);
+        datos.writeShort(rh);
+        datos.writeInt(jpeg.size());
+        jpeg.writeTo(datos);
+    }
+}
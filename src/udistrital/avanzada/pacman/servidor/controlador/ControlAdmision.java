@@ -0,0 +1,240 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.CodecFlujoObjetos;
+import udistrital.avanzada.pacman.util.MensajeProtocolo;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Control de admisión de conexiones, común a todos los modos del servidor.
+ *
+ * <p>Limita las sesiones abiertas, las que aún no se autentican (saludo y
+ * credenciales pendientes) y las conexiones por dirección IP. El hilo que
+ * acepta consulta {@link #admitir(InetAddress)} antes de crear manejadores o
+ * hilos; si se supera un límite, {@link #rechazar(SocketChannel, Rechazo)}
+ * responde "Servidor ocupado" y cierra sin más costo. Un límite menor o igual a
+ * cero significa sin límite.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ControlAdmision {
+
+    /**
+     * Motivos de rechazo.
+     */
+    public enum Rechazo {
+        SESIONES("máximo de sesiones alcanzado"),
+        PENDIENTES("demasiadas conexiones esperando autenticación"),
+        POR_IP("demasiadas conexiones desde esta dirección");
+
+        private final String motivo;
+        /** Respuesta ya codificada en el protocolo legado, que ambos clientes reconocen. */
+        private final byte[] respuesta;
+
+        Rechazo(String motivo) {
+            this.motivo = motivo;
+            this.respuesta = codificarRespuesta("Servidor ocupado: " + motivo + ". Intenta más tarde.");
+        }
+
+        public String getMotivo() {
+            return motivo;
+        }
+    }
+
+    private final int maxSesiones;
+    private final int maxPendientes;
+    private final int maxPorIp;
+
+    private final AtomicInteger sesiones = new AtomicInteger();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final ConcurrentHashMap<InetAddress, Integer> porIp = new ConcurrentHashMap<>();
+    private final AtomicLong rechazadas = new AtomicLong();
+
+    /**
+     * Constructor del control de admisión.
+     *
+     * @param maxSesiones conexiones abiertas como máximo
+     * @param maxPendientes conexiones sin autenticar como máximo
+     * @param maxPorIp conexiones abiertas por dirección IP como máximo
+     */
+    public ControlAdmision(int maxSesiones, int maxPendientes, int maxPorIp) {
+        this.maxSesiones = maxSesiones;
+        this.maxPendientes = maxPendientes;
+        this.maxPorIp = maxPorIp;
+    }
+
+    /**
+     * Reserva un lugar para una conexión nueva.
+     *
+     * @param ip dirección del cliente
+     * @return la admisión, que debe liberarse al cerrar la conexión
+     * @throws RechazoException si se supera algún límite (no se reserva nada)
+     */
+    public Admision admitir(InetAddress ip) throws RechazoException {
+        if (!reservar(sesiones, maxSesiones)) {
+            throw rechazo(Rechazo.SESIONES);
+        }
+        if (!reservar(pendientes, maxPendientes)) {
+            sesiones.decrementAndGet();
+            throw rechazo(Rechazo.PENDIENTES);
+        }
+        if (!reservarIp(ip)) {
+            pendientes.decrementAndGet();
+            sesiones.decrementAndGet();
+            throw rechazo(Rechazo.POR_IP);
+        }
+        return new Admision(ip);
+    }
+
+    private static boolean reservar(AtomicInteger contador, int maximo) {
+        if (maximo <= 0) {
+            contador.incrementAndGet();
+            return true;
+        }
+        while (true) {
+            int actual = contador.get();
+            if (actual >= maximo) {
+                return false;
+            }
+            if (contador.compareAndSet(actual, actual + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean reservarIp(InetAddress ip) {
+        boolean[] reservada = { false };
+        porIp.compute(ip, (k, actual) -> {
+            int n = actual == null ? 0 : actual;
+            if (maxPorIp > 0 && n >= maxPorIp) {
+                return actual;
+            }
+            reservada[0] = true;
+            return n + 1;
+        });
+        return reservada[0];
+    }
+
+    private void liberarIp(InetAddress ip) {
+        // Se elimina la entrada al llegar a cero para no acumular direcciones
+        porIp.computeIfPresent(ip, (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    private RechazoException rechazo(Rechazo motivo) {
+        rechazadas.incrementAndGet();
+        return new RechazoException(motivo);
+    }
+
+    /**
+     * Responde "Servidor ocupado" sin bloquear y cierra el canal.
+     *
+     * @param canal el canal recién aceptado
+     * @param motivo el motivo del rechazo
+     */
+    public static void rechazar(SocketChannel canal, Rechazo motivo) {
+        try {
+            canal.configureBlocking(false);
+            // Descartar lo que el cliente ya envió para que el cierre no sea un reset
+            ByteBuffer descarte = ByteBuffer.allocate(256);
+            while (canal.read(descarte) > 0) {
+                descarte.clear();
+            }
+            canal.write(ByteBuffer.wrap(motivo.respuesta));
+            canal.shutdownOutput();
+        } catch (IOException ignored) {
+            // El cliente ya se fue
+        } finally {
+            try {
+                canal.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private static byte[] codificarRespuesta(String texto) {
+        CodecFlujoObjetos codec = new CodecFlujoObjetos();
+        try {
+            ByteBuffer cabecera = codec.respuestaSaludo();
+            ByteBuffer mensaje = codec.codificar(MensajeProtocolo.texto(texto));
+            byte[] bytes = new byte[cabecera.remaining() + mensaje.remaining()];
+            cabecera.get(bytes, 0, cabecera.remaining());
+            mensaje.get(bytes, bytes.length - mensaje.remaining(), mensaje.remaining());
+            return bytes;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int getSesiones() {
+        return sesiones.get();
+    }
+
+    public int getPendientes() {
+        return pendientes.get();
+    }
+
+    public long getRechazadas() {
+        return rechazadas.get();
+    }
+
+    /**
+     * Lugar reservado para una conexión. Ambas operaciones son idempotentes.
+     */
+    public final class Admision {
+
+        private final InetAddress ip;
+        private final AtomicBoolean pendiente = new AtomicBoolean(true);
+        private final AtomicBoolean liberada = new AtomicBoolean(false);
+
+        private Admision(InetAddress ip) {
+            this.ip = ip;
+        }
+
+        /**
+         * Marca la conexión como autenticada: deja de contar como pendiente.
+         */
+        public void autenticada() {
+            if (pendiente.compareAndSet(true, false)) {
+                pendientes.decrementAndGet();
+            }
+        }
+
+        /**
+         * Libera el lugar al cerrar la conexión.
+         */
+        public void liberar() {
+            if (liberada.compareAndSet(false, true)) {
+                autenticada();
+                sesiones.decrementAndGet();
+                liberarIp(ip);
+            }
+        }
+    }
+
+    /**
+     * La conexión supera un límite de admisión. No guarda la pila: se crea
+     * por cada conexión rechazada, justo cuando llegan más de las que caben.
+     */
+    public static class RechazoException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Rechazo motivo;
+
+        public RechazoException(Rechazo motivo) {
+            super(motivo.getMotivo(), null, false, false);
+            this.motivo = motivo;
+        }
+
+        public Rechazo getMotivo() {
+            return motivo;
+        }
+    }
+}
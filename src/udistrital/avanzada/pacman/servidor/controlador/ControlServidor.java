@@ -1,9 +1,13 @@
 package udistrital.avanzada.pacman.servidor.controlador;
 
 import udistrital.avanzada.pacman.dao.IJugadorDAO;
-import udistrital.avanzada.pacman.servidor.vista.PanelJuego;
+import udistrital.avanzada.pacman.servidor.vista.PanelSesiones;
 import udistrital.avanzada.pacman.servidor.vista.VentanaServidor;
 import udistrital.avanzada.pacman.util.Configuracion;
+import udistrital.avanzada.pacman.util.FragmentosVideo;
+import udistrital.avanzada.pacman.util.FramesDelta;
+import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.util.RuedaTemporizadores;
 
 import javax.swing.SwingUtilities;
 import java.awt.Dimension;
@@ -11,11 +15,19 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.nio.file.Paths;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Controlador principal del servidor.
@@ -32,9 +44,15 @@ public class ControlServidor {
     
     private udistrital.avanzada.pacman.servidor.vista.VentanaServidor vista;
     private ServerSocket serverSocket;
+    private ServidorNIO servidorNIO;
+    private ServidorVideoUDP videoUDP;
+    private RuedaTemporizadores ruedaTemporizadores;
+    /** Partidas en curso; su reloj de frames se detiene al cerrar el servidor. */
+    private RegistroSesiones partidas;
+    private GrabadorVideo grabador;
     private IJugadorDAO jugadorDAO;
     private boolean servidorActivo;
-    private final List<ManejadorCliente> clientesActivos;
+    private final Set<ManejadorCliente> clientesActivos;
     private final ManejadorResultados manejadorResultados;
     
     private static final String RUTA_PROPERTIES = "src/data/server.properties";
@@ -44,7 +62,7 @@ public class ControlServidor {
      * Constructor del controlador del servidor.
      */
     public ControlServidor() {
-        this.clientesActivos = new ArrayList<>();
+        this.clientesActivos = ConcurrentHashMap.newKeySet();
         this.manejadorResultados = new ManejadorResultados();
         this.servidorActivo = false;
     }
@@ -161,21 +179,122 @@ public class ControlServidor {
             Properties props = Configuracion.cargarPropiedades(RUTA_PROPERTIES);
             int puerto = Integer.parseInt(Configuracion.obtenerPropiedad(props, "socket.port", "9090"));
             
-            serverSocket = new ServerSocket(puerto);
-            servidorActivo = true;
+            ManejadorSockets.Protocolo protocolos = ManejadorSockets.Protocolo.desdePropiedad(
+                Configuracion.obtenerPropiedad(props, "server.protocol", "auto"), ManejadorSockets.Protocolo.AUTO);
+            
+            // Una sola rueda de temporizadores para el servidor: ticks de video, latidos e inactividad
+            ruedaTemporizadores = new RuedaTemporizadores(10, TimeUnit.MILLISECONDS, 512, "RuedaTemporizadores");
+            
+            // Una partida por sesión, cada una con su superficie y su difusor; la ventana las muestra en mosaico
+            partidas = new RegistroSesiones(AREA_JUEGO, ruedaTemporizadores, configuracionVideo(props));
+            PanelSesiones panelSesiones = vista.getPanelSesiones();
+            partidas.agregarOyente(new RegistroSesiones.Oyente() {
+                @Override
+                public void alAbrir(RegistroSesiones.Partida partida) {
+                    panelSesiones.agregarSesion(partida.getJugador(), partida.getSuperficie());
+                }
+                
+                @Override
+                public void alCerrar(RegistroSesiones.Partida partida) {
+                    panelSesiones.quitarSesion(partida.getSuperficie());
+                }
+            });
+            
+            // Límites de admisión: se aplican antes de crear hilos o sesiones
+            ControlAdmision admision = new ControlAdmision(
+                Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.max.sessions", "500")),
+                Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.max.handshakes", "64")),
+                Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.max.per.ip", "16")));
+            int backlog = Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.backlog", "128"));
+            
+            // Video UDP opcional: los clientes que lo pidan reciben los frames fuera del flujo TCP
+            int puertoUDP = Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.udp.port", "0"));
+            if (puertoUDP > 0) {
+                videoUDP = new ServidorVideoUDP(puertoUDP, Integer.parseInt(Configuracion.obtenerPropiedad(
+                    props, "server.udp.payload", String.valueOf(FragmentosVideo.CARGA_POR_DEFECTO))));
+                System.out.println("Video UDP en puerto " + videoUDP.getPuerto());
+            }
+            
+            // Latidos e inactividad, en la misma rueda de temporizadores
+            VigilanteInactividad vigilante = null;
+            long intervaloLatido = Long.parseLong(Configuracion.obtenerPropiedad(props, "server.heartbeat.interval", "15000"));
+            if (intervaloLatido > 0) {
+                vigilante = new VigilanteInactividad(ruedaTemporizadores, intervaloLatido,
+                    Long.parseLong(Configuracion.obtenerPropiedad(props, "server.idle.timeout", "45000")));
+            }
+            
+            // Grabación opcional del video de cada sesión, escrita por un hilo aparte
+            String carpetaGrabaciones = Configuracion.obtenerPropiedad(props, "server.record.dir", "").trim();
+            if (!carpetaGrabaciones.isEmpty()) {
+                grabador = new GrabadorVideo(Paths.get(carpetaGrabaciones), Integer.parseInt(
+                    Configuracion.obtenerPropiedad(props, "server.record.queue", "256")));
+                System.out.println("Grabando sesiones en " + carpetaGrabaciones);
+            }
+            
+            // Espectadores: ESPECTAR:jugador mira una partida en curso, servida desde el anillo de la sesión
+            SalaEspectadores sala = null;
+            if (Boolean.parseBoolean(Configuracion.obtenerPropiedad(props, "server.spectators", "true"))) {
+                sala = new SalaEspectadores(Integer.parseInt(
+                    Configuracion.obtenerPropiedad(props, "server.spectator.buffer", "32")));
+            }
             
-            System.out.println("Servidor iniciado en puerto " + puerto);
+            // Modo no bloqueante: pocos hilos de eventos atienden todas las sesiones
+            String modo = Configuracion.obtenerPropiedad(props, "server.mode", "threads");
+            if ("nio".equalsIgnoreCase(modo)) {
+                int bucles = Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.nio.loops",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+                servidorNIO = new ServidorNIO(puerto, jugadorDAO, partidas, bucles, protocolos,
+                    admision, backlog, videoUDP, vigilante, grabador, sala);
+                servidorActivo = true;
+                servidorNIO.ejecutar();
+                return;
+            }
+            
+            // Modo virtual: mismos manejadores bloqueantes sobre hilos virtuales
+            ThreadFactory fabricaHilos = "virtual".equalsIgnoreCase(modo)
+                ? Thread.ofVirtual().factory()
+                : Thread.ofPlatform().factory();
             
-            PanelJuego gamePanel = vista.getGamePanel();
+            // Aceptar por canal para que cada socket permita escrituras agrupadas de frames
+            ServerSocketChannel canalServidor = ServerSocketChannel.open();
+            canalServidor.bind(new InetSocketAddress(puerto), backlog);
+            serverSocket = canalServidor.socket();
+            servidorActivo = true;
+            
+            System.out.println("Servidor iniciado en puerto " + puerto + " (modo " + modo + ")");
             
             while (servidorActivo) {
-                Socket clienteSocket = serverSocket.accept();
+                SocketChannel canalCliente = canalServidor.accept();
+                Socket clienteSocket = canalCliente.socket();
+                
+                ControlAdmision.Admision admitido;
+                try {
+                    admitido = admision.admitir(clienteSocket.getInetAddress());
+                } catch (ControlAdmision.RechazoException e) {
+                    if (Configuracion.DEPURACION) {
+                        System.out.println("Cliente rechazado " + clienteSocket.getInetAddress() + ": " + e.getMessage());
+                    }
+                    ControlAdmision.rechazar(canalCliente, e.getMotivo());
+                    continue;
+                }
                 System.out.println("Cliente conectado: " + clienteSocket.getInetAddress());
                 
-                // Crear hilo para manejar el cliente
-                ManejadorCliente handler = new ManejadorCliente(clienteSocket, jugadorDAO, gamePanel, AREA_JUEGO);
+                // Crear hilo para manejar el cliente; el manejador sale del conjunto al terminar
+                ManejadorCliente handler = new ManejadorCliente(clienteSocket, jugadorDAO, partidas, fabricaHilos,
+                    protocolos, admitido, clientesActivos::remove, videoUDP, vigilante, grabador, sala);
                 clientesActivos.add(handler);
-                handler.start();
+                boolean iniciado = false;
+                try {
+                    handler.iniciar();
+                    iniciado = true;
+                } finally {
+                    if (!iniciado) {
+                        // El hilo no arrancó: nadie más devolvería el lugar
+                        clientesActivos.remove(handler);
+                        admitido.liberar();
+                        clienteSocket.close();
+                    }
+                }
             }
             
         } catch (Exception e) {
@@ -185,6 +304,45 @@ public class ControlServidor {
         }
     }
     
+    /**
+     * Lee la configuración de video que se aplica al difusor de cada partida.
+     * 
+     * @param props propiedades del servidor
+     * @return configura un difusor recién creado
+     */
+    private static Consumer<DifusorVideo> configuracionVideo(Properties props) {
+        // Video por regiones: solo las teselas que cambiaron, con frames clave periódicos;
+        // solo el estado del juego, que el cliente dibuja; o la paleta del juego sin pérdida
+        String codec = Configuracion.obtenerPropiedad(props, "server.video.codec", "jpeg");
+        boolean deflate = Boolean.parseBoolean(Configuracion.obtenerPropiedad(props, "server.video.deflate", "true"));
+        int tesela = Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.video.tile",
+            String.valueOf(FramesDelta.TESELA_POR_DEFECTO)));
+        int intervaloClave = Integer.parseInt(Configuracion.obtenerPropiedad(props, "server.video.keyframe.interval",
+            String.valueOf(FramesDelta.INTERVALO_CLAVE_POR_DEFECTO)));
+        
+        // Emisión por cambios: frames solo cuando el juego cambia, más un reenvío ocasional
+        boolean porCambios = "change".equalsIgnoreCase(
+            Configuracion.obtenerPropiedad(props, "server.video.trigger", "interval"));
+        long keepalive = Long.parseLong(Configuracion.obtenerPropiedad(props, "server.video.keepalive", "1000"));
+        
+        // Calidad adaptativa: cada conexión baja o sube de nivel según se atrase su envío
+        boolean adaptativa = Boolean.parseBoolean(Configuracion.obtenerPropiedad(props, "server.video.adaptive", "true"));
+        
+        return difusor -> {
+            if ("estado".equalsIgnoreCase(codec)) {
+                difusor.usarEstado();
+            } else if ("paleta".equalsIgnoreCase(codec)) {
+                difusor.usarPaleta(deflate);
+            } else if ("delta".equalsIgnoreCase(codec)) {
+                difusor.usarDelta(tesela, intervaloClave);
+            }
+            if (porCambios) {
+                difusor.usarEmisionPorCambios(keepalive);
+            }
+            difusor.usarCalidadAdaptativa(adaptativa);
+        };
+    }
+    
     /**
      * Cierra el servidor y muestra el mejor resultado.
      */
@@ -194,15 +352,30 @@ public class ControlServidor {
         try {
             // Cerrar todos los clientes activos
             for (ManejadorCliente handler : clientesActivos) {
-                if (handler.isAlive()) {
-                    handler.interrupt();
-                }
+                handler.detener();
             }
             
             // Cerrar ServerSocket
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
             }
+            if (servidorNIO != null) {
+                servidorNIO.detener();
+            }
+            if (videoUDP != null) {
+                videoUDP.detener();
+            }
+            if (partidas != null) {
+                partidas.detener();
+                System.out.println("Reloj de frames: " + partidas.getReloj());
+            }
+            if (ruedaTemporizadores != null) {
+                ruedaTemporizadores.detener();
+            }
+            if (grabador != null) {
+                grabador.detener();
+                System.out.println("Grabación: " + grabador);
+            }
             
             // Leer resultados y encontrar el mejor
             List<ManejadorResultados.ResultadoJuego> resultados = manejadorResultados.leerTodosLosResultados();
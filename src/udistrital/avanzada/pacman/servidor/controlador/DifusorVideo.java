@@ -0,0 +1,463 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.servidor.vista.SuperficieJuego;
+import udistrital.avanzada.pacman.util.FramesDelta;
+import udistrital.avanzada.pacman.util.FramesEstado;
+import udistrital.avanzada.pacman.util.FramesPaleta;
+import udistrital.avanzada.pacman.util.RelojFrames;
+import udistrital.avanzada.pacman.util.RenderizadorJuego;
+import udistrital.avanzada.pacman.util.SalidaVideo;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dibuja y codifica una superficie de juego una sola vez por intervalo y
+ * entrega los mismos bytes a todas las salidas suscritas.
+ *
+ * <p>El frame se dibuja con {@link RenderizadorJuego} a partir de la última
+ * instantánea de la superficie, sin pasar por el EDT: la ventana del servidor
+ * puede estar ocupada o no existir. El trabajo de cada difusor corre de a una
+ * tarea en su {@link RelojFrames.Serie}, sobre los hilos compartidos del
+ * reloj de frames.
+ *
+ * <p>En modo por intervalo todos los difusores de un {@link RegistroSesiones}
+ * siguen el mismo {@link RelojFrames}: emiten en los mismos ticks, sin deriva
+ * y sin un hilo por difusor. Un difusor solo está suscrito al reloj mientras tiene salidas.
+ * Si al llegar un tick aún se codifica el anterior, ese tick se salta y se
+ * cuenta ({@link #getTicksPerdidos()}); no se acumulan frames atrasados.
+ *
+ * <p>Cada partida de {@link RegistroSesiones} crea el difusor de su
+ * superficie: el costo de codificar depende de cuántos juegos se dibujan, no
+ * de cuántos clientes los miran. Sin suscriptores no se captura nada. Las salidas deben publicar sin
+ * bloquear (p. ej. el buzón de {@link udistrital.avanzada.pacman.util.ManejadorSockets}),
+ * y las que se cierran se retiran solas.
+ *
+ * <p>Cada salida está en un {@link NivelVideo}: los frames se codifican una
+ * vez por nivel con suscriptores, a su ritmo, calidad y escala, y una salida
+ * puede cambiar de nivel en cualquier momento ({@link #cambiarNivel}). Quien
+ * entra a un nivel recibe de inmediato el último frame de ese nivel.
+ *
+ * <p>Los frames son JPEG completos salvo que se elija otro
+ * {@link FormatoVideo}: {@link #usarDelta} ({@link FramesDelta}),
+ * {@link #usarEstado} ({@link FramesEstado}) o {@link #usarPaleta}
+ * ({@link FramesPaleta}). Con {@link #usarEmisionPorCambios} no hay
+ * intervalo fijo: emite la {@link EmisionPorCambios} cuando el juego cambia.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class DifusorVideo {
+
+    /** Intervalo entre frames (25 FPS aprox). */
+    public static final long INTERVALO_MS = 40;
+
+    private final SuperficieJuego superficie;
+    private final RelojFrames reloj;
+    private final Canal[] canales;
+    /** Canal de cada salida; se modifica bajo el monitor del difusor. */
+    private final Map<SalidaVideo, Canal> canalDe = new ConcurrentHashMap<>();
+    /** Ejecuta de a una las tareas del difusor. */
+    private final RelojFrames.Serie serie;
+    /** Suscripción al reloj mientras hay salidas; se modifica bajo el monitor del difusor. */
+    private RelojFrames.Suscripcion latido;
+    /** Hay un tick del modo por intervalo en la serie sin terminar. */
+    private final AtomicBoolean enCurso = new AtomicBoolean(false);
+    private final LongAdder ticksPerdidos = new LongAdder();
+    private final LongAdder entregas = new LongAdder();
+    private volatile FormatoVideo formato = FormatoVideo.jpeg();
+    private volatile boolean adaptativo = false;
+    /** Emisión por cambios, o null para emitir en cada intervalo. */
+    private volatile EmisionPorCambios porCambios;
+
+    /**
+     * Suscriptores de un nivel. Lo que no es un conjunto concurrente solo lo
+     * usan las tareas del difusor.
+     */
+    static final class Canal {
+
+        final NivelVideo nivel;
+        final Set<SalidaVideo> suscriptores = ConcurrentHashMap.newKeySet();
+        /** Salidas que aún no reciben su primer frame en este nivel. */
+        final Set<SalidaVideo> nuevos = ConcurrentHashMap.newKeySet();
+        /** Codificador del nivel en el formato del difusor; se crea con el primer frame. */
+        FormatoVideo.Codificador codificador;
+        long ultimaEmision;
+        /** Modo por cambios: el juego cambió desde la última emisión. */
+        boolean sucio;
+
+        Canal(NivelVideo nivel) {
+            this.nivel = nivel;
+        }
+
+        boolean activo() {
+            return !suscriptores.isEmpty() || !nuevos.isEmpty();
+        }
+    }
+
+    /**
+     * @param superficie la superficie que se transmite; no debe tener otro difusor
+     * @param reloj el reloj de frames de las partidas, que también ejecuta las
+     *              tareas del difusor
+     */
+    public DifusorVideo(SuperficieJuego superficie, RelojFrames reloj) {
+        this.superficie = superficie;
+        this.reloj = reloj;
+        this.serie = reloj.nuevaSerie();
+        NivelVideo[] niveles = NivelVideo.values();
+        this.canales = new Canal[niveles.length];
+        for (NivelVideo nivel : niveles) {
+            canales[nivel.ordinal()] = new Canal(nivel);
+        }
+    }
+
+    /**
+     * Pasa a enviar frames delta. Debe llamarse antes de las suscripciones.
+     *
+     * @param tesela lado de las teselas en píxeles
+     * @param intervaloClave frames entre claves
+     */
+    public void usarDelta(int tesela, int intervaloClave) {
+        this.formato = FormatoVideo.delta(tesela, intervaloClave);
+    }
+
+    /**
+     * Pasa a enviar el estado del juego para que el cliente lo dibuje. Debe
+     * llamarse antes de las suscripciones.
+     */
+    public void usarEstado() {
+        this.formato = FormatoVideo.estado();
+    }
+
+    /**
+     * Pasa a enviar frames completos con la paleta del juego, sin pérdida.
+     * Debe llamarse antes de las suscripciones.
+     *
+     * @param comprimir true para comprimir las corridas con Deflate
+     */
+    public void usarPaleta(boolean comprimir) {
+        this.formato = FormatoVideo.paleta(comprimir);
+    }
+
+    /**
+     * Emite frames solo cuando la superficie cambia, en lugar de cada
+     * intervalo. Debe llamarse antes de las suscripciones.
+     *
+     * @param mantenimientoMs tiempo sin cambios tras el que se reenvía el
+     *                        estado (0 = nunca)
+     */
+    public synchronized void usarEmisionPorCambios(long mantenimientoMs) {
+        if (porCambios != null) {
+            return;
+        }
+        EmisionPorCambios emision = new EmisionPorCambios(this, mantenimientoMs);
+        porCambios = emision;
+        superficie.agregarOyente(emision::alCambiar);
+        actualizarLatido();
+    }
+
+    /**
+     * Indica a los suscriptores que ajusten su nivel según su conexión
+     * ({@link AdaptadorCalidad}).
+     *
+     * @param adaptativo true para adaptar el nivel de cada conexión
+     */
+    public void usarCalidadAdaptativa(boolean adaptativo) {
+        this.adaptativo = adaptativo;
+    }
+
+    /**
+     * @return true si los suscriptores deben adaptar su nivel
+     */
+    public boolean esAdaptativo() {
+        return adaptativo;
+    }
+
+    /**
+     * Agrega una salida en el nivel más alto.
+     */
+    public void suscribir(SalidaVideo salida) {
+        suscribir(salida, NivelVideo.ALTA);
+    }
+
+    /**
+     * Agrega una salida en un nivel; recibe de inmediato el último frame del
+     * nivel, o el primero que se codifique.
+     */
+    public synchronized void suscribir(SalidaVideo salida, NivelVideo nivel) {
+        Canal canal = canales[nivel.ordinal()];
+        canalDe.put(salida, canal);
+        canal.nuevos.add(salida);
+        serie.execute(this::atenderNuevos);
+        actualizarLatido();
+    }
+
+    /**
+     * Pasa una salida a otro nivel. Sin efecto si no está suscrita.
+     */
+    public synchronized void cambiarNivel(SalidaVideo salida, NivelVideo nivel) {
+        Canal actual = canalDe.get(salida);
+        if (actual == null || actual.nivel == nivel) {
+            return;
+        }
+        actual.suscriptores.remove(salida);
+        actual.nuevos.remove(salida);
+        suscribir(salida, nivel);
+    }
+
+    /**
+     * Hace que una salida suscrita reciba de inmediato el último frame de su
+     * nivel (en modo delta, como frame clave), p. ej. porque reparte el video
+     * a un receptor nuevo.
+     */
+    public synchronized void pedirClave(SalidaVideo salida) {
+        Canal canal = canalDe.get(salida);
+        if (canal != null && canal.suscriptores.remove(salida)) {
+            canal.nuevos.add(salida);
+            serie.execute(this::atenderNuevos);
+        }
+    }
+
+    /**
+     * Retira una salida.
+     */
+    public synchronized void cancelar(SalidaVideo salida) {
+        Canal canal = canalDe.remove(salida);
+        if (canal != null) {
+            canal.suscriptores.remove(salida);
+            canal.nuevos.remove(salida);
+        }
+        actualizarLatido();
+    }
+
+    /**
+     * Retira todas las salidas y deja de recibir ticks, p. ej. porque la
+     * partida de la superficie terminó.
+     */
+    public synchronized void cerrar() {
+        canalDe.clear();
+        for (Canal canal : canales) {
+            canal.suscriptores.clear();
+            canal.nuevos.clear();
+        }
+        actualizarLatido();
+    }
+
+    /**
+     * Se suscribe al reloj con la primera salida y se retira con la última:
+     * un difusor sin salidas no recibe ticks.
+     */
+    private synchronized void actualizarLatido() {
+        EmisionPorCambios emision = porCambios;
+        boolean necesario = !canalDe.isEmpty() && (emision == null || emision.usaReloj());
+        if (necesario && latido == null) {
+            latido = reloj.suscribir(this::alTick);
+        } else if (!necesario && latido != null) {
+            latido.cancelar();
+            latido = null;
+        }
+    }
+
+    /**
+     * Tick del reloj; corre en el hilo del reloj y solo encola trabajo.
+     */
+    private void alTick(long numero) {
+        EmisionPorCambios emision = porCambios;
+        if (emision != null) {
+            emision.alTick(numero);
+            return;
+        }
+        if (!enCurso.compareAndSet(false, true)) {
+            // El tick anterior sigue codificando: se salta en lugar de acumularse
+            ticksPerdidos.increment();
+            return;
+        }
+        serie.execute(() -> difundir(numero));
+    }
+
+    /**
+     * Tick del modo por intervalo: los niveles emiten en los ticks múltiplos
+     * de su divisor, los mismos en todos los difusores.
+     */
+    private void difundir(long numero) {
+        try {
+            for (Canal canal : canales) {
+                if (canal.activo() && numero % canal.nivel.getDivisor() == 0) {
+                    emitir(canal);
+                }
+            }
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Codifica el frame de un nivel y lo entrega a sus suscriptores. Solo lo
+     * llaman las tareas del difusor.
+     */
+    void emitir(Canal canal) {
+        canal.sucio = false;
+        canal.ultimaEmision = System.nanoTime();
+        try {
+            FormatoVideo.Codificador codificador = codificador(canal);
+            byte[] frame = codificador.codificar(superficie);
+            publicar(canal.suscriptores, frame);
+            if (!canal.nuevos.isEmpty()) {
+                publicarNuevos(canal, codificador.paraNuevos(frame));
+            }
+        } catch (IOException e) {
+            System.err.println("Error codificando frame: " + e.getMessage());
+        } catch (RuntimeException e) {
+            // Un error no debe cortar la emisión de los demás niveles
+            System.err.println("Error difundiendo frame: " + e.getMessage());
+        }
+    }
+
+    private FormatoVideo.Codificador codificador(Canal canal) {
+        if (canal.codificador == null) {
+            canal.codificador = formato.nuevoCodificador(canal.nivel);
+        }
+        return canal.codificador;
+    }
+
+    /**
+     * Entrega a quien entró a un nivel el último frame de ese nivel, si lo hay;
+     * si no, lo recibirá con la próxima emisión.
+     */
+    private void atenderNuevos() {
+        for (Canal canal : canales) {
+            if (canal.nuevos.isEmpty()) {
+                continue;
+            }
+            try {
+                byte[] frame = codificador(canal).ultimo();
+                if (frame != null) {
+                    publicarNuevos(canal, frame);
+                }
+            } catch (IOException e) {
+                System.err.println("Error codificando frame: " + e.getMessage());
+            }
+            // El último frame puede ser viejo: por cambios se emite uno actual
+            canal.sucio = true;
+        }
+        EmisionPorCambios emision = porCambios;
+        if (emision != null) {
+            emision.emitirSucios();
+        }
+    }
+
+    private void publicarNuevos(Canal canal, byte[] frame) {
+        for (SalidaVideo salida : canal.nuevos) {
+            canal.nuevos.remove(salida);
+            if (!salida.estaCerrado()) {
+                salida.publicarFrame(frame);
+                entregas.increment();
+                canal.suscriptores.add(salida);
+                if (canalDe.get(salida) != canal) {
+                    // Se canceló o cambió de nivel mientras tanto
+                    canal.suscriptores.remove(salida);
+                }
+            }
+        }
+    }
+
+    private void publicar(Set<SalidaVideo> suscriptores, byte[] frame) {
+        boolean retiradas = false;
+        for (SalidaVideo salida : suscriptores) {
+            if (salida.estaCerrado()) {
+                suscriptores.remove(salida);
+                canalDe.remove(salida);
+                retiradas = true;
+                continue;
+            }
+            salida.publicarFrame(frame);
+            entregas.increment();
+        }
+        if (retiradas) {
+            actualizarLatido();
+        }
+    }
+
+    public int getSuscriptores() {
+        return canalDe.size();
+    }
+
+    /**
+     * @param nivel un nivel
+     * @return salidas suscritas en ese nivel
+     */
+    public int getSuscriptores(NivelVideo nivel) {
+        Canal canal = canales[nivel.ordinal()];
+        return canal.suscriptores.size() + canal.nuevos.size();
+    }
+
+    public long getFramesCodificados() {
+        return formato.getFrames();
+    }
+
+    public long getEntregas() {
+        return entregas.sum();
+    }
+
+    public long getBytesCodificados() {
+        return formato.getBytes();
+    }
+
+    public long getCambios() {
+        EmisionPorCambios emision = porCambios;
+        return emision != null ? emision.getCambios() : 0;
+    }
+
+    public long getMantenimientos() {
+        EmisionPorCambios emision = porCambios;
+        return emision != null ? emision.getMantenimientos() : 0;
+    }
+
+    /**
+     * @return ticks del reloj saltados porque el frame anterior no terminaba
+     */
+    public long getTicksPerdidos() {
+        return ticksPerdidos.sum();
+    }
+
+    /**
+     * @return los canales de los niveles, para la {@link EmisionPorCambios}
+     */
+    Canal[] getCanales() {
+        return canales;
+    }
+
+    /**
+     * @return la serie que ejecuta las tareas del difusor
+     */
+    RelojFrames.Serie getSerie() {
+        return serie;
+    }
+
+    @Override
+    public String toString() {
+        long codificados = getFramesCodificados();
+        StringBuilder sb = new StringBuilder()
+            .append("codificados=").append(codificados)
+            .append(", bytes/frame=").append(codificados == 0 ? 0 : getBytesCodificados() / codificados)
+            .append(", entregas=").append(getEntregas())
+            .append(", suscriptores=").append(getSuscriptores())
+            .append(", ticks perdidos=").append(getTicksPerdidos());
+        if (adaptativo) {
+            sb.append(" (");
+            for (Canal canal : canales) {
+                sb.append(canal.nivel).append('=').append(getSuscriptores(canal.nivel))
+                    .append(canal.nivel.peor() != canal.nivel ? " " : "");
+            }
+            sb.append(')');
+        }
+        if (porCambios != null) {
+            sb.append(", cambios=").append(getCambios()).append(", mantenimientos=").append(getMantenimientos());
+        }
+        return sb.toString();
+    }
+}
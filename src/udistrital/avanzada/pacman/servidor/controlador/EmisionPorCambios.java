@@ -0,0 +1,143 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Emisión de un {@link DifusorVideo} solo cuando el juego cambia, en lugar de
+ * cada intervalo.
+ *
+ * <p>La superficie avisa cada vez que publica un estado y se emite un frame a
+ * lo sumo cada {@link DifusorVideo#INTERVALO_MS} por el divisor del nivel: los
+ * cambios que llegan antes se juntan en el mismo frame. Si pasa el tiempo de
+ * mantenimiento sin cambios se reenvía el estado actual, que en modo delta es
+ * un frame vacío. Un juego quieto no dibuja ni codifica nada entre esos
+ * reenvíos.
+ *
+ * <p>Lo que no es atómico o volátil solo lo usan las tareas del difusor.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+final class EmisionPorCambios {
+
+    private static final long NANOS_INTERVALO = TimeUnit.MILLISECONDS.toNanos(DifusorVideo.INTERVALO_MS);
+
+    private final DifusorVideo difusor;
+    private final long nanosMantenimiento;
+    /** Ticks del reloj entre revisiones de mantenimiento, o 0 sin mantenimiento. */
+    private final long ticksRevision;
+    /** Hay un frame programado por cambios que aún no empieza a codificarse. */
+    private final AtomicBoolean pendiente = new AtomicBoolean(false);
+    /** Hay una nueva revisión de canales sucios programada. */
+    private boolean reintentoProgramado = false;
+    private volatile long ultimaSenal = System.nanoTime();
+    private final LongAdder cambios = new LongAdder();
+    private final LongAdder mantenimientos = new LongAdder();
+
+    /**
+     * @param difusor el difusor que emite
+     * @param mantenimientoMs tiempo sin cambios tras el que se reenvía el
+     *                        estado (0 = nunca)
+     */
+    EmisionPorCambios(DifusorVideo difusor, long mantenimientoMs) {
+        this.difusor = difusor;
+        this.nanosMantenimiento = TimeUnit.MILLISECONDS.toNanos(Math.max(0, mantenimientoMs));
+        this.ticksRevision = mantenimientoMs > 0 ? Math.max(1, mantenimientoMs / 2 / DifusorVideo.INTERVALO_MS) : 0;
+    }
+
+    /**
+     * @return true si necesita los ticks del reloj para el mantenimiento
+     */
+    boolean usaReloj() {
+        return ticksRevision > 0;
+    }
+
+    /**
+     * Tick del reloj; corre en el hilo del reloj y solo encola trabajo.
+     */
+    void alTick(long numero) {
+        if (ticksRevision > 0 && numero % ticksRevision == 0) {
+            difusor.getSerie().execute(this::mantener);
+        }
+    }
+
+    /**
+     * Aviso de la superficie; corre en el hilo que cambió el juego.
+     */
+    void alCambiar() {
+        cambios.increment();
+        if (!pendiente.compareAndSet(false, true)) {
+            return;
+        }
+        long espera = ultimaSenal + NANOS_INTERVALO - System.nanoTime();
+        difusor.getSerie().programar(this::emitirCambio, Math.max(0, espera), TimeUnit.NANOSECONDS);
+    }
+
+    private void emitirCambio() {
+        // Se libera antes de dibujar: un cambio durante la codificación programa otro frame
+        pendiente.set(false);
+        ultimaSenal = System.nanoTime();
+        for (DifusorVideo.Canal canal : difusor.getCanales()) {
+            canal.sucio = true;
+        }
+        emitirSucios();
+    }
+
+    /**
+     * Emite los canales sucios cuyo nivel ya permite otro frame y programa una
+     * revisión para los demás.
+     */
+    void emitirSucios() {
+        long ahora = System.nanoTime();
+        long proxima = Long.MAX_VALUE;
+        for (DifusorVideo.Canal canal : difusor.getCanales()) {
+            if (!canal.sucio) {
+                continue;
+            }
+            if (!canal.activo()) {
+                // Quien entre después recibe su frame al suscribirse
+                canal.sucio = false;
+                continue;
+            }
+            long lista = canal.ultimaEmision + canal.nivel.getDivisor() * NANOS_INTERVALO;
+            if (ahora - lista >= 0) {
+                difusor.emitir(canal);
+            } else {
+                proxima = Math.min(proxima, lista - ahora);
+            }
+        }
+        if (proxima != Long.MAX_VALUE && !reintentoProgramado) {
+            reintentoProgramado = true;
+            difusor.getSerie().programar(() -> {
+                reintentoProgramado = false;
+                emitirSucios();
+            }, proxima, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void mantener() {
+        long ahora = System.nanoTime();
+        for (DifusorVideo.Canal canal : difusor.getCanales()) {
+            if (canal.activo() && !canal.sucio && ahora - canal.ultimaEmision >= nanosMantenimiento) {
+                mantenimientos.increment();
+                difusor.emitir(canal);
+            }
+        }
+    }
+
+    /**
+     * @return avisos de cambio recibidos
+     */
+    long getCambios() {
+        return cambios.sum();
+    }
+
+    /**
+     * @return frames reenviados sin cambios
+     */
+    long getMantenimientos() {
+        return mantenimientos.sum();
+    }
+}
@@ -0,0 +1,212 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.servidor.vista.SuperficieJuego;
+import udistrital.avanzada.pacman.util.CodificadorJpeg;
+import udistrital.avanzada.pacman.util.FramesDelta;
+import udistrital.avanzada.pacman.util.FramesEstado;
+import udistrital.avanzada.pacman.util.FramesPaleta;
+import udistrital.avanzada.pacman.util.RenderizadorJuego;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Formato de los frames de un {@link DifusorVideo}: JPEG completos, deltas
+ * por teselas ({@link FramesDelta}), la instantánea del juego
+ * ({@link FramesEstado}) o la imagen sin pérdida con la paleta del juego
+ * ({@link FramesPaleta}).
+ *
+ * <p>Cada nivel del difusor tiene su propio {@link Codificador}, que además
+ * da el frame independiente para quien entra al nivel. El formato cuenta los
+ * frames y bytes que codifican sus codificadores.
+ *
+ * <p>No es seguro para varios hilos: lo usan las tareas del difusor, de a una.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+abstract class FormatoVideo {
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Codifica los frames de un nivel.
+     */
+    interface Codificador {
+
+        /**
+         * @param superficie la superficie del difusor
+         * @return el frame actual, para los suscriptores del nivel
+         * @throws IOException si falla el codificador
+         */
+        byte[] codificar(SuperficieJuego superficie) throws IOException;
+
+        /**
+         * @param frame el frame que se acaba de codificar
+         * @return un frame que se puede mostrar solo con la misma imagen, para
+         *         quien entra al nivel; puede ser {@code frame}
+         * @throws IOException si falla el codificador
+         */
+        byte[] paraNuevos(byte[] frame) throws IOException;
+
+        /**
+         * @return un frame que se puede mostrar solo con la imagen del último
+         *         frame codificado, o null si aún no hay ninguno
+         * @throws IOException si falla el codificador
+         */
+        byte[] ultimo() throws IOException;
+    }
+
+    /**
+     * @param nivel el nivel, que fija la calidad y la escala
+     * @return un codificador nuevo para ese nivel
+     */
+    abstract Codificador nuevoCodificador(NivelVideo nivel);
+
+    /**
+     * @return JPEG completos con la calidad de cada nivel
+     */
+    static FormatoVideo jpeg() {
+        return new Completo() {
+            @Override
+            byte[] codificarCompleto(SuperficieJuego superficie, NivelVideo nivel) throws IOException {
+                return CodificadorJpeg.codificar(dibujar(superficie, nivel), nivel.getCalidad());
+            }
+        };
+    }
+
+    /**
+     * @param tesela lado de las teselas en píxeles
+     * @param intervaloClave frames entre claves
+     * @return frames delta: solo las teselas que cambiaron, con claves periódicas
+     */
+    static FormatoVideo delta(int tesela, int intervaloClave) {
+        return new Delta(Math.max(8, tesela), intervaloClave);
+    }
+
+    /**
+     * @return la instantánea del juego, que dibuja el cliente; no se dibuja nada
+     */
+    static FormatoVideo estado() {
+        return new Completo() {
+            @Override
+            byte[] codificarCompleto(SuperficieJuego superficie, NivelVideo nivel) {
+                return FramesEstado.codificar(superficie.getInstantanea(), ++secuencia,
+                    superficie.getAncho(), superficie.getAlto());
+            }
+        };
+    }
+
+    /**
+     * @param comprimir true para comprimir las corridas con Deflate
+     * @return imágenes completas sin pérdida; el nivel solo cambia el ritmo y la escala
+     */
+    static FormatoVideo paleta(boolean comprimir) {
+        return new Completo() {
+            @Override
+            byte[] codificarCompleto(SuperficieJuego superficie, NivelVideo nivel) {
+                return FramesPaleta.codificar(dibujar(superficie, nivel), ++secuencia, comprimir);
+            }
+        };
+    }
+
+    /**
+     * @return frames codificados
+     */
+    long getFrames() {
+        return frames.sum();
+    }
+
+    /**
+     * @return bytes codificados
+     */
+    long getBytes() {
+        return bytes.sum();
+    }
+
+    byte[] contar(byte[] frame) {
+        frames.increment();
+        bytes.add(frame.length);
+        return frame;
+    }
+
+    static BufferedImage dibujar(SuperficieJuego superficie, NivelVideo nivel) {
+        return RenderizadorJuego.renderizar(superficie.getInstantanea(),
+            superficie.getAncho(), superficie.getAlto(), nivel.getEscala());
+    }
+
+    /**
+     * Formatos en los que cada frame es completo: el último sirve tal cual a
+     * quien entra al nivel.
+     */
+    private abstract static class Completo extends FormatoVideo {
+
+        /** Secuencia de los frames de estado y de paleta, común a los niveles. */
+        int secuencia = 0;
+
+        abstract byte[] codificarCompleto(SuperficieJuego superficie, NivelVideo nivel) throws IOException;
+
+        @Override
+        Codificador nuevoCodificador(NivelVideo nivel) {
+            return new Codificador() {
+
+                private byte[] ultimo;
+
+                @Override
+                public byte[] codificar(SuperficieJuego superficie) throws IOException {
+                    ultimo = contar(codificarCompleto(superficie, nivel));
+                    return ultimo;
+                }
+
+                @Override
+                public byte[] paraNuevos(byte[] frame) {
+                    return frame;
+                }
+
+                @Override
+                public byte[] ultimo() {
+                    return ultimo;
+                }
+            };
+        }
+    }
+
+    /**
+     * Frames delta. Quien entra a un nivel recibe un frame clave propio con la
+     * misma secuencia que el último delta, sin forzar claves para los demás.
+     */
+    private static final class Delta extends FormatoVideo {
+
+        private final int tesela;
+        private final int intervaloClave;
+
+        Delta(int tesela, int intervaloClave) {
+            this.tesela = tesela;
+            this.intervaloClave = intervaloClave;
+        }
+
+        @Override
+        Codificador nuevoCodificador(NivelVideo nivel) {
+            CodificadorDelta delta = new CodificadorDelta(tesela, intervaloClave, nivel.getCalidad());
+            return new Codificador() {
+
+                @Override
+                public byte[] codificar(SuperficieJuego superficie) throws IOException {
+                    return contar(delta.codificar(dibujar(superficie, nivel)));
+                }
+
+                @Override
+                public byte[] paraNuevos(byte[] frame) throws IOException {
+                    return FramesDelta.esClave(frame) ? frame : contar(delta.codificarClave());
+                }
+
+                @Override
+                public byte[] ultimo() throws IOException {
+                    return delta.tieneReferencia() ? contar(delta.codificarClave()) : null;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.EscrituraMapeada;
+import udistrital.avanzada.pacman.util.GrabacionVideo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Graba el video que recibe cada sesión en archivos de {@link GrabacionVideo}.
+ *
+ * <p>Quien envía los frames (el difusor o un bucle NIO) solo los deja en una
+ * cola acotada; un hilo propio los escribe en los archivos mapeados de cada
+ * sesión. Si la cola se llena el frame se descarta y se cuenta: grabar nunca
+ * atrasa el envío. Tras un descarte, los frames delta de esa sesión se omiten
+ * hasta el siguiente frame clave, para no grabar frames que no se pueden
+ * reconstruir.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class GrabadorVideo {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * Frame pendiente de escribir; sin datos indica el cierre de la grabación.
+     */
+    private static final class Pendiente {
+
+        final Grabacion grabacion;
+        final byte[] frame;
+        final long nanos;
+
+        Pendiente(Grabacion grabacion, byte[] frame, long nanos) {
+            this.grabacion = grabacion;
+            this.frame = frame;
+            this.nanos = nanos;
+        }
+    }
+
+    private final Path directorio;
+    private final BlockingQueue<Pendiente> cola;
+    /** Cierres que no cupieron en la cola; se aplican cuando ya no quedan frames de esa grabación en ella. */
+    private final ConcurrentLinkedQueue<Grabacion> cierresPendientes = new ConcurrentLinkedQueue<>();
+    /** Grabaciones con archivos abiertos; solo las toca el hilo escritor. */
+    private final Set<Grabacion> abiertas = new HashSet<>();
+    private final AtomicInteger numeroGrabacion = new AtomicInteger();
+    private final Thread hilo;
+    private volatile boolean activo = true;
+    private final LongAdder grabados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * Constructor del grabador; inicia el hilo escritor.
+     *
+     * @param directorio carpeta de las grabaciones (se crea si no existe)
+     * @param capacidadCola frames que pueden esperar a escribirse
+     */
+    public GrabadorVideo(Path directorio, int capacidadCola) {
+        this.directorio = directorio;
+        this.cola = new ArrayBlockingQueue<>(Math.max(1, capacidadCola));
+        this.hilo = new Thread(this::escribir, "GrabadorVideo");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Empieza la grabación de una sesión. El archivo se crea con el primer frame.
+     *
+     * @param nombre nombre del jugador, parte del nombre del archivo
+     * @return la grabación, que debe cerrarse al terminar la sesión
+     */
+    public Grabacion abrir(String nombre) {
+        String base = (nombre == null ? "sesion" : nombre).replaceAll("[^A-Za-z0-9_-]", "_");
+        return new Grabacion(base + "-" + LocalDateTime.now().format(FORMATO_FECHA)
+            + "-" + numeroGrabacion.incrementAndGet());
+    }
+
+    /**
+     * Detiene el hilo escritor: escribe lo que queda en la cola y cierra las
+     * grabaciones abiertas. Espera a lo sumo un par de segundos.
+     */
+    public void detener() {
+        activo = false;
+        try {
+            // Sin interrumpir: un canal de archivo se cierra si su hilo se interrumpe
+            hilo.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Grabación de una sesión. {@link #grabar(byte[])} y {@link #cerrar()}
+     * no bloquean y se pueden llamar desde cualquier hilo.
+     */
+    public final class Grabacion {
+
+        private final String nombre;
+        private final long inicioNanos = System.nanoTime();
+        private final long inicioMs = System.currentTimeMillis();
+        private volatile boolean cerrada = false;
+        /** Frames de esta grabación que esperan en la cola. */
+        private final AtomicInteger enCola = new AtomicInteger();
+        /** Hubo un descarte y falta un frame independiente. Solo lo usa quien graba. */
+        private boolean esperandoClave = false;
+
+        // Estado del hilo escritor
+        private EscrituraMapeada video;
+        private EscrituraMapeada indice;
+        private int frames = 0;
+        private boolean terminada = false;
+
+        private Grabacion(String nombre) {
+            this.nombre = nombre;
+        }
+
+        /**
+         * Encola un frame tal como se envió al cliente.
+         *
+         * @param frame bytes del frame; no deben modificarse después
+         */
+        public void grabar(byte[] frame) {
+            if (cerrada || !activo) {
+                return;
+            }
+            if (esperandoClave) {
+                if (!GrabacionVideo.esIndependiente(frame)) {
+                    descartados.increment();
+                    return;
+                }
+                esperandoClave = false;
+            }
+            enCola.incrementAndGet();
+            if (!cola.offer(new Pendiente(this, frame, System.nanoTime()))) {
+                enCola.decrementAndGet();
+                descartados.increment();
+                esperandoClave = true;
+            }
+        }
+
+        /**
+         * Termina la grabación; los frames ya encolados se escriben antes de cerrar.
+         */
+        public void cerrar() {
+            if (cerrada) {
+                return;
+            }
+            cerrada = true;
+            if (!cola.offer(new Pendiente(this, null, 0))) {
+                cierresPendientes.add(this);
+            }
+        }
+
+        /**
+         * @return nombre de los archivos, sin extensión
+         */
+        public String getNombre() {
+            return nombre;
+        }
+
+        private void escribir(byte[] frame, long nanos) throws IOException {
+            if (video == null) {
+                Files.createDirectories(directorio);
+                video = new EscrituraMapeada(directorio.resolve(nombre + GrabacionVideo.EXTENSION_VIDEO));
+                indice = new EscrituraMapeada(directorio.resolve(nombre + GrabacionVideo.EXTENSION_INDICE));
+                video.reservar(GrabacionVideo.CABECERA_VIDEO).putInt(GrabacionVideo.MAGIA_VIDEO)
+                    .putInt(GrabacionVideo.VERSION).putLong(inicioMs);
+                indice.reservar(GrabacionVideo.CABECERA_INDICE).putInt(GrabacionVideo.MAGIA_INDICE)
+                    .putInt(GrabacionVideo.VERSION);
+                abiertas.add(this);
+            }
+            long ms = TimeUnit.NANOSECONDS.toMillis(nanos - inicioNanos);
+            long posicion = video.getPosicion();
+            video.reservar(GrabacionVideo.CABECERA_FRAME + frame.length)
+                .putInt(frame.length).putInt(frames).putLong(ms).put(frame);
+            if (GrabacionVideo.esIndependiente(frame)) {
+                indice.reservar(GrabacionVideo.ENTRADA_INDICE).putLong(ms).putLong(posicion).putInt(frames);
+            }
+            frames++;
+            grabados.increment();
+            bytes.add(frame.length);
+        }
+
+        private void terminar() {
+            if (terminada) {
+                return;
+            }
+            terminada = true;
+            abiertas.remove(this);
+            try {
+                if (video != null) video.close();
+                if (indice != null) indice.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar la grabación " + nombre + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void escribir() {
+        try {
+            while (activo) {
+                Pendiente p = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (p != null) {
+                    procesar(p);
+                }
+                cerrarPendientes();
+            }
+        } catch (InterruptedException e) {
+            // Detenido
+        } finally {
+            Pendiente p;
+            while ((p = cola.poll()) != null) {
+                procesar(p);
+            }
+            cerrarPendientes();
+            for (Grabacion g : abiertas.toArray(new Grabacion[0])) {
+                g.terminar();
+            }
+        }
+    }
+
+    private void cerrarPendientes() {
+        for (Iterator<Grabacion> it = cierresPendientes.iterator(); it.hasNext(); ) {
+            Grabacion g = it.next();
+            if (g.enCola.get() == 0 || !activo) {
+                it.remove();
+                g.terminar();
+            }
+        }
+    }
+
+    private void procesar(Pendiente p) {
+        Grabacion g = p.grabacion;
+        if (p.frame == null) {
+            g.terminar();
+            return;
+        }
+        g.enCola.decrementAndGet();
+        if (g.terminada) {
+            // Llegó después del cierre o de un error de escritura
+            descartados.increment();
+            return;
+        }
+        try {
+            g.escribir(p.frame, p.nanos);
+        } catch (IOException e) {
+            System.err.println("Error al grabar " + g.nombre + ": " + e.getMessage());
+            g.terminar();
+        }
+    }
+
+    /**
+     * @return frames escritos
+     */
+    public long getGrabados() {
+        return grabados.sum();
+    }
+
+    /**
+     * @return frames que no se grabaron por cola llena
+     */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "grabados=" + grabados.sum() + " descartados=" + descartados.sum()
+            + " KB=" + bytes.sum() / 1024;
+    }
+}
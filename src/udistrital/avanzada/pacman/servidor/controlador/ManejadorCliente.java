@@ -1,22 +1,33 @@
 package udistrital.avanzada.pacman.servidor.controlador;
 
 import udistrital.avanzada.pacman.dao.IJugadorDAO;
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.protocolo.ResultadoLote;
+import udistrital.avanzada.pacman.protocolo.ResultadoMovimiento;
 import udistrital.avanzada.pacman.servidor.modelo.Juego;
 import udistrital.avanzada.pacman.servidor.modelo.Jugador;
-import udistrital.avanzada.pacman.servidor.modelo.PacMan;
-import udistrital.avanzada.pacman.servidor.vista.PanelJuego;
+import udistrital.avanzada.pacman.util.AnilloFrames;
+import udistrital.avanzada.pacman.util.Configuracion;
+import udistrital.avanzada.pacman.util.FragmentosVideo;
 import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.util.MensajeProtocolo;
 
-import java.awt.Dimension;
+import java.io.IOException;
 import java.net.Socket;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
  * Maneja la comunicación con un cliente individual en un hilo separado.
+ * El hilo (de plataforma o virtual) lo crea la fábrica recibida.
  * 
  * <p>Esta clase es responsable de:
  * - Autenticación del cliente
- * - Gestión del juego para ese cliente
+ * - Gestión del juego para ese cliente, en su propia partida del {@link RegistroSesiones}
  * - Comunicación bidireccional
+ * - Envío del video de otra sesión a un espectador ({@code ESPECTAR:jugador})
  * 
  * Sigue el principio de responsabilidad única (SRP) y permite que el servidor
  * maneje múltiples clientes concurrentemente.
@@ -24,54 +35,128 @@ import java.net.Socket;
  * @author And_Gar03
  * @version 1.0
  */
-public class ManejadorCliente extends Thread {
+public class ManejadorCliente implements Runnable {
     
     private final Socket clienteSocket;
     private final IJugadorDAO jugadorDAO;
-    private final PanelJuego gamePanel;
-    private final ManejadorSockets manejadorSockets;
+    private final RegistroSesiones partidas;
     private final ManejadorResultados manejadorResultados;
-    private final Dimension areaJuego;
+    private final ThreadFactory fabricaHilos;
+    private final ManejadorSockets.Protocolo protocolosAceptados;
+    private final ControlAdmision.Admision admision;
+    private final Consumer<ManejadorCliente> alTerminar;
+    private final ServidorVideoUDP videoUDP;
+    private final VigilanteInactividad vigilante;
+    private final GrabadorVideo grabador;
+    private final SalaEspectadores sala;
+    private final long conectadoEn = System.nanoTime();
     
+    private volatile ManejadorSockets manejadorSockets;
+    private Thread hilo;
     private Juego juego;
     private Jugador jugador;
+    /** Superficie y difusor del juego de este cliente. */
+    private RegistroSesiones.Partida partida;
     private StreamSender streamSender;
+    private ServidorVideoUDP.SesionVideo sesionVideo;
+    private VigilanteInactividad.Vigilancia vigilancia;
+    private GrabadorVideo.Grabacion grabacion;
+    private SalaEspectadores.Transmision transmision;
+    /** Sesión que mira este cliente si entró como espectador. */
+    private SalaEspectadores.Transmision mirada;
     
     /**
      * Constructor del manejador de cliente.
      * 
      * @param clienteSocket El socket del cliente
      * @param jugadorDAO El DAO para validar credenciales
-     * @param gamePanel El panel de juego para actualizar
-     * @param areaJuego Las dimensiones del área de juego
+     * @param partidas El registro donde se abre la partida de este cliente
+     * @param fabricaHilos La fábrica de los hilos de este cliente
+     * @param protocolosAceptados Protocolo aceptado (AUTO acepta legado y binario)
+     * @param admision El lugar reservado por el control de admisión
+     * @param alTerminar Se invoca con este manejador al cerrar la conexión
+     * @param videoUDP El canal de video UDP, o null si está deshabilitado
+     * @param vigilante Detector de inactividad, o null para no cerrar sesiones inactivas
+     * @param grabador Grabador del video de las sesiones, o null para no grabar
+     * @param sala Sesiones que se pueden mirar, o null para no admitir espectadores
      */
     public ManejadorCliente(Socket clienteSocket, IJugadorDAO jugadorDAO, 
-                        PanelJuego gamePanel, Dimension areaJuego) {
+                        RegistroSesiones partidas, ThreadFactory fabricaHilos,
+                        ManejadorSockets.Protocolo protocolosAceptados,
+                        ControlAdmision.Admision admision, Consumer<ManejadorCliente> alTerminar,
+                        ServidorVideoUDP videoUDP, VigilanteInactividad vigilante,
+                        GrabadorVideo grabador, SalaEspectadores sala) {
         this.clienteSocket = clienteSocket;
         this.jugadorDAO = jugadorDAO;
-        this.gamePanel = gamePanel;
-        this.areaJuego = areaJuego;
+        this.partidas = partidas;
+        this.fabricaHilos = fabricaHilos;
+        this.protocolosAceptados = protocolosAceptados;
+        this.admision = admision;
+        this.alTerminar = alTerminar;
+        this.videoUDP = videoUDP;
+        this.vigilante = vigilante;
+        this.grabador = grabador;
+        this.sala = sala;
         this.manejadorResultados = new ManejadorResultados();
-        
-        try {
-            this.manejadorSockets = new ManejadorSockets(clienteSocket);
-        } catch (Exception e) {
-            throw new RuntimeException("Error al crear manejador de sockets", e);
+    }
+    
+    /**
+     * Inicia la atención del cliente en un hilo nuevo.
+     */
+    public void iniciar() {
+        hilo = fabricaHilos.newThread(this);
+        hilo.setName("ManejadorCliente-" + clienteSocket.getPort());
+        hilo.start();
+    }
+    
+    /**
+     * Detiene la atención del cliente si sigue activa.
+     */
+    public void detener() {
+        if (hilo != null && hilo.isAlive()) {
+            hilo.interrupt();
+            cerrarConexion();
         }
     }
     
     @Override
     public void run() {
+        if (vigilante != null) {
+            // Desde el principio: también cubre a quien conecta y nunca saluda
+            vigilancia = vigilante.vigilar(new SesionVigilada());
+        }
         try {
+            // Paso 0: Saludo y detección del protocolo (fuera del hilo que acepta conexiones)
+            manejadorSockets = new ManejadorSockets(clienteSocket, fabricaHilos, protocolosAceptados);
+            
             // Paso 1: Autenticación
             if (!autenticarCliente()) {
                 return;
             }
+            admision.autenticada();
+            if (vigilancia != null && manejadorSockets.getProtocolo() == ManejadorSockets.Protocolo.LEGADO) {
+                // Sin latidos, un cliente legado que solo mira el video parecería inactivo
+                vigilancia.cancelar();
+            }
+            if (mirada != null) {
+                ejecutarEspectador();
+                return;
+            }
             
-            // Paso 2: Inicializar juego
+            // Paso 2: Inicializar juego en su propia superficie, con su propio difusor
+            partida = partidas.abrir(jugador.getNombre());
             inicializarJuego();
-            // Iniciar streaming de video (25 FPS aprox)
-            streamSender = new StreamSender(manejadorSockets, gamePanel, 40);
+            streamSender = new StreamSender(manejadorSockets, partida.getDifusor());
+            if (grabador != null) {
+                grabacion = grabador.abrir(jugador.getNombre());
+                streamSender.grabarEn(grabacion);
+            }
+            if (sala != null) {
+                transmision = sala.abrir(jugador.getNombre(), streamSender::pedirClave);
+                if (transmision != null) {
+                    streamSender.transmitirA(transmision);
+                }
+            }
             streamSender.start();
             
             // Paso 3: Bucle principal del juego
@@ -80,15 +165,85 @@ public class ManejadorCliente extends Thread {
         } catch (Exception e) {
             System.err.println("Error en ClientHandler: " + e.getMessage());
         } finally {
+            if (vigilancia != null) {
+                vigilancia.cancelar();
+            }
             if (streamSender != null && streamSender.isAlive()) {
                 streamSender.stopStreaming();
             }
+            if (grabacion != null) {
+                grabacion.cerrar();
+            }
+            if (transmision != null) {
+                transmision.cerrar();
+            }
+            if (partida != null) {
+                partida.cerrar();
+            }
+            cerrarConexion();
+            if (sesionVideo != null) {
+                sesionVideo.cerrar();
+            }
+            admision.liberar();
+            alTerminar.accept(this);
+            if (Configuracion.DEPURACION && streamSender != null) {
+                System.out.println("Video " + clienteSocket.getInetAddress() + ": "
+                    + manejadorSockets.getBuzonEnvio()
+                    + (streamSender.estadisticasNivel().isEmpty() ? "" : " | " + streamSender.estadisticasNivel())
+                    + (sesionVideo != null ? " | " + sesionVideo : ""));
+            }
+        }
+    }
+    
+    /**
+     * Cierra la conexión, aunque el saludo no haya terminado.
+     */
+    private void cerrarConexion() {
+        if (manejadorSockets != null) {
             manejadorSockets.cerrar();
+        } else {
+            try {
+                clienteSocket.close();
+            } catch (IOException ignored) {}
         }
     }
     
     /**
-     * Autentica al cliente solicitando usuario y contraseña.
+     * Adapta la conexión al {@link VigilanteInactividad}. Antes del saludo la
+     * inactividad se cuenta desde que se aceptó la conexión. Los clientes del
+     * protocolo legado no reciben latidos: no saben responderlos.
+     */
+    private final class SesionVigilada implements VigilanteInactividad.Sesion {
+
+        @Override
+        public long getNanosInactivo() {
+            ManejadorSockets ms = manejadorSockets;
+            return ms != null ? ms.getNanosInactivo() : System.nanoTime() - conectadoEn;
+        }
+
+        @Override
+        public void enviarPing() {
+            ManejadorSockets ms = manejadorSockets;
+            if (ms != null && ms.getProtocolo() == ManejadorSockets.Protocolo.BINARIO) {
+                ms.enviarPingAsincrono();
+            }
+        }
+
+        @Override
+        public void cerrarPorInactividad() {
+            ManejadorSockets ms = manejadorSockets;
+            if (ms != null) {
+                ms.abortar();
+            } else {
+                cerrarConexion();
+            }
+        }
+    }
+    
+    /**
+     * Autentica al cliente solicitando usuario y contraseña. Un espectador
+     * responde al primer {@code Usuario:} con {@code ESPECTAR:jugador} y luego
+     * da sus propias credenciales.
      * 
      * @return true si la autenticación fue exitosa, false en caso contrario
      */
@@ -99,6 +254,18 @@ public class ManejadorCliente extends Thread {
             String usuario = manejadorSockets.leerLinea();
             if (usuario != null) usuario = usuario.trim();
             
+            // Espectador: ESPECTAR:jugador en lugar del usuario, y de nuevo el usuario
+            String mirado = SalaEspectadores.jugadorAMirar(usuario);
+            if (mirado != null) {
+                if (sala == null) {
+                    manejadorSockets.escribirLinea("Espectadores deshabilitados");
+                    return false;
+                }
+                manejadorSockets.escribirLinea("Usuario:");
+                usuario = manejadorSockets.leerLinea();
+                if (usuario != null) usuario = usuario.trim();
+            }
+            
             // Solicitar contraseña
             manejadorSockets.escribirLinea("Contraseña:");
             String contraseña = manejadorSockets.leerLinea();
@@ -117,6 +284,14 @@ public class ManejadorCliente extends Thread {
                 return false;
             }
             
+            if (mirado != null) {
+                mirada = sala.buscar(mirado);
+                if (mirada == null) {
+                    manejadorSockets.escribirLinea("No hay una partida activa de " + mirado);
+                    return false;
+                }
+            }
+            
             manejadorSockets.escribirLinea("Autenticación exitosa. Bienvenido " + jugador.getNombre());
             return true;
             
@@ -130,35 +305,54 @@ public class ManejadorCliente extends Thread {
      * Inicializa un nuevo juego para este cliente.
      */
     private void inicializarJuego() {
-        juego = new Juego(areaJuego);
+        juego = new Juego(partidas.getAreaJuego());
         actualizarVista();
         manejadorSockets.escribirLinea("Juego iniciado. Envía comandos: arriba, abajo, izquierda, derecha");
     }
     
     /**
-     * Ejecuta el bucle principal del juego.
+     * Ejecuta el bucle principal del juego. Un comando puede traer un lote de
+     * movimientos: se aplican en orden y se responde una sola vez.
      */
     private void ejecutarJuego() {
         while (!juego.isJuegoTerminado() && !manejadorSockets.estaCerrado()) {
-            String comando = manejadorSockets.leerLinea();
+            MensajeProtocolo comando = manejadorSockets.leerMensaje();
             
-            if (comando == null || comando.equalsIgnoreCase("salir")) {
+            if (comando == null || comando.toTexto().equalsIgnoreCase("salir")) {
                 break;
             }
             
-            // Procesar movimiento
-            PacMan.Direccion direccion = PacMan.parsearDireccion(comando);
+            if (comando.toTexto().trim().equalsIgnoreCase(FragmentosVideo.COMANDO)) {
+                activarVideoUDP();
+                continue;
+            }
             
-            if (direccion == null) {
-                manejadorSockets.escribirLinea("Comando inválido. Usa: arriba, abajo, izquierda, derecha");
+            if (comando.toTexto().trim().equalsIgnoreCase(MensajeProtocolo.COMANDO_CLAVE)) {
+                // El cliente descartó un frame: sin respuesta, le llega un frame clave
+                if (streamSender != null) {
+                    streamSender.pedirClave();
+                }
                 continue;
             }
             
-            Juego.ResultadoMovimiento resultado = juego.procesarMovimiento(direccion);
-            actualizarVista();
+            // Procesar movimiento o lote (códigos binarios o comandos de texto)
+            Direccion[] direcciones = comando.comoDirecciones();
+            
+            if (direcciones == null) {
+                manejadorSockets.escribirLinea("Comando inválido. Usa: arriba, abajo, izquierda, derecha");
+                continue;
+            }
             
             // Enviar respuesta al cliente
-            manejadorSockets.escribirLinea(resultado.getMensaje());
+            if (direcciones.length == 1) {
+                ResultadoMovimiento resultado = juego.procesarMovimiento(direcciones[0]);
+                actualizarVista();
+                manejadorSockets.enviarMensaje(MensajeProtocolo.resultado(resultado));
+            } else {
+                ResultadoLote lote = juego.procesarLote(direcciones);
+                actualizarVista();
+                manejadorSockets.enviarMensaje(MensajeProtocolo.resultadoLote(lote));
+            }
             
             // Si el juego terminó
             if (juego.isJuegoTerminado()) {
@@ -168,18 +362,100 @@ public class ManejadorCliente extends Thread {
                 manejadorResultados.guardarResultado(jugador.getNombre(), puntaje, tiempo);
                 
                 // Enviar resultado final
-                manejadorSockets.escribirLinea("FIN_JUEGO:Puntaje=" + puntaje + ",Tiempo=" + tiempo + "s");
+                manejadorSockets.enviarMensaje(MensajeProtocolo.finJuego(puntaje, tiempo));
                 break;
             }
         }
     }
     
     /**
-     * Actualiza la vista con el estado actual del juego.
+     * Envía al espectador los frames de la sesión que mira hasta que salga o la
+     * partida termine. Las escrituras bloquean solo a este hilo: si el
+     * espectador va lento, su lector salta frames en el anillo. Sin frames ni
+     * comandos el hilo se estaciona; el anillo y la cola de mensajes lo
+     * despiertan.
+     */
+    private void ejecutarEspectador() {
+        Thread hiloEspectador = Thread.currentThread();
+        Runnable despertar = () -> LockSupport.unpark(hiloEspectador);
+        AnilloFrames.Lector lector = mirada.mirar(despertar);
+        if (lector == null) {
+            manejadorSockets.escribirLinea("La partida de " + mirada.getJugador() + " ya terminó");
+            return;
+        }
+        manejadorSockets.escribirLinea("Espectando a " + mirada.getJugador() + " (solo lectura)");
+        manejadorSockets.avisarMensajes(despertar);
+        try {
+            while (!manejadorSockets.estaCerrado() && !hiloEspectador.isInterrupted()) {
+                byte[] frame = lector.sondear();
+                if (frame != null) {
+                    manejadorSockets.enviarFrame(frame);
+                }
+                if (!atenderEspectador()) {
+                    break;
+                }
+                if (frame == null) {
+                    if (lector.estaCerrado()) {
+                        manejadorSockets.escribirLinea("La partida de " + mirada.getJugador() + " terminó");
+                        break;
+                    }
+                    // Un aviso entre sondear y park deja el permiso: no se pierde
+                    LockSupport.park(this);
+                }
+            }
+        } finally {
+            manejadorSockets.avisarMensajes(null);
+            mirada.dejarDeMirar(lector);
+            if (Configuracion.DEPURACION) {
+                System.out.println("Espectador " + jugador.getNombre() + " de " + mirada.getJugador() + ": " + lector);
+            }
+        }
+    }
+    
+    /**
+     * Responde los comandos que envió el espectador sin esperar.
+     *
+     * @return false si pidió salir
+     */
+    private boolean atenderEspectador() {
+        MensajeProtocolo comando;
+        while ((comando = manejadorSockets.leerMensaje(0, TimeUnit.MILLISECONDS)) != null) {
+            String texto = comando.toTexto().trim();
+            if (texto.equalsIgnoreCase("salir")) {
+                return false;
+            }
+            if (texto.equalsIgnoreCase(MensajeProtocolo.COMANDO_CLAVE)) {
+                // El espectador espera la próxima clave periódica del jugador
+                continue;
+            }
+            manejadorSockets.escribirLinea(texto.equalsIgnoreCase(FragmentosVideo.COMANDO)
+                ? FragmentosVideo.RESPUESTA_NO : "Modo espectador: solo lectura");
+        }
+        return true;
+    }
+    
+    /**
+     * Pasa el video de este cliente al canal UDP, si está habilitado; la
+     * autenticación y los comandos siguen por TCP.
+     */
+    private void activarVideoUDP() {
+        if (videoUDP == null) {
+            manejadorSockets.escribirLinea(FragmentosVideo.RESPUESTA_NO);
+            return;
+        }
+        if (sesionVideo == null) {
+            sesionVideo = videoUDP.registrar();
+            streamSender.redirigir(sesionVideo);
+        }
+        manejadorSockets.escribirLinea(sesionVideo.respuesta());
+    }
+    
+    /**
+     * Publica el estado actual del juego en la superficie de la partida.
      */
     private void actualizarVista() {
         if (juego != null) {
-            gamePanel.actualizarEstado(juego.getPacMan(), juego.getItems());
+            partida.actualizar(juego);
         }
     }
 }
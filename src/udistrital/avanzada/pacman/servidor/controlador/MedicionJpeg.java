@@ -0,0 +1,79 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.servidor.modelo.Juego;
+import udistrital.avanzada.pacman.util.CodificadorJpeg;
+import udistrital.avanzada.pacman.util.RenderizadorJuego;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import javax.imageio.ImageIO;
+
+/**
+ * Compara {@code ImageIO.write} con {@link CodificadorJpeg} al codificar un
+ * frame del juego.
+ *
+ * <p>Dibuja un juego recién iniciado con {@link RenderizadorJuego}, verifica
+ * que ambos caminos produzcan los mismos bytes y mide, tras un calentamiento,
+ * el tiempo y los bytes asignados por frame (según {@code ThreadMXBean}).
+ *
+ * <p>Uso: {@code java udistrital.avanzada.pacman.servidor.controlador.MedicionJpeg [frames] [ancho] [alto]}
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class MedicionJpeg {
+
+    private static final int CALENTAMIENTO = 300;
+
+    public static void main(String[] args) throws Exception {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int ancho = args.length > 1 ? Integer.parseInt(args[1]) : 800;
+        int alto = args.length > 2 ? Integer.parseInt(args[2]) : 600;
+        Juego juego = new Juego(new Dimension(ancho, alto));
+        BufferedImage imagen = RenderizadorJuego.renderizar(juego.getInstantanea(), ancho, alto);
+        float calidad = CodificadorJpeg.CALIDAD_POR_DEFECTO;
+
+        Callable<byte[]> imageIO = () -> {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(64 * 1024);
+            ImageIO.write(imagen, "jpg", salida);
+            return salida.toByteArray();
+        };
+        Callable<byte[]> codificador = () -> CodificadorJpeg.codificar(imagen, calidad);
+
+        boolean iguales = Arrays.equals(imageIO.call(), codificador.call());
+        System.out.println("Frame " + ancho + "x" + alto + ", mismos bytes: " + (iguales ? "sí" : "no"));
+        medir("ImageIO.write", imageIO, frames);
+        medir("CodificadorJpeg", codificador, frames);
+    }
+
+    private static void medir(String nombre, Callable<byte[]> codificar, int frames) throws Exception {
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            codificar.call();
+        }
+        long asignadosAntes = bytesAsignados();
+        long inicio = System.nanoTime();
+        long bytes = 0;
+        for (int i = 0; i < frames; i++) {
+            bytes += codificar.call().length;
+        }
+        long nanos = System.nanoTime() - inicio;
+        long asignados = bytesAsignados() - asignadosAntes;
+        System.out.printf("%-16s %7.2f ms/frame  %8d KB asignados/frame  %6d bytes/frame%n",
+            nombre, nanos / 1e6 / frames, asignadosAntes < 0 ? -1 : asignados / frames / 1024, bytes / frames);
+    }
+
+    /**
+     * @return bytes asignados por el hilo actual, o -1 si la JVM no lo mide
+     */
+    private static long bytesAsignados() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx
+                && mx.isThreadAllocatedMemorySupported()) {
+            return mx.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return -1;
+    }
+}
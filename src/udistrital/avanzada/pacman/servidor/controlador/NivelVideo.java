@@ -0,0 +1,69 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+/**
+ * Niveles de calidad del video, de mejor a peor.
+ *
+ * <p>Cada nivel fija cada cuántos intervalos del {@link DifusorVideo} sale un
+ * frame, la calidad JPEG y la escala de la imagen. El difusor codifica una vez
+ * por nivel con suscriptores, no por conexión.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public enum NivelVideo {
+
+    /** 25 FPS, calidad por defecto de ImageIO, tamaño completo. */
+    ALTA(1, 0.75f, 1.0f),
+    /** 12,5 FPS. */
+    MEDIA(2, 0.6f, 1.0f),
+    /** 8,3 FPS a tres cuartos del tamaño. */
+    BAJA(3, 0.5f, 0.75f),
+    /** 5 FPS a la mitad del tamaño. */
+    MINIMA(5, 0.35f, 0.5f);
+
+    private final int divisor;
+    private final float calidad;
+    private final float escala;
+
+    NivelVideo(int divisor, float calidad, float escala) {
+        this.divisor = divisor;
+        this.calidad = calidad;
+        this.escala = escala;
+    }
+
+    /**
+     * @return intervalos de {@link DifusorVideo#INTERVALO_MS} entre frames
+     */
+    public int getDivisor() {
+        return divisor;
+    }
+
+    /**
+     * @return calidad JPEG entre 0 y 1
+     */
+    public float getCalidad() {
+        return calidad;
+    }
+
+    /**
+     * @return factor de escala de la imagen
+     */
+    public float getEscala() {
+        return escala;
+    }
+
+    /**
+     * @return el nivel siguiente hacia abajo, o este si es el último
+     */
+    public NivelVideo peor() {
+        NivelVideo[] niveles = values();
+        return ordinal() + 1 < niveles.length ? niveles[ordinal() + 1] : this;
+    }
+
+    /**
+     * @return el nivel siguiente hacia arriba, o este si es el primero
+     */
+    public NivelVideo mejor() {
+        return ordinal() > 0 ? values()[ordinal() - 1] : this;
+    }
+}
@@ -0,0 +1,185 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.servidor.modelo.Juego;
+import udistrital.avanzada.pacman.servidor.vista.SuperficieSesion;
+import udistrital.avanzada.pacman.util.RelojFrames;
+import udistrital.avanzada.pacman.util.RuedaTemporizadores;
+
+import java.awt.Dimension;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Partidas en curso del servidor.
+ *
+ * <p>Cada {@link Partida} tiene su propia {@link SuperficieSesion} y su propio
+ * {@link DifusorVideo}: los juegos no comparten un panel, cada cliente recibe
+ * solo su juego y el costo de video crece con las partidas, no con una
+ * superficie disputada. Todos los difusores siguen el {@link RelojFrames} del
+ * registro. Al cerrar la partida su difusor suelta las salidas y el reloj;
+ * {@link #detener()} detiene el reloj al apagar el servidor.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class RegistroSesiones {
+
+    /**
+     * Recibe las partidas que se abren y se cierran, p. ej. la ventana del
+     * servidor. Se invoca en el hilo de la sesión y no debe bloquear.
+     */
+    public interface Oyente {
+
+        /**
+         * @param partida la partida que empieza
+         */
+        void alAbrir(Partida partida);
+
+        /**
+         * @param partida la partida que termina
+         */
+        void alCerrar(Partida partida);
+    }
+
+    private final Dimension areaJuego;
+    private final Consumer<DifusorVideo> configurarVideo;
+    private final Set<Partida> partidas = ConcurrentHashMap.newKeySet();
+    private final List<Oyente> oyentes = new CopyOnWriteArrayList<>();
+    private final RelojFrames reloj;
+
+    /**
+     * @param areaJuego dimensiones del área de juego y de cada superficie
+     * @param rueda rueda de temporizadores del servidor, que marca los ticks
+     *              del reloj de frames
+     * @param configurarVideo aplica el codec y la emisión del servidor al
+     *                        difusor de cada partida, antes de suscribirle salidas
+     */
+    public RegistroSesiones(Dimension areaJuego, RuedaTemporizadores rueda, Consumer<DifusorVideo> configurarVideo) {
+        this.areaJuego = new Dimension(areaJuego);
+        this.configurarVideo = configurarVideo;
+        this.reloj = new RelojFrames(DifusorVideo.INTERVALO_MS, TimeUnit.MILLISECONDS, rueda,
+            Runtime.getRuntime().availableProcessors(), "RelojFrames");
+    }
+
+    /**
+     * @param oyente recibe las partidas que se abran desde ahora
+     */
+    public void agregarOyente(Oyente oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Abre la partida de un jugador con su superficie y su difusor.
+     *
+     * @param jugador nombre del jugador
+     * @return la partida, que debe cerrarse al terminar la sesión
+     */
+    public Partida abrir(String jugador) {
+        SuperficieSesion superficie = new SuperficieSesion(areaJuego.width, areaJuego.height);
+        DifusorVideo difusor = new DifusorVideo(superficie, reloj);
+        configurarVideo.accept(difusor);
+        Partida partida = new Partida(jugador, superficie, difusor);
+        partidas.add(partida);
+        for (Oyente oyente : oyentes) {
+            oyente.alAbrir(partida);
+        }
+        return partida;
+    }
+
+    /**
+     * Cierra las partidas en curso y detiene el reloj de frames, p. ej. al
+     * apagar el servidor. Los difusores dejan de emitir; la rueda la detiene
+     * quien la creó.
+     */
+    public void detener() {
+        for (Partida partida : getPartidas()) {
+            partida.cerrar();
+        }
+        reloj.detener();
+    }
+
+    /**
+     * @return el reloj de frames que comparten los difusores de las partidas
+     */
+    public RelojFrames getReloj() {
+        return reloj;
+    }
+
+    /**
+     * @return las partidas en curso
+     */
+    public List<Partida> getPartidas() {
+        return new ArrayList<>(partidas);
+    }
+
+    /**
+     * @return partidas en curso
+     */
+    public int getCantidad() {
+        return partidas.size();
+    }
+
+    /**
+     * @return dimensiones del área de juego
+     */
+    public Dimension getAreaJuego() {
+        return new Dimension(areaJuego);
+    }
+
+    /**
+     * Juego de una sesión con su superficie y su difusor.
+     */
+    public final class Partida {
+
+        private final String jugador;
+        private final SuperficieSesion superficie;
+        private final DifusorVideo difusor;
+
+        private Partida(String jugador, SuperficieSesion superficie, DifusorVideo difusor) {
+            this.jugador = jugador;
+            this.superficie = superficie;
+            this.difusor = difusor;
+        }
+
+        /**
+         * Publica el estado del juego en la superficie de la partida. Debe
+         * llamarse desde el hilo que modifica el juego.
+         *
+         * @param juego el juego de esta partida
+         */
+        public void actualizar(Juego juego) {
+            superficie.actualizarEstado(juego.getInstantanea());
+        }
+
+        /**
+         * Termina la partida: su difusor deja de emitir y sale del registro.
+         * Llamarlo de nuevo no tiene efecto.
+         */
+        public void cerrar() {
+            if (!partidas.remove(this)) {
+                return;
+            }
+            difusor.cerrar();
+            for (Oyente oyente : oyentes) {
+                oyente.alCerrar(this);
+            }
+        }
+
+        public String getJugador() {
+            return jugador;
+        }
+
+        public SuperficieSesion getSuperficie() {
+            return superficie;
+        }
+
+        public DifusorVideo getDifusor() {
+            return difusor;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.AnilloFrames;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sesiones en juego que se pueden mirar, por nombre de jugador.
+ *
+ * <p>Un espectador responde al primer {@code Usuario:} con
+ * {@code ESPECTAR:jugador}, inicia sesión con sus propias credenciales y
+ * recibe, en solo lectura, los mismos frames que el jugador. Un jugador tiene
+ * a lo sumo una transmisión: mientras su primera sesión siga en juego, las
+ * demás no se pueden mirar.
+ * Cada {@link Transmision} crea su {@link AnilloFrames} con el primer
+ * espectador: una sesión que nadie mira no guarda frames. Los frames no se
+ * vuelven a codificar; cada espectador solo suma su escritura al socket. Si
+ * el anillo no tiene un frame que se pueda mostrar solo, la sesión pide uno
+ * al difusor para que el espectador nuevo vea imagen de inmediato.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class SalaEspectadores {
+
+    /** Comando que reemplaza al usuario para entrar como espectador. */
+    public static final String COMANDO = "ESPECTAR";
+
+    private final ConcurrentHashMap<String, Transmision> transmisiones = new ConcurrentHashMap<>();
+    private final int capacidadAnillo;
+    private final AtomicInteger espectadores = new AtomicInteger();
+
+    /**
+     * @param capacidadAnillo frames recientes que conserva cada sesión mirada
+     */
+    public SalaEspectadores(int capacidadAnillo) {
+        this.capacidadAnillo = Math.max(1, capacidadAnillo);
+    }
+
+    /**
+     * Reconoce el comando de espectador, sin distinguir mayúsculas.
+     *
+     * @param linea la primera línea recibida en lugar del usuario
+     * @return el jugador a mirar, o null si la línea no es el comando
+     */
+    public static String jugadorAMirar(String linea) {
+        if (linea == null || !linea.regionMatches(true, 0, COMANDO + ":", 0, COMANDO.length() + 1)) {
+            return null;
+        }
+        String jugador = linea.substring(COMANDO.length() + 1).trim();
+        return jugador.isEmpty() ? null : jugador;
+    }
+
+    /**
+     * Registra la sesión de un jugador. Si el jugador ya tiene una transmisión
+     * activa, la conserva: los espectadores siguen viendo la primera sesión.
+     *
+     * @param jugador nombre del jugador
+     * @param pedirClave pide al difusor el último frame de la sesión como frame
+     *                   independiente; no debe bloquear
+     * @return la transmisión, que debe cerrarse al terminar la sesión, o null
+     *         si el jugador ya tiene otra sesión transmitiendo
+     */
+    public Transmision abrir(String jugador, Runnable pedirClave) {
+        Transmision t = new Transmision(jugador, pedirClave);
+        return transmisiones.putIfAbsent(jugador, t) == null ? t : null;
+    }
+
+    /**
+     * @param jugador nombre del jugador
+     * @return su transmisión activa, o null si no está en juego
+     */
+    public Transmision buscar(String jugador) {
+        return transmisiones.get(jugador);
+    }
+
+    /**
+     * @return espectadores conectados
+     */
+    public int getEspectadores() {
+        return espectadores.get();
+    }
+
+    /**
+     * Frames de la sesión de un jugador para sus espectadores.
+     */
+    public final class Transmision {
+
+        private final String jugador;
+        private final Runnable pedirClave;
+        private volatile AnilloFrames anillo;
+        private boolean cerrada = false;
+
+        private Transmision(String jugador, Runnable pedirClave) {
+            this.jugador = jugador;
+            this.pedirClave = pedirClave;
+        }
+
+        /**
+         * Guarda un frame enviado al jugador, si alguien mira. No bloquea.
+         *
+         * @param frame bytes del frame; no deben modificarse después
+         */
+        public void publicar(byte[] frame) {
+            AnilloFrames a = anillo;
+            if (a != null) {
+                a.publicar(frame);
+            }
+        }
+
+        /**
+         * Agrega un espectador.
+         *
+         * @param aviso se invoca tras cada frame nuevo y al terminar la sesión,
+         *              o null si el espectador espera bloqueado
+         * @return su lector, o null si la sesión ya terminó
+         */
+        public synchronized AnilloFrames.Lector mirar(Runnable aviso) {
+            if (cerrada) {
+                return null;
+            }
+            if (anillo == null) {
+                anillo = new AnilloFrames(capacidadAnillo);
+            }
+            espectadores.incrementAndGet();
+            AnilloFrames.Lector lector = anillo.nuevoLector(aviso);
+            if (!anillo.tieneIndependiente()) {
+                pedirClave.run();
+            }
+            return lector;
+        }
+
+        /**
+         * Quita un espectador.
+         *
+         * @param lector el lector que devolvió {@link #mirar(Runnable)}
+         */
+        public void dejarDeMirar(AnilloFrames.Lector lector) {
+            lector.cerrar();
+            espectadores.decrementAndGet();
+        }
+
+        /**
+         * Termina la transmisión: los espectadores reciben el fin y se desconectan.
+         */
+        public synchronized void cerrar() {
+            if (cerrada) {
+                return;
+            }
+            cerrada = true;
+            transmisiones.remove(jugador, this);
+            if (anillo != null) {
+                anillo.cerrar();
+            }
+        }
+
+        public String getJugador() {
+            return jugador;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.dao.IJugadorDAO;
+import udistrital.avanzada.pacman.util.Configuracion;
+import udistrital.avanzada.pacman.util.ManejadorSockets;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor no bloqueante basado en {@link java.nio.channels.Selector}.
+ *
+ * <p>Alternativa a un {@link ManejadorCliente} por conexión: un hilo acepta
+ * conexiones y las reparte entre unos pocos {@link BucleEventosNIO}, que
+ * atienden el protocolo de todas las sesiones. Cada sesión en juego abre su
+ * partida en el {@link RegistroSesiones} y se suscribe al {@link DifusorVideo}
+ * de esa partida; la sesión copia cada frame a un buffer directo propio que
+ * reutiliza entre frames. Las llamadas bloqueantes
+ * (DAO y resultados) se ejecutan en un pool aparte para no detener los bucles.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ServidorNIO {
+
+    private final int puerto;
+    private final IJugadorDAO jugadorDAO;
+    private final RegistroSesiones partidas;
+    private final ManejadorResultados manejadorResultados;
+    private final ManejadorSockets.Protocolo protocolosAceptados;
+    private final ControlAdmision admision;
+    private final int backlog;
+    private final ServidorVideoUDP videoUDP;
+    private final VigilanteInactividad vigilante;
+    private final GrabadorVideo grabador;
+    private final SalaEspectadores sala;
+    private final BucleEventosNIO[] bucles;
+    private final ExecutorService ejecutorBloqueante;
+
+    private ServerSocketChannel canalServidor;
+    private volatile boolean activo;
+
+    /**
+     * Constructor del servidor no bloqueante.
+     *
+     * @param puerto el puerto de escucha
+     * @param jugadorDAO el DAO para validar credenciales
+     * @param partidas el registro donde cada sesión abre su partida
+     * @param numeroBucles cantidad de hilos de eventos
+     * @param protocolosAceptados protocolo aceptado (AUTO acepta legado y binario)
+     * @param admision límites de sesiones, autenticaciones pendientes y conexiones por IP
+     * @param backlog conexiones en espera de aceptar que admite el sistema operativo
+     * @param videoUDP canal de video UDP, o null si está deshabilitado
+     * @param vigilante detector de inactividad, o null para no cerrar sesiones inactivas
+     * @param grabador grabador del video de las sesiones, o null para no grabar
+     * @param sala sesiones que se pueden mirar, o null para no admitir espectadores
+     * @throws IOException si no se pueden abrir los selectores
+     */
+    public ServidorNIO(int puerto, IJugadorDAO jugadorDAO, RegistroSesiones partidas,
+                       int numeroBucles,
+                       ManejadorSockets.Protocolo protocolosAceptados,
+                       ControlAdmision admision, int backlog,
+                       ServidorVideoUDP videoUDP, VigilanteInactividad vigilante,
+                       GrabadorVideo grabador, SalaEspectadores sala) throws IOException {
+        this.puerto = puerto;
+        this.jugadorDAO = jugadorDAO;
+        this.partidas = partidas;
+        this.manejadorResultados = new ManejadorResultados();
+        this.protocolosAceptados = protocolosAceptados;
+        this.admision = admision;
+        this.backlog = backlog;
+        this.videoUDP = videoUDP;
+        this.vigilante = vigilante;
+        this.grabador = grabador;
+        this.sala = sala;
+        this.bucles = new BucleEventosNIO[Math.max(1, numeroBucles)];
+        for (int i = 0; i < bucles.length; i++) {
+            bucles[i] = new BucleEventosNIO("BucleEventosNIO-" + i);
+        }
+        this.ejecutorBloqueante = Executors.newFixedThreadPool(4, r -> {
+            Thread t = new Thread(r, "NIO-Bloqueante");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Abre el puerto y acepta conexiones en el hilo actual hasta que se detenga.
+     *
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public void ejecutar() throws IOException {
+        canalServidor = ServerSocketChannel.open();
+        canalServidor.bind(new InetSocketAddress(puerto), backlog);
+        activo = true;
+        for (BucleEventosNIO bucle : bucles) {
+            bucle.start();
+        }
+
+        System.out.println("Servidor NIO iniciado en puerto " + puerto + " con " + bucles.length + " bucles de eventos");
+
+        int siguiente = 0;
+        try {
+            while (activo) {
+                SocketChannel canal = canalServidor.accept();
+                ControlAdmision.Admision admitido;
+                try {
+                    admitido = admision.admitir(canal.socket().getInetAddress());
+                } catch (ControlAdmision.RechazoException e) {
+                    if (Configuracion.DEPURACION) {
+                        System.out.println("Cliente rechazado " + canal.socket().getInetAddress() + ": " + e.getMessage());
+                    }
+                    ControlAdmision.rechazar(canal, e.getMotivo());
+                    continue;
+                }
+                boolean registrada = false;
+                try {
+                    canal.configureBlocking(false);
+                    canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    System.out.println("Cliente conectado: " + canal.socket().getInetAddress());
+
+                    BucleEventosNIO bucle = bucles[siguiente];
+                    siguiente = (siguiente + 1) % bucles.length;
+                    bucle.registrar(new SesionNIO(canal, bucle, this, admitido));
+                    registrada = true;
+                } finally {
+                    if (!registrada) {
+                        // La sesión no llegó a existir: nadie más devolvería el lugar
+                        admitido.liberar();
+                        canal.close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (activo) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Detiene la aceptación, los bucles y los ejecutores.
+     */
+    public void detener() {
+        activo = false;
+        try {
+            if (canalServidor != null) canalServidor.close();
+        } catch (IOException ignored) {}
+        for (BucleEventosNIO bucle : bucles) {
+            bucle.detener();
+        }
+        ejecutorBloqueante.shutdownNow();
+    }
+
+    void ejecutarBloqueante(Runnable tarea) {
+        ejecutorBloqueante.execute(tarea);
+    }
+
+    IJugadorDAO getJugadorDAO() {
+        return jugadorDAO;
+    }
+
+    RegistroSesiones getPartidas() {
+        return partidas;
+    }
+
+    ManejadorResultados getManejadorResultados() {
+        return manejadorResultados;
+    }
+
+    ServidorVideoUDP getVideoUDP() {
+        return videoUDP;
+    }
+
+    VigilanteInactividad getVigilante() {
+        return vigilante;
+    }
+
+    GrabadorVideo getGrabador() {
+        return grabador;
+    }
+
+    SalaEspectadores getSala() {
+        return sala;
+    }
+
+    ManejadorSockets.Protocolo getProtocolosAceptados() {
+        return protocolosAceptados;
+    }
+}
@@ -0,0 +1,190 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.FragmentosVideo;
+import udistrital.avanzada.pacman.util.SalidaVideo;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Canal de video UDP del servidor, compartido por todas las sesiones.
+ *
+ * <p>Un único {@link DatagramChannel} envía los frames fragmentados (ver
+ * {@link FragmentosVideo}) y un hilo recibe los saludos de los clientes: el token
+ * del saludo identifica la sesión y su dirección de origen pasa a ser el destino
+ * del video. Así una respuesta a un movimiento nunca espera detrás de un JPEG
+ * en el flujo TCP, y un datagrama perdido solo cuesta un frame.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ServidorVideoUDP {
+
+    private final DatagramChannel canal;
+    private final int carga;
+    private final ConcurrentHashMap<Long, SesionVideo> sesiones = new ConcurrentHashMap<>();
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final Thread receptor;
+    private volatile boolean activo = true;
+
+    /**
+     * Abre el canal y empieza a recibir saludos.
+     *
+     * @param puerto puerto UDP
+     * @param carga bytes de frame por datagrama
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public ServidorVideoUDP(int puerto, int carga) throws IOException {
+        this.carga = carga;
+        this.canal = DatagramChannel.open();
+        canal.setOption(StandardSocketOptions.SO_SNDBUF, 1 << 20);
+        canal.bind(new InetSocketAddress(puerto));
+        this.receptor = new Thread(this::recibirSaludos, "VideoUDP-Saludos");
+        receptor.setDaemon(true);
+        receptor.start();
+    }
+
+    public int getPuerto() {
+        return canal.socket().getLocalPort();
+    }
+
+    /**
+     * Registra una sesión de video; el cliente debe saludar con el token.
+     *
+     * @return la sesión, con su token
+     */
+    public SesionVideo registrar() {
+        while (true) {
+            long token = aleatorio.nextLong();
+            SesionVideo sesion = new SesionVideo(token);
+            if (sesiones.putIfAbsent(token, sesion) == null) {
+                return sesion;
+            }
+        }
+    }
+
+    private void recibirSaludos() {
+        ByteBuffer buf = ByteBuffer.allocate(64);
+        while (activo) {
+            try {
+                buf.clear();
+                SocketAddress origen = canal.receive(buf);
+                buf.flip();
+                Long token = FragmentosVideo.leerSaludo(buf);
+                SesionVideo sesion = token != null ? sesiones.get(token) : null;
+                if (sesion != null) {
+                    sesion.destino = origen;
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // Error de un datagrama (p. ej. ICMP de un cliente que ya se fue): seguir
+            }
+        }
+    }
+
+    /**
+     * Cierra el canal y termina el hilo receptor.
+     */
+    public void detener() {
+        activo = false;
+        try {
+            canal.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Destino de video UDP de una sesión.
+     */
+    public final class SesionVideo implements SalidaVideo {
+
+        private final long token;
+        private final ReentrantLock cerrojo = new ReentrantLock();
+        private final ByteBuffer datagrama;
+        private volatile SocketAddress destino;
+        private volatile boolean cerrada = false;
+        private int secuencia = 0;
+        private long framesEnviados = 0;
+        private long framesSinDestino = 0;
+
+        private SesionVideo(long token) {
+            this.token = token;
+            this.datagrama = ByteBuffer.allocateDirect(FragmentosVideo.CABECERA + carga);
+        }
+
+        public long getToken() {
+            return token;
+        }
+
+        /**
+         * Respuesta al comando {@link FragmentosVideo#COMANDO} para el cliente.
+         *
+         * @return texto {@code VIDEO_UDP:<puerto>:<token>}
+         */
+        public String respuesta() {
+            return FragmentosVideo.COMANDO + ":" + getPuerto() + ":" + token;
+        }
+
+        @Override
+        public void publicarFrame(byte[] frame) {
+            enviar(ByteBuffer.wrap(frame));
+        }
+
+        /**
+         * Envía un frame sin consumir el buffer. Mientras el cliente no haya
+         * saludado el frame se descarta.
+         *
+         * @param frame bytes del frame entre posición y límite
+         */
+        public void enviar(ByteBuffer frame) {
+            SocketAddress d = destino;
+            if (cerrada) {
+                return;
+            }
+            cerrojo.lock();
+            try {
+                if (d == null) {
+                    framesSinDestino++;
+                    return;
+                }
+                FragmentosVideo.enviar(canal, d, secuencia++, frame, datagrama, carga);
+                framesEnviados++;
+            } catch (IOException e) {
+                // UDP no garantiza entrega: un fallo de envío es un frame perdido
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        @Override
+        public boolean estaCerrado() {
+            return cerrada || !activo;
+        }
+
+        /**
+         * Quita la sesión del canal.
+         */
+        public void cerrar() {
+            cerrada = true;
+            sesiones.remove(token, this);
+        }
+
+        @Override
+        public String toString() {
+            cerrojo.lock();
+            try {
+                return "UDP enviados=" + framesEnviados + ", sin destino=" + framesSinDestino;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+}
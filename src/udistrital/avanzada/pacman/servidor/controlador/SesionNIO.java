@@ -0,0 +1,726 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.protocolo.ResultadoLote;
+import udistrital.avanzada.pacman.protocolo.ResultadoMovimiento;
+import udistrital.avanzada.pacman.servidor.modelo.Juego;
+import udistrital.avanzada.pacman.servidor.modelo.Jugador;
+import udistrital.avanzada.pacman.util.AnilloFrames;
+import udistrital.avanzada.pacman.util.BuzonFrames;
+import udistrital.avanzada.pacman.util.CodecBinario;
+import udistrital.avanzada.pacman.util.CodecFlujoObjetos;
+import udistrital.avanzada.pacman.util.CodecProtocolo;
+import udistrital.avanzada.pacman.util.Configuracion;
+import udistrital.avanzada.pacman.util.FragmentosVideo;
+import udistrital.avanzada.pacman.util.FrameDirecto;
+import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.util.MensajeProtocolo;
+import udistrital.avanzada.pacman.util.SalidaVideo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Estado de una conexión atendida por el servidor no bloqueante.
+ *
+ * <p>Equivale a {@link ManejadorCliente} pero como máquina de estados dirigida
+ * por eventos: autenticación, juego y cierre ocurren al llegar cada mensaje,
+ * sin un hilo propio. Las operaciones bloqueantes (base de datos y archivo de
+ * resultados) se delegan al ejecutor del {@link ServidorNIO}. El protocolo
+ * (legado o binario) se elige por el primer byte que envía el cliente.
+ *
+ * <p>Al empezar a jugar la sesión abre su partida en el
+ * {@link RegistroSesiones} y se suscribe al difusor de esa partida.
+ *
+ * <p>Un espectador ({@code ESPECTAR:jugador} antes del usuario) no juega: la sesión toma los
+ * frames del anillo de la sesión que mira cuando el anillo avisa y el socket
+ * terminó el frame anterior.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class SesionNIO implements CodecProtocolo.Receptor {
+
+    /** Bytes pendientes de salida a partir de los cuales se dejan de encolar frames. */
+    private static final int LIMITE_SALIDA_FRAMES = 256 * 1024;
+    /** Máximo de buffers por escritura agrupada. */
+    private static final int MAX_LOTE = 16;
+    /**
+     * Mensajes que se guardan mientras se validan las credenciales. Quien
+     * envía más antes de autenticarse se desconecta.
+     */
+    private static final int MAX_PENDIENTES = 16;
+
+    private enum Etapa { USUARIO, CONTRASEÑA, VALIDANDO, JUGANDO, ESPECTANDO, CERRADA }
+
+    private final SocketChannel canal;
+    private final BucleEventosNIO bucle;
+    private final ServidorNIO servidor;
+    private final ControlAdmision.Admision admision;
+    private final Deque<ByteBuffer> salida = new ArrayDeque<>();
+    private final Deque<MensajeProtocolo> pendientes = new ArrayDeque<>();
+    private final ByteBuffer[] lote = new ByteBuffer[MAX_LOTE];
+    /**
+     * Frame ya escrito o reemplazado cuyo buffer directo se reutiliza para el
+     * próximo: en régimen la sesión alterna dos buffers sin pasar por el pool.
+     */
+    private final AtomicReference<FrameDirecto> reserva = new AtomicReference<>();
+    /** Último frame publicado y aún no encolado (el más reciente reemplaza al anterior). */
+    private final BuzonFrames<FrameDirecto> frameListo = new BuzonFrames<>(1, this::reciclar);
+    /** Frame en la cola de salida (a lo sumo uno), su vista y su cabecera directa. */
+    private FrameDirecto frameEnVuelo;
+    private ByteBuffer vistaFrame;
+    private ByteBuffer cabeceraFrame;
+
+    private CodecProtocolo codec;
+    private SelectionKey clave;
+    private Etapa etapa = Etapa.USUARIO;
+    private boolean cerrarTrasEnviar = false;
+    private long bytesPendientes = 0;
+    private String usuario;
+    private Jugador jugador;
+    private Juego juego;
+    /** Superficie y difusor del juego; se asigna en el hilo del bucle antes de suscribirse. */
+    private volatile RegistroSesiones.Partida partida;
+    /** Salida de esta sesión en el difusor de su partida. */
+    private final SalidaVideo videoPartida = new VideoPartida();
+    /** Destino UDP del video si el cliente lo pidió; lo lee también el hilo de video. */
+    private volatile ServidorVideoUDP.SesionVideo sesionVideo;
+    /** Último dato recibido; lo consulta el hilo de la rueda de temporizadores. */
+    private volatile long ultimaLectura = System.nanoTime();
+    private VigilanteInactividad.Vigilancia vigilancia;
+    /** Grabación del video de la sesión, o null si no se graba. */
+    private volatile GrabadorVideo.Grabacion grabacion;
+    /** Frames para los espectadores de esta sesión, o null si no se pueden mirar. */
+    private volatile SalaEspectadores.Transmision transmision;
+    /** Jugador que pidió mirar, sesión que mira y su lector, si es un espectador. */
+    private String jugadorMirado;
+    private SalaEspectadores.Transmision mirada;
+    private AnilloFrames.Lector lector;
+    private final AtomicBoolean avisoPendiente = new AtomicBoolean();
+    /**
+     * Nivel de video de la sesión, o null si no es adaptativo. Se asigna al
+     * abrir la partida, antes de suscribirse; luego lo usa el hilo del difusor.
+     */
+    private AdaptadorCalidad adaptador;
+
+    /**
+     * Constructor de la sesión.
+     *
+     * @param canal el canal del cliente (no bloqueante)
+     * @param bucle el bucle de eventos que atenderá la sesión
+     * @param servidor el servidor que comparte DAO, partidas y ejecutor
+     * @param admision el lugar reservado por el control de admisión
+     */
+    public SesionNIO(SocketChannel canal, BucleEventosNIO bucle, ServidorNIO servidor,
+                     ControlAdmision.Admision admision) {
+        this.canal = canal;
+        this.bucle = bucle;
+        this.servidor = servidor;
+        this.admision = admision;
+    }
+
+    SocketChannel getCanal() {
+        return canal;
+    }
+
+    /**
+     * Se invoca en el hilo del bucle una vez registrado el canal en el selector.
+     */
+    void alRegistrar(SelectionKey clave) {
+        this.clave = clave;
+        VigilanteInactividad vigilante = servidor.getVigilante();
+        if (vigilante != null) {
+            vigilancia = vigilante.vigilar(new SesionVigilada());
+        }
+    }
+
+    /**
+     * Lee lo disponible en el canal y procesa los mensajes completos.
+     */
+    void leer(ByteBuffer buffer) {
+        try {
+            int n = canal.read(buffer);
+            if (n < 0) {
+                cerrar();
+                return;
+            }
+            if (n > 0) {
+                ultimaLectura = System.nanoTime();
+            }
+            buffer.flip();
+            if (codec == null) {
+                if (!buffer.hasRemaining() || !elegirCodec(buffer.get(buffer.position()))) {
+                    return;
+                }
+            }
+            codec.alimentar(buffer, this);
+        } catch (IOException e) {
+            cerrar();
+        }
+    }
+
+    /**
+     * Escribe tanto como acepte el canal de la cola de salida, agrupando hasta
+     * {@link #MAX_LOTE} buffers por llamada al sistema.
+     */
+    void escribir() {
+        try {
+            while (!salida.isEmpty()) {
+                int k = 0;
+                for (ByteBuffer buf : salida) {
+                    if (k == MAX_LOTE) break;
+                    lote[k++] = buf;
+                }
+                bytesPendientes -= canal.write(lote, 0, k);
+                Arrays.fill(lote, 0, k, null);
+                while (!salida.isEmpty() && !salida.peek().hasRemaining()) {
+                    if (salida.poll() == vistaFrame) {
+                        liberarFrameEnVuelo();
+                        moverFrameListo();
+                    }
+                }
+                if (!salida.isEmpty() && salida.peek().hasRemaining()) {
+                    // El socket no acepta más por ahora
+                    return;
+                }
+            }
+            if (cerrarTrasEnviar) {
+                cerrar();
+            } else if (clave.isValid()) {
+                clave.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            cerrar();
+        }
+    }
+
+    /**
+     * Elige el codec según el primer byte del cliente y lo permitido por el servidor.
+     *
+     * @return false si el protocolo no es aceptado (la sesión se cierra)
+     */
+    private boolean elegirCodec(byte primero) {
+        ManejadorSockets.Protocolo aceptados = servidor.getProtocolosAceptados();
+        if (primero == 'P' && aceptados != ManejadorSockets.Protocolo.LEGADO) {
+            codec = new CodecBinario();
+        } else if (primero != 'P' && aceptados != ManejadorSockets.Protocolo.BINARIO) {
+            codec = new CodecFlujoObjetos();
+        } else if (primero == 'P') {
+            // Binario deshabilitado: se rechaza con la versión 0, como el servidor con hilos
+            alRechazarSaludo(CodecBinario.rechazoSaludo());
+            return false;
+        } else {
+            cerrar();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void alSaludo() {
+        encolar(codec.respuestaSaludo());
+        enviarTexto("Usuario:");
+    }
+
+    @Override
+    public void alRechazarSaludo(ByteBuffer respuesta) {
+        encolar(respuesta);
+        cerrarTrasEnviar();
+    }
+
+    @Override
+    public void alMensaje(MensajeProtocolo recibido) {
+        switch (recibido.getTipo()) {
+            case FRAME:
+                // El cliente no envía video; se ignora
+                return;
+            case PING:
+                enviar(MensajeProtocolo.pong(recibido.getTiempo()));
+                return;
+            case PONG:
+                // Solo cuenta como actividad
+                return;
+            default:
+                break;
+        }
+        String mensaje = recibido.toTexto();
+        switch (etapa) {
+            case USUARIO:
+                String mirado = jugadorMirado == null ? SalaEspectadores.jugadorAMirar(mensaje.trim()) : null;
+                if (mirado != null) {
+                    // Espectador: ESPECTAR:jugador en lugar del usuario, y de nuevo el usuario
+                    if (servidor.getSala() == null) {
+                        enviarTexto("Espectadores deshabilitados");
+                        cerrarTrasEnviar();
+                        break;
+                    }
+                    jugadorMirado = mirado;
+                    enviarTexto("Usuario:");
+                    break;
+                }
+                usuario = mensaje.trim();
+                etapa = Etapa.CONTRASEÑA;
+                enviarTexto("Contraseña:");
+                break;
+            case CONTRASEÑA:
+                validarCredenciales(mensaje.trim());
+                break;
+            case VALIDANDO:
+                if (pendientes.size() >= MAX_PENDIENTES) {
+                    cerrar();
+                    break;
+                }
+                pendientes.add(recibido);
+                break;
+            case JUGANDO:
+                procesarComando(recibido);
+                break;
+            case ESPECTANDO:
+                atenderEspectador(recibido);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void validarCredenciales(String contraseña) {
+        if (usuario.isEmpty() || contraseña.isEmpty()) {
+            rechazar();
+            return;
+        }
+        etapa = Etapa.VALIDANDO;
+        final String u = usuario;
+        servidor.ejecutarBloqueante(() -> {
+            Jugador j = null;
+            try {
+                j = servidor.getJugadorDAO().validarCredenciales(u, contraseña);
+            } catch (Exception e) {
+                System.err.println("Error en autenticación: " + e.getMessage());
+            }
+            final Jugador resultado = j;
+            bucle.ejecutar(() -> completarAutenticacion(resultado));
+        });
+    }
+
+    private void completarAutenticacion(Jugador resultado) {
+        if (etapa == Etapa.CERRADA) {
+            return;
+        }
+        if (resultado == null) {
+            rechazar();
+            return;
+        }
+        jugador = resultado;
+        if (jugadorMirado != null) {
+            mirada = servidor.getSala().buscar(jugadorMirado);
+            if (mirada == null) {
+                enviarTexto("No hay una partida activa de " + jugadorMirado);
+                cerrarTrasEnviar();
+                return;
+            }
+        }
+        admision.autenticada();
+        if (vigilancia != null && !(codec instanceof CodecBinario)) {
+            // Sin latidos, un cliente legado que solo mira el video parecería inactivo
+            vigilancia.cancelar();
+        }
+        enviarTexto("Autenticación exitosa. Bienvenido " + jugador.getNombre());
+        if (mirada != null) {
+            iniciarEspectador();
+            return;
+        }
+
+        RegistroSesiones.Partida p = servidor.getPartidas().abrir(jugador.getNombre());
+        partida = p;
+        adaptador = p.getDifusor().esAdaptativo() ? new AdaptadorCalidad(NivelVideo.ALTA) : null;
+        juego = new Juego(servidor.getPartidas().getAreaJuego());
+        actualizarVista();
+        enviarTexto("Juego iniciado. Envía comandos: arriba, abajo, izquierda, derecha");
+        etapa = Etapa.JUGANDO;
+        if (servidor.getGrabador() != null) {
+            grabacion = servidor.getGrabador().abrir(jugador.getNombre());
+        }
+        if (servidor.getSala() != null) {
+            transmision = servidor.getSala().abrir(jugador.getNombre(),
+                () -> p.getDifusor().pedirClave(videoPartida));
+        }
+        p.getDifusor().suscribir(videoPartida);
+
+        while (etapa == Etapa.JUGANDO && !pendientes.isEmpty()) {
+            procesarComando(pendientes.poll());
+        }
+        pendientes.clear();
+    }
+
+    private void iniciarEspectador() {
+        lector = mirada.mirar(this::avisarFrame);
+        if (lector == null) {
+            enviarTexto("La partida de " + mirada.getJugador() + " ya terminó");
+            cerrarTrasEnviar();
+            return;
+        }
+        etapa = Etapa.ESPECTANDO;
+        enviarTexto("Espectando a " + mirada.getJugador() + " (solo lectura)");
+        pendientes.clear();
+        moverFrameListo();
+    }
+
+    /**
+     * Lo invoca el anillo de la sesión mirada, desde el hilo que publica: un
+     * solo pedido al bucle por vez, aunque lleguen varios frames.
+     */
+    private void avisarFrame() {
+        if (avisoPendiente.compareAndSet(false, true)) {
+            bucle.ejecutar(() -> {
+                avisoPendiente.set(false);
+                moverFrameListo();
+            });
+        }
+    }
+
+    private void atenderEspectador(MensajeProtocolo comando) {
+        String texto = comando.toTexto().trim();
+        if (texto.equalsIgnoreCase("salir")) {
+            cerrar();
+            return;
+        }
+        if (texto.equalsIgnoreCase(MensajeProtocolo.COMANDO_CLAVE)) {
+            // El espectador espera la próxima clave periódica del jugador
+            return;
+        }
+        enviarTexto(texto.equalsIgnoreCase(FragmentosVideo.COMANDO)
+            ? FragmentosVideo.RESPUESTA_NO : "Modo espectador: solo lectura");
+    }
+
+    private void rechazar() {
+        enviarTexto("Credenciales inválidas");
+        cerrarTrasEnviar();
+    }
+
+    private void procesarComando(MensajeProtocolo comando) {
+        if (comando.toTexto().equalsIgnoreCase("salir")) {
+            cerrar();
+            return;
+        }
+        if (comando.toTexto().trim().equalsIgnoreCase(FragmentosVideo.COMANDO)) {
+            activarVideoUDP();
+            return;
+        }
+        if (comando.toTexto().trim().equalsIgnoreCase(MensajeProtocolo.COMANDO_CLAVE)) {
+            // El cliente descartó un frame: sin respuesta, le llega un frame clave
+            RegistroSesiones.Partida p = partida;
+            if (p != null) {
+                p.getDifusor().pedirClave(videoPartida);
+            }
+            return;
+        }
+
+        Direccion[] direcciones = comando.comoDirecciones();
+        if (direcciones == null) {
+            enviarTexto("Comando inválido. Usa: arriba, abajo, izquierda, derecha");
+            return;
+        }
+
+        if (direcciones.length == 1) {
+            ResultadoMovimiento resultado = juego.procesarMovimiento(direcciones[0]);
+            actualizarVista();
+            enviar(MensajeProtocolo.resultado(resultado));
+        } else {
+            ResultadoLote lote = juego.procesarLote(direcciones);
+            actualizarVista();
+            enviar(MensajeProtocolo.resultadoLote(lote));
+        }
+
+        if (juego.isJuegoTerminado()) {
+            int puntaje = juego.getPuntaje();
+            long tiempo = juego.getTiempoTranscurrido();
+            String nombre = jugador.getNombre();
+            servidor.ejecutarBloqueante(() ->
+                servidor.getManejadorResultados().guardarResultado(nombre, puntaje, tiempo));
+
+            enviar(MensajeProtocolo.finJuego(puntaje, tiempo));
+            cerrarTrasEnviar();
+        }
+    }
+
+    private void activarVideoUDP() {
+        ServidorVideoUDP videoUDP = servidor.getVideoUDP();
+        if (videoUDP == null) {
+            enviarTexto(FragmentosVideo.RESPUESTA_NO);
+            return;
+        }
+        if (sesionVideo == null) {
+            sesionVideo = videoUDP.registrar();
+            frameListo.vaciar();
+        }
+        enviarTexto(sesionVideo.respuesta());
+    }
+
+    private void actualizarVista() {
+        partida.actualizar(juego);
+    }
+
+    /**
+     * Salida de la sesión en el difusor de su partida: por TCP copia cada frame
+     * a memoria directa para el socket; por UDP lo entrega tal cual, porque los
+     * fragmentos ya se copian al datagrama. Además lo conserva para grabación
+     * y espectadores.
+     */
+    private final class VideoPartida implements SalidaVideo {
+
+        @Override
+        public void publicarFrame(byte[] frame) {
+            ServidorVideoUDP.SesionVideo udp = sesionVideo;
+            if (udp != null) {
+                // Por UDP el envío no bloquea: se hace en el hilo de video
+                udp.enviar(ByteBuffer.wrap(frame));
+            } else {
+                SesionNIO.this.publicarFrame(FrameDirecto.copiar(frame, reserva.getAndSet(null)));
+            }
+            conservarFrame(frame);
+        }
+
+        @Override
+        public boolean estaCerrado() {
+            return !canal.isOpen();
+        }
+    }
+
+    /**
+     * Publica un frame para esta sesión desde cualquier hilo. Si aún no envió
+     * el frame anterior, este se reemplaza por el nuevo.
+     *
+     * @param frame el frame en un buffer directo propio de la sesión
+     */
+    private void publicarFrame(FrameDirecto frame) {
+        if (frameListo.publicar(frame)) {
+            bucle.ejecutar(this::moverFrameListo);
+        }
+        if (adaptador != null) {
+            NivelVideo anterior = adaptador.getNivel();
+            NivelVideo nivel = adaptador.evaluar(frameListo.getPublicados(), frameListo.getReemplazados(),
+                System.nanoTime());
+            if (nivel != anterior) {
+                partida.getDifusor().cambiarNivel(videoPartida, nivel);
+            }
+        }
+    }
+
+    /**
+     * Deja el frame publicado en la grabación y en el anillo de espectadores
+     * de la sesión, si los tiene. Se invoca desde el hilo del difusor y no bloquea.
+     *
+     * @param frame bytes del frame
+     */
+    private void conservarFrame(byte[] frame) {
+        GrabadorVideo.Grabacion g = grabacion;
+        if (g != null) {
+            g.grabar(frame);
+        }
+        SalaEspectadores.Transmision t = transmision;
+        if (t != null) {
+            t.publicar(frame);
+        }
+    }
+
+    /**
+     * Encola el frame listo si no hay otro en vuelo: cabecera y carga quedan
+     * contiguas en la cola para salir en la misma escritura agrupada.
+     */
+    private void moverFrameListo() {
+        if (etapa == Etapa.ESPECTANDO) {
+            moverFrameEspectador();
+            return;
+        }
+        if (etapa != Etapa.JUGANDO) {
+            frameListo.vaciar();
+            return;
+        }
+        if (frameEnVuelo != null || bytesPendientes > LIMITE_SALIDA_FRAMES) {
+            return;
+        }
+        FrameDirecto frame = frameListo.sondear();
+        if (frame == null) {
+            return;
+        }
+        if (cabeceraFrame == null) {
+            cabeceraFrame = ByteBuffer.allocateDirect(CodecProtocolo.MAX_CABECERA_FRAME);
+        }
+        cabeceraFrame.clear();
+        codec.escribirCabeceraFrame(cabeceraFrame, frame.longitud());
+        cabeceraFrame.flip();
+        frameEnVuelo = frame;
+        vistaFrame = frame.vista();
+        encolar(cabeceraFrame);
+        encolar(vistaFrame);
+    }
+
+    /**
+     * Como {@link #moverFrameListo()} para un espectador: el frame sale del
+     * arreglo del anillo, sin copia propia.
+     */
+    private void moverFrameEspectador() {
+        if (vistaFrame != null || bytesPendientes > LIMITE_SALIDA_FRAMES) {
+            return;
+        }
+        byte[] frame = lector.sondear();
+        if (frame == null) {
+            if (lector.estaCerrado()) {
+                enviarTexto("La partida de " + mirada.getJugador() + " terminó");
+                cerrarTrasEnviar();
+            }
+            return;
+        }
+        if (cabeceraFrame == null) {
+            cabeceraFrame = ByteBuffer.allocateDirect(CodecProtocolo.MAX_CABECERA_FRAME);
+        }
+        cabeceraFrame.clear();
+        codec.escribirCabeceraFrame(cabeceraFrame, frame.length);
+        cabeceraFrame.flip();
+        vistaFrame = ByteBuffer.wrap(frame);
+        encolar(cabeceraFrame);
+        encolar(vistaFrame);
+    }
+
+    private void liberarFrameEnVuelo() {
+        if (frameEnVuelo != null) {
+            reciclar(frameEnVuelo);
+            frameEnVuelo = null;
+        }
+        vistaFrame = null;
+    }
+
+    /**
+     * Guarda el buffer de un frame que ya no se usa para el próximo, o lo
+     * devuelve al pool si ya hay uno guardado.
+     */
+    private void reciclar(FrameDirecto frame) {
+        if (!reserva.compareAndSet(null, frame)) {
+            frame.liberar();
+        }
+    }
+
+    private void enviarTexto(String mensaje) {
+        enviar(MensajeProtocolo.texto(mensaje));
+    }
+
+    private void enviar(MensajeProtocolo mensaje) {
+        try {
+            encolar(codec.codificar(mensaje));
+        } catch (IOException e) {
+            cerrar();
+        }
+    }
+
+    private void encolar(ByteBuffer buf) {
+        if (etapa == Etapa.CERRADA) {
+            return;
+        }
+        salida.add(buf);
+        bytesPendientes += buf.remaining();
+        if (clave.isValid()) {
+            clave.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void cerrarTrasEnviar() {
+        cerrarTrasEnviar = true;
+        etapa = Etapa.CERRADA;
+        terminarPartida();
+    }
+
+    /**
+     * Deja de recibir video y cierra la partida, si la hay.
+     */
+    private void terminarPartida() {
+        RegistroSesiones.Partida p = partida;
+        if (p != null) {
+            p.getDifusor().cancelar(videoPartida);
+            p.cerrar();
+        }
+    }
+
+    /**
+     * Cierra el canal y libera la sesión. Debe llamarse desde el hilo del bucle.
+     */
+    void cerrar() {
+        if (etapa == Etapa.CERRADA && !canal.isOpen()) {
+            return;
+        }
+        etapa = Etapa.CERRADA;
+        terminarPartida();
+        if (vigilancia != null) {
+            vigilancia.cancelar();
+        }
+        salida.clear();
+        liberarFrameEnVuelo();
+        frameListo.cerrar();
+        FrameDirecto guardado = reserva.getAndSet(null);
+        if (guardado != null) {
+            guardado.liberar();
+        }
+        if (sesionVideo != null) {
+            sesionVideo.cerrar();
+        }
+        if (grabacion != null) {
+            grabacion.cerrar();
+        }
+        if (transmision != null) {
+            transmision.cerrar();
+        }
+        if (lector != null) {
+            mirada.dejarDeMirar(lector);
+            if (Configuracion.DEPURACION) {
+                System.out.println("Espectador " + jugador.getNombre() + " de " + mirada.getJugador() + ": " + lector);
+            }
+        }
+        admision.liberar();
+        if (Configuracion.DEPURACION && jugador != null) {
+            System.out.println("Video " + jugador.getNombre() + ": " + frameListo
+                + (adaptador != null ? " | " + adaptador : "")
+                + (sesionVideo != null ? " | " + sesionVideo : ""));
+        }
+        if (clave != null) {
+            clave.cancel();
+        }
+        try {
+            canal.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Adapta la sesión al {@link VigilanteInactividad}: el latido y el cierre
+     * se delegan al hilo del bucle.
+     */
+    private final class SesionVigilada implements VigilanteInactividad.Sesion {
+
+        @Override
+        public long getNanosInactivo() {
+            return System.nanoTime() - ultimaLectura;
+        }
+
+        @Override
+        public void enviarPing() {
+            bucle.ejecutar(() -> {
+                // Sin saludo aún no hay codec: la inactividad igual cierra la sesión.
+                // Los clientes legados no saben responder latidos
+                if (codec instanceof CodecBinario && etapa != Etapa.CERRADA) {
+                    enviar(MensajeProtocolo.ping(System.nanoTime()));
+                }
+            });
+        }
+
+        @Override
+        public void cerrarPorInactividad() {
+            bucle.ejecutar(SesionNIO.this::cerrar);
+        }
+    }
+}
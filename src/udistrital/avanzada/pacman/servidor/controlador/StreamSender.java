@@ -1,44 +1,123 @@
 package udistrital.avanzada.pacman.servidor.controlador;
 
-import udistrital.avanzada.pacman.servidor.vista.PanelJuego;
-import udistrital.avanzada.pacman.shared.util.FrameCapturer;
 import udistrital.avanzada.pacman.util.ManejadorSockets;
+import udistrital.avanzada.pacman.util.SalidaVideo;
 
-public class StreamSender extends Thread {
+/**
+ * Suscripción de una conexión al {@link DifusorVideo} de la superficie que mira.
+ *
+ * <p>No tiene hilo propio: el difusor codifica cada frame una vez y lo publica
+ * aquí, y el frame sigue al buzón de la conexión TCP o al canal UDP.
+ *
+ * <p>Si el difusor es adaptativo, tras cada frame se revisa cuántos se
+ * reemplazaron en el buzón sin enviarse y se cambia de {@link NivelVideo}
+ * según {@link AdaptadorCalidad}. Por UDP no hay buzón que se atrase y el
+ * nivel no cambia.
+ *
+ * <p>Si la sesión se graba, cada frame publicado se deja también en la cola
+ * del {@link GrabadorVideo}, y si tiene espectadores, en el anillo de su
+ * {@link SalaEspectadores.Transmision}.
+ */
+public class StreamSender implements SalidaVideo {
 
-    private final PanelJuego gamePanel;
     private final ManejadorSockets sockets;
-    private final long frameDelayMillis;
-    private volatile boolean running = true;
+    private final DifusorVideo difusor;
+    /** Destino de los frames: la conexión TCP o un canal UDP. */
+    private volatile SalidaVideo salida;
+    private volatile boolean running = false;
+    /** Nivel de esta conexión, o null si el difusor no es adaptativo. Lo usa el hilo del difusor. */
+    private final AdaptadorCalidad adaptador;
+    /** Grabación de la sesión, o null si no se graba. */
+    private volatile GrabadorVideo.Grabacion grabacion;
+    /** Frames para los espectadores de la sesión, o null si no se pueden mirar. */
+    private volatile SalaEspectadores.Transmision transmision;
 
-    public StreamSender(ManejadorSockets sockets, PanelJuego gamePanel, long frameDelayMillis) {
-        if (sockets == null || gamePanel == null) throw new IllegalArgumentException("Parámetros inválidos");
+    public StreamSender(ManejadorSockets sockets, DifusorVideo difusor) {
+        if (sockets == null || difusor == null) throw new IllegalArgumentException("Parámetros inválidos");
         this.sockets = sockets;
-        this.gamePanel = gamePanel;
-        this.frameDelayMillis = frameDelayMillis;
-        setName("StreamSender");
-        setDaemon(true);
+        this.salida = sockets;
+        this.difusor = difusor;
+        this.adaptador = difusor.esAdaptativo() ? new AdaptadorCalidad(NivelVideo.ALTA) : null;
+    }
+
+    /**
+     * Empieza a recibir los frames del difusor.
+     */
+    public void start() {
+        running = true;
+        difusor.suscribir(this);
+    }
+
+    /**
+     * Envía los frames siguientes por otro destino (p. ej. video UDP).
+     */
+    public void redirigir(SalidaVideo salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Graba los frames siguientes.
+     */
+    public void grabarEn(GrabadorVideo.Grabacion grabacion) {
+        this.grabacion = grabacion;
+    }
+
+    /**
+     * Comparte los frames siguientes con los espectadores de la sesión.
+     */
+    public void transmitirA(SalaEspectadores.Transmision transmision) {
+        this.transmision = transmision;
+    }
+
+    /**
+     * Pide al difusor el último frame del nivel de esta conexión (clave en
+     * modo delta), p. ej. para un espectador que acaba de entrar.
+     */
+    public void pedirClave() {
+        difusor.pedirClave(this);
+    }
+
+    public boolean isAlive() {
+        return !estaCerrado();
     }
 
     public void stopStreaming() {
         running = false;
-        interrupt();
+        difusor.cancelar(this);
     }
 
     @Override
-    public void run() {
-        while (running && !Thread.currentThread().isInterrupted() && !sockets.estaCerrado()) {
-            try {
-                byte[] jpeg = FrameCapturer.captureToJpegBytes(gamePanel);
-                sockets.enviarFrame(jpeg);
-                try {
-                    Thread.sleep(frameDelayMillis);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                }
-            } catch (Exception e) {
-                break;
+    public void publicarFrame(byte[] jpeg) {
+        // No bloquea: si el cliente va lento se envía solo el más reciente
+        SalidaVideo destino = salida;
+        destino.publicarFrame(jpeg);
+        GrabadorVideo.Grabacion g = grabacion;
+        if (g != null) {
+            g.grabar(jpeg);
+        }
+        SalaEspectadores.Transmision t = transmision;
+        if (t != null) {
+            t.publicar(jpeg);
+        }
+        if (adaptador != null && destino == sockets) {
+            NivelVideo anterior = adaptador.getNivel();
+            NivelVideo nivel = adaptador.evaluar(sockets.getBuzonEnvio().getPublicados(),
+                sockets.getBuzonEnvio().getReemplazados(), System.nanoTime());
+            if (nivel != anterior) {
+                difusor.cambiarNivel(this, nivel);
             }
         }
     }
+
+    /**
+     * @return nivel y cambios de nivel, o cadena vacía si no es adaptativo
+     */
+    public String estadisticasNivel() {
+        return adaptador != null ? adaptador.toString() : "";
+    }
+
+    @Override
+    public boolean estaCerrado() {
+        return !running || sockets.estaCerrado();
+    }
 }
@@ -0,0 +1,142 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.RuedaTemporizadores;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detecta sesiones inactivas con una sola {@link RuedaTemporizadores} para
+ * todas las conexiones.
+ *
+ * <p>Cada sesión tiene a lo sumo un temporizador. Al vencer se consulta cuánto
+ * lleva la sesión sin recibir datos: si supera el límite se cierra; si supera
+ * el intervalo de latido se le envía un PING (el cliente responde PONG, que
+ * cuenta como actividad); si no, el temporizador se reprograma para cuando se
+ * cumpla el intervalo. La actividad no toca la rueda: solo actualiza una marca
+ * de tiempo en la sesión.
+ *
+ * <p>Las sesiones del protocolo legado no reciben latidos y dejan de
+ * vigilarse al autenticarse; hasta entonces, la inactividad igual las cierra.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class VigilanteInactividad {
+
+    /**
+     * Sesión vigilada. Los métodos se invocan desde el hilo de la rueda y no
+     * deben bloquear.
+     */
+    public interface Sesion {
+
+        /**
+         * @return nanosegundos desde el último dato recibido del cliente
+         */
+        long getNanosInactivo();
+
+        /**
+         * Envía un PING al cliente sin bloquear, si su protocolo lo admite.
+         */
+        void enviarPing();
+
+        /**
+         * Cierra la sesión sin esperar a que el cliente lea.
+         */
+        void cerrarPorInactividad();
+    }
+
+    private final RuedaTemporizadores rueda;
+    private final long nanosIntervalo;
+    private final long nanosLimite;
+    private final LongAdder pingsEnviados = new LongAdder();
+    private final LongAdder sesionesCerradas = new LongAdder();
+
+    /**
+     * Constructor del vigilante.
+     *
+     * @param rueda la rueda compartida
+     * @param intervaloPingMs inactividad tras la que se envía un PING
+     * @param limiteInactividadMs inactividad tras la que se cierra la sesión
+     */
+    public VigilanteInactividad(RuedaTemporizadores rueda, long intervaloPingMs, long limiteInactividadMs) {
+        this.rueda = rueda;
+        this.nanosIntervalo = TimeUnit.MILLISECONDS.toNanos(intervaloPingMs);
+        this.nanosLimite = TimeUnit.MILLISECONDS.toNanos(Math.max(intervaloPingMs, limiteInactividadMs));
+    }
+
+    /**
+     * Empieza a vigilar una sesión.
+     *
+     * @param sesion la sesión
+     * @return la vigilancia, que debe cancelarse al cerrar la sesión
+     */
+    public Vigilancia vigilar(Sesion sesion) {
+        Vigilancia v = new Vigilancia(sesion);
+        v.programar(nanosIntervalo);
+        return v;
+    }
+
+    public long getPingsEnviados() {
+        return pingsEnviados.sum();
+    }
+
+    public long getSesionesCerradas() {
+        return sesionesCerradas.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "pings=" + getPingsEnviados() + ", cerradas por inactividad=" + getSesionesCerradas()
+            + ", rueda: " + rueda;
+    }
+
+    /**
+     * Vigilancia de una sesión.
+     */
+    public final class Vigilancia {
+
+        private final Sesion sesion;
+        private volatile RuedaTemporizadores.Temporizador temporizador;
+        private volatile boolean terminada = false;
+
+        private Vigilancia(Sesion sesion) {
+            this.sesion = sesion;
+        }
+
+        private void programar(long nanos) {
+            temporizador = rueda.programar(nanos, TimeUnit.NANOSECONDS, this::revisar);
+        }
+
+        private void revisar() {
+            if (terminada) {
+                return;
+            }
+            long inactivo = sesion.getNanosInactivo();
+            if (inactivo >= nanosLimite) {
+                terminada = true;
+                sesionesCerradas.increment();
+                sesion.cerrarPorInactividad();
+                return;
+            }
+            if (inactivo >= nanosIntervalo) {
+                pingsEnviados.increment();
+                sesion.enviarPing();
+                programar(Math.min(nanosIntervalo, nanosLimite - inactivo));
+            } else {
+                programar(nanosIntervalo - inactivo);
+            }
+        }
+
+        /**
+         * Deja de vigilar la sesión.
+         */
+        public void cancelar() {
+            terminada = true;
+            RuedaTemporizadores.Temporizador t = temporizador;
+            if (t != null) {
+                t.cancelar();
+            }
+        }
+    }
+}
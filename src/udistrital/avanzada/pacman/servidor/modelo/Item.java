@@ -1,5 +1,7 @@
 package udistrital.avanzada.pacman.servidor.modelo;
 
+import udistrital.avanzada.pacman.protocolo.TipoItem;
+
 import java.awt.Point;
 
 /**
@@ -14,7 +16,8 @@ import java.awt.Point;
 public class Item {
     
     private final TipoItem tipo;
-    private Point posicion;
+    private int x;
+    private int y;
     private boolean recogido;
     
     /**
@@ -25,7 +28,8 @@ public class Item {
      */
     public Item(TipoItem tipo, Point posicion) {
         this.tipo = tipo;
-        this.posicion = new Point(posicion);
+        this.x = posicion.x;
+        this.y = posicion.y;
         this.recogido = false;
     }
     
@@ -44,7 +48,21 @@ public class Item {
      * @return La posición del ítem
      */
     public Point getPosicion() {
-        return new Point(posicion);
+        return new Point(x, y);
+    }
+    
+    /**
+     * @return x de la posición del ítem
+     */
+    public int getX() {
+        return x;
+    }
+    
+    /**
+     * @return y de la posición del ítem
+     */
+    public int getY() {
+        return y;
     }
     
     /**
@@ -53,7 +71,8 @@ public class Item {
      * @param posicion La nueva posición
      */
     public void setPosicion(Point posicion) {
-        this.posicion = new Point(posicion);
+        this.x = posicion.x;
+        this.y = posicion.y;
     }
     
     /**
@@ -80,45 +99,5 @@ public class Item {
     public int getPuntaje() {
         return tipo.getPuntaje();
     }
-    
-    /**
-     * Enum que representa los tipos de ítems disponibles en el juego.
-     */
-    public enum TipoItem {
-        CEREZA(100, "Cereza"),
-        FRESA(300, "Fresa"),
-        NARANJA(500, "Naranja"),
-        MANZANA(700, "Manzana"),
-        MELON(1000, "Melón"),
-        GALAXIAN(2000, "Galaxian"),
-        CAMPANA(3000, "Campana"),
-        LLAVE(5000, "Llave");
-        
-        private final int puntaje;
-        private final String nombre;
-        
-        TipoItem(int puntaje, String nombre) {
-            this.puntaje = puntaje;
-            this.nombre = nombre;
-        }
-        
-        /**
-         * Obtiene el puntaje del tipo de ítem.
-         * 
-         * @return El puntaje
-         */
-        public int getPuntaje() {
-            return puntaje;
-        }
-        
-        /**
-         * Obtiene el nombre del tipo de ítem.
-         * 
-         * @return El nombre
-         */
-        public String getNombre() {
-            return nombre;
-        }
-    }
 }
 
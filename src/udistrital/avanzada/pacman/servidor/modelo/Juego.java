@@ -1,11 +1,18 @@
 package udistrital.avanzada.pacman.servidor.modelo;
 
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+import udistrital.avanzada.pacman.protocolo.ResultadoLote;
+import udistrital.avanzada.pacman.protocolo.ResultadoMovimiento;
+import udistrital.avanzada.pacman.protocolo.TipoItem;
+
 import java.awt.Dimension;
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Representa el estado y lógica del juego.
@@ -20,9 +27,15 @@ public class Juego {
     
     private static final int NUMERO_ITEMS = 4;
     private static final int MARGEN = 50;
+    private static final Direccion[] DIRECCIONES = Direccion.values();
     
     private final PacMan pacMan;
     private final List<Item> items;
+    /** Vista de solo lectura de los ítems, para el hilo del juego. */
+    private final List<Item> vistaItems;
+    /** Último resultado de cada código; se reutiliza mientras el puntaje no cambie. */
+    private final ResultadoMovimiento[] resultados =
+        new ResultadoMovimiento[ResultadoMovimiento.Codigo.values().length];
     private int puntaje;
     private long tiempoInicio;
     private boolean juegoTerminado;
@@ -37,6 +50,7 @@ public class Juego {
         this.areaJuego = new Dimension(areaJuego);
         this.pacMan = new PacMan(areaJuego);
         this.items = new ArrayList<>();
+        this.vistaItems = Collections.unmodifiableList(items);
         this.puntaje = 0;
         this.juegoTerminado = false;
         inicializarItems();
@@ -47,8 +61,8 @@ public class Juego {
      * Inicializa los ítems aleatoriamente en el área de juego.
      */
     private void inicializarItems() {
-        List<Item.TipoItem> todosLosItems = new ArrayList<>();
-        Collections.addAll(todosLosItems, Item.TipoItem.values());
+        List<TipoItem> todosLosItems = new ArrayList<>();
+        Collections.addAll(todosLosItems, TipoItem.values());
         Collections.shuffle(todosLosItems);
         
         Random rand = new Random();
@@ -66,28 +80,28 @@ public class Juego {
      * @param direccion La dirección del movimiento
      * @return ResultadoMovimiento con información sobre el movimiento
      */
-    public ResultadoMovimiento procesarMovimiento(PacMan.Direccion direccion) {
+    public ResultadoMovimiento procesarMovimiento(Direccion direccion) {
         if (juegoTerminado) {
-            return new ResultadoMovimiento(false, "El juego ha terminado");
+            return resultado(ResultadoMovimiento.Codigo.JUEGO_YA_TERMINADO);
         }
         
         boolean movimientoExitoso = pacMan.mover(direccion);
 
         if (!movimientoExitoso) {
             // Requisito: Informar límite sin revelar cuántas casillas ni la dirección alternativa
-            // Además, mover aleatoriamente a una de las otras tres direcciones disponibles
-            List<PacMan.Direccion> alternativas = new ArrayList<>();
-            for (PacMan.Direccion d : PacMan.Direccion.values()) {
-                if (d != direccion) alternativas.add(d);
-            }
-            Collections.shuffle(alternativas);
-            for (PacMan.Direccion alt : alternativas) {
+            // Además, mover aleatoriamente a una de las otras tres direcciones disponibles.
+            // Las tres se prueban en un orden al azar: con tres elementos, los 6 órdenes
+            // posibles son las 3 rotaciones hacia adelante y las 3 hacia atrás
+            int orden = ThreadLocalRandom.current().nextInt(6);
+            int paso = orden < 3 ? 1 : 2;
+            for (int k = 0, i = orden % 3; k < 3; k++, i = (i + paso) % 3) {
+                Direccion alt = DIRECCIONES[(direccion.ordinal() + 1 + i) % DIRECCIONES.length];
                 if (pacMan.mover(alt)) {
                     break; // aplicar solo el primer movimiento alternativo válido
                 }
             }
             // No revelar la dirección en el mensaje
-            return new ResultadoMovimiento(false, "Límite alcanzado");
+            return resultado(ResultadoMovimiento.Codigo.LIMITE_ALCANZADO);
         }
         
         // Verificar colisiones con ítems
@@ -99,14 +113,56 @@ public class Juego {
             // Verificar si el juego terminó
             if (todosLosItemsRecogidos()) {
                 juegoTerminado = true;
-                return new ResultadoMovimiento(true, "¡Ítem recogido! Puntaje: " + puntaje + 
-                    ". ¡Juego terminado! Todos los ítems recogidos.");
+                return resultado(ResultadoMovimiento.Codigo.JUEGO_COMPLETADO);
             }
             
-            return new ResultadoMovimiento(true, "¡Ítem recogido! Puntaje: " + puntaje);
+            return resultado(ResultadoMovimiento.Codigo.ITEM_RECOGIDO);
         }
         
-        return new ResultadoMovimiento(true, "Movimiento exitoso");
+        return resultado(ResultadoMovimiento.Codigo.MOVIMIENTO_EXITOSO);
+    }
+    
+    /**
+     * Obtiene el resultado de un código con el puntaje actual. Los resultados
+     * son inmutables, así que se reutilizan mientras el puntaje no cambie y un
+     * movimiento común no crea objetos.
+     * 
+     * @param codigo El código del resultado
+     * @return El resultado
+     */
+    private ResultadoMovimiento resultado(ResultadoMovimiento.Codigo codigo) {
+        ResultadoMovimiento r = resultados[codigo.ordinal()];
+        if (r == null || r.getPuntaje() != puntaje) {
+            r = new ResultadoMovimiento(codigo, puntaje);
+            resultados[codigo.ordinal()] = r;
+        }
+        return r;
+    }
+    
+    /**
+     * Procesa un lote de movimientos en orden, deteniéndose si el juego termina.
+     * 
+     * @param direcciones Las direcciones a aplicar
+     * @return ResultadoLote con el resumen del lote y el último resultado
+     */
+    public ResultadoLote procesarLote(Direccion[] direcciones) {
+        int aplicados = 0;
+        int limites = 0;
+        ResultadoMovimiento ultimo = null;
+        for (Direccion direccion : direcciones) {
+            if (juegoTerminado) {
+                break;
+            }
+            ultimo = procesarMovimiento(direccion);
+            aplicados++;
+            if (ultimo.getCodigo() == ResultadoMovimiento.Codigo.LIMITE_ALCANZADO) {
+                limites++;
+            }
+        }
+        if (ultimo == null) {
+            ultimo = new ResultadoMovimiento(ResultadoMovimiento.Codigo.JUEGO_YA_TERMINADO, puntaje);
+        }
+        return new ResultadoLote(direcciones.length, aplicados, limites, ultimo);
     }
     
     /**
@@ -115,7 +171,8 @@ public class Juego {
      * @return El ítem con el que colisionó, o null si no hay colisión
      */
     private Item verificarColisiones() {
-        for (Item item : items) {
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
             if (pacMan.colisionaCon(item)) {
                 return item;
             }
@@ -129,7 +186,12 @@ public class Juego {
      * @return true si todos los ítems fueron recogidos, false en caso contrario
      */
     private boolean todosLosItemsRecogidos() {
-        return items.stream().allMatch(Item::estaRecogido);
+        for (int i = 0; i < items.size(); i++) {
+            if (!items.get(i).estaRecogido()) {
+                return false;
+            }
+        }
+        return true;
     }
     
     /**
@@ -142,12 +204,42 @@ public class Juego {
     }
     
     /**
-     * Obtiene la lista de ítems.
+     * Obtiene la lista de ítems. Solo debe usarse desde el hilo que procesa
+     * los movimientos: la lista no es una copia, sino una vista viva y sin
+     * sincronizar de los ítems del juego. Fuera de ese hilo (vista, video)
+     * se usa {@link #getInstantanea()}.
      * 
-     * @return Una copia de la lista de ítems
+     * @return Una vista de solo lectura de los ítems, que refleja los que se
+     *         recojan después
      */
     public List<Item> getItems() {
-        return new ArrayList<>(items);
+        return vistaItems;
+    }
+    
+    /**
+     * Toma una instantánea del juego para dibujarlo fuera del hilo del juego.
+     * 
+     * @return La posición de Pac-Man y los ítems sin recoger
+     */
+    public InstantaneaJuego getInstantanea() {
+        int n = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (!items.get(i).estaRecogido()) n++;
+        }
+        TipoItem[] tipos = new TipoItem[n];
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int j = 0;
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (!item.estaRecogido()) {
+                tipos[j] = item.getTipo();
+                xs[j] = item.getX();
+                ys[j] = item.getY();
+                j++;
+            }
+        }
+        return InstantaneaJuego.de(true, pacMan.getX(), pacMan.getY(), pacMan.getTamaño(), tipos, xs, ys);
     }
     
     /**
@@ -176,42 +268,4 @@ public class Juego {
     public boolean isJuegoTerminado() {
         return juegoTerminado;
     }
-    
-    /**
-     * Clase que representa el resultado de un movimiento.
-     */
-    public static class ResultadoMovimiento {
-        private final boolean exitoso;
-        private final String mensaje;
-        
-        /**
-         * Constructor de ResultadoMovimiento.
-         * 
-         * @param exitoso Si el movimiento fue exitoso
-         * @param mensaje El mensaje asociado
-         */
-        public ResultadoMovimiento(boolean exitoso, String mensaje) {
-            this.exitoso = exitoso;
-            this.mensaje = mensaje;
-        }
-        
-        /**
-         * Obtiene si el movimiento fue exitoso.
-         * 
-         * @return true si fue exitoso, false en caso contrario
-         */
-        public boolean isExitoso() {
-            return exitoso;
-        }
-        
-        /**
-         * Obtiene el mensaje del resultado.
-         * 
-         * @return El mensaje
-         */
-        public String getMensaje() {
-            return mensaje;
-        }
-    }
 }
-
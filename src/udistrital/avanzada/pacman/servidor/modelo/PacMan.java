@@ -1,5 +1,7 @@
 package udistrital.avanzada.pacman.servidor.modelo;
 
+import udistrital.avanzada.pacman.protocolo.Direccion;
+
 import java.awt.Point;
 import java.awt.Dimension;
 
@@ -18,8 +20,18 @@ public class PacMan {
     // Cada comando debe mover 4 casillas -> 4 * TAMAÑO píxeles
     private static final int VELOCIDAD = TAMAÑO * 4;
     
-    private Point posicion;
-    private final Dimension areaJuego;
+    /** Radio de captura: un ítem a esta distancia o menos se recoge. */
+    private static final int ALCANCE = TAMAÑO + 20;
+    /** Margen alrededor de Pac-Man para el chequeo de cajas. */
+    private static final int MARGEN_CAJA = 8;
+    /** Tamaño aproximado de una fruta. */
+    private static final int TAMAÑO_ITEM = 20;
+    
+    private int x;
+    private int y;
+    /** Mayor x e y válidos: Pac-Man debe caber completo en el área. */
+    private final int maximoX;
+    private final int maximoY;
     
     /**
      * Constructor de PacMan.
@@ -27,12 +39,11 @@ public class PacMan {
      * @param areaJuego Las dimensiones del área de juego
      */
     public PacMan(Dimension areaJuego) {
-        this.areaJuego = new Dimension(areaJuego);
+        this.maximoX = areaJuego.width - TAMAÑO;
+        this.maximoY = areaJuego.height - TAMAÑO;
         // Posición inicial en el centro
-        this.posicion = new Point(
-            areaJuego.width / 2 - TAMAÑO / 2,
-            areaJuego.height / 2 - TAMAÑO / 2
-        );
+        this.x = areaJuego.width / 2 - TAMAÑO / 2;
+        this.y = areaJuego.height / 2 - TAMAÑO / 2;
     }
     
     /**
@@ -41,7 +52,21 @@ public class PacMan {
      * @return La posición actual
      */
     public Point getPosicion() {
-        return new Point(posicion);
+        return new Point(x, y);
+    }
+    
+    /**
+     * @return x de la posición actual
+     */
+    public int getX() {
+        return x;
+    }
+    
+    /**
+     * @return y de la posición actual
+     */
+    public int getY() {
+        return y;
     }
     
     /**
@@ -55,48 +80,40 @@ public class PacMan {
     
     /**
      * Intenta mover a Pac-Man en una dirección específica.
-     * Se mueve píxel por píxel (4 casillas = 4 * TAMAÑO píxeles) y se detiene si alcanza un borde
-     * en cualquier momento del movimiento.
+     * Avanza hasta 4 casillas (4 * TAMAÑO píxeles) y se detiene en el borde si
+     * lo alcanza antes. Equivale a avanzar píxel por píxel hasta completar el
+     * paso o tocar un borde, pero se calcula de una vez acotando la coordenada.
      * 
      * @param direccion La dirección del movimiento
      * @return true si el movimiento fue completado (4*TAMAÑO píxeles), false si se alcanzó un límite
      */
     public boolean mover(Direccion direccion) {
-        int pixelesMovidos = 0;
-        Point posicionActual = new Point(posicion);
-        
-        // Mover píxel por píxel hasta completar VELOCIDAD píxeles o tocar un borde
-        for (int i = 0; i < VELOCIDAD; i++) {
-            Point nuevaPosicion = new Point(posicionActual);
-            
-            switch (direccion) {
-                case ARRIBA:
-                    nuevaPosicion.y -= 1;
-                    break;
-                case ABAJO:
-                    nuevaPosicion.y += 1;
-                    break;
-                case IZQUIERDA:
-                    nuevaPosicion.x -= 1;
-                    break;
-                case DERECHA:
-                    nuevaPosicion.x += 1;
-                    break;
-            }
-            
-            // Si la nueva posición es válida, actualizar; si no, detener
-            if (esPosicionValida(nuevaPosicion)) {
-                posicionActual = nuevaPosicion;
-                pixelesMovidos++;
-            } else {
-                // Se alcanzó un límite, detener el movimiento
+        // Fuera del área ningún paso es válido, así que no se mueve
+        if (!esPosicionValida(x, y)) {
+            return false;
+        }
+        int pixelesMovidos;
+        switch (direccion) {
+            case ARRIBA:
+                pixelesMovidos = Math.min(VELOCIDAD, y);
+                y -= pixelesMovidos;
+                break;
+            case ABAJO:
+                pixelesMovidos = Math.min(VELOCIDAD, maximoY - y);
+                y += pixelesMovidos;
+                break;
+            case IZQUIERDA:
+                pixelesMovidos = Math.min(VELOCIDAD, x);
+                x -= pixelesMovidos;
+                break;
+            case DERECHA:
+                pixelesMovidos = Math.min(VELOCIDAD, maximoX - x);
+                x += pixelesMovidos;
                 break;
-            }
+            default:
+                return false;
         }
         
-        // Actualizar la posición final
-        this.posicion = posicionActual;
-        
         // Retornar true solo si se movieron los 4 píxeles completos
         return pixelesMovidos == VELOCIDAD;
     }
@@ -104,14 +121,12 @@ public class PacMan {
     /**
      * Verifica si una posición es válida (dentro de los límites).
      * 
-     * @param pos La posición a verificar
+     * @param px x de la posición
+     * @param py y de la posición
      * @return true si la posición es válida, false en caso contrario
      */
-    private boolean esPosicionValida(Point pos) {
-        return pos.x >= 0 && 
-               pos.y >= 0 && 
-               pos.x + TAMAÑO <= areaJuego.width && 
-               pos.y + TAMAÑO <= areaJuego.height;
+    private boolean esPosicionValida(int px, int py) {
+        return px >= 0 && py >= 0 && px <= maximoX && py <= maximoY;
     }
     
     /**
@@ -125,67 +140,19 @@ public class PacMan {
             return false;
         }
         
-        Point posItem = item.getPosicion();
+        int itemX = item.getX();
+        int itemY = item.getY();
         // Mejora: aumentar tolerancia y considerar solapamiento de cajas para capturas más fiables
-        // Tolerancia radial ampliada (aprox. radio de la fruta ~20px)
-        double distancia = posicion.distance(posItem);
-        if (distancia <= (TAMAÑO + 20)) {
+        // Tolerancia radial ampliada (aprox. radio de la fruta ~20px), comparada al cuadrado
+        long dx = x - itemX;
+        long dy = y - itemY;
+        if (dx * dx + dy * dy <= (long) ALCANCE * ALCANCE) {
             return true;
         }
         // Chequeo adicional AABB (Axis-Aligned Bounding Box) con margen
-        int margen = 8;
-        int pacLeft = posicion.x - margen;
-        int pacTop = posicion.y - margen;
-        int pacRight = posicion.x + TAMAÑO + margen;
-        int pacBottom = posicion.y + TAMAÑO + margen;
-        int itemSize = 20; // aproximación del tamaño de fruta
-        int itemLeft = posItem.x - itemSize / 2;
-        int itemTop = posItem.y - itemSize / 2;
-        int itemRight = posItem.x + itemSize / 2;
-        int itemBottom = posItem.y + itemSize / 2;
-        boolean overlap = pacRight >= itemLeft && pacLeft <= itemRight &&
-                          pacBottom >= itemTop && pacTop <= itemBottom;
-        return overlap;
-    }
-    
-    /**
-     * Enum que representa las direcciones de movimiento.
-     */
-    public enum Direccion {
-        ARRIBA,
-        ABAJO,
-        IZQUIERDA,
-        DERECHA
-    }
-    
-    /**
-     * Convierte un string a dirección.
-     * 
-     * @param comando El comando de texto
-     * @return La dirección correspondiente, o null si es inválido
-     */
-    public static Direccion parsearDireccion(String comando) {
-        if (comando == null) {
-            return null;
-        }
-        
-        String cmd = comando.trim().toLowerCase();
-        switch (cmd) {
-            case "arriba":
-            case "arr":
-                return Direccion.ARRIBA;
-            case "abajo":
-            case "aba":
-                return Direccion.ABAJO;
-            case "izquierda":
-            case "izq":
-                return Direccion.IZQUIERDA;
-            case "derecha":
-            case "der":
-                return Direccion.DERECHA;
-            default:
-                return null;
-        }
+        int mitad = TAMAÑO_ITEM / 2;
+        return x + TAMAÑO + MARGEN_CAJA >= itemX - mitad && x - MARGEN_CAJA <= itemX + mitad
+            && y + TAMAÑO + MARGEN_CAJA >= itemY - mitad && y - MARGEN_CAJA <= itemY + mitad;
     }
 }
 
@@ -0,0 +1,185 @@
+package udistrital.avanzada.pacman.servidor.vista;
+
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+import udistrital.avanzada.pacman.util.RenderizadorJuego;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+/**
+ * Panel del servidor con las partidas en curso en mosaico.
+ *
+ * <p>Cada partida se pinta en su celda con {@link RenderizadorJuego} a partir
+ * de la instantánea de su superficie, con el nombre del jugador. Un clic en
+ * una celda muestra solo esa partida y otro clic vuelve al mosaico. Sin
+ * partidas se muestra el mensaje de espera.
+ *
+ * <p>Las superficies avisan sus cambios desde los hilos de juego; el panel
+ * solo marca que hay algo nuevo y un temporizador de Swing repinta a lo sumo
+ * una vez por intervalo, sin importar cuántas partidas cambien.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class PanelSesiones extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+    private static final int ANCHO_DEFAULT = 800;
+    private static final int ALTO_DEFAULT = 600;
+    /** Intervalo mínimo entre repintados (25 FPS aprox). */
+    private static final int INTERVALO_MS = 40;
+    private static final Font FUENTE_NOMBRE = new Font(Font.MONOSPACED, Font.BOLD, 12);
+    private static final Color COLOR_BORDE = new Color(0, 255, 180);
+
+    /**
+     * Partida que se muestra.
+     */
+    private static final class Celda {
+
+        final String nombre;
+        final SuperficieJuego superficie;
+
+        Celda(String nombre, SuperficieJuego superficie) {
+            this.nombre = nombre;
+            this.superficie = superficie;
+        }
+    }
+
+    private final transient List<Celda> celdas = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean cambio = new AtomicBoolean(true);
+    private final transient Runnable alCambiar = () -> cambio.set(true);
+    /** Superficie mostrada sola, o null para el mosaico. */
+    private transient volatile SuperficieJuego seleccionada;
+
+    /**
+     * Constructor del panel de partidas.
+     */
+    public PanelSesiones() {
+        setPreferredSize(new Dimension(ANCHO_DEFAULT, ALTO_DEFAULT));
+        setBackground(Color.BLACK);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                seleccionar(e.getX(), e.getY());
+            }
+        });
+        new Timer(INTERVALO_MS, e -> {
+            if (cambio.getAndSet(false)) {
+                repaint();
+            }
+        }).start();
+    }
+
+    /**
+     * Agrega una partida al mosaico. Puede llamarse desde cualquier hilo.
+     *
+     * @param nombre nombre del jugador
+     * @param superficie superficie de la partida
+     */
+    public void agregarSesion(String nombre, SuperficieJuego superficie) {
+        superficie.agregarOyente(alCambiar);
+        celdas.add(new Celda(nombre, superficie));
+        cambio.set(true);
+    }
+
+    /**
+     * Quita una partida del mosaico. Puede llamarse desde cualquier hilo.
+     *
+     * @param superficie superficie de la partida
+     */
+    public void quitarSesion(SuperficieJuego superficie) {
+        celdas.removeIf(c -> c.superficie == superficie);
+        if (seleccionada == superficie) {
+            seleccionada = null;
+        }
+        cambio.set(true);
+    }
+
+    /**
+     * @return partidas en el mosaico
+     */
+    public int getSesiones() {
+        return celdas.size();
+    }
+
+    private void seleccionar(int x, int y) {
+        if (seleccionada != null) {
+            seleccionada = null;
+        } else {
+            Celda[] actuales = celdas.toArray(new Celda[0]);
+            int columnas = columnas(actuales.length);
+            int filas = filas(actuales.length, columnas);
+            if (actuales.length > 0) {
+                int i = Math.min(y * filas / Math.max(1, getHeight()), filas - 1) * columnas
+                    + Math.min(x * columnas / Math.max(1, getWidth()), columnas - 1);
+                if (i < actuales.length) {
+                    seleccionada = actuales[i].superficie;
+                }
+            }
+        }
+        repaint();
+    }
+
+    private static int columnas(int n) {
+        return Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+    }
+
+    private static int filas(int n, int columnas) {
+        return Math.max(1, (n + columnas - 1) / columnas);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g;
+        int ancho = getWidth();
+        int alto = getHeight();
+        Celda[] actuales = celdas.toArray(new Celda[0]);
+        if (actuales.length == 0) {
+            RenderizadorJuego.pintar(g2d, InstantaneaJuego.ESPERA, ancho, alto, ancho, alto);
+            return;
+        }
+        SuperficieJuego sola = seleccionada;
+        if (sola != null) {
+            for (Celda celda : actuales) {
+                if (celda.superficie == sola) {
+                    pintarCelda(g2d, celda, 0, 0, ancho, alto);
+                    return;
+                }
+            }
+        }
+        int columnas = columnas(actuales.length);
+        int filas = filas(actuales.length, columnas);
+        for (int i = 0; i < actuales.length; i++) {
+            int x0 = (i % columnas) * ancho / columnas;
+            int y0 = (i / columnas) * alto / filas;
+            int x1 = (i % columnas + 1) * ancho / columnas;
+            int y1 = (i / columnas + 1) * alto / filas;
+            pintarCelda(g2d, actuales[i], x0, y0, x1 - x0, y1 - y0);
+        }
+    }
+
+    private void pintarCelda(Graphics2D g2d, Celda celda, int x, int y, int ancho, int alto) {
+        Graphics2D g = (Graphics2D) g2d.create(x, y, ancho, alto);
+        try {
+            SuperficieJuego s = celda.superficie;
+            RenderizadorJuego.pintar(g, s.getInstantanea(), s.getAncho(), s.getAlto(), ancho, alto);
+            g.setColor(COLOR_BORDE);
+            g.drawRect(0, 0, ancho - 1, alto - 1);
+            g.setFont(FUENTE_NOMBRE);
+            g.drawString(celda.nombre, 4, 14);
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package udistrital.avanzada.pacman.servidor.vista;
+
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+
+/**
+ * Algo que se transmite como video: un estado de juego y el tamaño con que se
+ * dibuja. Los métodos pueden llamarse desde cualquier hilo.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public interface SuperficieJuego {
+
+    /**
+     * @return el último estado publicado
+     */
+    InstantaneaJuego getInstantanea();
+
+    /**
+     * @return ancho del frame en píxeles
+     */
+    int getAncho();
+
+    /**
+     * @return alto del frame en píxeles
+     */
+    int getAlto();
+
+    /**
+     * Registra un oyente que se invoca, en el hilo que publica, cada vez que
+     * cambia la instantánea. No debe bloquear.
+     *
+     * @param oyente el oyente
+     */
+    void agregarOyente(Runnable oyente);
+}
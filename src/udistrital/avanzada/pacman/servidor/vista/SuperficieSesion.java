@@ -0,0 +1,68 @@
+package udistrital.avanzada.pacman.servidor.vista;
+
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Superficie fuera de pantalla de una sola partida.
+ *
+ * <p>Guarda la última {@link InstantaneaJuego} del juego para que la dibuje su
+ * difusor o la ventana del servidor. No es un componente Swing: publicar un
+ * estado no pasa por el EDT ni se mezcla con el de otras partidas.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class SuperficieSesion implements SuperficieJuego {
+
+    private final int ancho;
+    private final int alto;
+    private volatile InstantaneaJuego instantanea = InstantaneaJuego.ESPERA;
+    private final List<Runnable> oyentes = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param ancho ancho del frame en píxeles
+     * @param alto alto del frame en píxeles
+     */
+    public SuperficieSesion(int ancho, int alto) {
+        this.ancho = Math.max(1, ancho);
+        this.alto = Math.max(1, alto);
+    }
+
+    /**
+     * Publica el estado del juego.
+     *
+     * <p>La instantánea debe tomarse en el hilo que modifica el juego; luego
+     * la dibujan los hilos de video y el EDT sin tocar el modelo.
+     *
+     * @param instantanea El estado tomado con {@code Juego#getInstantanea()}
+     */
+    public void actualizarEstado(InstantaneaJuego instantanea) {
+        this.instantanea = instantanea;
+        for (Runnable oyente : oyentes) {
+            oyente.run();
+        }
+    }
+
+    @Override
+    public InstantaneaJuego getInstantanea() {
+        return instantanea;
+    }
+
+    @Override
+    public int getAncho() {
+        return ancho;
+    }
+
+    @Override
+    public int getAlto() {
+        return alto;
+    }
+
+    @Override
+    public void agregarOyente(Runnable oyente) {
+        oyentes.add(oyente);
+    }
+}
@@ -22,7 +22,7 @@ import java.awt.Font;
  */
 public class VentanaServidor extends JFrame {
     
-    private final PanelJuego gamePanel;
+    private final PanelSesiones panelSesiones;
     private final JButton btnSalir;
     
     /**
@@ -43,10 +43,10 @@ public class VentanaServidor extends JFrame {
         top.add(titulo);
         add(top, BorderLayout.NORTH);
 
-        // Panel de juego con borde
-        gamePanel = new PanelJuego();
-        gamePanel.setBorder(BorderFactory.createLineBorder(new Color(0, 255, 180)));
-        add(gamePanel, BorderLayout.CENTER);
+        // Partidas en curso en mosaico, con borde
+        panelSesiones = new PanelSesiones();
+        panelSesiones.setBorder(BorderFactory.createLineBorder(new Color(0, 255, 180)));
+        add(panelSesiones, BorderLayout.CENTER);
 
         // Panel de botones
         JPanel panelBotones = new JPanel(new FlowLayout());
@@ -64,12 +64,12 @@ public class VentanaServidor extends JFrame {
     }
     
     /**
-     * Obtiene el panel de juego.
+     * Obtiene el panel con las partidas en curso.
      * 
-     * @return El panel de juego
+     * @return El panel de partidas
      */
-    public PanelJuego getGamePanel() {
-        return gamePanel;
+    public PanelSesiones getPanelSesiones() {
+        return panelSesiones;
     }
     
     /**
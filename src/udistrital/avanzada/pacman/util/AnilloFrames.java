@@ -0,0 +1,246 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Anillo con los últimos frames codificados de una sesión, leído por varios
+ * {@link Lector} independientes.
+ *
+ * <p>Un solo hilo publica; publicar guarda la referencia al frame y despierta
+ * a los lectores, sin copiar ni esperar a ninguno. Cada lector lleva su propio
+ * cursor. Si se atrasa, salta al frame independiente (JPEG, estado o frame
+ * delta clave) más reciente, o al último frame si el anillo ya lo pasó: un
+ * lector lento pierde frames, nunca frena a quien publica. Un lector nuevo
+ * empieza en el último frame independiente, así que ve imagen de inmediato.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class AnilloFrames {
+
+    private final byte[][] frames;
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayFrame = cerrojo.newCondition();
+    /** Avisos para lectores que no pueden bloquear (bucles NIO). */
+    private final CopyOnWriteArrayList<Runnable> avisos = new CopyOnWriteArrayList<>();
+    /** Secuencia del próximo frame a publicar. */
+    private long escritos = 0;
+    /** Secuencia del último frame independiente, o -1. */
+    private long ultimoIndependiente = -1;
+    private boolean cerrado = false;
+
+    /**
+     * @param capacidad frames que conserva el anillo
+     */
+    public AnilloFrames(int capacidad) {
+        this.frames = new byte[Math.max(1, capacidad)][];
+    }
+
+    /**
+     * Agrega un frame. Lo invoca un solo hilo a la vez.
+     *
+     * @param frame bytes del frame; no deben modificarse después
+     */
+    public void publicar(byte[] frame) {
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            frames[(int) (escritos % frames.length)] = frame;
+            if (GrabacionVideo.esIndependiente(frame)) {
+                ultimoIndependiente = escritos;
+            }
+            escritos++;
+            hayFrame.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+        for (Runnable aviso : avisos) {
+            aviso.run();
+        }
+    }
+
+    /**
+     * Cierra el anillo: los lectores reciben null y ya no se aceptan frames.
+     */
+    public void cerrar() {
+        cerrojo.lock();
+        try {
+            cerrado = true;
+            hayFrame.signalAll();
+            Arrays.fill(frames, null);
+        } finally {
+            cerrojo.unlock();
+        }
+        for (Runnable aviso : avisos) {
+            aviso.run();
+        }
+    }
+
+    /**
+     * @return true si el anillo conserva algún frame independiente
+     */
+    public boolean tieneIndependiente() {
+        cerrojo.lock();
+        try {
+            return independienteEnAnillo();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private boolean independienteEnAnillo() {
+        return ultimoIndependiente >= 0 && ultimoIndependiente >= escritos - frames.length;
+    }
+
+    /**
+     * Crea un lector que empieza en el último frame independiente, o en el
+     * próximo frame si el anillo no conserva ninguno.
+     *
+     * @param aviso se invoca (desde el hilo que publica) tras cada frame nuevo
+     *              y al cerrar; no debe bloquear. Puede ser null.
+     * @return el lector
+     */
+    public Lector nuevoLector(Runnable aviso) {
+        Lector lector;
+        cerrojo.lock();
+        try {
+            lector = new Lector(aviso, independienteEnAnillo() ? ultimoIndependiente : escritos);
+        } finally {
+            cerrojo.unlock();
+        }
+        if (aviso != null) {
+            avisos.add(aviso);
+        }
+        return lector;
+    }
+
+    /**
+     * @return frames publicados desde que se creó el anillo
+     */
+    public long getPublicados() {
+        cerrojo.lock();
+        try {
+            return escritos;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Cursor de un consumidor del anillo. Cada lector lo usa un solo hilo a la vez.
+     */
+    public final class Lector {
+
+        private final Runnable aviso;
+        private long cursor;
+        private long leidos = 0;
+        private long saltados = 0;
+        private boolean terminado = false;
+
+        private Lector(Runnable aviso, long cursor) {
+            this.aviso = aviso;
+            this.cursor = cursor;
+        }
+
+        /**
+         * Toma el frame siguiente, esperando a lo sumo el tiempo dado.
+         *
+         * @param espera tiempo máximo de espera
+         * @param unidad unidad de la espera
+         * @return el frame, o null si no llegó ninguno o el anillo se cerró
+         *         (distinguibles con {@link #estaCerrado()})
+         * @throws InterruptedException si se interrumpe la espera
+         */
+        public byte[] tomar(long espera, TimeUnit unidad) throws InterruptedException {
+            long nanos = unidad.toNanos(espera);
+            cerrojo.lock();
+            try {
+                while (!cerrado && cursor >= escritos) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = hayFrame.awaitNanos(nanos);
+                }
+                return siguiente();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        /**
+         * Toma el frame siguiente si hay alguno, sin esperar.
+         *
+         * @return el frame, o null
+         */
+        public byte[] sondear() {
+            cerrojo.lock();
+            try {
+                return siguiente();
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        private byte[] siguiente() {
+            if (cerrado || cursor >= escritos) {
+                return null;
+            }
+            long destino = cursor;
+            long masViejo = Math.max(0, escritos - frames.length);
+            if (ultimoIndependiente > cursor && ultimoIndependiente >= masViejo && escritos - cursor > 1) {
+                // Atrasado: el frame independiente más reciente basta para ponerse al día
+                destino = ultimoIndependiente;
+            } else if (cursor < masViejo) {
+                // El anillo pasó al lector y no hay frame independiente más nuevo
+                destino = escritos - 1;
+            }
+            saltados += destino - cursor;
+            cursor = destino + 1;
+            leidos++;
+            return frames[(int) (destino % frames.length)];
+        }
+
+        /**
+         * @return true si el anillo se cerró
+         */
+        public boolean estaCerrado() {
+            cerrojo.lock();
+            try {
+                return cerrado;
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+
+        /**
+         * Deja de recibir avisos.
+         */
+        public void cerrar() {
+            if (!terminado) {
+                terminado = true;
+                if (aviso != null) {
+                    avisos.remove(aviso);
+                }
+            }
+        }
+
+        public long getLeidos() {
+            return leidos;
+        }
+
+        public long getSaltados() {
+            return saltados;
+        }
+
+        @Override
+        public String toString() {
+            return "leidos=" + leidos + ", saltados=" + saltados;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Buzón de frames en el que gana el más reciente.
+ *
+ * <p>Guarda como máximo {@code capacidad} frames (1 por defecto): al publicar
+ * con el buzón lleno se reemplaza el más antiguo, de modo que un consumidor
+ * lento siempre ve el estado actual del juego con memoria acotada. Lleva la
+ * cuenta de frames entregados, reemplazados y descartados.
+ *
+ * <p>Usa {@link ReentrantLock} para no fijar hilos virtuales al esperar.
+ *
+ * @param <T> tipo del frame
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class BuzonFrames<T> {
+
+    private final int capacidad;
+    private final ArrayDeque<T> frames;
+    private final Consumer<T> alDescartar;
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayFrame = cerrojo.newCondition();
+
+    private boolean cerrado = false;
+    private long publicados = 0;
+    private long entregados = 0;
+    private long reemplazados = 0;
+    private long descartados = 0;
+
+    /**
+     * Crea un buzón de una sola posición.
+     */
+    public BuzonFrames() {
+        this(1, null);
+    }
+
+    /**
+     * Crea un buzón con la capacidad indicada.
+     *
+     * @param capacidad frames retenidos como máximo
+     * @param alDescartar acción sobre cada frame que sale sin entregarse (puede ser null)
+     */
+    public BuzonFrames(int capacidad, Consumer<T> alDescartar) {
+        this.capacidad = Math.max(1, capacidad);
+        this.frames = new ArrayDeque<>(this.capacidad);
+        this.alDescartar = alDescartar;
+    }
+
+    /**
+     * Publica un frame sin bloquear. Si el buzón está lleno se reemplaza el más
+     * antiguo; si está cerrado el frame se descarta.
+     *
+     * @param frame el frame
+     * @return true si el buzón estaba vacío (el consumidor puede estar esperando)
+     */
+    public boolean publicar(T frame) {
+        T reemplazado = null;
+        boolean estabaVacio;
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                descartados++;
+                reemplazado = frame;
+                return false;
+            }
+            publicados++;
+            estabaVacio = frames.isEmpty();
+            if (frames.size() == capacidad) {
+                reemplazado = frames.poll();
+                reemplazados++;
+            }
+            frames.add(frame);
+            hayFrame.signal();
+        } finally {
+            cerrojo.unlock();
+            if (reemplazado != null && alDescartar != null) {
+                alDescartar.accept(reemplazado);
+            }
+        }
+        return estabaVacio;
+    }
+
+    /**
+     * Publica un frame solo si el buzón está vacío; nunca reemplaza a otro.
+     *
+     * @param frame el frame
+     * @return true si se publicó
+     */
+    public boolean publicarSiVacio(T frame) {
+        cerrojo.lock();
+        try {
+            if (cerrado || !frames.isEmpty()) {
+                return false;
+            }
+            publicados++;
+            frames.add(frame);
+            hayFrame.signal();
+            return true;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Toma el frame más antiguo retenido, esperando si no hay ninguno.
+     *
+     * @return el frame, o null si el buzón se cerró
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public T tomar() throws InterruptedException {
+        cerrojo.lock();
+        try {
+            while (frames.isEmpty() && !cerrado) {
+                hayFrame.await();
+            }
+            return entregar();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Toma un frame si hay alguno, sin esperar.
+     *
+     * @return el frame, o null si el buzón está vacío
+     */
+    public T sondear() {
+        cerrojo.lock();
+        try {
+            return entregar();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private T entregar() {
+        T frame = frames.poll();
+        if (frame != null) {
+            entregados++;
+        }
+        return frame;
+    }
+
+    /**
+     * Descarta los frames retenidos sin cerrar el buzón.
+     */
+    public void vaciar() {
+        ArrayDeque<T> pendientes;
+        cerrojo.lock();
+        try {
+            pendientes = new ArrayDeque<>(frames);
+            descartados += frames.size();
+            frames.clear();
+        } finally {
+            cerrojo.unlock();
+        }
+        if (alDescartar != null) {
+            pendientes.forEach(alDescartar);
+        }
+    }
+
+    /**
+     * Cierra el buzón: descarta lo retenido y despierta a quien espere.
+     */
+    public void cerrar() {
+        cerrojo.lock();
+        try {
+            cerrado = true;
+            hayFrame.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+        vaciar();
+    }
+
+    public long getPublicados() {
+        cerrojo.lock();
+        try {
+            return publicados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public long getEntregados() {
+        cerrojo.lock();
+        try {
+            return entregados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public long getReemplazados() {
+        cerrojo.lock();
+        try {
+            return reemplazados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public long getDescartados() {
+        cerrojo.lock();
+        try {
+            return descartados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        cerrojo.lock();
+        try {
+            return "publicados=" + publicados + ", entregados=" + entregados
+                + ", reemplazados=" + reemplazados + ", descartados=" + descartados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+}
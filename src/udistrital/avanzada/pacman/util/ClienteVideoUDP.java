@@ -0,0 +1,134 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * Receptor del canal de video UDP del lado cliente.
+ *
+ * <p>Saluda al servidor con el token recibido por TCP (repitiendo el saludo
+ * mientras no llegue video), reensambla los frames y los entrega al buzón de
+ * recepción del {@link ManejadorSockets}, de modo que quien consume con
+ * {@code tomarFrameRecibido()} no distingue si el video llegó por TCP o por UDP.
+ * Termina cuando se cierra la conexión TCP.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class ClienteVideoUDP extends Thread {
+
+    private static final int ESPERA_MS = 250;
+    /** Datagrama más grande que se acepta (el máximo de UDP sobre IPv4). */
+    private static final int MAX_DATAGRAMA = 65507;
+
+    private final ManejadorSockets sockets;
+    private final InetSocketAddress servidor;
+    private final long token;
+    private final ReensambladorVideo reensamblador = new ReensambladorVideo();
+    private volatile DatagramSocket socket;
+
+    /**
+     * Constructor del receptor.
+     *
+     * @param sockets la conexión TCP de la sesión
+     * @param servidor dirección UDP de video del servidor
+     * @param token token de la sesión
+     */
+    public ClienteVideoUDP(ManejadorSockets sockets, InetSocketAddress servidor, long token) {
+        this.sockets = sockets;
+        this.servidor = servidor;
+        this.token = token;
+        setName("ClienteVideoUDP");
+        setDaemon(true);
+    }
+
+    /**
+     * Interpreta la respuesta del servidor al comando {@link FragmentosVideo#COMANDO}.
+     *
+     * @param sockets la conexión TCP de la sesión
+     * @param hostServidor host del servidor
+     * @param respuesta texto {@code VIDEO_UDP:<puerto>:<token>}
+     * @return el receptor sin iniciar, o null si el servidor no ofrece video UDP
+     */
+    public static ClienteVideoUDP desdeRespuesta(ManejadorSockets sockets, String hostServidor, String respuesta) {
+        String[] partes = respuesta.split(":");
+        if (partes.length != 3 || !partes[0].equals(FragmentosVideo.COMANDO)) {
+            return null;
+        }
+        try {
+            int puerto = Integer.parseInt(partes[1]);
+            long token = Long.parseLong(partes[2]);
+            return new ClienteVideoUDP(sockets, new InetSocketAddress(hostServidor, puerto), token);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void run() {
+        byte[] recibido = new byte[MAX_DATAGRAMA];
+        DatagramPacket paquete = new DatagramPacket(recibido, recibido.length);
+        try (DatagramSocket ds = new DatagramSocket()) {
+            socket = ds;
+            ds.setSoTimeout(ESPERA_MS);
+            ds.setReceiveBufferSize(1 << 20);
+            saludar(ds);
+            boolean recibioVideo = false;
+            while (!sockets.estaCerrado() && !isInterrupted()) {
+                try {
+                    paquete.setLength(recibido.length);
+                    ds.receive(paquete);
+                } catch (SocketTimeoutException e) {
+                    if (!recibioVideo) {
+                        // El saludo pudo perderse: se repite hasta recibir video
+                        saludar(ds);
+                    }
+                    continue;
+                }
+                if (!paquete.getSocketAddress().equals(servidor)) {
+                    continue;
+                }
+                recibioVideo = true;
+                FrameRecibido frame = reensamblador.alimentar(
+                    ByteBuffer.wrap(recibido, 0, paquete.getLength()));
+                if (frame != null) {
+                    sockets.entregarFrame(frame);
+                }
+            }
+        } catch (IOException e) {
+            if (!sockets.estaCerrado()) {
+                System.err.println("Error en video UDP: " + e.getMessage());
+            }
+        } finally {
+            reensamblador.cerrar();
+            if (Configuracion.DEPURACION) {
+                System.out.println("Video UDP: " + reensamblador);
+            }
+        }
+    }
+
+    private void saludar(DatagramSocket ds) throws IOException {
+        ByteBuffer saludo = ByteBuffer.allocate(FragmentosVideo.LONGITUD_SALUDO);
+        FragmentosVideo.escribirSaludo(saludo, token);
+        ds.send(new DatagramPacket(saludo.array(), saludo.position(), servidor));
+    }
+
+    /**
+     * Detiene el receptor.
+     */
+    public void detener() {
+        interrupt();
+        DatagramSocket ds = socket;
+        if (ds != null) {
+            ds.close();
+        }
+    }
+
+    public ReensambladorVideo getReensamblador() {
+        return reensamblador;
+    }
+}
@@ -0,0 +1,292 @@
+package udistrital.avanzada.pacman.util;
+
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.protocolo.ResultadoLote;
+import udistrital.avanzada.pacman.protocolo.ResultadoMovimiento;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Protocolo binario compacto y versionado.
+ *
+ * <p>Saludo: el cliente envía {@code 'P' 'M' version}; el servidor responde con
+ * los mismos tres bytes y la versión aceptada (0 si la rechaza).
+ *
+ * <p>Cada mensaje: {@code int longitud} (bytes que siguen) + {@code byte tipo} + carga:
+ *  - TEXTO (1):      UTF-8, sin el límite de 64KB de writeUTF
+ *  - FRAME (2):      bytes del frame
+ *  - MOVIMIENTO (3): byte código de dirección
+ *  - RESULTADO (4):  byte código de resultado + int puntaje
+ *  - FIN_JUEGO (5):  int puntaje + long tiempo
+ *  - LOTE_MOVIMIENTOS (6): byte cantidad + un byte código por dirección
+ *  - RESULTADO_LOTE (7):   byte solicitados + byte aplicados + byte límites
+ *                          + byte código del último resultado + int puntaje
+ *  - PING (8) / PONG (9):  long marca (el PONG devuelve la del PING)
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class CodecBinario implements CodecProtocolo {
+
+    static final byte MAGIA_1 = 'P';
+    static final byte MAGIA_2 = 'M';
+    static final byte VERSION = 1;
+    static final int LONGITUD_SALUDO = 3;
+    private static final int CABECERA = 5;
+
+    /** Bytes recibidos pendientes de procesar (modo escritura entre llamadas). */
+    private ByteBuffer crudo = ByteBuffer.allocate(0);
+    private boolean saludoLeido = false;
+    /** Se rechazó la versión del cliente: lo que llegue después se descarta. */
+    private boolean rechazado = false;
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Solo lo usa el servidor, así que ningún mensaje puede superar
+     * {@link CodecProtocolo#MAX_CONTROL}, ni siquiera antes de autenticarse.
+     */
+    @Override
+    public void alimentar(ByteBuffer entrada, Receptor receptor) throws IOException {
+        if (rechazado) {
+            entrada.position(entrada.limit());
+            return;
+        }
+        if (crudo.remaining() < entrada.remaining()) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(crudo.capacity() * 2, crudo.position() + entrada.remaining()));
+            crudo.flip();
+            mayor.put(crudo);
+            crudo = mayor;
+        }
+        crudo.put(entrada);
+        crudo.flip();
+        try {
+            procesar(receptor);
+        } finally {
+            crudo.compact();
+        }
+    }
+
+    private void procesar(Receptor receptor) throws IOException {
+        if (!saludoLeido) {
+            if (crudo.remaining() < LONGITUD_SALUDO) {
+                return;
+            }
+            byte m1 = crudo.get();
+            byte m2 = crudo.get();
+            byte version = crudo.get();
+            if (m1 == MAGIA_1 && m2 == MAGIA_2 && version != VERSION) {
+                // Igual que el servidor con hilos: se responde con la versión 0
+                rechazado = true;
+                crudo.position(crudo.limit());
+                receptor.alRechazarSaludo(rechazoSaludo());
+                return;
+            }
+            validarSaludo(m1, m2, version);
+            saludoLeido = true;
+            receptor.alSaludo();
+        }
+        while (crudo.remaining() >= CABECERA) {
+            int inicio = crudo.position();
+            int longitud = crudo.getInt(inicio);
+            validarLongitud(longitud, MAX_CONTROL);
+            if (crudo.remaining() < 4 + longitud) {
+                return;
+            }
+            crudo.position(inicio + 4);
+            int tipo = crudo.get();
+            byte[] carga = new byte[longitud - 1];
+            crudo.get(carga);
+            receptor.alMensaje(decodificar(tipo, ByteBuffer.wrap(carga)));
+        }
+    }
+
+    @Override
+    public ByteBuffer respuestaSaludo() {
+        return saludo(VERSION);
+    }
+
+    @Override
+    public ByteBuffer codificar(MensajeProtocolo mensaje) {
+        switch (mensaje.getTipo()) {
+            case TEXTO: {
+                byte[] utf8 = mensaje.getTexto().getBytes(StandardCharsets.UTF_8);
+                return cabecera(MensajeProtocolo.Tipo.TEXTO, utf8.length).put(utf8).flip();
+            }
+            case MOVIMIENTO:
+                return cabecera(MensajeProtocolo.Tipo.MOVIMIENTO, 1)
+                    .put((byte) mensaje.getDireccion().getCodigo()).flip();
+            case RESULTADO:
+                return cabecera(MensajeProtocolo.Tipo.RESULTADO, 5)
+                    .put((byte) mensaje.getResultado().getCodigo().getValor())
+                    .putInt(mensaje.getPuntaje()).flip();
+            case FIN_JUEGO:
+                return cabecera(MensajeProtocolo.Tipo.FIN_JUEGO, 12)
+                    .putInt(mensaje.getPuntaje()).putLong(mensaje.getTiempo()).flip();
+            case LOTE_MOVIMIENTOS: {
+                Direccion[] direcciones = mensaje.getDirecciones();
+                ByteBuffer buf = cabecera(MensajeProtocolo.Tipo.LOTE_MOVIMIENTOS, 1 + direcciones.length)
+                    .put((byte) direcciones.length);
+                for (Direccion d : direcciones) {
+                    buf.put((byte) d.getCodigo());
+                }
+                return buf.flip();
+            }
+            case RESULTADO_LOTE: {
+                ResultadoLote lote = mensaje.getResultadoLote();
+                return cabecera(MensajeProtocolo.Tipo.RESULTADO_LOTE, 8)
+                    .put((byte) lote.getSolicitados()).put((byte) lote.getAplicados())
+                    .put((byte) lote.getLimites()).put((byte) lote.getUltimo().getCodigo().getValor())
+                    .putInt(lote.getUltimo().getPuntaje()).flip();
+            }
+            case PING:
+            case PONG:
+                return cabecera(mensaje.getTipo(), 8).putLong(mensaje.getTiempo()).flip();
+            default:
+                throw new IllegalArgumentException("Use escribirCabeceraFrame para frames");
+        }
+    }
+
+    @Override
+    public void escribirCabeceraFrame(ByteBuffer destino, int longitud) {
+        destino.putInt(1 + longitud).put((byte) MensajeProtocolo.Tipo.FRAME.getValor());
+    }
+
+    private static ByteBuffer cabecera(MensajeProtocolo.Tipo tipo, int longitudCarga) {
+        ByteBuffer buf = ByteBuffer.allocate(CABECERA + longitudCarga);
+        buf.putInt(1 + longitudCarga).put((byte) tipo.getValor());
+        return buf;
+    }
+
+    /**
+     * Bytes de saludo con la versión indicada.
+     *
+     * @param version versión a anunciar (0 = rechazo)
+     * @return buffer listo para escribir
+     */
+    static ByteBuffer saludo(byte version) {
+        ByteBuffer buf = ByteBuffer.allocate(LONGITUD_SALUDO);
+        buf.put(MAGIA_1).put(MAGIA_2).put(version).flip();
+        return buf;
+    }
+
+    /**
+     * Respuesta del servidor a un saludo que no acepta.
+     *
+     * @return los bytes de saludo con la versión 0
+     */
+    public static ByteBuffer rechazoSaludo() {
+        return saludo((byte) 0);
+    }
+
+    /**
+     * Verifica los tres bytes de saludo.
+     *
+     * @throws IOException si la magia o la versión no son válidas
+     */
+    static void validarSaludo(byte m1, byte m2, byte version) throws IOException {
+        if (m1 != MAGIA_1 || m2 != MAGIA_2) {
+            throw new StreamCorruptedException("Saludo binario inválido");
+        }
+        if (version != VERSION) {
+            throw new IOException("Versión de protocolo no soportada: " + version);
+        }
+    }
+
+    private static void validarLongitud(int longitud, int maximo) throws IOException {
+        if (longitud < 1 || longitud > maximo + 1) {
+            throw new StreamCorruptedException("Longitud de mensaje inválida: " + longitud);
+        }
+    }
+
+    /**
+     * Lee un mensaje completo de un flujo bloqueante. Los frames se leen en un
+     * arreglo de {@link PoolBytes} y se entregan a {@code destinoFrames}.
+     *
+     * @param entrada el flujo
+     * @param destinoFrames receptor de los frames
+     * @param maximo bytes máximos de la carga de un mensaje
+     * @return el mensaje de control leído, o null si era un frame
+     * @throws IOException si el flujo se cierra o no respeta el protocolo
+     */
+    static MensajeProtocolo leer(DataInputStream entrada, Consumer<FrameRecibido> destinoFrames, int maximo)
+            throws IOException {
+        int longitud = entrada.readInt();
+        validarLongitud(longitud, maximo);
+        int tipo = entrada.readUnsignedByte();
+        if (tipo == MensajeProtocolo.Tipo.FRAME.getValor()) {
+            FrameRecibido frame = new FrameRecibido(longitud - 1);
+            try {
+                entrada.readFully(frame.getDatos(), 0, frame.getLongitud());
+            } catch (IOException e) {
+                frame.devolver();
+                throw e;
+            }
+            destinoFrames.accept(frame);
+            return null;
+        }
+        byte[] carga = new byte[longitud - 1];
+        entrada.readFully(carga);
+        return decodificar(tipo, ByteBuffer.wrap(carga));
+    }
+
+    private static MensajeProtocolo decodificar(int valorTipo, ByteBuffer carga) throws IOException {
+        MensajeProtocolo.Tipo tipo = MensajeProtocolo.Tipo.desdeValor(valorTipo);
+        if (tipo == null) {
+            throw new StreamCorruptedException("Tipo de mensaje desconocido: " + valorTipo);
+        }
+        try {
+            switch (tipo) {
+                case TEXTO:
+                    return MensajeProtocolo.texto(StandardCharsets.UTF_8.decode(carga).toString());
+                case FRAME:
+                    return MensajeProtocolo.frame(carga.array());
+                case MOVIMIENTO: {
+                    Direccion d = Direccion.desdeCodigo(carga.get());
+                    if (d == null) throw new StreamCorruptedException("Dirección desconocida");
+                    return MensajeProtocolo.movimiento(d);
+                }
+                case RESULTADO: {
+                    ResultadoMovimiento.Codigo c = ResultadoMovimiento.Codigo.desdeValor(carga.get());
+                    if (c == null) throw new StreamCorruptedException("Resultado desconocido");
+                    return MensajeProtocolo.resultado(new ResultadoMovimiento(c, carga.getInt()));
+                }
+                case LOTE_MOVIMIENTOS: {
+                    int cantidad = carga.get() & 0xFF;
+                    if (cantidad == 0 || cantidad > MensajeProtocolo.MAX_LOTE) {
+                        throw new StreamCorruptedException("Lote de " + cantidad + " movimientos");
+                    }
+                    Direccion[] direcciones = new Direccion[cantidad];
+                    for (int i = 0; i < cantidad; i++) {
+                        direcciones[i] = Direccion.desdeCodigo(carga.get());
+                        if (direcciones[i] == null) throw new StreamCorruptedException("Dirección desconocida");
+                    }
+                    return MensajeProtocolo.loteMovimientos(direcciones);
+                }
+                case RESULTADO_LOTE: {
+                    int solicitados = carga.get() & 0xFF;
+                    int aplicados = carga.get() & 0xFF;
+                    int limites = carga.get() & 0xFF;
+                    ResultadoMovimiento.Codigo c = ResultadoMovimiento.Codigo.desdeValor(carga.get());
+                    if (c == null) throw new StreamCorruptedException("Resultado desconocido");
+                    ResultadoMovimiento ultimo = new ResultadoMovimiento(c, carga.getInt());
+                    return MensajeProtocolo.resultadoLote(
+                        new ResultadoLote(solicitados, aplicados, limites, ultimo));
+                }
+                case PING:
+                    return MensajeProtocolo.ping(carga.getLong());
+                case PONG:
+                    return MensajeProtocolo.pong(carga.getLong());
+                default:
+                    return MensajeProtocolo.finJuego(carga.getInt(), carga.getLong());
+            }
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new StreamCorruptedException("Mensaje " + tipo + " truncado");
+        }
+    }
+}
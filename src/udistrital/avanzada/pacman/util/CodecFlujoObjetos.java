@@ -0,0 +1,199 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codificador/decodificador incremental del protocolo etiquetado que usa
+ * {@link ManejadorSockets} sobre ObjectOutputStream/ObjectInputStream.
+ *
+ * <p>Permite que un servidor no bloqueante (java.nio) hable con los clientes
+ * existentes sin crear streams de objetos: reproduce la cabecera de serialización
+ * y el modo "block data" (TC_BLOCKDATA / TC_BLOCKDATALONG) en el que viajan los
+ * writeInt/writeUTF/write del protocolo:
+ *  - TAG 1: mensaje de texto -> writeInt(1); writeUTF(mensaje)
+ *  - TAG 2: frame binario    -> writeInt(2); writeInt(len); write(byte[len])
+ *
+ * <p>Los movimientos, resultados, latidos y fin de juego viajan con su representación de
+ * texto ({@link MensajeProtocolo#toTexto()}).
+ */
+public final class CodecFlujoObjetos implements CodecProtocolo {
+
+    private static final short STREAM_MAGIC = (short) 0xaced;
+    private static final short STREAM_VERSION = 5;
+    private static final int TC_BLOCKDATA = 0x77;
+    private static final int TC_RESET = 0x79;
+    private static final int TC_BLOCKDATALONG = 0x7A;
+    private static final int LONGITUD_CABECERA = 4;
+
+    /** Bytes tal como llegan del socket (modo escritura entre llamadas; crece al recibir). */
+    private ByteBuffer crudo = ByteBuffer.allocate(0);
+    /** Carga útil de los bloques ya desenvuelta (modo escritura entre llamadas). */
+    private ByteBuffer logico = ByteBuffer.allocate(0);
+    private boolean cabeceraLeida = false;
+    private int bloqueRestante = 0;
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Solo lo usa el servidor, así que ningún mensaje puede superar
+     * {@link CodecProtocolo#MAX_CONTROL}, ni siquiera antes de autenticarse.
+     */
+    @Override
+    public void alimentar(ByteBuffer entrada, Receptor receptor) throws IOException {
+        crudo = anexar(crudo, entrada, entrada.remaining());
+        crudo.flip();
+        try {
+            desenvolverBloques(receptor);
+        } finally {
+            crudo.compact();
+        }
+        logico.flip();
+        try {
+            extraerMensajes(receptor);
+        } finally {
+            logico.compact();
+        }
+    }
+
+    private void desenvolverBloques(Receptor receptor) throws IOException {
+        if (!cabeceraLeida) {
+            if (crudo.remaining() < LONGITUD_CABECERA) {
+                return;
+            }
+            if (crudo.getShort() != STREAM_MAGIC || crudo.getShort() != STREAM_VERSION) {
+                throw new StreamCorruptedException("Cabecera de stream inválida");
+            }
+            cabeceraLeida = true;
+            receptor.alSaludo();
+        }
+        while (crudo.hasRemaining()) {
+            if (bloqueRestante > 0) {
+                int n = Math.min(bloqueRestante, crudo.remaining());
+                logico = anexar(logico, crudo, n);
+                bloqueRestante -= n;
+                continue;
+            }
+            int tc = crudo.get(crudo.position()) & 0xFF;
+            if (tc == TC_RESET) {
+                crudo.get();
+            } else if (tc == TC_BLOCKDATA) {
+                if (crudo.remaining() < 2) return;
+                crudo.get();
+                bloqueRestante = crudo.get() & 0xFF;
+            } else if (tc == TC_BLOCKDATALONG) {
+                if (crudo.remaining() < 5) return;
+                crudo.get();
+                bloqueRestante = crudo.getInt();
+                if (bloqueRestante < 0) {
+                    throw new StreamCorruptedException("Longitud de bloque inválida");
+                }
+            } else {
+                throw new StreamCorruptedException("Código de tipo inesperado: " + tc);
+            }
+        }
+    }
+
+    private void extraerMensajes(Receptor receptor) throws IOException {
+        while (logico.remaining() >= 4) {
+            int inicio = logico.position();
+            int tag = logico.getInt(inicio);
+            if (tag == ManejadorSockets.TAG_TEXTO) {
+                if (logico.remaining() < 6) return;
+                int utflen = logico.getShort(inicio + 4) & 0xFFFF;
+                if (utflen > MAX_CONTROL) {
+                    throw new StreamCorruptedException("Texto demasiado largo: " + utflen);
+                }
+                if (logico.remaining() < 6 + utflen) return;
+                DataInputStream din = new DataInputStream(new ByteArrayInputStream(
+                    logico.array(), logico.arrayOffset() + inicio + 4, 2 + utflen));
+                String mensaje = din.readUTF();
+                logico.position(inicio + 6 + utflen);
+                receptor.alMensaje(MensajeProtocolo.desdeTexto(mensaje));
+            } else if (tag == ManejadorSockets.TAG_FRAME) {
+                if (logico.remaining() < 8) return;
+                int len = logico.getInt(inicio + 4);
+                if (len <= 0 || len > MAX_CONTROL) {
+                    throw new StreamCorruptedException("Tamaño de frame inválido: " + len);
+                }
+                if (logico.remaining() < 8 + len) return;
+                byte[] data = new byte[len];
+                logico.position(inicio + 8);
+                logico.get(data);
+                receptor.alMensaje(MensajeProtocolo.frame(data));
+            } else {
+                throw new StreamCorruptedException("Tag desconocido: " + tag);
+            }
+        }
+    }
+
+    /**
+     * Copia {@code n} bytes de {@code origen} al final de {@code destino},
+     * ampliándolo si es necesario.
+     */
+    private static ByteBuffer anexar(ByteBuffer destino, ByteBuffer origen, int n) {
+        if (destino.remaining() < n) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(destino.capacity() * 2, destino.position() + n));
+            destino.flip();
+            mayor.put(destino);
+            destino = mayor;
+        }
+        int limite = origen.limit();
+        origen.limit(origen.position() + n);
+        destino.put(origen);
+        origen.limit(limite);
+        return destino;
+    }
+
+    /**
+     * Cabecera que ObjectOutputStream escribe al crearse; se envía una sola
+     * vez al inicio de la conexión.
+     */
+    @Override
+    public ByteBuffer respuestaSaludo() {
+        ByteBuffer buf = ByteBuffer.allocate(LONGITUD_CABECERA);
+        buf.putShort(STREAM_MAGIC).putShort(STREAM_VERSION).flip();
+        return buf;
+    }
+
+    /**
+     * Codifica el texto del mensaje como un bloque de datos.
+     *
+     * @throws IOException si el texto excede el límite de writeUTF
+     */
+    @Override
+    public ByteBuffer codificar(MensajeProtocolo mensaje) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(64);
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeInt(ManejadorSockets.TAG_TEXTO);
+        dos.writeUTF(mensaje.toTexto());
+        byte[] carga = baos.toByteArray();
+        ByteBuffer buf = ByteBuffer.allocate(5 + carga.length);
+        ponerCabeceraBloque(buf, carga.length);
+        buf.put(carga).flip();
+        return buf;
+    }
+
+    /**
+     * El frame viaja como un único bloque TC_BLOCKDATALONG; un ObjectInputStream
+     * lo lee igual que los bloques que produce ObjectOutputStream.
+     */
+    @Override
+    public void escribirCabeceraFrame(ByteBuffer destino, int longitud) {
+        ponerCabeceraBloque(destino, 8 + longitud);
+        destino.putInt(ManejadorSockets.TAG_FRAME).putInt(longitud);
+    }
+
+    private static void ponerCabeceraBloque(ByteBuffer buf, int longitud) {
+        if (longitud <= 0xFF) {
+            buf.put((byte) TC_BLOCKDATA).put((byte) longitud);
+        } else {
+            buf.put((byte) TC_BLOCKDATALONG).putInt(longitud);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codificación de un protocolo de red para el servidor no bloqueante.
+ *
+ * <p>Una instancia decodifica de forma incremental un único flujo entrante y no
+ * es thread-safe. La codificación produce buffers listos para escribir.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public interface CodecProtocolo {
+
+    /**
+     * Recibe los eventos que se van decodificando.
+     */
+    interface Receptor {
+        /**
+         * Se invoca una vez validado el saludo del cliente.
+         */
+        void alSaludo() throws IOException;
+
+        /**
+         * Se invoca si el cliente pide una versión no soportada. La respuesta
+         * de rechazo debe enviarse antes de cerrar la conexión; el codec
+         * descarta lo que llegue después.
+         *
+         * @param respuesta buffer listo para escribir
+         */
+        void alRechazarSaludo(ByteBuffer respuesta);
+
+        /**
+         * Se invoca por cada mensaje completo.
+         */
+        void alMensaje(MensajeProtocolo mensaje) throws IOException;
+    }
+
+    /**
+     * Consume los bytes disponibles y notifica al receptor.
+     *
+     * @param entrada bytes recibidos (en modo lectura)
+     * @param receptor destino de los eventos
+     * @throws IOException si el flujo no respeta el protocolo
+     */
+    void alimentar(ByteBuffer entrada, Receptor receptor) throws IOException;
+
+    /**
+     * Respuesta del servidor al saludo del cliente.
+     *
+     * @return buffer listo para escribir
+     */
+    ByteBuffer respuestaSaludo();
+
+    /**
+     * Codifica un mensaje de control (texto, movimiento, resultado o fin de juego).
+     *
+     * @param mensaje el mensaje
+     * @return buffer listo para escribir
+     * @throws IOException si el mensaje no se puede representar
+     */
+    ByteBuffer codificar(MensajeProtocolo mensaje) throws IOException;
+
+    /**
+     * Tamaño máximo de un mensaje recibido por el servidor. El cliente solo
+     * envía mensajes de control: los más largos son líneas de texto (usuario,
+     * contraseña o comandos); un lote completo ocupa 66 bytes.
+     */
+    int MAX_CONTROL = 4 * 1024;
+
+    /** Tamaño máximo de la cabecera de un frame en cualquier protocolo. */
+    int MAX_CABECERA_FRAME = 16;
+
+    /**
+     * Escribe la cabecera de un frame; la carga se envía aparte, sin copiarla,
+     * con una escritura agrupada.
+     *
+     * @param destino buffer donde escribir (al menos {@link #MAX_CABECERA_FRAME} bytes libres)
+     * @param longitud bytes del frame
+     */
+    void escribirCabeceraFrame(ByteBuffer destino, int longitud);
+}
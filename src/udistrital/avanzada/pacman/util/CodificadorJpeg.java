@@ -0,0 +1,201 @@
+package udistrital.avanzada.pacman.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStreamImpl;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Codifica imágenes como JPEG con una calidad explícita.
+ *
+ * <p>Cada hilo conserva su propio contexto: el {@code ImageWriter} con su
+ * {@code ImageWriteParam} y un búfer de salida en memoria que crece hasta el
+ * tamaño del frame más grande. Así un frame no busca writer en el registro de
+ * ImageIO, no pasa por la caché en disco de {@code ImageIO.write} ni asigna un
+ * {@code ByteArrayOutputStream}; solo se copian los bytes resultantes. Los
+ * frames salen sin metadatos ni miniaturas.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class CodificadorJpeg {
+
+    /** Calidad que usa ImageIO cuando no se indica otra. */
+    public static final float CALIDAD_POR_DEFECTO = 0.75f;
+
+    private static final ThreadLocal<Contexto> CONTEXTOS = new ThreadLocal<>();
+
+    private CodificadorJpeg() {}
+
+    /**
+     * Codifica una imagen.
+     *
+     * @param img la imagen
+     * @param calidad calidad entre 0 y 1
+     * @return los bytes JPEG
+     * @throws IOException si no hay codificador JPEG
+     */
+    public static byte[] codificar(BufferedImage img, float calidad) throws IOException {
+        SalidaMemoria salida = codificarEnContexto(img, calidad);
+        return Arrays.copyOf(salida.datos, salida.longitud);
+    }
+
+    /**
+     * Escribe una imagen como JPEG en un flujo.
+     *
+     * @param img la imagen
+     * @param calidad calidad entre 0 y 1
+     * @param destino el flujo destino (no se cierra)
+     * @throws IOException si no hay codificador JPEG o falla la escritura
+     */
+    public static void escribir(BufferedImage img, float calidad, OutputStream destino) throws IOException {
+        SalidaMemoria salida = codificarEnContexto(img, calidad);
+        destino.write(salida.datos, 0, salida.longitud);
+    }
+
+    /**
+     * Codifica en el búfer del hilo; el resultado vale hasta la próxima llamada.
+     */
+    private static SalidaMemoria codificarEnContexto(BufferedImage img, float calidad) throws IOException {
+        Contexto contexto = CONTEXTOS.get();
+        if (contexto == null) {
+            contexto = new Contexto();
+            CONTEXTOS.set(contexto);
+        }
+        try {
+            contexto.codificar(img, calidad);
+            return contexto.salida;
+        } catch (IOException | RuntimeException e) {
+            // Un writer que falló a mitad de frame no se reutiliza
+            CONTEXTOS.remove();
+            contexto.writer.dispose();
+            throw e;
+        }
+    }
+
+    /**
+     * Writer, parámetros y búfer de un hilo.
+     */
+    private static final class Contexto {
+
+        final ImageWriter writer;
+        final ImageWriteParam param;
+        final SalidaMemoria salida = new SalidaMemoria();
+        /** Copia en el formato que el writer codifica sin convertir fila por fila. */
+        BufferedImage destino;
+
+        Contexto() throws IOException {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+            if (!writers.hasNext()) {
+                throw new IOException("No hay writer para formato JPEG");
+            }
+            writer = writers.next();
+            param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        }
+
+        void codificar(BufferedImage img, float calidad) throws IOException {
+            param.setCompressionQuality(calidad);
+            salida.reiniciar();
+            try {
+                writer.setOutput(salida);
+                writer.write(null, new IIOImage(enFormatoNativo(img), null, null), param);
+            } finally {
+                writer.setOutput(null);
+            }
+        }
+
+        private BufferedImage enFormatoNativo(BufferedImage img) {
+            if (img.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+                return img;
+            }
+            int w = img.getWidth();
+            int h = img.getHeight();
+            if (destino == null || destino.getWidth() < w || destino.getHeight() < h) {
+                destino = new BufferedImage(Math.max(w, destino == null ? 0 : destino.getWidth()),
+                    Math.max(h, destino == null ? 0 : destino.getHeight()), BufferedImage.TYPE_3BYTE_BGR);
+            }
+            Graphics2D g = destino.createGraphics();
+            try {
+                g.setComposite(AlphaComposite.Src);
+                g.drawImage(img, 0, 0, null);
+            } finally {
+                g.dispose();
+            }
+            return w == destino.getWidth() && h == destino.getHeight() ? destino : destino.getSubimage(0, 0, w, h);
+        }
+    }
+
+    /**
+     * {@code ImageOutputStream} sobre un arreglo que se reutiliza entre frames.
+     */
+    private static final class SalidaMemoria extends ImageOutputStreamImpl {
+
+        byte[] datos = new byte[64 * 1024];
+        int longitud = 0;
+
+        void reiniciar() {
+            streamPos = 0;
+            flushedPos = 0;
+            bitOffset = 0;
+            longitud = 0;
+        }
+
+        private void asegurar(long fin) throws IOException {
+            if (fin > Integer.MAX_VALUE - 8) {
+                throw new IOException("Frame JPEG demasiado grande");
+            }
+            if (fin > datos.length) {
+                datos = Arrays.copyOf(datos, (int) Math.max(fin, datos.length * 2L));
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            flushBits();
+            asegurar(streamPos + 1);
+            datos[(int) streamPos++] = (byte) b;
+            longitud = Math.max(longitud, (int) streamPos);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            flushBits();
+            asegurar(streamPos + len);
+            System.arraycopy(b, off, datos, (int) streamPos, len);
+            streamPos += len;
+            longitud = Math.max(longitud, (int) streamPos);
+        }
+
+        @Override
+        public int read() throws IOException {
+            bitOffset = 0;
+            return streamPos < longitud ? datos[(int) streamPos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            bitOffset = 0;
+            if (streamPos >= longitud) {
+                return -1;
+            }
+            int n = (int) Math.min(len, longitud - streamPos);
+            System.arraycopy(datos, (int) streamPos, b, off, n);
+            streamPos += n;
+            return n;
+        }
+
+        @Override
+        public long length() {
+            return longitud;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Colas de objetos libres agrupados por clases de tamaño potencia de dos, de
+ * 4KB a 4MB, con un máximo retenido por clase. Es la base de
+ * {@link PoolBytes} y {@link PoolBuffersDirectos}.
+ *
+ * @param <T> tipo de lo que se recicla
+ * @author And_Gar03
+ * @version 1.0
+ */
+final class ColasPorClase<T> {
+
+    static final int CLASE_MINIMA = 12;
+    static final int CLASE_MAXIMA = 22;
+
+    private final List<Queue<T>> libres = new ArrayList<>();
+    private final AtomicIntegerArray retenidos = new AtomicIntegerArray(CLASE_MAXIMA - CLASE_MINIMA + 1);
+    private final int maximoPorClase;
+
+    /**
+     * @param maximoPorClase objetos libres que se conservan por clase
+     */
+    ColasPorClase(int maximoPorClase) {
+        this.maximoPorClase = maximoPorClase;
+        for (int c = CLASE_MINIMA; c <= CLASE_MAXIMA; c++) {
+            libres.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Clase que atiende una petición: la menor potencia de dos que la cubre.
+     * Puede superar {@link #CLASE_MAXIMA}; esas peticiones no usan el pool.
+     *
+     * @param capacidad bytes requeridos
+     * @return el exponente de la clase
+     */
+    static int clase(int capacidad) {
+        int c = 32 - Integer.numberOfLeadingZeros(Math.max(1, capacidad) - 1);
+        return Math.max(CLASE_MINIMA, c);
+    }
+
+    /**
+     * Clase de un objeto que se devuelve.
+     *
+     * @param capacidad capacidad exacta del objeto
+     * @return el exponente de la clase, o -1 si no salió del pool
+     */
+    static int claseExacta(int capacidad) {
+        if (Integer.bitCount(capacidad) != 1) {
+            return -1;
+        }
+        int c = Integer.numberOfTrailingZeros(capacidad);
+        return c >= CLASE_MINIMA && c <= CLASE_MAXIMA ? c : -1;
+    }
+
+    /**
+     * Toma un objeto libre de la clase.
+     *
+     * @param clase exponente entre {@link #CLASE_MINIMA} y {@link #CLASE_MAXIMA}
+     * @return el objeto, o null si no hay ninguno libre
+     */
+    T tomar(int clase) {
+        T libre = libres.get(clase - CLASE_MINIMA).poll();
+        if (libre != null) {
+            retenidos.decrementAndGet(clase - CLASE_MINIMA);
+        }
+        return libre;
+    }
+
+    /**
+     * Guarda un objeto libre si la clase no tiene ya el máximo.
+     *
+     * @param clase exponente entre {@link #CLASE_MINIMA} y {@link #CLASE_MAXIMA}
+     * @param libre el objeto
+     */
+    void devolver(int clase, T libre) {
+        int i = clase - CLASE_MINIMA;
+        if (retenidos.incrementAndGet(i) <= maximoPorClase) {
+            libres.get(i).offer(libre);
+        } else {
+            retenidos.decrementAndGet(i);
+        }
+    }
+}
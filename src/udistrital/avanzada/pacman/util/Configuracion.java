@@ -16,6 +16,12 @@ import java.util.Properties;
  * @version 1.0
  */
 public class Configuracion {
+
+    /**
+     * Con {@code -Dpacman.depuracion=true} se imprimen las estadísticas de
+     * cada sesión y canal de video al cerrarse.
+     */
+    public static final boolean DEPURACION = Boolean.getBoolean("pacman.depuracion");
     
     /**
      * Carga propiedades desde un archivo.
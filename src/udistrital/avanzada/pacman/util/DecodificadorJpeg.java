@@ -0,0 +1,147 @@
+package udistrital.avanzada.pacman.util;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Decodifica frames JPEG reutilizando el lector y, si se le pasa, la imagen
+ * destino.
+ *
+ * <p>{@code ImageIO.read} busca un lector en el registro, envuelve los bytes
+ * en un flujo con caché y asigna una imagen nueva por frame. Aquí el
+ * {@code ImageReader} se conserva, los bytes se leen directamente del arreglo
+ * recibido y, si la imagen destino tiene el tamaño del frame, los píxeles se
+ * escriben sobre ella ({@link ImageReadParam#setDestination}).
+ *
+ * <p>No es seguro para varios hilos: cada consumidor de video tiene el suyo.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class DecodificadorJpeg {
+
+    private final ImageReader lector;
+    private final ImageReadParam param;
+    private final EntradaMemoria entrada = new EntradaMemoria();
+    private long reutilizadas = 0;
+    private long nuevas = 0;
+
+    /**
+     * @throws IOException si no hay lector JPEG
+     */
+    public DecodificadorJpeg() throws IOException {
+        Iterator<ImageReader> lectores = ImageIO.getImageReadersByFormatName("jpg");
+        if (!lectores.hasNext()) {
+            throw new IOException("No hay reader para formato JPEG");
+        }
+        lector = lectores.next();
+        param = lector.getDefaultReadParam();
+    }
+
+    /**
+     * Decodifica un JPEG.
+     *
+     * @param datos arreglo con el JPEG
+     * @param desde posición del primer byte
+     * @param longitud bytes del JPEG
+     * @param destino imagen a reutilizar, o null; se usa si tiene el tamaño
+     *                y un formato compatible con el frame
+     * @return {@code destino} con el frame, o una imagen nueva
+     * @throws IOException si el JPEG está corrupto
+     */
+    public BufferedImage decodificar(byte[] datos, int desde, int longitud, BufferedImage destino) throws IOException {
+        entrada.apuntar(datos, desde, longitud);
+        try {
+            lector.setInput(entrada, true, true);
+            if (destino != null && destino.getWidth() == lector.getWidth(0)
+                    && destino.getHeight() == lector.getHeight(0)) {
+                param.setDestination(destino);
+                try {
+                    BufferedImage img = lector.read(0, param);
+                    reutilizadas++;
+                    return img;
+                } catch (IIOException | IllegalArgumentException e) {
+                    // Formato de la imagen incompatible con el frame: se decodifica aparte
+                    entrada.apuntar(datos, desde, longitud);
+                    lector.setInput(entrada, true, true);
+                } finally {
+                    param.setDestination(null);
+                }
+            }
+            nuevas++;
+            return lector.read(0, param);
+        } finally {
+            lector.setInput(null);
+            entrada.soltar();
+        }
+    }
+
+    public long getReutilizadas() {
+        return reutilizadas;
+    }
+
+    public long getNuevas() {
+        return nuevas;
+    }
+
+    @Override
+    public String toString() {
+        return "imágenes reutilizadas=" + reutilizadas + ", nuevas=" + nuevas;
+    }
+
+    /**
+     * {@code ImageInputStream} que se reapunta al arreglo de cada frame.
+     */
+    private static final class EntradaMemoria extends ImageInputStreamImpl {
+
+        private static final byte[] VACIO = new byte[0];
+
+        private byte[] datos = VACIO;
+        private int desde;
+        private int longitud;
+
+        void apuntar(byte[] datos, int desde, int longitud) {
+            this.datos = datos;
+            this.desde = desde;
+            this.longitud = longitud;
+            streamPos = 0;
+            flushedPos = 0;
+            bitOffset = 0;
+        }
+
+        void soltar() {
+            datos = VACIO;
+            desde = longitud = 0;
+            streamPos = flushedPos = 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            bitOffset = 0;
+            return streamPos < longitud ? datos[desde + (int) streamPos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            bitOffset = 0;
+            if (streamPos >= longitud) {
+                return -1;
+            }
+            int n = (int) Math.min(len, longitud - streamPos);
+            System.arraycopy(datos, desde + (int) streamPos, b, off, n);
+            streamPos += n;
+            return n;
+        }
+
+        @Override
+        public long length() {
+            return longitud;
+        }
+    }
+}
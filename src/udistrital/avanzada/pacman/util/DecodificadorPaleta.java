@@ -0,0 +1,183 @@
+package udistrital.avanzada.pacman.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodifica frames de {@link FramesPaleta} reutilizando el descompresor y,
+ * si se le pasa, la imagen destino.
+ *
+ * <p>Cada corrida se escribe de una vez en el arreglo de píxeles de la
+ * imagen; no hay conversión de color ni una imagen nueva por frame.
+ *
+ * <p>No es seguro para varios hilos: cada consumidor de video tiene el suyo.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class DecodificadorPaleta {
+
+    private final Inflater inflater = new Inflater();
+    private final int[] paleta = new int[FramesPaleta.MAX_COLORES];
+    private byte[] corridas = new byte[4096];
+    private long reutilizadas = 0;
+    private long nuevas = 0;
+
+    /**
+     * Decodifica un frame de paleta.
+     *
+     * <p>Las corridas se validan antes de tocar la imagen: si el frame es
+     * inválido no se reserva una imagen nueva ni se modifica {@code destino}.
+     *
+     * @param datos bytes del frame
+     * @param longitud bytes válidos
+     * @param destino imagen a reutilizar, o null; se usa si es
+     *                {@code TYPE_INT_RGB} y tiene el tamaño del frame
+     * @return {@code destino} con el frame, o una imagen nueva
+     * @throws IOException si el frame está incompleto o corrupto, supera
+     *         {@link FramesPaleta#MAX_LADO} o sus corridas no cubren
+     *         exactamente la imagen
+     */
+    public BufferedImage decodificar(byte[] datos, int longitud, BufferedImage destino) throws IOException {
+        if (!FramesPaleta.esPaleta(datos, longitud)) {
+            throw new IOException("No es un frame de paleta");
+        }
+        boolean comprimido = (datos[2] & FramesPaleta.COMPRIMIDO) != 0;
+        int ancho = (datos[7] & 0xFF) << 8 | datos[8] & 0xFF;
+        int alto = (datos[9] & 0xFF) << 8 | datos[10] & 0xFF;
+        int colores = datos[11] & 0xFF;
+        int pos = FramesPaleta.CABECERA;
+        if (ancho == 0 || alto == 0 || ancho > FramesPaleta.MAX_LADO || alto > FramesPaleta.MAX_LADO
+                || colores == 0 || colores > FramesPaleta.MAX_COLORES || longitud - pos < colores * 3) {
+            throw new IOException("Cabecera de paleta inválida");
+        }
+        for (int i = 0; i < colores; i++, pos += 3) {
+            paleta[i] = (datos[pos] & 0xFF) << 16 | (datos[pos + 1] & 0xFF) << 8 | datos[pos + 2] & 0xFF;
+        }
+
+        long total = (long) ancho * alto;
+        byte[] fuente = datos;
+        int fin = longitud;
+        if (comprimido) {
+            fin = inflar(datos, pos, longitud - pos, total);
+            fuente = corridas;
+            pos = 0;
+        }
+        recorrer(fuente, pos, fin, colores, (int) total, null, 0);
+
+        BufferedImage img = destino;
+        if (!esReutilizable(img, ancho, alto)) {
+            img = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+            nuevas++;
+        } else {
+            reutilizadas++;
+        }
+        DataBufferInt buffer = (DataBufferInt) img.getRaster().getDataBuffer();
+        recorrer(fuente, pos, fin, colores, (int) total, buffer.getData(), buffer.getOffset());
+        return img;
+    }
+
+    /**
+     * Recorre las corridas; sin {@code pixeles} solo las valida.
+     *
+     * @param pixeles arreglo donde pintar cada corrida de una vez, o null
+     * @throws IOException si una corrida es inválida o las corridas no
+     *         suman exactamente {@code total} píxeles
+     */
+    private void recorrer(byte[] fuente, int pos, int fin, int colores, int total, int[] pixeles, int desde)
+            throws IOException {
+        int pintados = 0;
+        while (pintados < total) {
+            if (pos >= fin) {
+                throw new IOException("Frame de paleta incompleto");
+            }
+            int corrida = fuente[pos++] & 0xFF;
+            int indice = corrida >>> 4;
+            int largo = (corrida & 0x0F) + 1;
+            if (largo > FramesPaleta.LARGO_CORTO) {
+                int resto = 0;
+                int corrimiento = 0;
+                int v;
+                do {
+                    if (pos >= fin || corrimiento > 21) {
+                        throw new IOException("Corrida de paleta inválida");
+                    }
+                    v = fuente[pos++] & 0xFF;
+                    resto |= (v & 0x7F) << corrimiento;
+                    corrimiento += 7;
+                } while ((v & 0x80) != 0);
+                largo = FramesPaleta.LARGO_CORTO + 1 + resto;
+            }
+            if (indice >= colores || largo > total - pintados) {
+                throw new IOException("Corrida de paleta inválida");
+            }
+            if (pixeles != null) {
+                Arrays.fill(pixeles, desde + pintados, desde + pintados + largo, paleta[indice]);
+            }
+            pintados += largo;
+        }
+        if (pos != fin) {
+            throw new IOException("Bytes sobrantes en el frame de paleta");
+        }
+    }
+
+    /**
+     * Descomprime las corridas en el búfer propio.
+     *
+     * @return bytes de corridas
+     */
+    private int inflar(byte[] datos, int desde, int longitud, long pixeles) throws IOException {
+        // Cada píxel ocupa a lo sumo un byte de corrida: más que eso es un frame corrupto
+        int limite = (int) pixeles + 16;
+        inflater.reset();
+        inflater.setInput(datos, desde, longitud);
+        int n = 0;
+        try {
+            while (!inflater.finished()) {
+                if (n == corridas.length) {
+                    if (n >= limite) {
+                        throw new IOException("Frame de paleta demasiado grande");
+                    }
+                    corridas = Arrays.copyOf(corridas, Math.min(limite, corridas.length * 2));
+                }
+                int leidos = inflater.inflate(corridas, n, corridas.length - n);
+                if (leidos == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Frame de paleta incompleto");
+                }
+                n += leidos;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Frame de paleta corrupto", e);
+        }
+        return n;
+    }
+
+    private static boolean esReutilizable(BufferedImage img, int ancho, int alto) {
+        if (img == null || img.getType() != BufferedImage.TYPE_INT_RGB
+                || img.getWidth() != ancho || img.getHeight() != alto) {
+            return false;
+        }
+        WritableRaster raster = img.getRaster();
+        return raster.getParent() == null && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+            && ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() == ancho;
+    }
+
+    public long getReutilizadas() {
+        return reutilizadas;
+    }
+
+    public long getNuevas() {
+        return nuevas;
+    }
+
+    @Override
+    public String toString() {
+        return "imágenes reutilizadas=" + reutilizadas + ", nuevas=" + nuevas;
+    }
+}
@@ -0,0 +1,77 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivo de solo agregado escrito a través de regiones mapeadas en memoria.
+ *
+ * <p>Escribir es copiar a la región actual; el sistema operativo lleva las
+ * páginas al disco por su cuenta, incluso si el proceso termina sin cerrar.
+ * Cuando un registro no cabe se mapea una región nueva a partir de la posición
+ * actual. Al cerrar se recorta el archivo a lo escrito; si el sistema no lo
+ * permite con la región aún mapeada, el archivo termina en ceros.
+ *
+ * <p>No es seguro para varios hilos.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class EscrituraMapeada implements Closeable {
+
+    /** Tamaño mínimo de cada región mapeada. */
+    public static final int REGION = 1 << 20;
+
+    private final FileChannel canal;
+    private MappedByteBuffer region;
+    private long posicion = 0;
+
+    /**
+     * Crea el archivo (o lo vacía si existe).
+     *
+     * @param archivo ruta del archivo
+     * @throws IOException si no se puede crear
+     */
+    public EscrituraMapeada(Path archivo) throws IOException {
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reserva espacio para un registro y avanza la posición.
+     *
+     * @param bytes tamaño del registro
+     * @return la región donde escribir exactamente {@code bytes} bytes con put relativos
+     * @throws IOException si no se puede mapear
+     */
+    public MappedByteBuffer reservar(int bytes) throws IOException {
+        if (region == null || region.remaining() < bytes) {
+            region = canal.map(FileChannel.MapMode.READ_WRITE, posicion, Math.max(REGION, bytes));
+        }
+        posicion += bytes;
+        return region;
+    }
+
+    /**
+     * @return bytes escritos
+     */
+    public long getPosicion() {
+        return posicion;
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        try {
+            canal.truncate(posicion);
+        } catch (IOException e) {
+            // Algunos sistemas no recortan un archivo mapeado: el lector se detiene en los ceros
+        } finally {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Formato de los datagramas del canal de video UDP.
+ *
+ * <p>El video UDP es opcional: la autenticación y los comandos siguen por TCP.
+ * El cliente pide el canal con el comando de texto {@link #COMANDO}; el servidor
+ * responde {@code VIDEO_UDP:<puerto>:<token>} (o {@code VIDEO_UDP:NO}) y el cliente
+ * envía datagramas de saludo con el token hasta recibir video, con lo que el
+ * servidor conoce su dirección.
+ *
+ * <p>Datagramas:
+ *  - Saludo (cliente a servidor): {@code 'P' 'H'} + long token
+ *  - Fragmento (servidor a cliente): {@code 'P' 'V'} + int secuencia + short índice
+ *    + short total + int desplazamiento + int longitud del frame + bytes
+ *
+ * Un frame se parte en fragmentos de a lo sumo la carga configurada. Como UDP
+ * puede perder, duplicar o desordenar, el receptor ({@link ReensambladorVideo})
+ * descarta los frames incompletos o más viejos que el último entregado.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class FragmentosVideo {
+
+    public static final String COMANDO = "VIDEO_UDP";
+    public static final String RESPUESTA_NO = COMANDO + ":NO";
+
+    static final byte MAGIA = 'P';
+    static final byte TIPO_SALUDO = 'H';
+    static final byte TIPO_FRAGMENTO = 'V';
+    static final int LONGITUD_SALUDO = 10;
+    public static final int CABECERA = 18;
+    /** Carga por defecto: cabe con holgura en un MTU de Ethernet. */
+    public static final int CARGA_POR_DEFECTO = 1200;
+    /** Máximo de fragmentos por frame (el índice viaja en un short). */
+    static final int MAX_FRAGMENTOS = 0xFFFF;
+
+    private FragmentosVideo() {}
+
+    /**
+     * Escribe un datagrama de saludo.
+     *
+     * @param destino buffer con al menos {@link #LONGITUD_SALUDO} bytes libres
+     * @param token token recibido por TCP
+     */
+    static void escribirSaludo(ByteBuffer destino, long token) {
+        destino.put(MAGIA).put(TIPO_SALUDO).putLong(token);
+    }
+
+    /**
+     * Lee el token de un datagrama de saludo.
+     *
+     * @param datagrama bytes recibidos (en modo lectura)
+     * @return el token, o null si no es un saludo válido
+     */
+    public static Long leerSaludo(ByteBuffer datagrama) {
+        if (datagrama.remaining() != LONGITUD_SALUDO
+                || datagrama.get() != MAGIA || datagrama.get() != TIPO_SALUDO) {
+            return null;
+        }
+        return datagrama.getLong();
+    }
+
+    /**
+     * Parte un frame en datagramas y los envía. Un datagrama que el sistema no
+     * entrega se pierde como cualquier otra pérdida de UDP; no hay reenvíos.
+     *
+     * @param canal canal UDP del servidor
+     * @param destino dirección del cliente
+     * @param secuencia número del frame
+     * @param frame bytes del frame entre posición y límite (no se consumen)
+     * @param datagrama buffer de trabajo de al menos {@code CABECERA + carga} bytes
+     * @param carga bytes de frame por datagrama
+     * @return datagramas enviados
+     * @throws IOException si el canal falla
+     */
+    public static int enviar(DatagramChannel canal, SocketAddress destino, int secuencia,
+                             ByteBuffer frame, ByteBuffer datagrama, int carga) throws IOException {
+        int longitud = frame.remaining();
+        int total = Math.max(1, (longitud + carga - 1) / carga);
+        if (total > MAX_FRAGMENTOS) {
+            throw new IOException("Frame demasiado grande para UDP: " + longitud + " bytes");
+        }
+        int inicio = frame.position();
+        int enviados = 0;
+        for (int i = 0; i < total; i++) {
+            int desplazamiento = i * carga;
+            int tam = Math.min(carga, longitud - desplazamiento);
+            datagrama.clear();
+            datagrama.put(MAGIA).put(TIPO_FRAGMENTO).putInt(secuencia)
+                .putShort((short) i).putShort((short) total)
+                .putInt(desplazamiento).putInt(longitud);
+            datagrama.put(datagrama.position(), frame, inicio + desplazamiento, tam);
+            datagrama.position(datagrama.position() + tam).flip();
+            if (canal.send(datagrama, destino) > 0) {
+                enviados++;
+            }
+        }
+        return enviados;
+    }
+}
@@ -0,0 +1,69 @@
+package udistrital.avanzada.pacman.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copia de un frame en un buffer directo del {@link PoolBuffersDirectos}, para
+ * escribirlo al socket sin la copia intermedia del JDK.
+ *
+ * <p>Tiene un solo dueño: la conexión que lo escribe. Al terminar, el dueño
+ * lo guarda para copiar ahí el próximo frame ({@link #copiar(byte[], FrameDirecto)})
+ * o lo devuelve al pool con {@link #liberar()}.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class FrameDirecto {
+
+    private final ByteBuffer buffer;
+
+    private FrameDirecto(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Copia los datos al buffer de un frame ya escrito si le caben; si no, a
+     * uno nuevo del pool, y el anterior vuelve al pool.
+     *
+     * @param datos bytes del frame
+     * @param reciclado frame que ya no se usa, o null
+     * @return el frame con los datos
+     */
+    public static FrameDirecto copiar(byte[] datos, FrameDirecto reciclado) {
+        FrameDirecto frame = reciclado;
+        if (frame == null || frame.buffer.capacity() < datos.length) {
+            if (frame != null) {
+                frame.liberar();
+            }
+            frame = new FrameDirecto(PoolBuffersDirectos.tomar(datos.length));
+        }
+        frame.buffer.clear();
+        frame.buffer.put(datos).flip();
+        return frame;
+    }
+
+    /**
+     * Devuelve el buffer al pool; después no se debe usar el frame.
+     */
+    public void liberar() {
+        PoolBuffersDirectos.devolver(buffer);
+    }
+
+    /**
+     * Vista de solo lectura con posición y límite propios.
+     *
+     * @return la vista
+     */
+    public ByteBuffer vista() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Longitud del frame en bytes.
+     *
+     * @return la longitud
+     */
+    public int longitud() {
+        return buffer.limit();
+    }
+}
@@ -0,0 +1,56 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.Arrays;
+
+/**
+ * Frame recibido en un arreglo de {@link PoolBytes}. El arreglo puede ser mayor
+ * que el frame: los bytes válidos son {@code [0, longitud)}.
+ *
+ * <p>Quien lo toma de {@link ManejadorSockets#tomarFrameRecibido()} debe llamar a
+ * {@link #devolver()} al terminar de decodificarlo; después no debe usar
+ * {@link #getDatos()}.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class FrameRecibido {
+
+    private byte[] datos;
+    private final int longitud;
+
+    /**
+     * Reserva el arreglo para un frame de la longitud indicada.
+     *
+     * @param longitud bytes del frame
+     */
+    FrameRecibido(int longitud) {
+        this.datos = PoolBytes.tomar(longitud);
+        this.longitud = longitud;
+    }
+
+    public byte[] getDatos() {
+        return datos;
+    }
+
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Copia los bytes del frame a un arreglo de su longitud exacta.
+     *
+     * @return la copia
+     */
+    public byte[] copiar() {
+        return Arrays.copyOf(datos, longitud);
+    }
+
+    /**
+     * Devuelve el arreglo al pool. Llamadas repetidas no tienen efecto.
+     */
+    public void devolver() {
+        byte[] d = datos;
+        datos = null;
+        PoolBytes.devolver(d);
+    }
+}
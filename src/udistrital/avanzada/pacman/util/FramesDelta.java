@@ -0,0 +1,61 @@
+package udistrital.avanzada.pacman.util;
+
+/**
+ * Formato de los frames de video por regiones (modo delta).
+ *
+ * <p>El frame se divide en teselas cuadradas. Un frame delta lleva solo las
+ * teselas que cambiaron respecto al frame anterior, agrupadas en rectángulos
+ * (teselas contiguas de una misma fila) y codificadas como JPEG. Un frame
+ * clave lleva la imagen completa como un único rectángulo.
+ *
+ * <p>Todo frame viaja como carga de un mensaje de video normal, así que el
+ * cliente distingue el formato por la cabecera ({@link #esDelta}); un JPEG
+ * empieza con {@code 0xFF 0xD8} y nunca la confunde.
+ *
+ * <p>Frame (big endian):
+ *  - {@code 'P' 'D'} + byte banderas ({@link #CLAVE}) + int secuencia
+ *    + short ancho + short alto + short rectángulos
+ *  - por rectángulo: short x + short y + short ancho + short alto
+ *    + int longitud + bytes JPEG
+ *
+ * Un delta solo se puede aplicar sobre el frame de secuencia anterior. Si se
+ * pierde uno (buzón que reemplaza, datagrama perdido) el receptor
+ * ({@link ReconstructorDelta}) ignora los deltas hasta el siguiente frame clave.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class FramesDelta {
+
+    public static final byte MAGIA = 'P';
+    public static final byte TIPO_DELTA = 'D';
+    /** Bandera de frame clave. */
+    public static final byte CLAVE = 1;
+    public static final int CABECERA = 13;
+    public static final int CABECERA_RECTANGULO = 12;
+    /** Lado por defecto de las teselas. */
+    public static final int TESELA_POR_DEFECTO = 32;
+    /** Frames entre claves por defecto (1 s a 25 FPS). */
+    public static final int INTERVALO_CLAVE_POR_DEFECTO = 25;
+
+    private FramesDelta() {}
+
+    /**
+     * Indica si unos bytes de video son un frame delta.
+     *
+     * @param datos bytes del frame
+     * @param longitud bytes válidos
+     * @return true si tienen la cabecera del formato delta
+     */
+    public static boolean esDelta(byte[] datos, int longitud) {
+        return longitud >= CABECERA && datos[0] == MAGIA && datos[1] == TIPO_DELTA;
+    }
+
+    /**
+     * @param frame un frame delta completo
+     * @return true si es un frame clave
+     */
+    public static boolean esClave(byte[] frame) {
+        return (frame[2] & CLAVE) != 0;
+    }
+}
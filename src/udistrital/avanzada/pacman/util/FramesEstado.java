@@ -0,0 +1,147 @@
+package udistrital.avanzada.pacman.util;
+
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+import udistrital.avanzada.pacman.protocolo.TipoItem;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Formato de los frames de estado: en lugar de píxeles viaja la
+ * {@link InstantaneaJuego} y el cliente la dibuja.
+ *
+ * <p>Todo lo visible de un juego es la posición de Pac-Man y unos pocos
+ * ítems, así que cada frame es completo (no hay deltas ni frames clave) y
+ * cabe en unas decenas de bytes. Viaja como carga de un mensaje de video
+ * normal; el cliente lo distingue de un JPEG o de un frame delta por la
+ * cabecera ({@link #esEstado}).
+ *
+ * <p>Frame (big endian):
+ *  - {@code 'P' 'S'} + byte banderas ({@link #JUEGO}, {@link #PACMAN})
+ *    + int secuencia + short ancho + short alto
+ *  - short x + short y + short tamaño de Pac-Man
+ *  - byte ítems + por ítem: byte tipo ({@link TipoItem#ordinal()})
+ *    + short x + short y
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class FramesEstado {
+
+    public static final byte MAGIA = FramesDelta.MAGIA;
+    public static final byte TIPO_ESTADO = 'S';
+    /** Bandera de juego activo; sin ella se dibuja el mensaje de espera. */
+    public static final byte JUEGO = 1;
+    /** Bandera de Pac-Man presente. */
+    public static final byte PACMAN = 2;
+    public static final int CABECERA = 18;
+    public static final int BYTES_ITEM = 5;
+
+    private static final TipoItem[] TIPOS = TipoItem.values();
+
+    private FramesEstado() {}
+
+    /**
+     * Indica si unos bytes de video son un frame de estado.
+     *
+     * @param datos bytes del frame
+     * @param longitud bytes válidos
+     * @return true si tienen la cabecera del formato de estado
+     */
+    public static boolean esEstado(byte[] datos, int longitud) {
+        return longitud >= CABECERA && datos[0] == MAGIA && datos[1] == TIPO_ESTADO;
+    }
+
+    /**
+     * Codifica una instantánea.
+     *
+     * @param instantanea el estado a enviar
+     * @param secuencia número del frame
+     * @param ancho ancho del área de juego
+     * @param alto alto del área de juego
+     * @return el frame
+     */
+    public static byte[] codificar(InstantaneaJuego instantanea, int secuencia, int ancho, int alto) {
+        int n = Math.min(instantanea.getCantidadItems(), 255);
+        ByteBuffer b = ByteBuffer.allocate(CABECERA + n * BYTES_ITEM);
+        b.put(MAGIA).put(TIPO_ESTADO)
+            .put((byte) ((instantanea.hayJuego() ? JUEGO : 0) | (instantanea.hayPacMan() ? PACMAN : 0)))
+            .putInt(secuencia)
+            .putShort((short) ancho).putShort((short) alto)
+            .putShort((short) instantanea.getPacManX())
+            .putShort((short) instantanea.getPacManY())
+            .putShort((short) instantanea.getPacManTamaño())
+            .put((byte) n);
+        for (int i = 0; i < n; i++) {
+            b.put((byte) instantanea.getTipoItem(i).ordinal())
+                .putShort((short) instantanea.getItemX(i))
+                .putShort((short) instantanea.getItemY(i));
+        }
+        return b.array();
+    }
+
+    /**
+     * Decodifica la instantánea de un frame.
+     *
+     * @param datos bytes del frame
+     * @param longitud bytes válidos
+     * @return la instantánea, o null si el frame está incompleto o es inválido
+     */
+    public static InstantaneaJuego decodificar(byte[] datos, int longitud) {
+        if (!esEstado(datos, longitud)) {
+            return null;
+        }
+        try {
+            ByteBuffer b = ByteBuffer.wrap(datos, 0, longitud);
+            b.position(2);
+            byte banderas = b.get();
+            b.position(b.position() + 8); // secuencia, ancho y alto
+            if ((banderas & JUEGO) == 0) {
+                return InstantaneaJuego.ESPERA;
+            }
+            int x = b.getShort();
+            int y = b.getShort();
+            int tamaño = b.getShort();
+            int n = b.get() & 0xFF;
+            TipoItem[] tipos = new TipoItem[n];
+            int[] xs = new int[n];
+            int[] ys = new int[n];
+            for (int i = 0; i < n; i++) {
+                int tipo = b.get() & 0xFF;
+                if (tipo >= TIPOS.length) {
+                    return null;
+                }
+                tipos[i] = TIPOS[tipo];
+                xs[i] = b.getShort();
+                ys[i] = b.getShort();
+            }
+            return InstantaneaJuego.de((banderas & PACMAN) != 0, x, y, tamaño, tipos, xs, ys);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param frame un frame de estado
+     * @return su número de secuencia
+     */
+    public static int getSecuencia(byte[] frame) {
+        return ByteBuffer.wrap(frame).getInt(3);
+    }
+
+    /**
+     * @param frame un frame de estado
+     * @return ancho del área de juego
+     */
+    public static int getAncho(byte[] frame) {
+        return ByteBuffer.wrap(frame).getShort(7);
+    }
+
+    /**
+     * @param frame un frame de estado
+     * @return alto del área de juego
+     */
+    public static int getAlto(byte[] frame) {
+        return ByteBuffer.wrap(frame).getShort(9);
+    }
+}
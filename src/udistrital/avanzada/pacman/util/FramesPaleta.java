@@ -0,0 +1,242 @@
+package udistrital.avanzada.pacman.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Formato de los frames de paleta: la imagen se reduce a los pocos colores
+ * planos que dibuja el juego y se codifica por corridas, sin pérdida.
+ *
+ * <p>El juego se dibuja sin suavizado sobre un fondo negro: Pac-Man amarillo,
+ * textos blancos y un color por tipo de ítem. Cada píxel se lleva al color más
+ * cercano de {@link #PALETA} (para esas imágenes, el mismo color) y las filas,
+ * una tras otra, se recorren en corridas de un mismo color. Un campo negro
+ * ocupa unos pocos bytes, los bordes quedan nítidos y no hay artefactos de
+ * JPEG. Opcionalmente las corridas se comprimen con Deflate.
+ *
+ * <p>Cada frame es completo. Viaja como carga de un mensaje de video normal;
+ * el cliente lo distingue por la cabecera ({@link #esPaleta}) y lo decodifica
+ * con {@link DecodificadorPaleta}.
+ *
+ * <p>Frame (big endian):
+ *  - {@code 'P' 'L'} + byte banderas ({@link #COMPRIMIDO}) + int secuencia
+ *    + short ancho + short alto + byte colores
+ *  - por color: byte rojo + byte verde + byte azul
+ *  - corridas (comprimidas con Deflate si lleva la bandera), en orden de
+ *    filas: byte con el índice del color en los 4 bits altos y el largo menos
+ *    uno en los 4 bajos; si esos bits valen 15, sigue el largo menos 16 en
+ *    grupos de 7 bits, primero los bajos, con el bit alto indicando que sigue
+ *    otro grupo
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class FramesPaleta {
+
+    public static final byte MAGIA = FramesDelta.MAGIA;
+    public static final byte TIPO_PALETA = 'L';
+    /** Bandera de corridas comprimidas con Deflate. */
+    public static final byte COMPRIMIDO = 1;
+    public static final int CABECERA = 12;
+    /** Colores que admite el formato (índices de 4 bits). */
+    public static final int MAX_COLORES = 16;
+    /**
+     * Ancho y alto máximos de un frame. El servidor dibuja a 800x600; el
+     * límite acota la imagen que el cliente reserva por una cabecera ajena.
+     */
+    public static final int MAX_LADO = 2048;
+    /** Largo que se indica con los 4 bits del byte de la corrida. */
+    static final int LARGO_CORTO = 15;
+
+    /**
+     * Colores de {@code RenderizadorJuego}: fondo, textos, Pac-Man, cereza y
+     * manzana, fresa, naranja, melón, galaxian y llave.
+     */
+    public static final int[] PALETA = {
+        0x000000, 0xFFFFFF, 0xFFFF00, 0xFF0000, 0xFF1493, 0xFFC800, 0x00FF00, 0x00FFFF, 0xB8860B
+    };
+
+    private static final ThreadLocal<Contexto> CONTEXTOS = ThreadLocal.withInitial(Contexto::new);
+
+    private FramesPaleta() {}
+
+    /**
+     * Indica si unos bytes de video son un frame de paleta.
+     *
+     * @param datos bytes del frame
+     * @param longitud bytes válidos
+     * @return true si tienen la cabecera del formato de paleta
+     */
+    public static boolean esPaleta(byte[] datos, int longitud) {
+        return longitud >= CABECERA && datos[0] == MAGIA && datos[1] == TIPO_PALETA;
+    }
+
+    /**
+     * Codifica una imagen con la paleta del juego.
+     *
+     * @param img la imagen
+     * @param secuencia número del frame
+     * @param comprimir true para comprimir las corridas con Deflate
+     * @return el frame
+     * @throws IllegalArgumentException si la imagen supera {@link #MAX_LADO}
+     */
+    public static byte[] codificar(BufferedImage img, int secuencia, boolean comprimir) {
+        if (img.getWidth() > MAX_LADO || img.getHeight() > MAX_LADO) {
+            throw new IllegalArgumentException("Imagen de " + img.getWidth() + "x" + img.getHeight()
+                + " mayor que " + MAX_LADO);
+        }
+        return CONTEXTOS.get().codificar(img, secuencia, comprimir);
+    }
+
+    /**
+     * Búferes y compresor de un hilo; crecen hasta el frame más grande.
+     */
+    private static final class Contexto {
+
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] corridas = new byte[4096];
+        private int longitud;
+        private byte[] comprimidas = new byte[4096];
+        private int[] fila = new int[0];
+        /** Último color consultado y su índice: casi todos los píxeles repiten el anterior. */
+        private int ultimoColor = PALETA[0];
+        private int ultimoIndice = 0;
+
+        byte[] codificar(BufferedImage img, int secuencia, boolean comprimir) {
+            int ancho = img.getWidth();
+            int alto = img.getHeight();
+            longitud = 0;
+            int actual = -1;
+            int largo = 0;
+            WritableRaster raster = img.getRaster();
+            if (img.getType() == BufferedImage.TYPE_INT_RGB && raster.getParent() == null
+                    && raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+                // Lectura directa de los píxeles, sin copiar filas
+                DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+                int[] pixeles = buffer.getData();
+                int paso = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+                for (int y = 0; y < alto; y++) {
+                    int desde = buffer.getOffset() + y * paso;
+                    for (int i = desde, fin = desde + ancho; i < fin; i++) {
+                        int indice = indice(pixeles[i] & 0xFFFFFF);
+                        if (indice == actual) {
+                            largo++;
+                        } else {
+                            escribirCorrida(actual, largo);
+                            actual = indice;
+                            largo = 1;
+                        }
+                    }
+                }
+            } else {
+                if (fila.length < ancho) {
+                    fila = new int[ancho];
+                }
+                for (int y = 0; y < alto; y++) {
+                    img.getRGB(0, y, ancho, 1, fila, 0, ancho);
+                    for (int x = 0; x < ancho; x++) {
+                        int indice = indice(fila[x] & 0xFFFFFF);
+                        if (indice == actual) {
+                            largo++;
+                        } else {
+                            escribirCorrida(actual, largo);
+                            actual = indice;
+                            largo = 1;
+                        }
+                    }
+                }
+            }
+            escribirCorrida(actual, largo);
+
+            byte[] carga = corridas;
+            int bytesCarga = longitud;
+            if (comprimir) {
+                carga = comprimidas;
+                bytesCarga = comprimir();
+            }
+            byte[] frame = new byte[CABECERA + PALETA.length * 3 + bytesCarga];
+            ByteBuffer b = ByteBuffer.wrap(frame);
+            b.put(MAGIA).put(TIPO_PALETA).put(comprimir ? COMPRIMIDO : 0).putInt(secuencia)
+                .putShort((short) ancho).putShort((short) alto).put((byte) PALETA.length);
+            for (int color : PALETA) {
+                b.put((byte) (color >>> 16)).put((byte) (color >>> 8)).put((byte) color);
+            }
+            b.put(carga, 0, bytesCarga);
+            return frame;
+        }
+
+        private int indice(int color) {
+            if (color != ultimoColor) {
+                ultimoColor = color;
+                ultimoIndice = masCercano(color);
+            }
+            return ultimoIndice;
+        }
+
+        private void escribirCorrida(int indice, int largo) {
+            if (largo == 0) {
+                return;
+            }
+            if (corridas.length - longitud < 6) {
+                corridas = Arrays.copyOf(corridas, corridas.length * 2);
+            }
+            if (largo <= LARGO_CORTO) {
+                corridas[longitud++] = (byte) (indice << 4 | (largo - 1));
+                return;
+            }
+            corridas[longitud++] = (byte) (indice << 4 | LARGO_CORTO);
+            int resto = largo - LARGO_CORTO - 1;
+            while (resto >= 0x80) {
+                corridas[longitud++] = (byte) (resto & 0x7F | 0x80);
+                resto >>>= 7;
+            }
+            corridas[longitud++] = (byte) resto;
+        }
+
+        private int comprimir() {
+            deflater.reset();
+            deflater.setInput(corridas, 0, longitud);
+            deflater.finish();
+            int n = 0;
+            while (!deflater.finished()) {
+                if (n == comprimidas.length) {
+                    comprimidas = Arrays.copyOf(comprimidas, comprimidas.length * 2);
+                }
+                n += deflater.deflate(comprimidas, n, comprimidas.length - n);
+            }
+            return n;
+        }
+    }
+
+    /**
+     * @param color un color RGB
+     * @return índice del color de {@link #PALETA} más cercano
+     */
+    static int masCercano(int color) {
+        int r = color >>> 16 & 0xFF;
+        int g = color >>> 8 & 0xFF;
+        int b = color & 0xFF;
+        int mejor = 0;
+        int menor = Integer.MAX_VALUE;
+        for (int i = 0; i < PALETA.length; i++) {
+            int p = PALETA[i];
+            if (p == color) {
+                return i;
+            }
+            int dr = r - (p >>> 16 & 0xFF);
+            int dg = g - (p >>> 8 & 0xFF);
+            int db = b - (p & 0xFF);
+            int distancia = dr * dr + dg * dg + db * db;
+            if (distancia < menor) {
+                menor = distancia;
+                mejor = i;
+            }
+        }
+        return mejor;
+    }
+}
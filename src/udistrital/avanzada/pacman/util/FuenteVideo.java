@@ -0,0 +1,38 @@
+package udistrital.avanzada.pacman.util;
+
+/**
+ * Origen de los frames de video que consume el cliente: la conexión con el
+ * servidor o una grabación.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public interface FuenteVideo {
+
+    /**
+     * Toma el frame más reciente, esperando si no hay ninguno. Quien lo recibe
+     * debe llamar a {@link FrameRecibido#devolver()} al terminar.
+     *
+     * @return el frame, o null si la fuente terminó
+     */
+    FrameRecibido tomarFrameRecibido();
+
+    /**
+     * @return true si la fuente ya no entregará frames
+     */
+    boolean estaCerrado();
+
+    /**
+     * Pide un frame que se pueda mostrar solo, p. ej. porque el anterior no
+     * se pudo decodificar. No bloquea; sin efecto si la fuente no lo admite.
+     */
+    default void pedirClave() {
+    }
+
+    /**
+     * Contadores del video recibido (entregados, reemplazados y descartados).
+     *
+     * @return el buzón de recepción
+     */
+    BuzonFrames<FrameRecibido> getBuzonRecepcion();
+}
@@ -0,0 +1,62 @@
+package udistrital.avanzada.pacman.util;
+
+import java.nio.file.Path;
+
+/**
+ * Formato de las grabaciones de video de una sesión.
+ *
+ * <p>Una grabación son dos archivos de solo agregado. El de video
+ * ({@link #EXTENSION_VIDEO}) guarda los frames tal como se enviaron:
+ *  - cabecera: int {@link #MAGIA_VIDEO} + int versión + long inicio (ms epoch)
+ *  - por frame: int longitud + int secuencia + long ms desde el inicio + bytes
+ *
+ * Un frame de longitud 0 marca el final: el archivo se escribe por regiones
+ * mapeadas y puede terminar en ceros si no se pudo recortar al cerrar.
+ *
+ * <p>El índice ({@link #EXTENSION_INDICE}) tiene una entrada por cada frame
+ * que se puede mostrar sin los anteriores (JPEG, estado o frame delta clave),
+ * para empezar a reproducir desde cualquier momento:
+ *  - cabecera: int {@link #MAGIA_INDICE} + int versión
+ *  - por entrada: long ms desde el inicio + long posición del frame + int secuencia
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class GrabacionVideo {
+
+    public static final String EXTENSION_VIDEO = ".pvid";
+    public static final String EXTENSION_INDICE = ".pidx";
+    /** 'PVID' */
+    public static final int MAGIA_VIDEO = 0x50564944;
+    /** 'PIDX' */
+    public static final int MAGIA_INDICE = 0x50494458;
+    public static final int VERSION = 1;
+    public static final int CABECERA_VIDEO = 16;
+    public static final int CABECERA_INDICE = 8;
+    public static final int CABECERA_FRAME = 16;
+    public static final int ENTRADA_INDICE = 20;
+
+    private GrabacionVideo() {}
+
+    /**
+     * Indica si un frame se puede mostrar sin los anteriores.
+     *
+     * @param frame bytes del frame
+     * @return true salvo para los frames delta que no son clave
+     */
+    public static boolean esIndependiente(byte[] frame) {
+        return !FramesDelta.esDelta(frame, frame.length) || FramesDelta.esClave(frame);
+    }
+
+    /**
+     * @param video archivo de video
+     * @return el archivo de índice que lo acompaña
+     */
+    public static Path indiceDe(Path video) {
+        String nombre = video.getFileName().toString();
+        if (nombre.endsWith(EXTENSION_VIDEO)) {
+            nombre = nombre.substring(0, nombre.length() - EXTENSION_VIDEO.length());
+        }
+        return video.resolveSibling(nombre + EXTENSION_INDICE);
+    }
+}
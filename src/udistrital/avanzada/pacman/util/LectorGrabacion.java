@@ -0,0 +1,300 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lee una grabación de {@link GrabacionVideo} mapeando el archivo de video por
+ * ventanas, así que no tiene límite de tamaño.
+ *
+ * <p>Al abrir se carga el índice y solo se recorren los frames posteriores a
+ * su última entrada válida: toda la grabación si el índice falta, y unos pocos
+ * frames si está completo. Una entrada es válida si en su posición empieza un
+ * frame completo con la misma secuencia y el mismo tiempo, que se puede
+ * mostrar solo; las demás se descartan al buscar. Así una grabación
+ * interrumpida también se puede reproducir. No es seguro para varios hilos.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class LectorGrabacion implements Closeable {
+
+    /** Tamaño mínimo de cada ventana mapeada del video. */
+    static final int VENTANA = 64 << 20;
+
+    /**
+     * Un frame leído de la grabación.
+     */
+    public static final class FrameGrabado {
+
+        private final long tiempoMs;
+        private final int secuencia;
+        private final byte[] datos;
+
+        FrameGrabado(long tiempoMs, int secuencia, byte[] datos) {
+            this.tiempoMs = tiempoMs;
+            this.secuencia = secuencia;
+            this.datos = datos;
+        }
+
+        /**
+         * @return ms desde el inicio de la grabación
+         */
+        public long getTiempoMs() {
+            return tiempoMs;
+        }
+
+        public int getSecuencia() {
+            return secuencia;
+        }
+
+        public byte[] getDatos() {
+            return datos;
+        }
+    }
+
+    private final FileChannel canal;
+    private final long tamaño;
+    private MappedByteBuffer ventana;
+    private long inicioVentana;
+    private final long inicio;
+    /** Entradas del índice: tiempo, posición y secuencia de los frames independientes. */
+    private long[] tiempos = new long[64];
+    private long[] posiciones = new long[64];
+    private int[] secuencias = new int[64];
+    private int entradas = 0;
+    /** Fin de los frames válidos del video. */
+    private long fin = GrabacionVideo.CABECERA_VIDEO;
+    /** Posición del próximo frame a leer. */
+    private long posicion = GrabacionVideo.CABECERA_VIDEO;
+    private long duracionMs = 0;
+    private int frames = 0;
+
+    /**
+     * Abre una grabación.
+     *
+     * @param archivo el archivo de video
+     * @throws IOException si no existe o no es una grabación
+     */
+    public LectorGrabacion(Path archivo) throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        try {
+            tamaño = canal.size();
+            if (tamaño < GrabacionVideo.CABECERA_VIDEO) {
+                throw new IOException("No es una grabación de video: " + archivo);
+            }
+            int o = mapear(0, GrabacionVideo.CABECERA_VIDEO);
+            if (ventana.getInt(o) != GrabacionVideo.MAGIA_VIDEO) {
+                throw new IOException("No es una grabación de video: " + archivo);
+            }
+            if (ventana.getInt(o + 4) != GrabacionVideo.VERSION) {
+                throw new IOException("Versión de grabación no soportada: " + ventana.getInt(o + 4));
+            }
+            inicio = ventana.getLong(o + 8);
+            cargarIndice(GrabacionVideo.indiceDe(archivo));
+            // Entradas que apuntan más allá de los frames completos o fuera de un límite
+            while (entradas > 0 && !esValida(entradas - 1)) {
+                entradas--;
+            }
+            recorrerCola();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Asegura que {@code [posicion, posicion + bytes)} esté en la ventana
+     * mapeada; el llamador verifica que esté dentro del archivo.
+     *
+     * @return el desplazamiento de {@code posicion} en la ventana
+     */
+    private int mapear(long posicion, int bytes) throws IOException {
+        if (ventana == null || posicion < inicioVentana
+                || posicion + bytes > inicioVentana + ventana.limit()) {
+            long largo = Math.min(Math.max(VENTANA, bytes), tamaño - posicion);
+            ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+            inicioVentana = posicion;
+        }
+        return (int) (posicion - inicioVentana);
+    }
+
+    private void cargarIndice(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return;
+        }
+        ByteBuffer indice = ByteBuffer.wrap(Files.readAllBytes(archivo));
+        if (indice.remaining() < GrabacionVideo.CABECERA_INDICE
+                || indice.getInt() != GrabacionVideo.MAGIA_INDICE || indice.getInt() != GrabacionVideo.VERSION) {
+            return;
+        }
+        long anterior = GrabacionVideo.CABECERA_VIDEO - 1;
+        long tiempoAnterior = Long.MIN_VALUE;
+        while (indice.remaining() >= GrabacionVideo.ENTRADA_INDICE) {
+            long tiempo = indice.getLong();
+            long posicion = indice.getLong();
+            int secuencia = indice.getInt();
+            if (posicion <= anterior || tiempo < tiempoAnterior
+                    || posicion > tamaño - GrabacionVideo.CABECERA_FRAME) {
+                break;
+            }
+            agregarEntrada(tiempo, posicion, secuencia);
+            anterior = posicion;
+            tiempoAnterior = tiempo;
+        }
+    }
+
+    /**
+     * Recorre los frames desde la última entrada del índice hasta el último
+     * frame completo: los cuenta e indexa los independientes. La secuencia de
+     * cada frame es su número en la grabación, así que la de la entrada da los
+     * frames anteriores sin leerlos.
+     */
+    private void recorrerCola() throws IOException {
+        long p = GrabacionVideo.CABECERA_VIDEO;
+        long indexadosHasta = -1;
+        if (entradas > 0) {
+            p = posiciones[entradas - 1];
+            indexadosHasta = p;
+            frames = secuencias[entradas - 1];
+        }
+        while (p <= tamaño - GrabacionVideo.CABECERA_FRAME) {
+            int o = mapear(p, GrabacionVideo.CABECERA_FRAME);
+            int longitud = ventana.getInt(o);
+            int secuencia = ventana.getInt(o + 4);
+            long tiempo = ventana.getLong(o + 8);
+            long datos = p + GrabacionVideo.CABECERA_FRAME;
+            if (longitud <= 0 || longitud > tamaño - datos) {
+                break;
+            }
+            if (p > indexadosHasta && esIndependiente(datos, longitud)) {
+                agregarEntrada(tiempo, p, secuencia);
+            }
+            frames++;
+            duracionMs = tiempo;
+            p = datos + longitud;
+        }
+        fin = p;
+    }
+
+    /**
+     * @return true si en la posición de la entrada empieza un frame completo
+     *         con su secuencia y su tiempo, que se puede mostrar solo
+     */
+    private boolean esValida(int entrada) throws IOException {
+        long p = posiciones[entrada];
+        if (p < GrabacionVideo.CABECERA_VIDEO || p > tamaño - GrabacionVideo.CABECERA_FRAME) {
+            return false;
+        }
+        int o = mapear(p, GrabacionVideo.CABECERA_FRAME);
+        int longitud = ventana.getInt(o);
+        long datos = p + GrabacionVideo.CABECERA_FRAME;
+        return longitud > 0 && longitud <= tamaño - datos
+            && ventana.getInt(o + 4) == secuencias[entrada]
+            && ventana.getLong(o + 8) == tiempos[entrada]
+            && esIndependiente(datos, longitud);
+    }
+
+    private boolean esIndependiente(long posicion, int longitud) throws IOException {
+        byte[] cabecera = new byte[Math.min(longitud, FramesDelta.CABECERA)];
+        ventana.get(mapear(posicion, cabecera.length), cabecera);
+        return !FramesDelta.esDelta(cabecera, cabecera.length) || FramesDelta.esClave(cabecera);
+    }
+
+    private void agregarEntrada(long tiempo, long posicion, int secuencia) {
+        if (entradas == tiempos.length) {
+            tiempos = Arrays.copyOf(tiempos, entradas * 2);
+            posiciones = Arrays.copyOf(posiciones, entradas * 2);
+            secuencias = Arrays.copyOf(secuencias, entradas * 2);
+        }
+        tiempos[entradas] = tiempo;
+        posiciones[entradas] = posicion;
+        secuencias[entradas] = secuencia;
+        entradas++;
+    }
+
+    /**
+     * Se ubica en el último frame independiente anterior o igual a un momento.
+     * Si ninguna entrada válida del índice lo precede, se ubica en el primer
+     * frame.
+     *
+     * @param ms momento desde el inicio de la grabación
+     * @return el tiempo del frame donde quedó, o -1 si la grabación no tiene frames
+     * @throws IOException si no se puede leer el video
+     */
+    public long buscar(long ms) throws IOException {
+        int i = Arrays.binarySearch(tiempos, 0, entradas, ms);
+        if (i < 0) {
+            i = -i - 2;
+        } else {
+            // Con tiempos repetidos, el primero
+            while (i > 0 && tiempos[i - 1] == ms) {
+                i--;
+            }
+        }
+        while (i >= 0 && !esValida(i)) {
+            i--;
+        }
+        if (i >= 0) {
+            posicion = posiciones[i];
+            return tiempos[i];
+        }
+        if (frames == 0 || fin <= GrabacionVideo.CABECERA_VIDEO) {
+            return -1;
+        }
+        posicion = GrabacionVideo.CABECERA_VIDEO;
+        return ventana.getLong(mapear(posicion, GrabacionVideo.CABECERA_FRAME) + 8);
+    }
+
+    /**
+     * Lee el frame siguiente.
+     *
+     * @return el frame, o null al final de la grabación
+     * @throws IOException si no se puede leer el video
+     */
+    public FrameGrabado siguiente() throws IOException {
+        long p = posicion;
+        if (p >= fin) {
+            return null;
+        }
+        int o = mapear(p, GrabacionVideo.CABECERA_FRAME);
+        int longitud = ventana.getInt(o);
+        int secuencia = ventana.getInt(o + 4);
+        long tiempo = ventana.getLong(o + 8);
+        byte[] datos = new byte[longitud];
+        ventana.get(mapear(p + GrabacionVideo.CABECERA_FRAME, longitud), datos);
+        posicion = p + GrabacionVideo.CABECERA_FRAME + longitud;
+        return new FrameGrabado(tiempo, secuencia, datos);
+    }
+
+    /**
+     * @return inicio de la grabación (ms epoch)
+     */
+    public long getInicio() {
+        return inicio;
+    }
+
+    public long getDuracionMs() {
+        return duracionMs;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public int getFramesIndexados() {
+        return entradas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
@@ -1,166 +1,659 @@
 package udistrital.avanzada.pacman.util;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Utilidad para manejar operaciones de lectura y escritura en sockets con un único
- * ObjectInputStream/ObjectOutputStream y demultiplexación de canales.
- * 
- * Protocolo binario:
- *  - TAG 1: mensaje de texto -> writeInt(1); writeUTF(mensaje)
- *  - TAG 2: frame binario    -> writeInt(2); writeInt(len); write(byte[len])
+ * Utilidad para manejar operaciones de lectura y escritura en sockets con
+ * demultiplexación de canales de control y video.
+ *
+ * Soporta dos protocolos:
+ *  - Legado: un único ObjectInputStream/ObjectOutputStream y solo texto
+ *     - TAG 1: mensaje de texto -> writeInt(1); writeUTF(mensaje)
+ *     - TAG 2: frame binario    -> writeInt(2); writeInt(len); write(byte[len])
+ *  - Binario versionado: mensajes con longitud y tipo (ver {@link CodecBinario}),
+ *    con códigos de un byte para movimientos y resultados.
+ * El lado servidor detecta el protocolo por los primeros bytes del cliente.
+ *
+ * Si el socket tiene un {@link SocketChannel} (aceptado por un ServerSocketChannel),
+ * los frames se escriben con una escritura agrupada de cabecera y carga desde
+ * buffers directos, sin pasar por los buffers del stream.
+ *
+ * El video usa buzones en los que gana el frame más reciente ({@link BuzonFrames}):
+ * un receptor lento o un cliente con poco ancho de banda ve el último estado
+ * del juego en lugar de acumular frames viejos. Los frames recibidos se leen en
+ * arreglos reciclados de {@link PoolBytes}.
+ *
+ * Los latidos ({@code PING}) se responden en el hilo lector sin llegar a la
+ * cola de mensajes, y cualquier dato recibido cuenta como actividad
+ * ({@link #getNanosInactivo()}).
  *
  * SRP: Encapsula I/O y multiplexación. Brinda colas bloqueantes para que
- * los controladores consuman texto y frames sin interferir entre sí.
+ * los controladores consuman mensajes y frames sin interferir entre sí.
  */
-public class ManejadorSockets {
-    
-    private static final int TAG_TEXTO = 1;
-    private static final int TAG_FRAME = 2;
-    
+public final class ManejadorSockets implements SalidaVideo, FuenteVideo {
+
+    static final int TAG_TEXTO = 1;
+    static final int TAG_FRAME = 2;
+    static final int MAX_FRAME = 50 * 1024 * 1024;
+    /** Despierta al escritor cuando solo hay un latido por enviar. */
+    private static final byte[] AVISO_PING = new byte[0];
+    /** Marca de fin de la cola de mensajes: después de ella no llegará ninguno. */
+    private static final MensajeProtocolo FIN_MENSAJES = MensajeProtocolo.texto("");
+
+    /**
+     * Protocolo de la conexión. AUTO solo aplica al lado servidor y acepta ambos.
+     */
+    public enum Protocolo {
+        LEGADO,
+        BINARIO,
+        AUTO;
+
+        /**
+         * Interpreta el valor de una propiedad ("legacy", "binary" o "auto").
+         *
+         * @param valor El valor configurado
+         * @param porDefecto El protocolo si el valor no se reconoce
+         * @return El protocolo correspondiente
+         */
+        public static Protocolo desdePropiedad(String valor, Protocolo porDefecto) {
+            if (valor == null) return porDefecto;
+            switch (valor.trim().toLowerCase()) {
+                case "legacy":
+                    return LEGADO;
+                case "binary":
+                    return BINARIO;
+                case "auto":
+                    return AUTO;
+                default:
+                    return porDefecto;
+            }
+        }
+    }
+
     private final Socket socket;
-    private final ObjectOutputStream salida;
-    private final ObjectInputStream entrada;
-    
-    private final BlockingQueue<String> colaTextos = new ArrayBlockingQueue<>(1024);
-    private final BlockingQueue<byte[]> colaFrames = new ArrayBlockingQueue<>(64);
-    
+    private final Protocolo protocolo;
+    private final OutputStream salida;
+    /** Solo en protocolo legado: mismo objeto que {@code salida}. */
+    private final ObjectOutputStream salidaObjetos;
+    /** Serializa escrituras sin fijar el hilo portador cuando el hilo es virtual. */
+    private final ReentrantLock cerrojoSalida = new ReentrantLock();
+    private final InputStream entrada;
+    /** Codificador del protocolo negociado; solo se usa para escribir. */
+    private final CodecProtocolo codecSalida;
+    /** Carga máxima de un mensaje entrante: frames en el cliente, solo control en el servidor. */
+    private final int maximoEntrada;
+    /** Cabecera de frame reutilizada (protegida por {@code cerrojoSalida}). */
+    private ByteBuffer cabeceraFrame;
+
+    private final BlockingQueue<MensajeProtocolo> colaMensajes = new ArrayBlockingQueue<>(1024);
+    private final BuzonFrames<FrameRecibido> buzonRecepcion = new BuzonFrames<>(1, FrameRecibido::devolver);
+    private final BuzonFrames<byte[]> buzonEnvio = new BuzonFrames<>();
+
+    private final ThreadFactory fabricaHilos;
     private final Thread hiloLector;
+    private final AtomicBoolean escritorIniciado = new AtomicBoolean(false);
+    /** Hay un latido por enviar; lo envía el hilo escritor. */
+    private final AtomicBoolean pingPendiente = new AtomicBoolean(false);
+    private final AtomicBoolean colaTerminada = new AtomicBoolean(false);
+    /** Se invoca tras encolar un mensaje y al terminar la cola, o null. */
+    private volatile Runnable avisoMensajes;
     private volatile boolean activo = true;
-    
+    private volatile long ultimaLectura = System.nanoTime();
+
     /**
-     * Constructor que inicializa los streams de entrada y salida y el demultiplexador.
-     * 
+     * Constructor del lado cliente con el protocolo legado.
+     *
      * @param socket El socket a manejar
      * @throws IOException Si hay un error al crear los streams
      */
     public ManejadorSockets(Socket socket) throws IOException {
+        this(socket, Protocolo.LEGADO);
+    }
+
+    /**
+     * Constructor del lado cliente: saluda al servidor con el protocolo indicado.
+     *
+     * @param socket El socket a manejar
+     * @param protocolo LEGADO o BINARIO
+     * @throws IOException Si hay un error al crear los streams o el servidor rechaza el saludo
+     */
+    public ManejadorSockets(Socket socket, Protocolo protocolo) throws IOException {
+        this.socket = socket;
+        if (protocolo == Protocolo.BINARIO) {
+            this.protocolo = Protocolo.BINARIO;
+            this.salidaObjetos = null;
+            this.salida = new BufferedOutputStream(socket.getOutputStream());
+            this.entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            escribirBuffer(CodecBinario.saludo(CodecBinario.VERSION));
+            salida.flush();
+            byte[] respuesta = new byte[CodecBinario.LONGITUD_SALUDO];
+            ((DataInputStream) entrada).readFully(respuesta);
+            if (respuesta[0] == (byte) 0xAC && respuesta[1] == (byte) 0xED) {
+                // El servidor rechazó la conexión antes de leer el saludo (p. ej. ocupado):
+                // la respuesta viene en el protocolo legado
+                ObjectInputStream rechazo = new ObjectInputStream(
+                    new SequenceInputStream(new ByteArrayInputStream(respuesta), entrada));
+                String motivo = rechazo.readInt() == TAG_TEXTO ? rechazo.readUTF() : "Conexión rechazada";
+                throw new IOException(motivo);
+            }
+            if (respuesta[2] == 0) {
+                throw new IOException("El servidor rechazó la versión del protocolo");
+            }
+            CodecBinario.validarSaludo(respuesta[0], respuesta[1], respuesta[2]);
+        } else {
+            this.protocolo = Protocolo.LEGADO;
+            // Importante: crear primero ObjectOutputStream y hacer flush para enviar cabecera
+            this.salidaObjetos = new ObjectOutputStream(socket.getOutputStream());
+            this.salidaObjetos.flush();
+            this.salida = salidaObjetos;
+            this.entrada = new ObjectInputStream(socket.getInputStream());
+        }
+        this.codecSalida = this.protocolo == Protocolo.BINARIO ? new CodecBinario() : new CodecFlujoObjetos();
+        this.maximoEntrada = MAX_FRAME;
+        this.fabricaHilos = Thread::new;
+        this.hiloLector = iniciarLector(fabricaHilos);
+    }
+
+    /**
+     * Constructor del lado servidor: detecta el protocolo del cliente por sus
+     * primeros bytes y crea el hilo demultiplexador con la fábrica indicada
+     * (por ejemplo, una fábrica de hilos virtuales).
+     *
+     * @param socket El socket a manejar
+     * @param fabricaHilos La fábrica para el hilo lector
+     * @param aceptados El protocolo aceptado, o AUTO para aceptar ambos
+     * @throws IOException Si hay un error al crear los streams o el protocolo no es aceptado
+     */
+    public ManejadorSockets(Socket socket, ThreadFactory fabricaHilos, Protocolo aceptados) throws IOException {
         this.socket = socket;
-        // Importante: crear primero ObjectOutputStream y hacer flush para enviar cabecera
-        this.salida = new ObjectOutputStream(socket.getOutputStream());
-        this.salida.flush();
-        this.entrada = new ObjectInputStream(socket.getInputStream());
-        
+        BufferedInputStream in = new BufferedInputStream(socket.getInputStream());
+        in.mark(1);
+        int primero = in.read();
+        in.reset();
+        if (primero == CodecBinario.MAGIA_1) {
+            this.protocolo = Protocolo.BINARIO;
+            this.salidaObjetos = null;
+            this.salida = new BufferedOutputStream(socket.getOutputStream());
+            DataInputStream din = new DataInputStream(in);
+            this.entrada = din;
+            byte[] saludo = new byte[CodecBinario.LONGITUD_SALUDO];
+            din.readFully(saludo);
+            boolean versionValida = saludo[2] == CodecBinario.VERSION;
+            escribirBuffer(CodecBinario.saludo(versionValida && aceptados != Protocolo.LEGADO
+                ? CodecBinario.VERSION : 0));
+            salida.flush();
+            if (aceptados == Protocolo.LEGADO) {
+                throw new IOException("Protocolo binario deshabilitado");
+            }
+            CodecBinario.validarSaludo(saludo[0], saludo[1], saludo[2]);
+        } else {
+            if (aceptados == Protocolo.BINARIO) {
+                throw new IOException("Protocolo legado deshabilitado");
+            }
+            this.protocolo = Protocolo.LEGADO;
+            this.salidaObjetos = new ObjectOutputStream(socket.getOutputStream());
+            this.salidaObjetos.flush();
+            this.salida = salidaObjetos;
+            this.entrada = new ObjectInputStream(in);
+        }
+        this.codecSalida = this.protocolo == Protocolo.BINARIO ? new CodecBinario() : new CodecFlujoObjetos();
+        this.maximoEntrada = CodecProtocolo.MAX_CONTROL;
+        this.fabricaHilos = fabricaHilos;
+        this.hiloLector = iniciarLector(fabricaHilos);
+    }
+
+    private Thread iniciarLector(ThreadFactory fabricaHilos) {
         // Hilo dedicado que lee del input y distribuye a colas
-        this.hiloLector = new Thread(this::loopLectura, "SocketDemuxReader");
-        this.hiloLector.setDaemon(true);
-        this.hiloLector.start();
+        Thread hilo = fabricaHilos.newThread(this::loopLectura);
+        hilo.setName("SocketDemuxReader");
+        hilo.setDaemon(true);
+        hilo.start();
+        return hilo;
     }
-    
+
     private void loopLectura() {
         try {
             while (activo && !Thread.currentThread().isInterrupted()) {
-                int tag;
-                try {
-                    tag = entrada.readInt();
-                } catch (EOFException eof) {
-                    break;
+                if (protocolo == Protocolo.BINARIO) {
+                    MensajeProtocolo m = CodecBinario.leer((DataInputStream) entrada, buzonRecepcion::publicar,
+                        maximoEntrada);
+                    ultimaLectura = System.nanoTime();
+                    if (m != null) {
+                        recibir(m);
+                    }
+                    continue;
                 }
+                ObjectInputStream oin = (ObjectInputStream) entrada;
+                int tag = oin.readInt();
+                ultimaLectura = System.nanoTime();
                 if (tag == TAG_TEXTO) {
-                    String msg = entrada.readUTF();
-                    // no bloquear indefinidamente si cola llena
-                    colaTextos.offer(msg);
+                    String msg = oin.readUTF();
+                    recibir(MensajeProtocolo.desdeTexto(msg));
                 } else if (tag == TAG_FRAME) {
-                    int len = entrada.readInt();
-                    if (len <= 0 || len > 50 * 1024 * 1024) {
+                    int len = oin.readInt();
+                    if (len <= 0 || len > maximoEntrada) {
                         // tamaño inválido, abortar
                         break;
                     }
-                    byte[] data = new byte[len];
-                    entrada.readFully(data);
-                    colaFrames.offer(data);
+                    FrameRecibido frame = new FrameRecibido(len);
+                    try {
+                        oin.readFully(frame.getDatos(), 0, len);
+                    } catch (IOException e) {
+                        frame.devolver();
+                        throw e;
+                    }
+                    buzonRecepcion.publicar(frame);
                 } else {
                     // Tag desconocido: abortar lectura por seguridad
                     break;
                 }
             }
+        } catch (EOFException eof) {
+            // Fin del flujo
         } catch (IOException e) {
             // Silenciar si se está cerrando
         } finally {
             activo = false;
+            buzonRecepcion.cerrar();
+            terminarCola();
         }
     }
-    
+
+    private void recibir(MensajeProtocolo m) {
+        if (m.getTipo() == MensajeProtocolo.Tipo.PING) {
+            enviarMensaje(MensajeProtocolo.pong(m.getTiempo()));
+        } else if (m.getTipo() != MensajeProtocolo.Tipo.PONG && colaMensajes.remainingCapacity() > 1) {
+            // No bloquear si la cola está llena; el último lugar queda para FIN_MENSAJES
+            colaMensajes.offer(m);
+            avisarMensajes();
+        }
+    }
+
     /**
-     * Lee un mensaje de texto de manera bloqueante desde la cola.
-     * 
+     * Registra un aviso para un hilo que no puede quedarse bloqueado en
+     * {@link #leerMensaje()} porque también espera otra cosa (p. ej. frames).
+     * Se invoca desde el hilo lector tras cada mensaje encolado y al cerrarse
+     * la cola; no debe bloquear. Si ya hay mensajes pendientes se invoca de
+     * inmediato.
+     *
+     * @param aviso el aviso, o null para quitarlo
+     */
+    public void avisarMensajes(Runnable aviso) {
+        avisoMensajes = aviso;
+        if (aviso != null && !colaMensajes.isEmpty()) {
+            aviso.run();
+        }
+    }
+
+    private void avisarMensajes() {
+        Runnable aviso = avisoMensajes;
+        if (aviso != null) {
+            aviso.run();
+        }
+    }
+
+    /**
+     * Tiempo desde el último dato recibido (mensaje, frame o latido).
+     *
+     * @return nanosegundos sin actividad de entrada
+     */
+    public long getNanosInactivo() {
+        return System.nanoTime() - ultimaLectura;
+    }
+
+    /**
+     * Pide un latido sin bloquear a quien lo pide (la rueda de temporizadores):
+     * lo envía el hilo escritor de la conexión, el mismo que envía el video.
+     * Si el latido anterior sigue sin salir, no se pide otro.
+     */
+    public void enviarPingAsincrono() {
+        if (!pingPendiente.compareAndSet(false, true)) {
+            return;
+        }
+        // Si hay un frame retenido, el escritor verá el latido al tomarlo
+        buzonEnvio.publicarSiVacio(AVISO_PING);
+        iniciarEscritor();
+    }
+
+    /**
+     * Obtiene el protocolo negociado.
+     *
+     * @return LEGADO o BINARIO
+     */
+    public Protocolo getProtocolo() {
+        return protocolo;
+    }
+
+    /**
+     * Lee un mensaje de control de manera bloqueante desde la cola.
+     *
      * @return mensaje o null si el socket se cerró y no habrá más mensajes
      */
-    public String leerLinea() {
-        while (activo) {
-            try {
-                String msg = colaTextos.take();
-                return msg;
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+    public MensajeProtocolo leerMensaje() {
+        try {
+            // Se entregan los mensajes que llegaron antes del cierre (p. ej. el último
+            // aviso del servidor); al cerrar se encola FIN_MENSAJES, así que nadie
+            // queda esperando aunque no lo interrumpan
+            return fueraDelFin(colaMensajes.take());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
         }
-        return null;
     }
-    
+
     /**
-     * Envía un mensaje de texto usando el protocolo etiquetado.
-     * 
+     * Lee un mensaje de control esperando a lo sumo el tiempo indicado.
+     *
+     * @param espera tiempo máximo de espera
+     * @param unidad unidad de {@code espera}
+     * @return mensaje, o null si se agotó la espera o el socket se cerró
+     *         (distinguibles con {@link #estaCerrado()})
+     */
+    public MensajeProtocolo leerMensaje(long espera, TimeUnit unidad) {
+        try {
+            MensajeProtocolo m = colaMensajes.poll(espera, unidad);
+            return fueraDelFin(m != null ? m : colaMensajes.poll());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Devuelve el mensaje, o null si es la marca de fin, que se vuelve a
+     * encolar para las lecturas siguientes.
+     */
+    private MensajeProtocolo fueraDelFin(MensajeProtocolo m) {
+        if (m == FIN_MENSAJES) {
+            colaMensajes.offer(FIN_MENSAJES);
+            return null;
+        }
+        return m;
+    }
+
+    /**
+     * Encola la marca de fin una sola vez. {@link #recibir} deja siempre un
+     * lugar libre para ella.
+     */
+    private void terminarCola() {
+        if (colaTerminada.compareAndSet(false, true)) {
+            colaMensajes.offer(FIN_MENSAJES);
+            avisarMensajes();
+        }
+    }
+
+    /**
+     * Lee un mensaje de texto de manera bloqueante desde la cola. Los mensajes
+     * binarios se entregan con su representación de texto.
+     *
+     * @return mensaje o null si el socket se cerró y no habrá más mensajes
+     */
+    public String leerLinea() {
+        MensajeProtocolo m = leerMensaje();
+        return m != null ? m.toTexto() : null;
+    }
+
+    /**
+     * Envía un mensaje de texto usando el protocolo negociado.
+     *
      * @param mensaje texto a enviar
      */
     public void escribirLinea(String mensaje) {
-        synchronized (salida) {
-            try {
-                salida.writeInt(TAG_TEXTO);
-                salida.writeUTF(mensaje != null ? mensaje : "");
-                salida.flush();
-            } catch (IOException e) {
-                // Error de escritura: cerrar
-                cerrar();
+        enviarMensaje(MensajeProtocolo.texto(mensaje));
+    }
+
+    /**
+     * Envía un mensaje de control. En el protocolo legado viaja como texto.
+     *
+     * @param mensaje el mensaje a enviar
+     */
+    public void enviarMensaje(MensajeProtocolo mensaje) {
+        cerrojoSalida.lock();
+        try {
+            if (protocolo == Protocolo.BINARIO) {
+                escribirBuffer(codecSalida.codificar(mensaje));
+            } else {
+                salidaObjetos.writeInt(TAG_TEXTO);
+                salidaObjetos.writeUTF(mensaje.toTexto());
             }
+            salida.flush();
+        } catch (IOException e) {
+            // Error de escritura: cerrar
+            cerrar();
+        } finally {
+            cerrojoSalida.unlock();
         }
     }
-    
+
+    /**
+     * Pide al servidor un frame que se pueda mostrar solo con el comando
+     * {@link MensajeProtocolo#COMANDO_CLAVE}. El servidor no responde texto.
+     */
+    @Override
+    public void pedirClave() {
+        if (!estaCerrado()) {
+            escribirLinea(MensajeProtocolo.COMANDO_CLAVE);
+        }
+    }
+
+    /**
+     * Toma el frame más reciente (bloqueante); los que llegaron mientras no se
+     * consumía se cuentan como reemplazados. Devuelve null si se cierra.
+     * El llamador debe devolver el frame al pool tras decodificarlo.
+     *
+     * @return el frame en un arreglo del pool, o null
+     */
+    @Override
+    public FrameRecibido tomarFrameRecibido() {
+        try {
+            return buzonRecepcion.tomar();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
     /**
-     * Toma el siguiente frame disponible (bloqueante). Devuelve null si se cierra.
+     * Como {@link #tomarFrameRecibido()}, pero copia el frame a un arreglo propio
+     * de longitud exacta y devuelve el del pool.
+     *
+     * @return los bytes del frame, o null si se cierra
      */
     public byte[] tomarFrame() {
-        while (activo) {
-            try {
-                byte[] f = colaFrames.take();
-                return f;
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                break;
+        FrameRecibido frame = tomarFrameRecibido();
+        if (frame == null) {
+            return null;
+        }
+        try {
+            return frame.copiar();
+        } finally {
+            frame.devolver();
+        }
+    }
+
+    /**
+     * Publica un frame para enviarlo sin bloquear al llamador. Un hilo escritor
+     * (creado con la fábrica de la conexión al primer uso) envía siempre el más
+     * reciente: si el socket va lento, los frames intermedios se reemplazan.
+     *
+     * @param data bytes del frame
+     */
+    @Override
+    public void publicarFrame(byte[] data) {
+        if (data == null) return;
+        buzonEnvio.publicar(data);
+        iniciarEscritor();
+    }
+
+    private void iniciarEscritor() {
+        if (escritorIniciado.compareAndSet(false, true)) {
+            Thread escritor = fabricaHilos.newThread(this::loopEscritura);
+            escritor.setName("SocketWriter");
+            escritor.setDaemon(true);
+            escritor.start();
+        }
+    }
+
+    /**
+     * Entrega al consumidor de video un frame que llegó por otro canal (UDP).
+     *
+     * @param frame el frame en un arreglo del pool
+     */
+    void entregarFrame(FrameRecibido frame) {
+        buzonRecepcion.publicar(frame);
+    }
+
+    private void loopEscritura() {
+        try {
+            byte[] frame;
+            while (activo && (frame = buzonEnvio.tomar()) != null) {
+                if (pingPendiente.getAndSet(false)) {
+                    enviarMensaje(MensajeProtocolo.ping(System.nanoTime()));
+                }
+                if (frame != AVISO_PING) {
+                    enviarFrame(frame);
+                }
             }
+        } catch (InterruptedException ie) {
+            // Cierre de la conexión
         }
-        return null;
     }
-    
+
+    /**
+     * Contadores del video recibido (entregados, reemplazados y descartados).
+     *
+     * @return el buzón de recepción
+     */
+    @Override
+    public BuzonFrames<FrameRecibido> getBuzonRecepcion() {
+        return buzonRecepcion;
+    }
+
+    /**
+     * Contadores del video publicado con {@link #publicarFrame(byte[])}.
+     *
+     * @return el buzón de envío
+     */
+    public BuzonFrames<byte[]> getBuzonEnvio() {
+        return buzonEnvio;
+    }
+
     /**
      * Envía un frame binario etiquetado de forma thread-safe.
      */
     public void enviarFrame(byte[] data) {
         if (data == null) return;
-        synchronized (salida) {
+        SocketChannel canal = socket.getChannel();
+        if (canal != null) {
+            ByteBuffer carga = PoolBuffersDirectos.tomar(data.length);
+            carga.put(data).flip();
             try {
-                salida.writeInt(TAG_FRAME);
-                salida.writeInt(data.length);
+                enviarFrame(carga);
+            } finally {
+                PoolBuffersDirectos.devolver(carga);
+            }
+            return;
+        }
+        cerrojoSalida.lock();
+        try {
+            if (protocolo == Protocolo.BINARIO) {
+                ByteBuffer cabecera = ByteBuffer.allocate(CodecProtocolo.MAX_CABECERA_FRAME);
+                codecSalida.escribirCabeceraFrame(cabecera, data.length);
+                cabecera.flip();
+                escribirBuffer(cabecera);
                 salida.write(data);
-                salida.flush();
-            } catch (IOException e) {
-                cerrar();
+            } else {
+                salidaObjetos.writeInt(TAG_FRAME);
+                salidaObjetos.writeInt(data.length);
+                salidaObjetos.write(data);
             }
+            salida.flush();
+        } catch (IOException e) {
+            cerrar();
+        } finally {
+            cerrojoSalida.unlock();
         }
     }
     
+    /**
+     * Envía un frame ya contenido en un buffer (idealmente directo) con una única
+     * escritura agrupada de cabecera y carga sobre el canal del socket. Consume
+     * los bytes restantes de {@code carga}.
+     * 
+     * @param carga bytes del frame entre posición y límite
+     */
+    public void enviarFrame(ByteBuffer carga) {
+        SocketChannel canal = socket.getChannel();
+        if (canal == null) {
+            byte[] data = new byte[carga.remaining()];
+            carga.get(data);
+            enviarFrame(data);
+            return;
+        }
+        cerrojoSalida.lock();
+        try {
+            // Vaciar primero lo que haya quedado en el stream para no desordenar mensajes
+            salida.flush();
+            if (cabeceraFrame == null) {
+                cabeceraFrame = ByteBuffer.allocateDirect(CodecProtocolo.MAX_CABECERA_FRAME);
+            }
+            cabeceraFrame.clear();
+            codecSalida.escribirCabeceraFrame(cabeceraFrame, carga.remaining());
+            cabeceraFrame.flip();
+            ByteBuffer[] partes = { cabeceraFrame, carga };
+            while (carga.hasRemaining()) {
+                canal.write(partes);
+            }
+        } catch (IOException e) {
+            cerrar();
+        } finally {
+            cerrojoSalida.unlock();
+        }
+    }
+
+    private void escribirBuffer(ByteBuffer buf) throws IOException {
+        salida.write(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+    }
+
+    /**
+     * Cierra el socket sin vaciar los streams: desbloquea a cualquier hilo que
+     * esté escribiendo en una conexión que no responde.
+     */
+    public void abortar() {
+        activo = false;
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException ignored) {}
+        cerrar();
+    }
+
     /**
      * Cierra los streams y el socket.
      */
     public void cerrar() {
         activo = false;
+        terminarCola();
+        buzonRecepcion.cerrar();
+        buzonEnvio.cerrar();
         if (hiloLector != null) {
             hiloLector.interrupt();
         }
@@ -176,14 +669,14 @@ public class ManejadorSockets {
             System.err.println("Error al cerrar socket: " + e.getMessage());
         }
     }
-    
+
     /**
      * Verifica si el socket está cerrado.
-     * 
+     *
      * @return true si el socket está cerrado, false en caso contrario
      */
+    @Override
     public boolean estaCerrado() {
         return socket == null || socket.isClosed() || !activo;
     }
 }
-
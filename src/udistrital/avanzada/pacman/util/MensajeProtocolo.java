@@ -0,0 +1,254 @@
+package udistrital.avanzada.pacman.util;
+
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.protocolo.ResultadoLote;
+import udistrital.avanzada.pacman.protocolo.ResultadoMovimiento;
+
+/**
+ * Mensaje de control intercambiado entre cliente y servidor.
+ *
+ * <p>El protocolo binario transporta cada tipo con su propia codificación
+ * (código de un byte para movimientos y resultados); el protocolo legado solo
+ * conoce texto, por lo que {@link #toTexto()} da la representación equivalente.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class MensajeProtocolo {
+
+    /**
+     * Tipos de mensaje. El valor es el byte de tipo del protocolo binario.
+     */
+    public enum Tipo {
+        TEXTO(1),
+        FRAME(2),
+        MOVIMIENTO(3),
+        RESULTADO(4),
+        FIN_JUEGO(5),
+        LOTE_MOVIMIENTOS(6),
+        RESULTADO_LOTE(7),
+        PING(8),
+        PONG(9);
+
+        private final int valor;
+
+        Tipo(int valor) {
+            this.valor = valor;
+        }
+
+        public int getValor() {
+            return valor;
+        }
+
+        public static Tipo desdeValor(int valor) {
+            for (Tipo t : values()) {
+                if (t.valor == valor) return t;
+            }
+            return null;
+        }
+    }
+
+    /** Máximo de movimientos en un lote. */
+    public static final int MAX_LOTE = 64;
+
+    /**
+     * Comando de texto con el que el cliente pide un frame que se pueda
+     * mostrar solo, p. ej. porque no pudo decodificar el anterior.
+     */
+    public static final String COMANDO_CLAVE = "CLAVE";
+
+    private final Tipo tipo;
+    private final String texto;
+    private final byte[] datos;
+    private final Direccion direccion;
+    private final ResultadoMovimiento resultado;
+    private final int puntaje;
+    private final long tiempo;
+    private final Direccion[] direcciones;
+    private final ResultadoLote resultadoLote;
+
+    private MensajeProtocolo(Tipo tipo, String texto, byte[] datos, Direccion direccion,
+                             ResultadoMovimiento resultado, int puntaje, long tiempo) {
+        this(tipo, texto, datos, direccion, resultado, puntaje, tiempo, null, null);
+    }
+
+    private MensajeProtocolo(Tipo tipo, String texto, byte[] datos, Direccion direccion,
+                             ResultadoMovimiento resultado, int puntaje, long tiempo,
+                             Direccion[] direcciones, ResultadoLote resultadoLote) {
+        this.tipo = tipo;
+        this.texto = texto;
+        this.datos = datos;
+        this.direccion = direccion;
+        this.resultado = resultado;
+        this.puntaje = puntaje;
+        this.tiempo = tiempo;
+        this.direcciones = direcciones;
+        this.resultadoLote = resultadoLote;
+    }
+
+    public static MensajeProtocolo texto(String texto) {
+        return new MensajeProtocolo(Tipo.TEXTO, texto != null ? texto : "", null, null, null, 0, 0);
+    }
+
+    public static MensajeProtocolo frame(byte[] datos) {
+        return new MensajeProtocolo(Tipo.FRAME, null, datos, null, null, 0, 0);
+    }
+
+    public static MensajeProtocolo movimiento(Direccion direccion) {
+        return new MensajeProtocolo(Tipo.MOVIMIENTO, null, null, direccion, null, 0, 0);
+    }
+
+    public static MensajeProtocolo resultado(ResultadoMovimiento resultado) {
+        return new MensajeProtocolo(Tipo.RESULTADO, null, null, null, resultado, resultado.getPuntaje(), 0);
+    }
+
+    public static MensajeProtocolo finJuego(int puntaje, long tiempo) {
+        return new MensajeProtocolo(Tipo.FIN_JUEGO, null, null, null, null, puntaje, tiempo);
+    }
+
+    /**
+     * Lote de movimientos que el servidor aplica en orden con una sola respuesta.
+     *
+     * @param direcciones entre 1 y {@link #MAX_LOTE} direcciones
+     * @return el mensaje
+     */
+    public static MensajeProtocolo loteMovimientos(Direccion[] direcciones) {
+        if (direcciones.length == 0 || direcciones.length > MAX_LOTE) {
+            throw new IllegalArgumentException("Lote de " + direcciones.length + " movimientos");
+        }
+        return new MensajeProtocolo(Tipo.LOTE_MOVIMIENTOS, null, null, null, null, 0, 0,
+            direcciones.clone(), null);
+    }
+
+    public static MensajeProtocolo resultadoLote(ResultadoLote lote) {
+        return new MensajeProtocolo(Tipo.RESULTADO_LOTE, null, null, null,
+            lote.getUltimo(), lote.getUltimo().getPuntaje(), 0, null, lote);
+    }
+
+    /**
+     * Latido del servidor; el otro extremo responde {@link #pong(long)} con la
+     * misma marca.
+     *
+     * @param marca valor opaco que vuelve en la respuesta (p. ej. un instante)
+     * @return el mensaje
+     */
+    public static MensajeProtocolo ping(long marca) {
+        return new MensajeProtocolo(Tipo.PING, null, null, null, null, 0, marca);
+    }
+
+    public static MensajeProtocolo pong(long marca) {
+        return new MensajeProtocolo(Tipo.PONG, null, null, null, null, 0, marca);
+    }
+
+    /**
+     * Interpreta un texto del protocolo legado: los latidos viajan como
+     * {@code PING:<marca>} y {@code PONG:<marca>}, el resto es texto.
+     *
+     * @param texto el texto recibido
+     * @return el mensaje equivalente
+     */
+    public static MensajeProtocolo desdeTexto(String texto) {
+        if (texto.length() > 5 && texto.charAt(4) == ':'
+                && (texto.startsWith("PING") || texto.startsWith("PONG"))) {
+            try {
+                long marca = Long.parseLong(texto, 5, texto.length(), 10);
+                return texto.charAt(1) == 'I' ? ping(marca) : pong(marca);
+            } catch (NumberFormatException e) {
+                // No es un latido
+            }
+        }
+        return texto(texto);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    public byte[] getDatos() {
+        return datos;
+    }
+
+    public Direccion getDireccion() {
+        return direccion;
+    }
+
+    public ResultadoMovimiento getResultado() {
+        return resultado;
+    }
+
+    public int getPuntaje() {
+        return puntaje;
+    }
+
+    public long getTiempo() {
+        return tiempo;
+    }
+
+    public Direccion[] getDirecciones() {
+        return direcciones;
+    }
+
+    public ResultadoLote getResultadoLote() {
+        return resultadoLote;
+    }
+
+    /**
+     * Obtiene las direcciones que representa el mensaje: un movimiento, un lote
+     * o un texto con uno o varios comandos separados por espacios o comas.
+     *
+     * @return las direcciones en orden, o null si el mensaje no es un movimiento
+     *         o supera {@link #MAX_LOTE}
+     */
+    public Direccion[] comoDirecciones() {
+        switch (tipo) {
+            case MOVIMIENTO:
+                return new Direccion[] { direccion };
+            case LOTE_MOVIMIENTOS:
+                return direcciones.clone();
+            case TEXTO: {
+                Direccion[] d = Direccion.parsearVarias(texto);
+                return d != null && d.length <= MAX_LOTE ? d : null;
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Representación de texto del mensaje, tal como viaja en el protocolo legado.
+     *
+     * @return el texto equivalente
+     */
+    public String toTexto() {
+        switch (tipo) {
+            case MOVIMIENTO:
+                return direccion.getComando();
+            case RESULTADO:
+                return resultado.getMensaje();
+            case FIN_JUEGO:
+                return "FIN_JUEGO:Puntaje=" + puntaje + ",Tiempo=" + tiempo + "s";
+            case LOTE_MOVIMIENTOS: {
+                StringBuilder sb = new StringBuilder();
+                for (Direccion d : direcciones) {
+                    if (sb.length() > 0) sb.append(' ');
+                    sb.append(d.getComando());
+                }
+                return sb.toString();
+            }
+            case RESULTADO_LOTE:
+                return resultadoLote.getMensaje();
+            case PING:
+                return "PING:" + tiempo;
+            case PONG:
+                return "PONG:" + tiempo;
+            case TEXTO:
+                return texto;
+            default:
+                return "";
+        }
+    }
+}
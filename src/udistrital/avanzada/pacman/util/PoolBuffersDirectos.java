@@ -0,0 +1,60 @@
+package udistrital.avanzada.pacman.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Pool de buffers directos (fuera del heap) agrupados por clases de tamaño
+ * potencia de dos, de 4KB a 4MB.
+ *
+ * <p>Los buffers directos se escriben al socket sin la copia intermedia que el
+ * JDK hace con los buffers del heap, pero son costosos de crear y los libera el
+ * GC tarde; por eso se reciclan. Las peticiones mayores a la clase máxima se
+ * atienden con un buffer nuevo que no vuelve al pool.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class PoolBuffersDirectos {
+
+    private static final int RETENIDOS_POR_CLASE = 32;
+
+    private static final ColasPorClase<ByteBuffer> LIBRES = new ColasPorClase<>(RETENIDOS_POR_CLASE);
+
+    private PoolBuffersDirectos() {}
+
+    /**
+     * Toma un buffer directo con al menos la capacidad indicada, limpio
+     * (posición 0, límite = capacidad).
+     *
+     * @param capacidad bytes requeridos
+     * @return el buffer
+     */
+    public static ByteBuffer tomar(int capacidad) {
+        int c = ColasPorClase.clase(capacidad);
+        if (c > ColasPorClase.CLASE_MAXIMA) {
+            return ByteBuffer.allocateDirect(capacidad);
+        }
+        ByteBuffer buf = LIBRES.tomar(c);
+        if (buf == null) {
+            return ByteBuffer.allocateDirect(1 << c);
+        }
+        buf.clear();
+        return buf;
+    }
+
+    /**
+     * Devuelve un buffer al pool. Los buffers que no provienen del pool, o que
+     * exceden el máximo retenido por clase, se descartan.
+     *
+     * @param buf el buffer a devolver
+     */
+    public static void devolver(ByteBuffer buf) {
+        if (buf == null || !buf.isDirect()) {
+            return;
+        }
+        int c = ColasPorClase.claseExacta(buf.capacity());
+        if (c >= 0) {
+            LIBRES.devolver(c, buf);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool de arreglos de bytes del heap agrupados por clases de tamaño potencia
+ * de dos, de 4KB a 4MB, para los frames que se reciben.
+ *
+ * <p>A 25 FPS con JPEG de 30-80KB, crear un arreglo por frame genera megabytes
+ * por segundo de basura de vida corta; reciclarlos deja la asignación en unos
+ * pocos arreglos por clase. Las peticiones mayores a la clase máxima se atienden
+ * con un arreglo nuevo que no vuelve al pool.
+ *
+ * <p>Lleva estadísticas globales para comparar los bytes que se habrían asignado
+ * sin pool (solicitados) con los que realmente se asignaron.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class PoolBytes {
+
+    private static final int RETENIDOS_POR_CLASE = 8;
+
+    private static final ColasPorClase<byte[]> LIBRES = new ColasPorClase<>(RETENIDOS_POR_CLASE);
+
+    private static final LongAdder SOLICITUDES = new LongAdder();
+    private static final LongAdder REUTILIZADOS = new LongAdder();
+    private static final LongAdder BYTES_SOLICITADOS = new LongAdder();
+    private static final LongAdder BYTES_ASIGNADOS = new LongAdder();
+
+    private PoolBytes() {}
+
+    /**
+     * Toma un arreglo con al menos la capacidad indicada. Su contenido previo
+     * no se limpia.
+     *
+     * @param capacidad bytes requeridos
+     * @return el arreglo
+     */
+    public static byte[] tomar(int capacidad) {
+        SOLICITUDES.increment();
+        BYTES_SOLICITADOS.add(capacidad);
+        int c = ColasPorClase.clase(capacidad);
+        if (c > ColasPorClase.CLASE_MAXIMA) {
+            BYTES_ASIGNADOS.add(capacidad);
+            return new byte[capacidad];
+        }
+        byte[] arreglo = LIBRES.tomar(c);
+        if (arreglo == null) {
+            BYTES_ASIGNADOS.add(1L << c);
+            return new byte[1 << c];
+        }
+        REUTILIZADOS.increment();
+        return arreglo;
+    }
+
+    /**
+     * Devuelve un arreglo al pool. Los que no provienen del pool, o que exceden
+     * el máximo retenido por clase, se descartan.
+     *
+     * @param arreglo el arreglo a devolver
+     */
+    public static void devolver(byte[] arreglo) {
+        if (arreglo == null) {
+            return;
+        }
+        int c = ColasPorClase.claseExacta(arreglo.length);
+        if (c >= 0) {
+            LIBRES.devolver(c, arreglo);
+        }
+    }
+
+    public static long getSolicitudes() {
+        return SOLICITUDES.sum();
+    }
+
+    public static long getReutilizados() {
+        return REUTILIZADOS.sum();
+    }
+
+    public static long getBytesSolicitados() {
+        return BYTES_SOLICITADOS.sum();
+    }
+
+    public static long getBytesAsignados() {
+        return BYTES_ASIGNADOS.sum();
+    }
+
+    /**
+     * Resumen de las estadísticas del pool.
+     *
+     * @return texto con solicitudes, reutilizados y bytes solicitados frente a asignados
+     */
+    public static String estadisticas() {
+        return "solicitudes=" + SOLICITUDES.sum() + ", reutilizados=" + REUTILIZADOS.sum()
+            + ", KB solicitados=" + BYTES_SOLICITADOS.sum() / 1024
+            + ", KB asignados=" + BYTES_ASIGNADOS.sum() / 1024;
+    }
+}
@@ -0,0 +1,152 @@
+package udistrital.avanzada.pacman.util;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reconstruye la imagen del cliente a partir de frames de {@link FramesDelta}.
+ *
+ * <p>Mantiene un lienzo persistente sobre el que pega las regiones de cada
+ * frame. Un delta cuya secuencia no sigue a la del último frame aplicado se
+ * descarta, igual que los siguientes, hasta recibir un frame clave. No es
+ * seguro para varios hilos: lo usa el hilo que consume el video.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ReconstructorDelta {
+
+    private BufferedImage lienzo;
+    private DecodificadorJpeg decodificador;
+    private int ultimaSecuencia;
+    private boolean sincronizado = false;
+    private long claves = 0;
+    private long deltas = 0;
+    private long regiones = 0;
+    private long descartados = 0;
+
+    /**
+     * Aplica un frame al lienzo.
+     *
+     * @param datos bytes del frame
+     * @param longitud bytes válidos
+     * @return true si el lienzo cambió; false si el frame no tenía regiones o
+     *         se descartó por falta de sincronía
+     * @throws IOException si el frame está corrupto
+     */
+    public boolean aplicar(byte[] datos, int longitud) throws IOException {
+        if (!FramesDelta.esDelta(datos, longitud)) {
+            throw new IOException("No es un frame delta");
+        }
+        ByteBuffer b = ByteBuffer.wrap(datos, 0, longitud);
+        b.position(2);
+        boolean clave = (b.get() & FramesDelta.CLAVE) != 0;
+        int secuencia = b.getInt();
+        int ancho = b.getShort() & 0xFFFF;
+        int alto = b.getShort() & 0xFFFF;
+        int rectangulos = b.getShort() & 0xFFFF;
+
+        if (clave) {
+            if (lienzo == null || lienzo.getWidth() != ancho || lienzo.getHeight() != alto) {
+                lienzo = new BufferedImage(Math.max(1, ancho), Math.max(1, alto), BufferedImage.TYPE_INT_RGB);
+            }
+            sincronizado = true;
+            claves++;
+        } else if (!sincronizado || secuencia != ultimaSecuencia + 1) {
+            sincronizado = false;
+            descartados++;
+            return false;
+        } else {
+            deltas++;
+        }
+        ultimaSecuencia = secuencia;
+
+        if (rectangulos == 0) {
+            return false;
+        }
+        if (decodificador == null) {
+            decodificador = new DecodificadorJpeg();
+        }
+        Graphics2D g = lienzo.createGraphics();
+        try {
+            for (int i = 0; i < rectangulos; i++) {
+                if (b.remaining() < FramesDelta.CABECERA_RECTANGULO) {
+                    throw new IOException("Frame delta truncado");
+                }
+                int x = b.getShort() & 0xFFFF;
+                int y = b.getShort() & 0xFFFF;
+                b.getShort();
+                b.getShort();
+                int n = b.getInt();
+                if (n < 0 || n > b.remaining()) {
+                    throw new IOException("Frame delta truncado");
+                }
+                BufferedImage region = decodificador.decodificar(datos, b.position(), n, null);
+                b.position(b.position() + n);
+                if (region != null) {
+                    g.drawImage(region, x, y, null);
+                    regiones++;
+                }
+            }
+        } catch (IOException e) {
+            // Lienzo a medio pegar: hasta la próxima clave no se aplica nada
+            sincronizado = false;
+            throw e;
+        } finally {
+            g.dispose();
+        }
+        return true;
+    }
+
+    /**
+     * @return el lienzo reconstruido (lo modifica la siguiente llamada a
+     *         {@link #aplicar}), o null antes del primer frame clave
+     */
+    public BufferedImage getLienzo() {
+        return lienzo;
+    }
+
+    /**
+     * @return una copia del lienzo que no cambia con los frames siguientes
+     */
+    public BufferedImage copiarLienzo() {
+        return copiarLienzo(null);
+    }
+
+    /**
+     * Copia el lienzo sobre una imagen que se reutiliza.
+     *
+     * @param destino imagen a reutilizar, o null
+     * @return {@code destino} con la copia si tiene el tamaño y el formato del
+     *         lienzo; si no, una imagen nueva
+     */
+    public BufferedImage copiarLienzo(BufferedImage destino) {
+        BufferedImage copia = destino;
+        if (copia == null || copia.getType() != lienzo.getType()
+                || copia.getWidth() != lienzo.getWidth() || copia.getHeight() != lienzo.getHeight()) {
+            copia = new BufferedImage(lienzo.getWidth(), lienzo.getHeight(), BufferedImage.TYPE_INT_RGB);
+        }
+        lienzo.copyData(copia.getRaster());
+        return copia;
+    }
+
+    public long getClaves() {
+        return claves;
+    }
+
+    public long getDeltas() {
+        return deltas;
+    }
+
+    public long getDescartados() {
+        return descartados;
+    }
+
+    @Override
+    public String toString() {
+        return "claves=" + claves + ", deltas=" + deltas + ", regiones=" + regiones
+            + ", descartados=" + descartados;
+    }
+}
@@ -0,0 +1,128 @@
+package udistrital.avanzada.pacman.util;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * Reensambla los frames que llegan fragmentados por el canal de video UDP.
+ *
+ * <p>Solo arma un frame a la vez: al llegar un fragmento de un frame más nuevo,
+ * el incompleto se descarta; los fragmentos de frames más viejos que el último
+ * entregado se ignoran, y los duplicados no se cuentan dos veces. No es
+ * thread-safe: lo usa un único hilo receptor.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ReensambladorVideo {
+
+    private FrameRecibido enCurso;
+    private final BitSet llegados = new BitSet();
+    private int secuenciaEnCurso;
+    private int totalEnCurso;
+    private boolean hayEntregado = false;
+    private int ultimaEntregada;
+
+    private long datagramas = 0;
+    private long completos = 0;
+    private long incompletos = 0;
+    private long tardios = 0;
+    private long invalidos = 0;
+
+    /**
+     * Procesa un datagrama.
+     *
+     * @param datagrama bytes recibidos (en modo lectura)
+     * @return el frame completo en un arreglo del pool (el llamador debe
+     *         devolverlo), o null si aún no hay uno completo
+     */
+    public FrameRecibido alimentar(ByteBuffer datagrama) {
+        datagramas++;
+        if (datagrama.remaining() < FragmentosVideo.CABECERA
+                || datagrama.get() != FragmentosVideo.MAGIA
+                || datagrama.get() != FragmentosVideo.TIPO_FRAGMENTO) {
+            invalidos++;
+            return null;
+        }
+        int secuencia = datagrama.getInt();
+        int indice = datagrama.getShort() & 0xFFFF;
+        int total = datagrama.getShort() & 0xFFFF;
+        int desplazamiento = datagrama.getInt();
+        int longitud = datagrama.getInt();
+        int tam = datagrama.remaining();
+        if (total == 0 || indice >= total || longitud <= 0 || longitud > ManejadorSockets.MAX_FRAME
+                || desplazamiento < 0 || tam > longitud - desplazamiento) {
+            invalidos++;
+            return null;
+        }
+        // Comparación con desborde: la secuencia da la vuelta después de 2^31 frames
+        if (hayEntregado && secuencia - ultimaEntregada <= 0) {
+            tardios++;
+            return null;
+        }
+        if (enCurso == null || secuencia - secuenciaEnCurso > 0) {
+            descartarEnCurso();
+            enCurso = new FrameRecibido(longitud);
+            secuenciaEnCurso = secuencia;
+            totalEnCurso = total;
+            llegados.clear();
+        } else if (secuencia != secuenciaEnCurso) {
+            tardios++;
+            return null;
+        } else if (total != totalEnCurso || longitud != enCurso.getLongitud()) {
+            invalidos++;
+            return null;
+        }
+        if (llegados.get(indice)) {
+            return null;
+        }
+        llegados.set(indice);
+        datagrama.get(enCurso.getDatos(), desplazamiento, tam);
+        if (llegados.cardinality() < totalEnCurso) {
+            return null;
+        }
+        FrameRecibido listo = enCurso;
+        enCurso = null;
+        hayEntregado = true;
+        ultimaEntregada = secuencia;
+        completos++;
+        return listo;
+    }
+
+    private void descartarEnCurso() {
+        if (enCurso != null) {
+            enCurso.devolver();
+            enCurso = null;
+            incompletos++;
+        }
+    }
+
+    /**
+     * Libera el frame a medio armar.
+     */
+    public void cerrar() {
+        descartarEnCurso();
+    }
+
+    public long getDatagramas() {
+        return datagramas;
+    }
+
+    public long getCompletos() {
+        return completos;
+    }
+
+    public long getIncompletos() {
+        return incompletos;
+    }
+
+    public long getTardios() {
+        return tardios;
+    }
+
+    @Override
+    public String toString() {
+        return "datagramas=" + datagramas + ", completos=" + completos + ", incompletos=" + incompletos
+            + ", tardíos=" + tardios + ", inválidos=" + invalidos;
+    }
+}
@@ -0,0 +1,263 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Reloj de frames compartido: marca ticks de periodo fijo para todas las
+ * transmisiones, que así producen sus frames en la misma fase.
+ *
+ * <p>Cada tick vence en {@code inicio + n * periodo}, calculado desde el
+ * inicio y no desde el tick anterior: lo que tarda un frame no se acumula como
+ * deriva. Si un tick llega tarde, los ticks vencidos se cuentan como perdidos
+ * y se saltan, sin ráfagas para ponerse al día.
+ *
+ * <p>El reloj no tiene un hilo propio: cada tick es un plazo en la
+ * {@link RuedaTemporizadores} del servidor, que solo se programa mientras hay
+ * suscripciones, y vence con hasta un tick de la rueda de retraso. Como el
+ * hilo de la rueda no codifica, los ticks no esperan detrás de los frames. El
+ * tick solo avisa su número; el trabajo de cada transmisión va a su
+ * {@link Serie}, que ejecuta sus tareas de a una en un grupo de hilos
+ * compartido. Así ninguna transmisión tiene un hilo propio.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class RelojFrames {
+
+    private final long nanosPeriodo;
+    private final long inicio;
+    private final RuedaTemporizadores rueda;
+    private final ExecutorService trabajadores;
+    private final CopyOnWriteArrayList<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    /** Próximo tick programado, o null sin suscripciones; se modifica bajo el monitor del reloj. */
+    private RuedaTemporizadores.Temporizador marcador;
+    /** Cambia al detener la cadena de ticks: un tick de una cadena vieja no la reanuda. */
+    private long cadena = 0;
+    private boolean activo = true;
+    /** Último tick marcado; se modifica bajo el monitor del reloj. */
+    private long tick = 0;
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder perdidos = new LongAdder();
+
+    /**
+     * Crea el reloj. Sus trabajadores se crean con las primeras tareas.
+     *
+     * @param periodo duración de un tick
+     * @param unidad unidad de {@code periodo}
+     * @param rueda rueda que marca los ticks y las esperas de las series; su
+     *              resolución debe ser menor que el periodo
+     * @param trabajadores hilos que ejecutan las tareas de las series
+     * @param nombreHilo nombre de los trabajadores, con un sufijo numérico
+     */
+    public RelojFrames(long periodo, TimeUnit unidad, RuedaTemporizadores rueda, int trabajadores,
+            String nombreHilo) {
+        this.nanosPeriodo = Math.max(1, unidad.toNanos(periodo));
+        this.rueda = rueda;
+        AtomicInteger numero = new AtomicInteger();
+        this.trabajadores = Executors.newFixedThreadPool(Math.max(1, trabajadores), r -> {
+            Thread t = new Thread(r, nombreHilo + "-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.inicio = System.nanoTime();
+    }
+
+    /**
+     * Recibe los ticks a partir del siguiente.
+     *
+     * @param alTick recibe el número de tick en el hilo de la rueda; debe ser
+     *               breve y no bloquear (p. ej. pasar el trabajo a una {@link Serie})
+     * @return la suscripción, para cancelarla
+     */
+    public synchronized Suscripcion suscribir(LongConsumer alTick) {
+        Suscripcion s = new Suscripcion(alTick);
+        if (!activo) {
+            return s;
+        }
+        suscripciones.add(s);
+        if (marcador == null) {
+            // Tras estar detenido no hay ticks perdidos: se retoma en la fase de la grilla
+            tick = (System.nanoTime() - inicio) / nanosPeriodo;
+            programarTick(++cadena);
+        }
+        return s;
+    }
+
+    /**
+     * @return una cola de tareas nueva sobre los trabajadores del reloj
+     */
+    public Serie nuevaSerie() {
+        return new Serie();
+    }
+
+    private synchronized void quitar(Suscripcion s) {
+        if (suscripciones.remove(s) && suscripciones.isEmpty() && marcador != null) {
+            marcador.cancelar();
+            marcador = null;
+            cadena++;
+        }
+    }
+
+    /**
+     * Programa el tick siguiente al último marcado; se llama bajo el monitor.
+     */
+    private void programarTick(long deCadena) {
+        long espera = inicio + (tick + 1) * nanosPeriodo - System.nanoTime();
+        marcador = rueda.programar(espera, TimeUnit.NANOSECONDS, () -> marcar(deCadena));
+    }
+
+    private void marcar(long deCadena) {
+        long actual;
+        synchronized (this) {
+            if (deCadena != cadena) {
+                return;
+            }
+            actual = Math.max(tick + 1, (System.nanoTime() - inicio) / nanosPeriodo);
+            if (actual > tick + 1) {
+                perdidos.add(actual - tick - 1);
+            }
+            tick = actual;
+        }
+        ticks.increment();
+        for (Suscripcion s : suscripciones) {
+            try {
+                s.alTick.accept(actual);
+            } catch (RuntimeException e) {
+                System.err.println("Error en tick de frames: " + e.getMessage());
+            }
+        }
+        synchronized (this) {
+            if (deCadena == cadena && activo) {
+                programarTick(deCadena);
+            }
+        }
+    }
+
+    /**
+     * Detiene el reloj y sus trabajadores; las tareas pendientes no se
+     * ejecutan y las series dejan de aceptar tareas. La rueda sigue activa.
+     */
+    public synchronized void detener() {
+        activo = false;
+        suscripciones.clear();
+        if (marcador != null) {
+            marcador.cancelar();
+            marcador = null;
+        }
+        cadena++;
+        trabajadores.shutdownNow();
+    }
+
+    /**
+     * @return ticks marcados
+     */
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    /**
+     * @return ticks que vencieron mientras el anterior seguía en curso o la rueda se atrasaba
+     */
+    public long getTicksPerdidos() {
+        return perdidos.sum();
+    }
+
+    /**
+     * @return suscripciones activas
+     */
+    public int getSuscripciones() {
+        return suscripciones.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ticks=" + ticks.sum() + ", perdidos=" + perdidos.sum()
+            + ", suscripciones=" + suscripciones.size();
+    }
+
+    /**
+     * Suscripción a los ticks del reloj.
+     */
+    public final class Suscripcion {
+
+        private final LongConsumer alTick;
+
+        private Suscripcion(LongConsumer alTick) {
+            this.alTick = alTick;
+        }
+
+        /**
+         * Deja de recibir ticks. Un tick en curso puede llegar todavía.
+         */
+        public void cancelar() {
+            quitar(this);
+        }
+    }
+
+    /**
+     * Tareas que se ejecutan de a una y en orden sobre los trabajadores del
+     * reloj. Lo que solo tocan las tareas de una serie no necesita cerrojos:
+     * cada tarea ve lo que dejaron las anteriores.
+     */
+    public final class Serie implements Executor {
+
+        private final ConcurrentLinkedQueue<Runnable> tareas = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean enCurso = new AtomicBoolean(false);
+
+        private Serie() {
+        }
+
+        /**
+         * Agrega una tarea al final de la serie. No bloquea.
+         */
+        @Override
+        public void execute(Runnable tarea) {
+            tareas.add(tarea);
+            if (enCurso.compareAndSet(false, true)) {
+                try {
+                    trabajadores.execute(this::drenar);
+                } catch (RejectedExecutionException e) {
+                    // Reloj detenido: la serie ya no ejecuta nada
+                    tareas.clear();
+                }
+            }
+        }
+
+        /**
+         * Agrega una tarea a la serie cuando pase la espera, con la
+         * resolución de la rueda.
+         *
+         * @param tarea la tarea
+         * @param espera tiempo hasta agregarla
+         * @param unidad unidad de {@code espera}
+         */
+        public void programar(Runnable tarea, long espera, TimeUnit unidad) {
+            rueda.programar(espera, unidad, () -> execute(tarea));
+        }
+
+        private void drenar() {
+            do {
+                Runnable tarea;
+                while ((tarea = tareas.poll()) != null) {
+                    try {
+                        tarea.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Error en tarea de video: " + e.getMessage());
+                    }
+                }
+                enCurso.set(false);
+                // Una tarea agregada justo antes de liberar no debe quedar esperando
+            } while (!tareas.isEmpty() && enCurso.compareAndSet(false, true));
+        }
+    }
+}
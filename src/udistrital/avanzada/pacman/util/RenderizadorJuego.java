@@ -0,0 +1,259 @@
+package udistrital.avanzada.pacman.util;
+
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+import udistrital.avanzada.pacman.protocolo.TipoItem;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Dibuja una {@link InstantaneaJuego} sin pasar por Swing.
+ *
+ * <p>La ventana del servidor y el panel de video del cliente se pintan con
+ * {@link #pintar}, así que el frame que se transmite es idéntico a lo que se
+ * muestra. {@link #renderizar} dibuja en imágenes que cada hilo reutiliza (una
+ * por tamaño), de modo que los hilos de video no esperan al EDT ni asignan una
+ * imagen por frame.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class RenderizadorJuego {
+
+    /** Fuente base del mensaje de espera (la misma que hereda el panel). */
+    private static final Font FUENTE_BASE = new Font(Font.DIALOG, Font.PLAIN, 12);
+    private static final Font FUENTE_RETRO = new Font(Font.MONOSPACED, Font.BOLD, 14);
+    private static final Color FRESA = new Color(255, 20, 147);
+    private static final Color MANZANA = new Color(255, 0, 0);
+    private static final Color LLAVE = new Color(184, 134, 11);
+
+    /** Imágenes de cada hilo, una por tamaño (un hilo puede dibujar varias escalas). */
+    private static final int IMAGENES_POR_HILO = 4;
+    private static final ThreadLocal<BufferedImage[]> IMAGENES =
+        ThreadLocal.withInitial(() -> new BufferedImage[IMAGENES_POR_HILO]);
+
+    private RenderizadorJuego() {}
+
+    /**
+     * Dibuja la instantánea en la imagen del hilo actual.
+     *
+     * <p>La imagen se reutiliza en la siguiente llamada del mismo hilo: quien
+     * la reciba debe terminar de usarla (p. ej. codificarla) antes de volver a
+     * llamar.
+     *
+     * @param instantanea el estado a dibujar
+     * @param ancho ancho en píxeles
+     * @param alto alto en píxeles
+     * @return la imagen del hilo con el frame dibujado
+     */
+    public static BufferedImage renderizar(InstantaneaJuego instantanea, int ancho, int alto) {
+        return renderizar(instantanea, ancho, alto, 1f);
+    }
+
+    /**
+     * Dibuja la instantánea reducida o ampliada en la imagen del hilo actual.
+     *
+     * @param instantanea el estado a dibujar
+     * @param ancho ancho del juego en píxeles
+     * @param alto alto del juego en píxeles
+     * @param escala factor de escala; la imagen mide {@code ancho * escala}
+     * @return la imagen del hilo con el frame dibujado
+     * @see #renderizar(InstantaneaJuego, int, int)
+     */
+    public static BufferedImage renderizar(InstantaneaJuego instantanea, int ancho, int alto, float escala) {
+        int w = Math.max(1, Math.round(ancho * escala));
+        int h = Math.max(1, Math.round(alto * escala));
+        BufferedImage img = imagenDelHilo(w, h);
+        Graphics2D g2d = img.createGraphics();
+        try {
+            g2d.setColor(Color.BLACK);
+            g2d.fillRect(0, 0, w, h);
+            g2d.setFont(FUENTE_BASE);
+            if (escala != 1f) {
+                g2d.scale(escala, escala);
+            }
+            dibujar(g2d, instantanea, Math.max(1, ancho), Math.max(1, alto));
+        } finally {
+            g2d.dispose();
+        }
+        return img;
+    }
+
+    private static BufferedImage imagenDelHilo(int w, int h) {
+        BufferedImage[] imagenes = IMAGENES.get();
+        int libre = imagenes.length - 1;
+        for (int i = 0; i < imagenes.length; i++) {
+            BufferedImage img = imagenes[i];
+            if (img == null) {
+                libre = i;
+                break;
+            }
+            if (img.getWidth() == w && img.getHeight() == h) {
+                return img;
+            }
+        }
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        imagenes[libre] = img;
+        return img;
+    }
+
+    /**
+     * Dibuja la instantánea y la codifica como JPEG.
+     *
+     * @param instantanea el estado a dibujar
+     * @param ancho ancho en píxeles
+     * @param alto alto en píxeles
+     * @return los bytes JPEG
+     * @throws IOException si no hay codificador JPEG
+     */
+    public static byte[] codificarJpeg(InstantaneaJuego instantanea, int ancho, int alto) throws IOException {
+        return CodificadorJpeg.codificar(renderizar(instantanea, ancho, alto), CodificadorJpeg.CALIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Pinta el fondo y la instantánea escalada a un área, p. ej. en el cliente
+     * que recibe el estado en lugar de frames o en una celda del mosaico de
+     * partidas.
+     *
+     * @param g2d el contexto gráfico, con el origen en la esquina del área
+     * @param instantanea el estado a dibujar
+     * @param ancho ancho del juego en píxeles
+     * @param alto alto del juego en píxeles
+     * @param anchoArea ancho del área destino
+     * @param altoArea alto del área destino
+     */
+    public static void pintar(Graphics2D g2d, InstantaneaJuego instantanea, int ancho, int alto,
+                              int anchoArea, int altoArea) {
+        Graphics2D g = (Graphics2D) g2d.create();
+        try {
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, anchoArea, altoArea);
+            g.setFont(FUENTE_BASE);
+            ancho = Math.max(1, ancho);
+            alto = Math.max(1, alto);
+            if (anchoArea != ancho || altoArea != alto) {
+                g.scale((double) anchoArea / ancho, (double) altoArea / alto);
+            }
+            dibujar(g, instantanea, ancho, alto);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Dibuja la instantánea sobre un fondo ya pintado.
+     *
+     * @param g2d el contexto gráfico
+     * @param instantanea el estado a dibujar
+     * @param ancho ancho del área, para centrar el mensaje de espera
+     * @param alto alto del área
+     */
+    public static void dibujar(Graphics2D g2d, InstantaneaJuego instantanea, int ancho, int alto) {
+        // Si no hay juego activo, mostrar mensaje de espera
+        if (!instantanea.hayJuego()) {
+            dibujarMensajeEspera(g2d, ancho, alto);
+            return;
+        }
+
+        if (instantanea.hayPacMan()) {
+            dibujarPacMan(g2d, instantanea);
+        }
+
+        dibujarItems(g2d, instantanea);
+    }
+
+    /**
+     * Dibuja un mensaje indicando que el servidor está esperando conexiones.
+     */
+    private static void dibujarMensajeEspera(Graphics2D g2d, int ancho, int alto) {
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(g2d.getFont().deriveFont(24f));
+
+        String mensaje = "Servidor Pac-Man";
+        String mensaje2 = "Esperando conexiones de clientes...";
+        String mensaje3 = "Puerto: 9090";
+
+        // Centrar el texto
+        FontMetrics fm = g2d.getFontMetrics();
+        int x1 = (ancho - fm.stringWidth(mensaje)) / 2;
+        int x2 = (ancho - fm.stringWidth(mensaje2)) / 2;
+        int x3 = (ancho - fm.stringWidth(mensaje3)) / 2;
+
+        int y = alto / 2 - 30;
+        g2d.drawString(mensaje, x1, y);
+        g2d.setFont(g2d.getFont().deriveFont(16f));
+        y += 40;
+        g2d.drawString(mensaje2, x2, y);
+        y += 30;
+        g2d.drawString(mensaje3, x3, y);
+    }
+
+    /**
+     * Dibuja a Pac-Man.
+     */
+    private static void dibujarPacMan(Graphics2D g2d, InstantaneaJuego instantanea) {
+        int x = instantanea.getPacManX();
+        int y = instantanea.getPacManY();
+        int tamaño = instantanea.getPacManTamaño();
+
+        g2d.setColor(Color.YELLOW);
+        g2d.fillOval(x, y, tamaño, tamaño);
+
+        // Ojos
+        g2d.setColor(Color.BLACK);
+        g2d.fillOval(x + 6, y + 6, 4, 4);
+    }
+
+    /**
+     * Dibuja los ítems sin recoger con su etiqueta.
+     */
+    private static void dibujarItems(Graphics2D g2d, InstantaneaJuego instantanea) {
+        Font fuenteOriginal = g2d.getFont();
+        for (int i = 0; i < instantanea.getCantidadItems(); i++) {
+            TipoItem tipo = instantanea.getTipoItem(i);
+            int x = instantanea.getItemX(i);
+            int y = instantanea.getItemY(i);
+            g2d.setColor(obtenerColorItem(tipo));
+            g2d.fillOval(x, y, 15, 15);
+
+            // Etiqueta con el nombre
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(FUENTE_RETRO);
+            g2d.drawString(tipo.getNombre(), x - 10, y - 5);
+        }
+        g2d.setFont(fuenteOriginal);
+    }
+
+    /**
+     * Obtiene el color según el tipo de ítem.
+     *
+     * @param tipo El tipo de ítem
+     * @return El color correspondiente
+     */
+    private static Color obtenerColorItem(TipoItem tipo) {
+        switch (tipo) {
+            case CEREZA:
+                return Color.RED;
+            case FRESA:
+                return FRESA;
+            case NARANJA:
+                return Color.ORANGE;
+            case MANZANA:
+                return MANZANA;
+            case MELON:
+                return Color.GREEN;
+            case GALAXIAN:
+                return Color.CYAN;
+            case CAMPANA:
+                return Color.YELLOW;
+            case LLAVE:
+                return LLAVE;
+            default:
+                return Color.WHITE;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reproduce una grabación como si los frames llegaran del servidor.
+ *
+ * <p>Un hilo lee los frames a partir del momento pedido y los publica en un
+ * buzón igual al de {@link ManejadorSockets}, respetando los tiempos de la
+ * grabación (escalados por la velocidad). Así el {@code StreamReceiver} del
+ * cliente los decodifica y muestra por el camino de siempre.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ReproductorGrabacion implements FuenteVideo {
+
+    private final LectorGrabacion lector;
+    private final long desdeMs;
+    private final double velocidad;
+    private final BuzonFrames<FrameRecibido> buzon = new BuzonFrames<>(1, FrameRecibido::devolver);
+    private Thread hilo;
+    private volatile boolean detenido = false;
+
+    /**
+     * @param archivo archivo de video de la grabación
+     * @param desdeMs momento desde el que se reproduce (ms desde el inicio)
+     * @param velocidad 1 para tiempo real, 2 para el doble, etc.
+     * @throws IOException si no se puede abrir la grabación
+     */
+    public ReproductorGrabacion(Path archivo, long desdeMs, double velocidad) throws IOException {
+        if (velocidad <= 0) throw new IllegalArgumentException("Velocidad inválida");
+        this.lector = new LectorGrabacion(archivo);
+        this.desdeMs = desdeMs;
+        this.velocidad = velocidad;
+    }
+
+    /**
+     * Empieza a reproducir en un hilo propio.
+     */
+    public synchronized void iniciar() {
+        if (hilo != null) {
+            return;
+        }
+        hilo = new Thread(this::reproducir, "ReproductorGrabacion");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void reproducir() {
+        try {
+            long base = lector.buscar(desdeMs);
+            if (base < 0) {
+                return;
+            }
+            long inicio = System.nanoTime();
+            LectorGrabacion.FrameGrabado frame;
+            while (!detenido && (frame = lector.siguiente()) != null) {
+                long espera = inicio + (long) ((frame.getTiempoMs() - base) * 1_000_000L / velocidad)
+                    - System.nanoTime();
+                if (espera > 0) {
+                    TimeUnit.NANOSECONDS.sleep(espera);
+                }
+                byte[] datos = frame.getDatos();
+                FrameRecibido recibido = new FrameRecibido(datos.length);
+                System.arraycopy(datos, 0, recibido.getDatos(), 0, datos.length);
+                buzon.publicar(recibido);
+            }
+            esperarConsumo();
+        } catch (InterruptedException e) {
+            // Detenido
+        } catch (IOException e) {
+            System.err.println("Error al leer la grabación: " + e.getMessage());
+        } finally {
+            // Al cerrar el buzón, el StreamReceiver recibe null y termina
+            buzon.cerrar();
+            try {
+                lector.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    /**
+     * Espera (hasta un segundo) a que se tome el último frame: cerrar el buzón
+     * descarta lo que no se haya entregado.
+     */
+    private void esperarConsumo() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!detenido && System.nanoTime() < limite
+                && buzon.getEntregados() + buzon.getReemplazados() + buzon.getDescartados() < buzon.getPublicados()) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    /**
+     * Detiene la reproducción.
+     */
+    public synchronized void detener() {
+        detenido = true;
+        if (hilo != null) {
+            hilo.interrupt();
+        } else {
+            buzon.cerrar();
+        }
+    }
+
+    /**
+     * @return duración de la grabación en ms
+     */
+    public long getDuracionMs() {
+        return lector.getDuracionMs();
+    }
+
+    /**
+     * @return frames de la grabación
+     */
+    public int getFrames() {
+        return lector.getFrames();
+    }
+
+    /**
+     * @return inicio de la grabación (ms epoch)
+     */
+    public long getInicio() {
+        return lector.getInicio();
+    }
+
+    @Override
+    public FrameRecibido tomarFrameRecibido() {
+        try {
+            return buzon.tomar();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public boolean estaCerrado() {
+        return detenido;
+    }
+
+    @Override
+    public BuzonFrames<FrameRecibido> getBuzonRecepcion() {
+        return buzon;
+    }
+}
@@ -0,0 +1,215 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rueda de temporizadores con hash (hashed timing wheel) atendida por un solo hilo.
+ *
+ * <p>El tiempo avanza en ticks fijos; cada temporizador queda en la ranura
+ * {@code tick de vencimiento % ranuras} con las vueltas completas que le faltan.
+ * Programar y cancelar son O(1) y no toman cerrojos (los cambios pasan por colas
+ * concurrentes que el hilo de la rueda aplica en cada tick); en cada tick solo se
+ * recorre una ranura. Sirve para miles de plazos que casi nunca vencen, como la
+ * inactividad de las sesiones, sin un temporizador ni un hilo por socket.
+ *
+ * <p>Las tareas se ejecutan en el hilo de la rueda con hasta un tick de retraso,
+ * por lo que deben ser breves y no bloquear.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public final class RuedaTemporizadores {
+
+    private final long nanosTick;
+    private final int mascara;
+    private final Ranura[] ranuras;
+    private final ConcurrentLinkedQueue<Temporizador> nuevos = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Temporizador> cancelados = new ConcurrentLinkedQueue<>();
+    private final Thread hilo;
+    private final long inicio;
+    private volatile boolean activa = true;
+    /** Tick en curso; solo lo usa el hilo de la rueda. */
+    private long tick = 0;
+    private long vencidos = 0;
+
+    /**
+     * Crea la rueda e inicia su hilo.
+     *
+     * @param duracionTick duración de un tick (resolución de los plazos)
+     * @param unidad unidad de {@code duracionTick}
+     * @param ranuras cantidad de ranuras (se redondea a potencia de dos)
+     * @param nombreHilo nombre del hilo de la rueda
+     */
+    public RuedaTemporizadores(long duracionTick, TimeUnit unidad, int ranuras, String nombreHilo) {
+        this.nanosTick = Math.max(1, unidad.toNanos(duracionTick));
+        int n = Integer.highestOneBit(Math.max(1, ranuras - 1)) << 1;
+        this.mascara = n - 1;
+        this.ranuras = new Ranura[n];
+        for (int i = 0; i < n; i++) {
+            this.ranuras[i] = new Ranura();
+        }
+        this.inicio = System.nanoTime();
+        this.hilo = new Thread(this::ejecutar, nombreHilo);
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Programa una tarea.
+     *
+     * @param retraso tiempo hasta el vencimiento
+     * @param unidad unidad de {@code retraso}
+     * @param tarea tarea a ejecutar en el hilo de la rueda
+     * @return el temporizador, para cancelarlo
+     */
+    public Temporizador programar(long retraso, TimeUnit unidad, Runnable tarea) {
+        Temporizador t = new Temporizador(tarea, System.nanoTime() + unidad.toNanos(Math.max(0, retraso)));
+        if (activa) {
+            nuevos.offer(t);
+        }
+        return t;
+    }
+
+    private void ejecutar() {
+        while (activa) {
+            long objetivo = inicio + (tick + 1) * nanosTick;
+            long espera;
+            while ((espera = objetivo - System.nanoTime()) > 0 && activa) {
+                LockSupport.parkNanos(this, espera);
+            }
+            quitarCancelados();
+            ubicarNuevos();
+            vencer(ranuras[(int) (tick & mascara)]);
+            tick++;
+        }
+    }
+
+    private void quitarCancelados() {
+        Temporizador t;
+        while ((t = cancelados.poll()) != null) {
+            if (t.ranura != null) {
+                t.ranura.quitar(t);
+            }
+        }
+    }
+
+    private void ubicarNuevos() {
+        Temporizador t;
+        while ((t = nuevos.poll()) != null) {
+            if (t.estado.get() != Temporizador.PENDIENTE) {
+                continue;
+            }
+            long vence = (t.vencimiento - inicio) / nanosTick;
+            t.vueltas = Math.max(0, (vence - tick) >> Integer.numberOfTrailingZeros(ranuras.length));
+            ranuras[(int) (Math.max(vence, tick) & mascara)].agregar(t);
+        }
+    }
+
+    private void vencer(Ranura ranura) {
+        Temporizador t = ranura.cabeza;
+        while (t != null) {
+            Temporizador siguiente = t.siguiente;
+            if (t.vueltas > 0) {
+                t.vueltas--;
+            } else {
+                ranura.quitar(t);
+                if (t.estado.compareAndSet(Temporizador.PENDIENTE, Temporizador.VENCIDO)) {
+                    vencidos++;
+                    try {
+                        t.tarea.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Error en temporizador: " + e.getMessage());
+                    }
+                }
+            }
+            t = siguiente;
+        }
+    }
+
+    /**
+     * Detiene el hilo; los temporizadores pendientes no se ejecutan.
+     */
+    public void detener() {
+        activa = false;
+        LockSupport.unpark(hilo);
+    }
+
+    @Override
+    public String toString() {
+        return "tick=" + tick + ", vencidos=" + vencidos;
+    }
+
+    /**
+     * Lista doblemente enlazada de los temporizadores de una ranura; solo la
+     * modifica el hilo de la rueda.
+     */
+    private static final class Ranura {
+        private Temporizador cabeza;
+
+        void agregar(Temporizador t) {
+            t.ranura = this;
+            t.siguiente = cabeza;
+            if (cabeza != null) {
+                cabeza.anterior = t;
+            }
+            cabeza = t;
+        }
+
+        void quitar(Temporizador t) {
+            if (t.ranura != this) {
+                return;
+            }
+            if (t.anterior != null) {
+                t.anterior.siguiente = t.siguiente;
+            } else {
+                cabeza = t.siguiente;
+            }
+            if (t.siguiente != null) {
+                t.siguiente.anterior = t.anterior;
+            }
+            t.anterior = null;
+            t.siguiente = null;
+            t.ranura = null;
+        }
+    }
+
+    /**
+     * Plazo programado en la rueda.
+     */
+    public final class Temporizador {
+
+        private static final int PENDIENTE = 0;
+        private static final int VENCIDO = 1;
+        private static final int CANCELADO = 2;
+
+        private final Runnable tarea;
+        private final long vencimiento;
+        private final AtomicInteger estado = new AtomicInteger(PENDIENTE);
+        // Campos del hilo de la rueda
+        private long vueltas;
+        private Ranura ranura;
+        private Temporizador anterior;
+        private Temporizador siguiente;
+
+        private Temporizador(Runnable tarea, long vencimiento) {
+            this.tarea = tarea;
+            this.vencimiento = vencimiento;
+        }
+
+        /**
+         * Cancela el temporizador si aún no venció.
+         *
+         * @return true si se canceló antes de ejecutarse
+         */
+        public boolean cancelar() {
+            if (!estado.compareAndSet(PENDIENTE, CANCELADO)) {
+                return false;
+            }
+            cancelados.offer(this);
+            return true;
+        }
+    }
+}
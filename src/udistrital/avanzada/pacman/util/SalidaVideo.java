@@ -0,0 +1,25 @@
+package udistrital.avanzada.pacman.util;
+
+/**
+ * Destino de los frames de video de una conexión (TCP o UDP).
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public interface SalidaVideo {
+
+    /**
+     * Publica un frame sin bloquear al llamador más de lo necesario; si el
+     * destino no alcanza, puede descartar frames.
+     *
+     * @param frame bytes del frame
+     */
+    void publicarFrame(byte[] frame);
+
+    /**
+     * Indica si el destino ya no acepta frames.
+     *
+     * @return true si está cerrado
+     */
+    boolean estaCerrado();
+}
@@ -0,0 +1,133 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.CodificadorJpeg;
+import udistrital.avanzada.pacman.util.FramesDelta;
+import udistrital.avanzada.pacman.util.ReconstructorDelta;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link CodificadorDelta} con {@link ReconstructorDelta}: el
+ * lienzo reconstruido sigue a la imagen del servidor, los deltas fuera de
+ * secuencia se descartan y los frames truncados se rechazan.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class CodificadorDeltaTest {
+
+    private static final int ANCHO = 160;
+    private static final int ALTO = 96;
+    /** Diferencia por canal que se tolera por la compresión JPEG. */
+    private static final int TOLERANCIA = 24;
+
+    private static BufferedImage imagen(Color fondo) {
+        BufferedImage img = new BufferedImage(ANCHO, ALTO, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(fondo);
+        g.fillRect(0, 0, ANCHO, ALTO);
+        g.dispose();
+        return img;
+    }
+
+    private static void rellenar(BufferedImage img, Color color, int x, int y, int ancho, int alto) {
+        Graphics2D g = img.createGraphics();
+        g.setColor(color);
+        g.fillRect(x, y, ancho, alto);
+        g.dispose();
+    }
+
+    /**
+     * Compara el centro de cada bloque de 8x8: en los bordes de color el
+     * submuestreo de croma del JPEG mezcla bloques vecinos.
+     */
+    private static void assertParecido(BufferedImage esperada, BufferedImage obtenida) {
+        assertEquals(esperada.getWidth(), obtenida.getWidth());
+        assertEquals(esperada.getHeight(), obtenida.getHeight());
+        for (int y = 4; y < esperada.getHeight(); y += 8) {
+            for (int x = 4; x < esperada.getWidth(); x += 8) {
+                int a = esperada.getRGB(x, y);
+                int b = obtenida.getRGB(x, y);
+                for (int corrimiento = 0; corrimiento <= 16; corrimiento += 8) {
+                    int diferencia = Math.abs((a >>> corrimiento & 0xFF) - (b >>> corrimiento & 0xFF));
+                    assertTrue("Píxel (" + x + "," + y + ")", diferencia <= TOLERANCIA);
+                }
+            }
+        }
+    }
+
+    private static CodificadorDelta codificador() {
+        return new CodificadorDelta(FramesDelta.TESELA_POR_DEFECTO, 100, CodificadorJpeg.CALIDAD_POR_DEFECTO);
+    }
+
+    @Test
+    public void claveYDeltasReconstruyenLaImagen() throws IOException {
+        CodificadorDelta codificador = codificador();
+        ReconstructorDelta reconstructor = new ReconstructorDelta();
+        BufferedImage img = imagen(Color.BLACK);
+        byte[] clave = codificador.codificar(img);
+        assertTrue(FramesDelta.esClave(clave));
+        assertTrue(reconstructor.aplicar(clave, clave.length));
+        assertParecido(img, reconstructor.getLienzo());
+
+        rellenar(img, Color.YELLOW, 32, 32, 32, 32);
+        byte[] delta = codificador.codificar(img);
+        assertFalse(FramesDelta.esClave(delta));
+        assertTrue(reconstructor.aplicar(delta, delta.length));
+        assertParecido(img, reconstructor.getLienzo());
+
+        // Sin cambios el delta no trae regiones
+        byte[] vacio = codificador.codificar(img);
+        assertFalse(reconstructor.aplicar(vacio, vacio.length));
+        assertEquals(0, reconstructor.getDescartados());
+    }
+
+    @Test
+    public void deltaFueraDeSecuenciaSeDescartaHastaLaClave() throws IOException {
+        CodificadorDelta codificador = codificador();
+        ReconstructorDelta reconstructor = new ReconstructorDelta();
+        BufferedImage img = imagen(Color.BLACK);
+        byte[] clave = codificador.codificar(img);
+        reconstructor.aplicar(clave, clave.length);
+
+        rellenar(img, Color.RED, 0, 0, 32, 32);
+        codificador.codificar(img); // se pierde
+        rellenar(img, Color.BLUE, 96, 32, 32, 32);
+        byte[] siguiente = codificador.codificar(img);
+        assertFalse(reconstructor.aplicar(siguiente, siguiente.length));
+        assertEquals(1, reconstructor.getDescartados());
+
+        // La clave del último frame resincroniza y el delta siguiente vuelve a aplicarse
+        byte[] reclave = codificador.codificarClave();
+        assertTrue(reconstructor.aplicar(reclave, reclave.length));
+        assertParecido(img, reconstructor.getLienzo());
+        rellenar(img, Color.GREEN, 64, 0, 32, 32);
+        byte[] delta = codificador.codificar(img);
+        assertTrue(reconstructor.aplicar(delta, delta.length));
+        assertParecido(img, reconstructor.getLienzo());
+    }
+
+    @Test
+    public void frameTruncadoSeRechaza() throws IOException {
+        byte[] clave = codificador().codificar(imagen(Color.WHITE));
+        ReconstructorDelta reconstructor = new ReconstructorDelta();
+        try {
+            reconstructor.aplicar(clave, clave.length / 2);
+            fail("Se esperaba IOException");
+        } catch (IOException e) {
+            // esperado
+        }
+        try {
+            reconstructor.aplicar(Arrays.copyOf(clave, 5), 5);
+            fail("Se esperaba IOException");
+        } catch (IOException e) {
+            // esperado
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package udistrital.avanzada.pacman.servidor.controlador;
+
+import udistrital.avanzada.pacman.util.AnilloFrames;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link SalaEspectadores}: comando de espectador, una sola
+ * transmisión por jugador y avisos a los espectadores.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class SalaEspectadoresTest {
+
+    @Test
+    public void comandoDeEspectador() {
+        assertEquals("ana", SalaEspectadores.jugadorAMirar("ESPECTAR:ana"));
+        assertEquals("ana@casa", SalaEspectadores.jugadorAMirar("espectar: ana@casa "));
+        assertNull(SalaEspectadores.jugadorAMirar("ESPECTAR:"));
+        assertNull(SalaEspectadores.jugadorAMirar("ESPECTAR"));
+        assertNull(SalaEspectadores.jugadorAMirar("ana@casa"));
+        assertNull(SalaEspectadores.jugadorAMirar(null));
+    }
+
+    @Test
+    public void segundaSesionDelJugadorNoSeTransmite() {
+        SalaEspectadores sala = new SalaEspectadores(4);
+        SalaEspectadores.Transmision primera = sala.abrir("ana", () -> {});
+        assertNotNull(primera);
+        assertNull(sala.abrir("ana", () -> {}));
+        assertSame(primera, sala.buscar("ana"));
+
+        primera.cerrar();
+        assertNull(sala.buscar("ana"));
+        SalaEspectadores.Transmision otra = sala.abrir("ana", () -> {});
+        assertNotNull(otra);
+        assertSame(otra, sala.buscar("ana"));
+    }
+
+    @Test
+    public void avisaFramesYCierre() {
+        SalaEspectadores sala = new SalaEspectadores(4);
+        AtomicInteger pedidas = new AtomicInteger();
+        SalaEspectadores.Transmision t = sala.abrir("ana", pedidas::incrementAndGet);
+        AtomicInteger avisos = new AtomicInteger();
+        AnilloFrames.Lector lector = t.mirar(avisos::incrementAndGet);
+        assertEquals(1, sala.getEspectadores());
+        assertEquals("Sin frame independiente se pide una clave", 1, pedidas.get());
+
+        byte[] frame = {1, 2, 3};
+        t.publicar(frame);
+        assertEquals(1, avisos.get());
+        assertSame(frame, lector.sondear());
+        assertNull(lector.sondear());
+
+        t.cerrar();
+        assertEquals(2, avisos.get());
+        assertTrue(lector.estaCerrado());
+        assertNull(t.mirar(null));
+        t.dejarDeMirar(lector);
+        assertEquals(0, sala.getEspectadores());
+    }
+}
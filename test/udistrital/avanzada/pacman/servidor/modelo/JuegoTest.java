@@ -0,0 +1,147 @@
+package udistrital.avanzada.pacman.servidor.modelo;
+
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.protocolo.InstantaneaJuego;
+import udistrital.avanzada.pacman.protocolo.ResultadoLote;
+import udistrital.avanzada.pacman.protocolo.ResultadoMovimiento;
+import udistrital.avanzada.pacman.protocolo.TipoItem;
+
+import java.awt.Dimension;
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assume;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link Juego}: posición inicial, pasos de cuatro casillas,
+ * límites del área, lotes, puntaje de los ítems recogidos y memoria asignada
+ * por movimiento.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class JuegoTest {
+
+    private static final int ANCHO = 800;
+    private static final int ALTO = 600;
+
+    private static void assertDentro(Juego juego) {
+        PacMan p = juego.getPacMan();
+        assertTrue(p.getX() >= 0 && p.getX() <= ANCHO - p.getTamaño());
+        assertTrue(p.getY() >= 0 && p.getY() <= ALTO - p.getTamaño());
+    }
+
+    @Test
+    public void instantaneaInicial() {
+        Juego juego = new Juego(new Dimension(ANCHO, ALTO));
+        InstantaneaJuego inicial = juego.getInstantanea();
+        assertTrue(inicial.hayJuego());
+        assertTrue(inicial.hayPacMan());
+        assertEquals(ANCHO / 2 - inicial.getPacManTamaño() / 2, inicial.getPacManX());
+        assertEquals(ALTO / 2 - inicial.getPacManTamaño() / 2, inicial.getPacManY());
+        assertEquals(4, inicial.getCantidadItems());
+        Set<TipoItem> tipos = EnumSet.noneOf(TipoItem.class);
+        for (int i = 0; i < inicial.getCantidadItems(); i++) {
+            tipos.add(inicial.getTipoItem(i));
+            assertTrue(inicial.getItemX(i) >= 50 && inicial.getItemX(i) < ANCHO - 50);
+            assertTrue(inicial.getItemY(i) >= 50 && inicial.getItemY(i) < ALTO - 50);
+        }
+        assertEquals("Ítems repetidos", 4, tipos.size());
+        assertEquals(0, juego.getPuntaje());
+        assertFalse(juego.isJuegoTerminado());
+    }
+
+    @Test
+    public void cadaPasoAvanzaCuatroCasillas() {
+        Juego juego = new Juego(new Dimension(ANCHO, ALTO));
+        int x = juego.getPacMan().getX();
+        int y = juego.getPacMan().getY();
+        int paso = juego.getPacMan().getTamaño() * 4;
+        assertTrue(juego.procesarMovimiento(Direccion.ARRIBA).isExitoso());
+        assertEquals(y - paso, juego.getPacMan().getY());
+        assertTrue(juego.procesarMovimiento(Direccion.DERECHA).isExitoso());
+        assertEquals(x + paso, juego.getPacMan().getX());
+    }
+
+    @Test
+    public void limiteDelArea() {
+        Juego juego = new Juego(new Dimension(ANCHO, ALTO));
+        // Desde y = 290 caben tres pasos hacia arriba; el cuarto toca el borde
+        for (int i = 0; i < 3; i++) {
+            assertTrue(juego.procesarMovimiento(Direccion.ARRIBA).isExitoso());
+        }
+        ResultadoMovimiento limite = juego.procesarMovimiento(Direccion.ARRIBA);
+        assertEquals(ResultadoMovimiento.Codigo.LIMITE_ALCANZADO, limite.getCodigo());
+        assertFalse(limite.isExitoso());
+        assertDentro(juego);
+    }
+
+    @Test
+    public void loteCuentaLimites() {
+        Juego juego = new Juego(new Dimension(ANCHO, ALTO));
+        Direccion[] arriba = {Direccion.ARRIBA, Direccion.ARRIBA, Direccion.ARRIBA, Direccion.ARRIBA};
+        ResultadoLote lote = juego.procesarLote(arriba);
+        assertEquals(4, lote.getSolicitados());
+        assertEquals(4, lote.getAplicados());
+        assertEquals(1, lote.getLimites());
+        assertEquals(ResultadoMovimiento.Codigo.LIMITE_ALCANZADO, lote.getUltimo().getCodigo());
+        assertEquals(juego.getPuntaje(), lote.getUltimo().getPuntaje());
+    }
+
+    @Test
+    public void puntajeEsLaSumaDeLosItemsRecogidos() {
+        Juego juego = new Juego(new Dimension(ANCHO, ALTO));
+        InstantaneaJuego inicial = juego.getInstantanea();
+        Random azar = new Random(11);
+        Direccion[] direcciones = Direccion.values();
+        for (int i = 0; i < 2000 && !juego.isJuegoTerminado(); i++) {
+            juego.procesarMovimiento(direcciones[azar.nextInt(direcciones.length)]);
+            assertDentro(juego);
+        }
+        InstantaneaJuego actual = juego.getInstantanea();
+        Set<TipoItem> quedan = EnumSet.noneOf(TipoItem.class);
+        for (int i = 0; i < actual.getCantidadItems(); i++) {
+            quedan.add(actual.getTipoItem(i));
+        }
+        int esperado = 0;
+        for (int i = 0; i < inicial.getCantidadItems(); i++) {
+            if (!quedan.contains(inicial.getTipoItem(i))) {
+                esperado += inicial.getTipoItem(i).getPuntaje();
+            }
+        }
+        assertEquals(esperado, juego.getPuntaje());
+        assertEquals(actual.getCantidadItems() == 0, juego.isJuegoTerminado());
+        if (juego.isJuegoTerminado()) {
+            assertEquals(ResultadoMovimiento.Codigo.JUEGO_YA_TERMINADO,
+                juego.procesarMovimiento(Direccion.ABAJO).getCodigo());
+        }
+    }
+
+    @Test
+    public void procesarMovimientoNoAsignaMemoria() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean mx)
+                || !mx.isThreadAllocatedMemorySupported()) {
+            Assume.assumeTrue("La JVM no mide la memoria asignada por hilo", false);
+            return;
+        }
+        long hilo = Thread.currentThread().threadId();
+        Direccion[] direcciones = Direccion.values();
+        Juego juego = new Juego(new Dimension(ANCHO, ALTO));
+        // Diez pasos por dirección: llega al borde y prueba las alternativas. El
+        // puntaje solo cambia con los 4 ítems
+        for (int i = 0; i < 20_000; i++) {
+            juego.procesarMovimiento(direcciones[i / 10 % direcciones.length]);
+        }
+        int movimientos = 100_000;
+        long antes = mx.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < movimientos; i++) {
+            juego.procesarMovimiento(direcciones[i / 10 % direcciones.length]);
+        }
+        long asignados = mx.getThreadAllocatedBytes(hilo) - antes;
+        // Margen para un resultado nuevo por ítem recogido
+        assertTrue(asignados + " bytes en " + movimientos + " movimientos", asignados < 1024);
+    }
+}
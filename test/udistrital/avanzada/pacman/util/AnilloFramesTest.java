@@ -0,0 +1,130 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link AnilloFrames}: lectores al día, lectores atrasados que
+ * saltan al último frame independiente, avisos y cierre.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class AnilloFramesTest {
+
+    /** Frame delta mínimo; el segundo byte de la secuencia lo identifica. */
+    private static byte[] delta(boolean clave, int secuencia) {
+        byte[] frame = new byte[FramesDelta.CABECERA];
+        frame[0] = FramesDelta.MAGIA;
+        frame[1] = FramesDelta.TIPO_DELTA;
+        frame[2] = clave ? FramesDelta.CLAVE : 0;
+        frame[6] = (byte) secuencia;
+        return frame;
+    }
+
+    @Test
+    public void lectorAlDiaLeeTodoEnOrden() {
+        AnilloFrames anillo = new AnilloFrames(4);
+        AnilloFrames.Lector lector = anillo.nuevoLector(null);
+        for (int i = 0; i < 10; i++) {
+            byte[] frame = delta(i == 0, i);
+            anillo.publicar(frame);
+            assertSame(frame, lector.sondear());
+            assertNull(lector.sondear());
+        }
+        assertEquals(10, lector.getLeidos());
+        assertEquals(0, lector.getSaltados());
+    }
+
+    @Test
+    public void lectorNuevoEmpiezaEnElUltimoIndependiente() {
+        AnilloFrames anillo = new AnilloFrames(8);
+        anillo.publicar(delta(true, 0));
+        byte[] clave = delta(true, 1);
+        anillo.publicar(clave);
+        anillo.publicar(delta(false, 2));
+        assertTrue(anillo.tieneIndependiente());
+        AnilloFrames.Lector lector = anillo.nuevoLector(null);
+        assertSame(clave, lector.sondear());
+    }
+
+    @Test
+    public void lectorAtrasadoSaltaAlUltimoIndependiente() {
+        AnilloFrames anillo = new AnilloFrames(8);
+        AnilloFrames.Lector lector = anillo.nuevoLector(null);
+        anillo.publicar(delta(true, 0));
+        anillo.publicar(delta(false, 1));
+        byte[] clave = delta(true, 2);
+        anillo.publicar(clave);
+        byte[] siguiente = delta(false, 3);
+        anillo.publicar(siguiente);
+        assertSame(clave, lector.sondear());
+        assertSame(siguiente, lector.sondear());
+        assertEquals(2, lector.getSaltados());
+    }
+
+    @Test
+    public void lectorSuperadoSinIndependienteVaAlUltimo() {
+        AnilloFrames anillo = new AnilloFrames(4);
+        anillo.publicar(delta(true, 0));
+        AnilloFrames.Lector lector = anillo.nuevoLector(null);
+        byte[] ultimo = null;
+        for (int i = 1; i <= 10; i++) {
+            ultimo = delta(false, i);
+            anillo.publicar(ultimo);
+        }
+        assertFalse(anillo.tieneIndependiente());
+        assertSame(ultimo, lector.sondear());
+        assertNull(lector.sondear());
+    }
+
+    @Test
+    public void avisosHastaQueElLectorSeCierra() {
+        AnilloFrames anillo = new AnilloFrames(4);
+        AtomicInteger avisos = new AtomicInteger();
+        AnilloFrames.Lector lector = anillo.nuevoLector(avisos::incrementAndGet);
+        anillo.publicar(delta(true, 0));
+        anillo.publicar(delta(false, 1));
+        assertEquals(2, avisos.get());
+        lector.cerrar();
+        anillo.publicar(delta(false, 2));
+        assertEquals(2, avisos.get());
+    }
+
+    @Test
+    public void cerrarDespiertaALosLectores() throws InterruptedException {
+        AnilloFrames anillo = new AnilloFrames(4);
+        AtomicInteger avisos = new AtomicInteger();
+        AnilloFrames.Lector lector = anillo.nuevoLector(avisos::incrementAndGet);
+        Thread cierre = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            anillo.cerrar();
+        });
+        cierre.start();
+        assertNull(lector.tomar(5, TimeUnit.SECONDS));
+        assertTrue(lector.estaCerrado());
+        cierre.join();
+        assertEquals(1, avisos.get());
+        anillo.publicar(delta(true, 0));
+        assertNull(lector.sondear());
+    }
+
+    @Test
+    public void tomarEsperaElFrame() throws InterruptedException {
+        AnilloFrames anillo = new AnilloFrames(4);
+        AnilloFrames.Lector lector = anillo.nuevoLector(null);
+        assertNull(lector.tomar(10, TimeUnit.MILLISECONDS));
+        assertFalse(lector.estaCerrado());
+        byte[] frame = delta(true, 0);
+        Thread publicador = new Thread(() -> anillo.publicar(frame));
+        publicador.start();
+        assertSame(frame, lector.tomar(5, TimeUnit.SECONDS));
+        publicador.join();
+    }
+}
@@ -0,0 +1,208 @@
+package udistrital.avanzada.pacman.util;
+
+import udistrital.avanzada.pacman.protocolo.Direccion;
+import udistrital.avanzada.pacman.protocolo.ResultadoLote;
+import udistrital.avanzada.pacman.protocolo.ResultadoMovimiento;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link CodecBinario}: ida y vuelta de cada mensaje de control y
+ * rechazo de entradas corruptas.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class CodecBinarioTest {
+
+    /**
+     * Receptor que guarda los eventos del codec.
+     */
+    private static final class Eventos implements CodecProtocolo.Receptor {
+
+        int saludos = 0;
+        ByteBuffer rechazo;
+        final List<MensajeProtocolo> mensajes = new ArrayList<>();
+
+        @Override
+        public void alSaludo() {
+            saludos++;
+        }
+
+        @Override
+        public void alRechazarSaludo(ByteBuffer respuesta) {
+            rechazo = respuesta;
+        }
+
+        @Override
+        public void alMensaje(MensajeProtocolo mensaje) {
+            mensajes.add(mensaje);
+        }
+    }
+
+    private static List<MensajeProtocolo> mensajes() {
+        ResultadoMovimiento ultimo = new ResultadoMovimiento(ResultadoMovimiento.Codigo.LIMITE_ALCANZADO, 35);
+        return Arrays.asList(
+            MensajeProtocolo.texto("usuario:contraseña ñandú"),
+            MensajeProtocolo.movimiento(Direccion.IZQUIERDA),
+            MensajeProtocolo.resultado(new ResultadoMovimiento(ResultadoMovimiento.Codigo.ITEM_RECOGIDO, 20)),
+            MensajeProtocolo.finJuego(120, 42L),
+            MensajeProtocolo.loteMovimientos(new Direccion[] {Direccion.ARRIBA, Direccion.DERECHA, Direccion.ABAJO}),
+            MensajeProtocolo.resultadoLote(new ResultadoLote(3, 3, 1, ultimo)),
+            MensajeProtocolo.ping(123456789L),
+            MensajeProtocolo.pong(-1L));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] b = new byte[buffer.remaining()];
+        buffer.duplicate().get(b);
+        return b;
+    }
+
+    /** Saludo válido seguido de todos los mensajes codificados. */
+    private static byte[] flujoCompleto(CodecBinario codec) throws IOException {
+        ByteArrayOutputStream flujo = new ByteArrayOutputStream();
+        flujo.write(bytes(CodecBinario.saludo(CodecBinario.VERSION)));
+        for (MensajeProtocolo m : mensajes()) {
+            flujo.write(bytes(codec.codificar(m)));
+        }
+        return flujo.toByteArray();
+    }
+
+    private static void verificarMensajes(List<MensajeProtocolo> recibidos) {
+        List<MensajeProtocolo> esperados = mensajes();
+        assertEquals(esperados.size(), recibidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            assertEquals(esperados.get(i).getTipo(), recibidos.get(i).getTipo());
+            assertEquals(esperados.get(i).toTexto(), recibidos.get(i).toTexto());
+        }
+    }
+
+    @Test
+    public void idaYVueltaDeUnaVez() throws IOException {
+        CodecBinario codec = new CodecBinario();
+        Eventos eventos = new Eventos();
+        codec.alimentar(ByteBuffer.wrap(flujoCompleto(codec)), eventos);
+        assertEquals(1, eventos.saludos);
+        verificarMensajes(eventos.mensajes);
+    }
+
+    @Test
+    public void idaYVueltaByteAByte() throws IOException {
+        CodecBinario codec = new CodecBinario();
+        Eventos eventos = new Eventos();
+        for (byte b : flujoCompleto(codec)) {
+            codec.alimentar(ByteBuffer.wrap(new byte[] {b}), eventos);
+        }
+        assertEquals(1, eventos.saludos);
+        verificarMensajes(eventos.mensajes);
+    }
+
+    @Test
+    public void leerDeFlujoBloqueante() throws IOException {
+        CodecBinario codec = new CodecBinario();
+        byte[] flujo = flujoCompleto(codec);
+        DataInputStream entrada = new DataInputStream(
+            new ByteArrayInputStream(flujo, CodecBinario.LONGITUD_SALUDO, flujo.length));
+        List<MensajeProtocolo> recibidos = new ArrayList<>();
+        for (int i = 0; i < mensajes().size(); i++) {
+            recibidos.add(CodecBinario.leer(entrada, f -> fail("No se esperaba un frame"), CodecProtocolo.MAX_CONTROL));
+        }
+        verificarMensajes(recibidos);
+    }
+
+    @Test
+    public void leerFrame() throws IOException {
+        byte[] frame = new byte[5000];
+        Arrays.fill(frame, (byte) 7);
+        ByteBuffer cabecera = ByteBuffer.allocate(CodecProtocolo.MAX_CABECERA_FRAME);
+        new CodecBinario().escribirCabeceraFrame(cabecera, frame.length);
+        ByteArrayOutputStream flujo = new ByteArrayOutputStream();
+        flujo.write(cabecera.array(), 0, cabecera.position());
+        flujo.write(frame);
+        List<FrameRecibido> frames = new ArrayList<>();
+        MensajeProtocolo m = CodecBinario.leer(new DataInputStream(new ByteArrayInputStream(flujo.toByteArray())),
+            frames::add, ManejadorSockets.MAX_FRAME);
+        assertNull(m);
+        assertEquals(1, frames.size());
+        assertArrayEquals(frame, frames.get(0).copiar());
+        frames.get(0).devolver();
+    }
+
+    @Test(expected = EOFException.class)
+    public void leerMensajeTruncado() throws IOException {
+        byte[] movimiento = bytes(new CodecBinario().codificar(MensajeProtocolo.movimiento(Direccion.ABAJO)));
+        CodecBinario.leer(new DataInputStream(new ByteArrayInputStream(movimiento, 0, movimiento.length - 1)),
+            f -> { }, CodecProtocolo.MAX_CONTROL);
+    }
+
+    @Test(expected = IOException.class)
+    public void leerFrameMayorAlMaximo() throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(CodecProtocolo.MAX_CABECERA_FRAME);
+        new CodecBinario().escribirCabeceraFrame(cabecera, CodecProtocolo.MAX_CONTROL + 1);
+        CodecBinario.leer(new DataInputStream(new ByteArrayInputStream(cabecera.array())),
+            f -> fail("No se esperaba un frame"), CodecProtocolo.MAX_CONTROL);
+    }
+
+    @Test(expected = IOException.class)
+    public void magiaInvalida() throws IOException {
+        new CodecBinario().alimentar(ByteBuffer.wrap(new byte[] {'X', 'M', CodecBinario.VERSION}), new Eventos());
+    }
+
+    @Test
+    public void versionNoSoportadaSeRechaza() throws IOException {
+        CodecBinario codec = new CodecBinario();
+        Eventos eventos = new Eventos();
+        codec.alimentar(ByteBuffer.wrap(new byte[] {'P', 'M', 9, 0, 0, 0, 2, 3, 1}), eventos);
+        assertEquals(0, eventos.saludos);
+        assertArrayEquals(new byte[] {'P', 'M', 0}, bytes(eventos.rechazo));
+        // Lo que llega después del rechazo se descarta sin error
+        codec.alimentar(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6}), eventos);
+        assertTrue(eventos.mensajes.isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void mensajeMayorAlMaximoDeControl() throws IOException {
+        ByteBuffer b = CodecBinario.saludo(CodecBinario.VERSION);
+        ByteBuffer flujo = ByteBuffer.allocate(16).put(b).putInt(CodecProtocolo.MAX_CONTROL + 2).put((byte) 1);
+        new CodecBinario().alimentar(flujo.flip(), new Eventos());
+    }
+
+    @Test(expected = IOException.class)
+    public void longitudCero() throws IOException {
+        ByteBuffer flujo = ByteBuffer.allocate(16).put(CodecBinario.saludo(CodecBinario.VERSION))
+            .putInt(0).put((byte) 1);
+        new CodecBinario().alimentar(flujo.flip(), new Eventos());
+    }
+
+    @Test(expected = IOException.class)
+    public void tipoDesconocido() throws IOException {
+        ByteBuffer flujo = ByteBuffer.allocate(16).put(CodecBinario.saludo(CodecBinario.VERSION))
+            .putInt(2).put((byte) 99).put((byte) 0);
+        new CodecBinario().alimentar(flujo.flip(), new Eventos());
+    }
+
+    @Test(expected = IOException.class)
+    public void direccionDesconocida() throws IOException {
+        ByteBuffer flujo = ByteBuffer.allocate(16).put(CodecBinario.saludo(CodecBinario.VERSION))
+            .putInt(2).put((byte) MensajeProtocolo.Tipo.MOVIMIENTO.getValor()).put((byte) 9);
+        new CodecBinario().alimentar(flujo.flip(), new Eventos());
+    }
+
+    @Test(expected = IOException.class)
+    public void loteConCantidadIncoherente() throws IOException {
+        ByteBuffer flujo = ByteBuffer.allocate(16).put(CodecBinario.saludo(CodecBinario.VERSION))
+            .putInt(3).put((byte) MensajeProtocolo.Tipo.LOTE_MOVIMIENTOS.getValor()).put((byte) 5).put((byte) 1);
+        new CodecBinario().alimentar(flujo.flip(), new Eventos());
+    }
+}
@@ -0,0 +1,183 @@
+package udistrital.avanzada.pacman.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link FramesPaleta} con {@link DecodificadorPaleta}: ida y
+ * vuelta exacta con y sin compresión y rechazo de frames corruptos, truncados
+ * o con cabeceras de más del tamaño máximo.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class DecodificadorPaletaTest {
+
+    /** Imagen con bloques de colores de la paleta, corridas cortas y largas. */
+    private static BufferedImage imagen(int ancho, int alto, long semilla) {
+        BufferedImage img = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Random azar = new Random(semilla);
+        int x = 0;
+        int y = 0;
+        while (y < alto) {
+            int color = FramesPaleta.PALETA[azar.nextInt(FramesPaleta.PALETA.length)];
+            int largo = azar.nextBoolean() ? 1 + azar.nextInt(4) : 1 + azar.nextInt(3 * ancho);
+            for (int i = 0; i < largo && y < alto; i++) {
+                img.setRGB(x, y, color);
+                if (++x == ancho) {
+                    x = 0;
+                    y++;
+                }
+            }
+        }
+        return img;
+    }
+
+    private static void assertIguales(BufferedImage esperada, BufferedImage obtenida) {
+        assertEquals(esperada.getWidth(), obtenida.getWidth());
+        assertEquals(esperada.getHeight(), obtenida.getHeight());
+        int[] a = esperada.getRGB(0, 0, esperada.getWidth(), esperada.getHeight(), null, 0, esperada.getWidth());
+        int[] b = obtenida.getRGB(0, 0, obtenida.getWidth(), obtenida.getHeight(), null, 0, obtenida.getWidth());
+        assertArrayEquals(a, b);
+    }
+
+    /** Frame sin comprimir con la paleta completa y las corridas dadas. */
+    private static byte[] frame(int ancho, int alto, int colores, byte... corridas) {
+        ByteBuffer b = ByteBuffer.allocate(FramesPaleta.CABECERA + colores * 3 + corridas.length);
+        b.put(FramesPaleta.MAGIA).put(FramesPaleta.TIPO_PALETA).put((byte) 0).putInt(1)
+            .putShort((short) ancho).putShort((short) alto).put((byte) colores);
+        for (int i = 0; i < colores; i++) {
+            int color = FramesPaleta.PALETA[i % FramesPaleta.PALETA.length];
+            b.put((byte) (color >>> 16)).put((byte) (color >>> 8)).put((byte) color);
+        }
+        return b.put(corridas).array();
+    }
+
+    private static void assertRechaza(byte[] datos, int longitud) {
+        try {
+            new DecodificadorPaleta().decodificar(datos, longitud, null);
+            fail("Se esperaba IOException");
+        } catch (IOException e) {
+            // esperado
+        }
+    }
+
+    @Test
+    public void idaYVueltaExacta() throws IOException {
+        DecodificadorPaleta decodificador = new DecodificadorPaleta();
+        for (boolean comprimir : new boolean[] {false, true}) {
+            BufferedImage img = imagen(197, 131, comprimir ? 1 : 2);
+            byte[] datos = FramesPaleta.codificar(img, 7, comprimir);
+            assertTrue(FramesPaleta.esPaleta(datos, datos.length));
+            assertIguales(img, decodificador.decodificar(datos, datos.length, null));
+        }
+    }
+
+    @Test
+    public void reutilizaElDestino() throws IOException {
+        DecodificadorPaleta decodificador = new DecodificadorPaleta();
+        BufferedImage primera = imagen(64, 48, 3);
+        byte[] datos = FramesPaleta.codificar(primera, 1, true);
+        BufferedImage destino = decodificador.decodificar(datos, datos.length, null);
+        BufferedImage segunda = imagen(64, 48, 4);
+        datos = FramesPaleta.codificar(segunda, 2, true);
+        assertSame(destino, decodificador.decodificar(datos, datos.length, destino));
+        assertIguales(segunda, destino);
+        assertEquals(1, decodificador.getNuevas());
+        assertEquals(1, decodificador.getReutilizadas());
+    }
+
+    @Test
+    public void frameTruncado() {
+        for (boolean comprimir : new boolean[] {false, true}) {
+            byte[] datos = FramesPaleta.codificar(imagen(80, 60, 5), 1, comprimir);
+            assertRechaza(datos, datos.length - 1);
+            assertRechaza(datos, FramesPaleta.CABECERA + 10);
+            assertRechaza(datos, FramesPaleta.CABECERA - 1);
+        }
+    }
+
+    @Test
+    public void cabeceraInvalida() {
+        // Sin colores, más colores que el máximo, tamaño cero y magia ajena
+        assertRechaza(frame(2, 2, 0, (byte) 0x03), FramesPaleta.CABECERA + 1);
+        byte[] demasiados = frame(2, 2, 1, (byte) 0x03);
+        demasiados[11] = (byte) (FramesPaleta.MAX_COLORES + 1);
+        assertRechaza(demasiados, demasiados.length);
+        byte[] vacio = frame(0, 2, 1, (byte) 0x03);
+        assertRechaza(vacio, vacio.length);
+        byte[] ajeno = frame(2, 2, 1, (byte) 0x03);
+        ajeno[1] = 'X';
+        assertRechaza(ajeno, ajeno.length);
+    }
+
+    @Test
+    public void cabeceraDemasiadoGrande() {
+        // 65535x65535 desborda un int; con corridas que dicen cubrirla
+        byte[] enorme = frame(0xFFFF, 0xFFFF, 1, (byte) 0x0F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x7F);
+        assertRechaza(enorme, enorme.length);
+        byte[] ancho = frame(FramesPaleta.MAX_LADO + 1, 1, 1, (byte) 0x0F, (byte) 0xF2, (byte) 0x0F);
+        assertRechaza(ancho, ancho.length);
+        byte[] alto = frame(1, FramesPaleta.MAX_LADO + 1, 1, (byte) 0x0F, (byte) 0xF2, (byte) 0x0F);
+        assertRechaza(alto, alto.length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void codificarImagenDemasiadoGrande() {
+        FramesPaleta.codificar(new BufferedImage(FramesPaleta.MAX_LADO + 1, 1, BufferedImage.TYPE_INT_RGB), 1, false);
+    }
+
+    @Test
+    public void frameInvalidoNoTocaElDestino() throws IOException {
+        DecodificadorPaleta decodificador = new DecodificadorPaleta();
+        BufferedImage img = imagen(40, 30, 8);
+        byte[] datos = FramesPaleta.codificar(img, 1, false);
+        BufferedImage destino = decodificador.decodificar(datos, datos.length, null);
+        byte[] otro = FramesPaleta.codificar(imagen(40, 30, 9), 2, false);
+        try {
+            decodificador.decodificar(otro, otro.length - 1, destino);
+            fail("Se esperaba IOException");
+        } catch (IOException e) {
+            // esperado
+        }
+        assertIguales(img, destino);
+        assertEquals(1, decodificador.getNuevas());
+        assertEquals(0, decodificador.getReutilizadas());
+    }
+
+    @Test
+    public void corridasInvalidas() throws IOException {
+        // 2x2 de un solo color: una corrida de 4 píxeles
+        byte[] valido = frame(2, 2, 1, (byte) 0x03);
+        BufferedImage img = new DecodificadorPaleta().decodificar(valido, valido.length, null);
+        assertEquals(FramesPaleta.PALETA[0], img.getRGB(1, 1) & 0xFFFFFF);
+        // Corrida más larga que la imagen
+        byte[] larga = frame(2, 2, 1, (byte) 0x04);
+        assertRechaza(larga, larga.length);
+        // Índice fuera de la paleta
+        byte[] indice = frame(2, 2, 1, (byte) 0x13);
+        assertRechaza(indice, indice.length);
+        // Largo extendido sin terminar
+        byte[] extendido = frame(2, 2, 1, (byte) 0x0F, (byte) 0x80);
+        assertRechaza(extendido, extendido.length);
+        // Corridas de menos y bytes sobrantes
+        byte[] corta = frame(2, 2, 1, (byte) 0x02);
+        assertRechaza(corta, corta.length);
+        byte[] sobrante = frame(2, 2, 1, (byte) 0x03, (byte) 0x00);
+        assertRechaza(sobrante, sobrante.length);
+    }
+
+    @Test
+    public void comprimidoCorrupto() {
+        byte[] datos = FramesPaleta.codificar(imagen(80, 60, 6), 1, true);
+        int carga = FramesPaleta.CABECERA + FramesPaleta.PALETA.length * 3;
+        byte[] corrupto = Arrays.copyOf(datos, datos.length);
+        Arrays.fill(corrupto, carga, corrupto.length, (byte) 0xFF);
+        assertRechaza(corrupto, corrupto.length);
+    }
+}
@@ -0,0 +1,186 @@
+package udistrital.avanzada.pacman.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link LectorGrabacion}: el índice {@code .pidx} solo se usa en
+ * los límites de frames independientes del video, al abrir solo se recorren
+ * los frames posteriores al índice y se leen grabaciones de más de 2 GB.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class LectorGrabacionTest {
+
+    /** Frames de prueba: independiente, delta, independiente. */
+    private static final byte[][] FRAMES = {
+        {1, 2, 3, 4},
+        delta(),
+        {5, 6, 7, 8, 9}
+    };
+
+    private Path carpeta;
+
+    @After
+    public void borrar() throws IOException {
+        if (carpeta != null) {
+            try (var archivos = Files.list(carpeta)) {
+                for (Path p : (Iterable<Path>) archivos::iterator) {
+                    Files.delete(p);
+                }
+            }
+            Files.delete(carpeta);
+        }
+    }
+
+    @Test
+    public void indiceValidoSeUsa() throws IOException {
+        Path video = grabar(entrada(0), entrada(2));
+        try (LectorGrabacion lector = new LectorGrabacion(video)) {
+            assertEquals(3, lector.getFrames());
+            assertEquals(200, lector.getDuracionMs());
+            assertEquals(2, lector.getFramesIndexados());
+            assertEquals(200, lector.buscar(250));
+            assertArrayEquals(FRAMES[2], lector.siguiente().getDatos());
+            assertNull(lector.siguiente());
+        }
+    }
+
+    @Test
+    public void sinIndiceSeRecorreElVideo() throws IOException {
+        Path video = grabar((long[][]) null);
+        try (LectorGrabacion lector = new LectorGrabacion(video)) {
+            assertEquals(3, lector.getFrames());
+            assertEquals(2, lector.getFramesIndexados());
+            assertEquals(0, lector.buscar(150));
+            assertArrayEquals(FRAMES[0], lector.siguiente().getDatos());
+        }
+    }
+
+    @Test
+    public void entradaFueraDeLimiteSeDescarta() throws IOException {
+        // La última entrada cae dentro del primer frame
+        Path video = grabar(entrada(0), new long[] {200, posicion(0) + 3, 1});
+        try (LectorGrabacion lector = new LectorGrabacion(video)) {
+            assertEquals(2, lector.getFramesIndexados());
+            assertEquals(200, lector.buscar(250));
+            assertArrayEquals(FRAMES[2], lector.siguiente().getDatos());
+            assertEquals(0, lector.buscar(50));
+            assertArrayEquals(FRAMES[0], lector.siguiente().getDatos());
+        }
+    }
+
+    @Test
+    public void entradaEnFrameDeltaSeDescarta() throws IOException {
+        Path video = grabar(entrada(0), entrada(1));
+        try (LectorGrabacion lector = new LectorGrabacion(video)) {
+            assertEquals(2, lector.getFramesIndexados());
+            assertEquals(0, lector.buscar(150));
+            assertArrayEquals(FRAMES[0], lector.siguiente().getDatos());
+        }
+    }
+
+    @Test
+    public void entradaIntermediaInvalidaSeSaltaAlBuscar() throws IOException {
+        Path video = grabar(entrada(0), new long[] {150, posicion(0) + 3, 1}, entrada(2));
+        try (LectorGrabacion lector = new LectorGrabacion(video)) {
+            assertEquals(3, lector.getFrames());
+            assertEquals(0, lector.buscar(180));
+            assertArrayEquals(FRAMES[0], lector.siguiente().getDatos());
+            assertEquals(200, lector.buscar(250));
+            assertArrayEquals(FRAMES[2], lector.siguiente().getDatos());
+        }
+    }
+
+    @Test
+    public void grabacionDeMasDeDosGb() throws IOException {
+        carpeta = Files.createTempDirectory("grabacion");
+        Path video = carpeta.resolve("larga" + GrabacionVideo.EXTENSION_VIDEO);
+        int grande = Integer.MAX_VALUE - 100;
+        long segundo = GrabacionVideo.CABECERA_VIDEO + GrabacionVideo.CABECERA_FRAME + (long) grande;
+        byte[] ultimo = FRAMES[2];
+        // Archivo disperso: los datos del primer frame no ocupan disco
+        try (FileChannel c = FileChannel.open(video, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE, StandardOpenOption.SPARSE)) {
+            ByteBuffer b = ByteBuffer.allocate(GrabacionVideo.CABECERA_VIDEO + GrabacionVideo.CABECERA_FRAME);
+            b.putInt(GrabacionVideo.MAGIA_VIDEO).putInt(GrabacionVideo.VERSION).putLong(0)
+                .putInt(grande).putInt(0).putLong(0).flip();
+            c.write(b, 0);
+            ByteBuffer f = ByteBuffer.allocate(GrabacionVideo.CABECERA_FRAME + ultimo.length);
+            f.putInt(ultimo.length).putInt(1).putLong(100).put(ultimo).flip();
+            c.write(f, segundo);
+        }
+        escribirIndice(video, new long[] {0, GrabacionVideo.CABECERA_VIDEO, 0}, new long[] {100, segundo, 1});
+        try (LectorGrabacion lector = new LectorGrabacion(video)) {
+            assertEquals(2, lector.getFrames());
+            assertEquals(100, lector.getDuracionMs());
+            assertEquals(100, lector.buscar(150));
+            LectorGrabacion.FrameGrabado frame = lector.siguiente();
+            assertEquals(1, frame.getSecuencia());
+            assertArrayEquals(ultimo, frame.getDatos());
+            assertNull(lector.siguiente());
+        }
+    }
+
+    /**
+     * @return posición en el video del frame {@code i}
+     */
+    private static long posicion(int i) {
+        long p = GrabacionVideo.CABECERA_VIDEO;
+        for (int k = 0; k < i; k++) {
+            p += GrabacionVideo.CABECERA_FRAME + FRAMES[k].length;
+        }
+        return p;
+    }
+
+    /**
+     * @return la entrada del índice (tiempo, posición y secuencia) del frame {@code i}
+     */
+    private static long[] entrada(int i) {
+        return new long[] {i * 100L, posicion(i), i};
+    }
+
+    private static byte[] delta() {
+        byte[] d = new byte[FramesDelta.CABECERA];
+        d[0] = FramesDelta.MAGIA;
+        d[1] = FramesDelta.TIPO_DELTA;
+        return d;
+    }
+
+    /**
+     * Escribe {@link #FRAMES}, el frame {@code i} con secuencia {@code i} a los
+     * {@code i * 100} ms, y un índice con las entradas dadas (ninguno si es null).
+     */
+    private Path grabar(long[]... indice) throws IOException {
+        carpeta = Files.createTempDirectory("grabacion");
+        Path video = carpeta.resolve("prueba" + GrabacionVideo.EXTENSION_VIDEO);
+        ByteBuffer v = ByteBuffer.allocate((int) posicion(FRAMES.length));
+        v.putInt(GrabacionVideo.MAGIA_VIDEO).putInt(GrabacionVideo.VERSION).putLong(0);
+        for (int i = 0; i < FRAMES.length; i++) {
+            v.putInt(FRAMES[i].length).putInt(i).putLong(i * 100L).put(FRAMES[i]);
+        }
+        Files.write(video, v.array());
+        if (indice != null) {
+            escribirIndice(video, indice);
+        }
+        return video;
+    }
+
+    private static void escribirIndice(Path video, long[]... entradas) throws IOException {
+        ByteBuffer x = ByteBuffer.allocate(GrabacionVideo.CABECERA_INDICE
+            + entradas.length * GrabacionVideo.ENTRADA_INDICE);
+        x.putInt(GrabacionVideo.MAGIA_INDICE).putInt(GrabacionVideo.VERSION);
+        for (long[] e : entradas) {
+            x.putLong(e[0]).putLong(e[1]).putInt((int) e[2]);
+        }
+        Files.write(GrabacionVideo.indiceDe(video), x.array());
+    }
+}
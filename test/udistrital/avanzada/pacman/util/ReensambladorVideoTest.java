@@ -0,0 +1,133 @@
+package udistrital.avanzada.pacman.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link ReensambladorVideo} con datagramas armados a mano en el
+ * formato de {@link FragmentosVideo}.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class ReensambladorVideoTest {
+
+    private static final int CARGA = 100;
+
+    private static byte[] frame(int longitud, int semilla) {
+        byte[] datos = new byte[longitud];
+        new Random(semilla).nextBytes(datos);
+        return datos;
+    }
+
+    /** Fragmentos de un frame, en orden. */
+    private static List<ByteBuffer> fragmentos(int secuencia, byte[] frame) {
+        int total = (frame.length + CARGA - 1) / CARGA;
+        List<ByteBuffer> lista = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            int desde = i * CARGA;
+            int tam = Math.min(CARGA, frame.length - desde);
+            ByteBuffer b = ByteBuffer.allocate(FragmentosVideo.CABECERA + tam);
+            b.put(FragmentosVideo.MAGIA).put(FragmentosVideo.TIPO_FRAGMENTO).putInt(secuencia)
+                .putShort((short) i).putShort((short) total).putInt(desde).putInt(frame.length)
+                .put(frame, desde, tam).flip();
+            lista.add(b);
+        }
+        return lista;
+    }
+
+    private static FrameRecibido alimentar(ReensambladorVideo reensamblador, List<ByteBuffer> datagramas) {
+        FrameRecibido listo = null;
+        for (ByteBuffer d : datagramas) {
+            FrameRecibido f = reensamblador.alimentar(d.duplicate());
+            if (f != null) {
+                assertNull("Solo un frame completo por lote", listo);
+                listo = f;
+            }
+        }
+        return listo;
+    }
+
+    private static void assertFrame(byte[] esperado, FrameRecibido recibido) {
+        assertNotNull(recibido);
+        assertArrayEquals(esperado, recibido.copiar());
+        recibido.devolver();
+    }
+
+    @Test
+    public void fragmentosDesordenadosYDuplicados() {
+        ReensambladorVideo reensamblador = new ReensambladorVideo();
+        byte[] datos = frame(1050, 1);
+        List<ByteBuffer> datagramas = fragmentos(1, datos);
+        List<ByteBuffer> mezcla = new ArrayList<>(datagramas);
+        mezcla.add(datagramas.get(3));
+        Collections.shuffle(mezcla, new Random(2));
+        // El duplicado puede quedar al final, después de completar el frame
+        FrameRecibido listo = alimentar(reensamblador, mezcla);
+        assertFrame(datos, listo);
+        assertEquals(1, reensamblador.getCompletos());
+    }
+
+    @Test
+    public void frameNuevoDescartaElIncompleto() {
+        ReensambladorVideo reensamblador = new ReensambladorVideo();
+        List<ByteBuffer> viejo = fragmentos(1, frame(500, 3));
+        assertNull(alimentar(reensamblador, viejo.subList(0, 3)));
+        byte[] datos = frame(300, 4);
+        assertFrame(datos, alimentar(reensamblador, fragmentos(2, datos)));
+        assertEquals(1, reensamblador.getIncompletos());
+        // Lo que falte del frame viejo llega tarde
+        assertNull(alimentar(reensamblador, viejo.subList(3, viejo.size())));
+        assertEquals(2, reensamblador.getTardios());
+    }
+
+    @Test
+    public void frameYaEntregadoEsTardio() {
+        ReensambladorVideo reensamblador = new ReensambladorVideo();
+        byte[] datos = frame(250, 5);
+        List<ByteBuffer> datagramas = fragmentos(7, datos);
+        assertFrame(datos, alimentar(reensamblador, datagramas));
+        assertNull(alimentar(reensamblador, datagramas));
+        assertNull(alimentar(reensamblador, fragmentos(6, frame(100, 6))));
+        assertEquals(4, reensamblador.getTardios());
+    }
+
+    @Test
+    public void secuenciaQueDaLaVuelta() {
+        ReensambladorVideo reensamblador = new ReensambladorVideo();
+        byte[] primero = frame(150, 7);
+        byte[] segundo = frame(150, 8);
+        assertFrame(primero, alimentar(reensamblador, fragmentos(Integer.MAX_VALUE, primero)));
+        assertFrame(segundo, alimentar(reensamblador, fragmentos(Integer.MIN_VALUE, segundo)));
+    }
+
+    @Test
+    public void datagramasInvalidosSeIgnoran() {
+        ReensambladorVideo reensamblador = new ReensambladorVideo();
+        byte[] datos = frame(200, 9);
+        List<ByteBuffer> datagramas = fragmentos(1, datos);
+
+        ByteBuffer corto = ByteBuffer.wrap(new byte[FragmentosVideo.CABECERA - 1]);
+        ByteBuffer ajeno = datagramas.get(0).duplicate();
+        ajeno = ByteBuffer.wrap(Arrays.copyOf(ajeno.array(), ajeno.limit()));
+        ajeno.put(1, (byte) 'X');
+        ByteBuffer fueraDeRango = ByteBuffer.wrap(Arrays.copyOf(datagramas.get(1).array(), datagramas.get(1).limit()));
+        fueraDeRango.putInt(10, 190);
+        // Con la suma, el desplazamiento más el tamaño da la vuelta y parece válido
+        ByteBuffer desborde = ByteBuffer.wrap(Arrays.copyOf(datagramas.get(1).array(), datagramas.get(1).limit()));
+        desborde.putInt(10, Integer.MAX_VALUE - 10);
+        ByteBuffer enorme = ByteBuffer.wrap(Arrays.copyOf(datagramas.get(0).array(), datagramas.get(0).limit()));
+        enorme.putInt(14, ManejadorSockets.MAX_FRAME + 1);
+        for (ByteBuffer malo : Arrays.asList(corto, ajeno, fueraDeRango, desborde, enorme)) {
+            assertNull(reensamblador.alimentar(malo));
+        }
+        assertFrame(datos, alimentar(reensamblador, datagramas));
+        assertEquals(0, reensamblador.getIncompletos());
+    }
+}
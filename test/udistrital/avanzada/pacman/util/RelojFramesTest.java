@@ -0,0 +1,89 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link RelojFrames}: ticks crecientes, series en orden,
+ * cancelación y detención.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class RelojFramesTest {
+
+    private final RuedaTemporizadores rueda = new RuedaTemporizadores(1, TimeUnit.MILLISECONDS, 64, "RuedaPrueba");
+    private final RelojFrames reloj = new RelojFrames(5, TimeUnit.MILLISECONDS, rueda, 2, "RelojPrueba");
+
+    @After
+    public void detener() {
+        reloj.detener();
+        rueda.detener();
+    }
+
+    @Test
+    public void ticksCrecientes() throws InterruptedException {
+        List<Long> numeros = new ArrayList<>();
+        CountDownLatch diez = new CountDownLatch(10);
+        RelojFrames.Suscripcion s = reloj.suscribir(n -> {
+            synchronized (numeros) {
+                numeros.add(n);
+            }
+            diez.countDown();
+        });
+        assertTrue(diez.await(5, TimeUnit.SECONDS));
+        s.cancelar();
+        synchronized (numeros) {
+            for (int i = 1; i < numeros.size(); i++) {
+                assertTrue("Tick repetido o atrasado: " + numeros, numeros.get(i) > numeros.get(i - 1));
+            }
+        }
+        assertEquals(0, reloj.getSuscripciones());
+    }
+
+    @Test
+    public void serieEjecutaEnOrden() throws InterruptedException {
+        RelojFrames.Serie serie = reloj.nuevaSerie();
+        List<Integer> orden = new ArrayList<>();
+        CountDownLatch listas = new CountDownLatch(1);
+        for (int i = 0; i < 1000; i++) {
+            int k = i;
+            serie.execute(() -> orden.add(k));
+        }
+        serie.programar(listas::countDown, 10, TimeUnit.MILLISECONDS);
+        assertTrue(listas.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), orden.get(i));
+        }
+    }
+
+    @Test
+    public void canceladaNoRecibeTicks() throws InterruptedException {
+        AtomicInteger recibidos = new AtomicInteger();
+        reloj.suscribir(n -> recibidos.incrementAndGet()).cancelar();
+        CountDownLatch testigo = new CountDownLatch(3);
+        RelojFrames.Suscripcion otra = reloj.suscribir(n -> testigo.countDown());
+        assertTrue(testigo.await(5, TimeUnit.SECONDS));
+        otra.cancelar();
+        assertEquals(0, recibidos.get());
+    }
+
+    @Test
+    public void detenidoNoEjecutaNada() throws InterruptedException {
+        reloj.detener();
+        AtomicInteger ejecutadas = new AtomicInteger();
+        reloj.suscribir(n -> ejecutadas.incrementAndGet());
+        RelojFrames.Serie serie = reloj.nuevaSerie();
+        serie.execute(ejecutadas::incrementAndGet);
+        serie.programar(ejecutadas::incrementAndGet, 0, TimeUnit.MILLISECONDS);
+        Thread.sleep(50);
+        assertEquals(0, ejecutadas.get());
+        assertEquals(0, reloj.getSuscripciones());
+    }
+}
@@ -0,0 +1,74 @@
+package udistrital.avanzada.pacman.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas de {@link RuedaTemporizadores}: vencimiento, plazos de varias
+ * vueltas, cancelación y detención.
+ *
+ * @author And_Gar03
+ * @version 1.0
+ */
+public class RuedaTemporizadoresTest {
+
+    private final RuedaTemporizadores rueda = new RuedaTemporizadores(5, TimeUnit.MILLISECONDS, 8, "RuedaPrueba");
+
+    @After
+    public void detener() {
+        rueda.detener();
+    }
+
+    @Test
+    public void venceDespuesDelRetraso() throws InterruptedException {
+        CountDownLatch vencido = new CountDownLatch(1);
+        long inicio = System.nanoTime();
+        rueda.programar(30, TimeUnit.MILLISECONDS, vencido::countDown);
+        assertTrue(vencido.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(30));
+    }
+
+    @Test
+    public void plazoDeVariasVueltas() throws InterruptedException {
+        // 8 ranuras de 5 ms: 100 ms son dos vueltas y media
+        CountDownLatch vencido = new CountDownLatch(1);
+        long inicio = System.nanoTime();
+        rueda.programar(100, TimeUnit.MILLISECONDS, vencido::countDown);
+        assertTrue(vencido.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - inicio >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void cancelarEvitaLaEjecucion() throws InterruptedException {
+        AtomicInteger ejecutadas = new AtomicInteger();
+        RuedaTemporizadores.Temporizador t = rueda.programar(40, TimeUnit.MILLISECONDS, ejecutadas::incrementAndGet);
+        assertTrue(t.cancelar());
+        assertFalse(t.cancelar());
+        CountDownLatch testigo = new CountDownLatch(1);
+        rueda.programar(80, TimeUnit.MILLISECONDS, testigo::countDown);
+        assertTrue(testigo.await(5, TimeUnit.SECONDS));
+        assertEquals(0, ejecutadas.get());
+    }
+
+    @Test
+    public void noSeCancelaUnoVencido() throws InterruptedException {
+        CountDownLatch vencido = new CountDownLatch(1);
+        RuedaTemporizadores.Temporizador t = rueda.programar(0, TimeUnit.MILLISECONDS, vencido::countDown);
+        assertTrue(vencido.await(5, TimeUnit.SECONDS));
+        assertFalse(t.cancelar());
+    }
+
+    @Test
+    public void detenidaNoEjecutaPendientes() throws InterruptedException {
+        AtomicInteger ejecutadas = new AtomicInteger();
+        rueda.programar(30, TimeUnit.MILLISECONDS, ejecutadas::incrementAndGet);
+        rueda.detener();
+        rueda.programar(0, TimeUnit.MILLISECONDS, ejecutadas::incrementAndGet);
+        Thread.sleep(100);
+        assertEquals(0, ejecutadas.get());
+    }
+}